@@ -0,0 +1,275 @@
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the requests in flight to one downstream service to a limit adjusted
+ * from the observed latency.
+ *
+ * The limit follows the gradient between the long term round trip time and the
+ * latest one: while latency stays at its usual level the limit grows by about
+ * its square root, when latency rises the limit shrinks in proportion, and a
+ * dropped request (timeout, connection failure, overload status) cuts it
+ * multiplicatively. The limit is only re-evaluated while at least half of it is
+ * in use, so an idle service does not inflate it. A request over the limit waits
+ * up to the queue wait, behind at most limit waiters, and is rejected otherwise.
+ *
+ * Each {@link Priority} has its own lane of waiters. Bulk requests hold at most
+ * the bulk share of the limit and are not admitted while interactive requests
+ * wait, so a freed slot always goes to an interactive request first.
+ *
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	private static final double TOLERANCE = 1.5;
+
+	private static final double SMOOTHING = 0.2;
+
+	private static final double BACKOFF = 0.9;
+
+	private static final double LONG_RTT_WEIGHT = 1.0 / 600;
+
+	private final int minLimit;
+
+	private final int maxLimit;
+
+	private final long maxQueueWaitNanos;
+
+	private final double bulkShare;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition released = lock.newCondition();
+
+	private final Map<Priority, LongAdder> rejected;
+
+	private volatile double limit;
+
+	private volatile int inFlight;
+
+	private volatile int bulkInFlight;
+
+	private volatile int interactiveWaiting;
+
+	private volatile int bulkWaiting;
+
+	private double longRtt;
+
+	/**
+	 * @param initialLimit
+	 * @param minLimit
+	 * @param maxLimit
+	 * @param maxQueueWaitMillis
+	 *            time in milliseconds a request over the limit waits for a slot
+	 *            before being rejected, 0 to reject at once
+	 * @param bulkShare
+	 *            share of the limit the bulk requests may hold, 1 to let them
+	 *            use all of it when no interactive request waits
+	 */
+	public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long maxQueueWaitMillis,
+			double bulkShare) {
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMillis);
+		this.bulkShare = bulkShare;
+		this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+		Map<Priority, LongAdder> rejectedByLane = new EnumMap<>(Priority.class);
+		for (Priority priority : Priority.values()) {
+			rejectedByLane.put(priority, new LongAdder());
+		}
+		this.rejected = Collections.unmodifiableMap(rejectedByLane);
+	}
+
+	/**
+	 * Take a slot in the lane of a priority, waiting up to the queue wait for
+	 * one
+	 *
+	 * @param priority
+	 * @return false when no slot became free in time
+	 */
+	public boolean acquire(Priority priority) {
+		return acquire(priority, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Take a slot in the lane of a priority, waiting up to the queue wait for
+	 * one
+	 *
+	 * @param priority
+	 * @param maxWaitNanos
+	 *            time the caller can wait at most, capping the queue wait
+	 * @return false when no slot became free in time
+	 */
+	public boolean acquire(Priority priority, long maxWaitNanos) {
+		long queueWaitNanos = Math.min(maxQueueWaitNanos, maxWaitNanos);
+		boolean bulk = priority == Priority.BULK;
+		lock.lock();
+		try {
+			if (admits(bulk)) {
+				take(bulk);
+				return true;
+			}
+			if (queueWaitNanos <= 0 || (bulk ? bulkWaiting : interactiveWaiting) >= (int) limit) {
+				rejected.get(priority).increment();
+				return false;
+			}
+			if (bulk) {
+				bulkWaiting++;
+			} else {
+				interactiveWaiting++;
+			}
+			try {
+				long remaining = queueWaitNanos;
+				while (!admits(bulk)) {
+					if (remaining <= 0) {
+						rejected.get(priority).increment();
+						return false;
+					}
+					remaining = released.awaitNanos(remaining);
+				}
+				take(bulk);
+				return true;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				rejected.get(priority).increment();
+				return false;
+			} finally {
+				if (bulk) {
+					bulkWaiting--;
+				} else {
+					interactiveWaiting--;
+					// the bulk requests may have waited behind this one
+					released.signalAll();
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Give back a slot taken by {@link #acquire(Priority)}
+	 *
+	 * @param priority
+	 *            priority the slot was taken with
+	 * @param rttNanos
+	 *            round trip time of the request
+	 * @param dropped
+	 *            whether the request timed out or was refused by an overloaded
+	 *            service
+	 */
+	public void release(Priority priority, long rttNanos, boolean dropped) {
+		lock.lock();
+		try {
+			int used = inFlight;
+			inFlight--;
+			if (priority == Priority.BULK) {
+				bulkInFlight--;
+			}
+			if (dropped) {
+				limit = Math.max(minLimit, limit * BACKOFF);
+			} else if (used >= limit / 2) {
+				limit = nextLimit(rttNanos);
+			}
+			released.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private boolean admits(boolean bulk) {
+		if (inFlight >= (int) limit) {
+			return false;
+		}
+		return !bulk || (interactiveWaiting == 0 && bulkInFlight < getBulkLimit());
+	}
+
+	private void take(boolean bulk) {
+		inFlight++;
+		if (bulk) {
+			bulkInFlight++;
+		}
+	}
+
+	private double nextLimit(long rttNanos) {
+		double rtt = Math.max(1, rttNanos);
+		if (longRtt == 0) {
+			longRtt = rtt;
+		} else {
+			longRtt += (rtt - longRtt) * LONG_RTT_WEIGHT;
+			if (longRtt > rtt * 2) {
+				// recovered from a slow period, forget it faster
+				longRtt *= 0.95;
+			}
+		}
+		double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / rtt));
+		double target = limit * gradient + Math.sqrt(limit);
+		double next = limit * (1 - SMOOTHING) + target * SMOOTHING;
+		return Math.max(minLimit, Math.min(maxLimit, next));
+	}
+
+	/**
+	 * @return the current limit of requests in flight
+	 */
+	public int getLimit() {
+		return (int) limit;
+	}
+
+	/**
+	 * @return the current limit of bulk requests in flight
+	 */
+	public int getBulkLimit() {
+		return Math.max(1, (int) (limit * bulkShare));
+	}
+
+	public int getInFlight() {
+		return inFlight;
+	}
+
+	/**
+	 * @param priority
+	 * @return number of requests of the lane in flight
+	 */
+	public int getInFlight(Priority priority) {
+		int bulk = bulkInFlight;
+		return priority == Priority.BULK ? bulk : inFlight - bulk;
+	}
+
+	/**
+	 * @param priority
+	 * @return number of requests of the lane waiting for a slot
+	 */
+	public int getWaiting(Priority priority) {
+		return priority == Priority.BULK ? bulkWaiting : interactiveWaiting;
+	}
+
+	/**
+	 * @param priority
+	 * @return share of the slots available to the lane in use, the whole
+	 *         limit for the interactive lane and the bulk limit for the bulk
+	 *         lane
+	 */
+	public double getUtilization(Priority priority) {
+		int available = priority == Priority.BULK ? getBulkLimit() : getLimit();
+		return available == 0 ? 0 : getInFlight(priority) / (double) available;
+	}
+
+	/**
+	 * @return number of requests rejected since the start
+	 */
+	public long getRejected() {
+		return rejected.values().stream().mapToLong(LongAdder::sum).sum();
+	}
+
+	/**
+	 * @param priority
+	 * @return number of requests of the lane rejected since the start
+	 */
+	public long getRejected(Priority priority) {
+		return rejected.get(priority).sum();
+	}
+}
@@ -0,0 +1,35 @@
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * Everything the order entry needs to know about a bill to party, fetched in one
+ * go by {@link BillToProfileService}
+ *
+ */
+@Data
+public class BillToProfile {
+
+	private String billToCode;
+
+	private Integer billToID;
+
+	private Map<String, Boolean> autoRateStatus;
+
+	private RatingCycleDTO ratingCycle;
+
+	private Map<String, Boolean> creditStatus;
+
+	private Map<String, Boolean> approvedSiteStatus;
+
+	private CustomerProfileDTO primaryReferenceNumber;
+
+	private CustomerDTO customerDetails;
+
+	/**
+	 * The individually cached and invalidatable parts of the bill to profile
+	 */
+	public enum Field {
+		AUTO_RATE_STATUS, RATING_CYCLE, CREDIT_STATUS, APPROVED_SITE_STATUS, PRIMARY_REFERENCE_NUMBER, CUSTOMER_DETAILS
+	}
+}
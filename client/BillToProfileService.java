@@ -0,0 +1,183 @@
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Builds the {@link BillToProfile} of a bill to party.
+ *
+ * The profile service calls behind the profile are made in parallel and every
+ * field is cached per bill to code, the credit status with its own shorter time
+ * to live. Only the missing or expired fields are fetched again. The cache
+ * admits new fields by lookup frequency ({@link TinyLfuCache}), so the one off
+ * bill tos of a bulk import do not evict the ones looked up all day.
+ * Invalidations go through the {@link CacheInvalidationBus}, so they reach
+ * every node, as does a fetched field whose JSON form differs from the one it
+ * replaces, see {@link SerializedForms}.
+ *
+ */
+@Slf4j
+@Component
+public class BillToProfileService {
+
+	private static final String CACHE_NAME = "billToProfile";
+
+	@Autowired
+	private ProfileClient profileClient;
+
+	@Autowired
+	private ProfileClientProperties profileClientProperties;
+
+	@Autowired
+	@Qualifier("profileClientExecutor")
+	private Executor profileClientExecutor;
+
+	@Autowired
+	private CacheInvalidationBus cacheInvalidationBus;
+
+	@Autowired
+	private ObjectProvider<MeterRegistry> meterRegistry;
+
+	private TinyLfuCache<String, Object> billToProfileCache;
+
+	@PostConstruct
+	public void init() {
+		billToProfileCache = new TinyLfuCache<>(profileClientProperties.getBillToProfileTimeToLive(),
+				profileClientProperties.getBillToProfileCacheSize(),
+				profileClientProperties.getProfileCacheAdmissionWindow());
+		billToProfileCache.bindTo(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), CACHE_NAME);
+		cacheInvalidationBus.register(CACHE_NAME, key -> {
+			if (key == null) {
+				billToProfileCache.invalidateAll();
+			} else {
+				billToProfileCache.invalidate(key);
+			}
+		});
+	}
+
+	/**
+	 * To find the bill to profile
+	 *
+	 * @param billtocode
+	 * @param billtoID
+	 * @return
+	 */
+	public BillToProfile findBillToProfile(String billtocode, Integer billtoID) {
+		log.debug("Bill to profile method to find the bill to profile of " + billtocode);
+		BillToProfile billToProfile = new BillToProfile();
+		billToProfile.setBillToCode(billtocode);
+		billToProfile.setBillToID(billtoID);
+
+		Map<BillToProfile.Field, CompletableFuture<Object>> pending = new EnumMap<>(BillToProfile.Field.class);
+		for (BillToProfile.Field field : BillToProfile.Field.values()) {
+			Object value = billToProfileCache.get(cacheKey(billtocode, field));
+			if (value != null) {
+				setField(billToProfile, field, value);
+			} else {
+				pending.put(field, CompletableFuture.supplyAsync(() -> fetch(field, billtocode, billtoID),
+						profileClientExecutor));
+			}
+		}
+		try {
+			CompletableFuture.allOf(pending.values().toArray(new CompletableFuture[pending.size()])).join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+		}
+		pending.forEach((field, future) -> {
+			Object value = future.join();
+			String key = cacheKey(billtocode, field);
+			Object replaced = billToProfileCache.put(key, value, timeToLive(field));
+			if (replaced != null && !SerializedForms.equal(replaced, value)) {
+				cacheInvalidationBus.changed(CACHE_NAME, key);
+			}
+			setField(billToProfile, field, value);
+		});
+		return billToProfile;
+	}
+
+	/**
+	 * Invalidate one cached field of a bill to profile on all the nodes
+	 *
+	 * @param billtocode
+	 * @param field
+	 */
+	public void invalidate(String billtocode, BillToProfile.Field field) {
+		cacheInvalidationBus.invalidate(CACHE_NAME, cacheKey(billtocode, field));
+	}
+
+	/**
+	 * Invalidate all the cached fields of a bill to profile on all the nodes
+	 *
+	 * @param billtocode
+	 */
+	public void invalidate(String billtocode) {
+		List<String> keys = new ArrayList<>();
+		for (BillToProfile.Field field : BillToProfile.Field.values()) {
+			keys.add(cacheKey(billtocode, field));
+		}
+		cacheInvalidationBus.invalidate(CACHE_NAME, keys);
+	}
+
+	private Object fetch(BillToProfile.Field field, String billtocode, Integer billtoID) {
+		switch (field) {
+		case AUTO_RATE_STATUS:
+			return profileClient.findAutoRateStatusByBillToCode(billtocode);
+		case RATING_CYCLE:
+			return profileClient.findRatingCycleCodeByBillCode(billtocode);
+		case CREDIT_STATUS:
+			return profileClient.findCreditStatusByBillToCode(billtoID);
+		case APPROVED_SITE_STATUS:
+			return profileClient.findApprovedSiteStatusByBillingParty(billtoID);
+		case PRIMARY_REFERENCE_NUMBER:
+			return profileClient.findPrimaryReferenceNumberByBillToCode(billtoID);
+		default:
+			return profileClient.findAllCustomerDetailsByBillToCode(billtocode);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void setField(BillToProfile billToProfile, BillToProfile.Field field, Object value) {
+		switch (field) {
+		case AUTO_RATE_STATUS:
+			billToProfile.setAutoRateStatus((Map<String, Boolean>) value);
+			break;
+		case RATING_CYCLE:
+			billToProfile.setRatingCycle((RatingCycleDTO) value);
+			break;
+		case CREDIT_STATUS:
+			billToProfile.setCreditStatus((Map<String, Boolean>) value);
+			break;
+		case APPROVED_SITE_STATUS:
+			billToProfile.setApprovedSiteStatus((Map<String, Boolean>) value);
+			break;
+		case PRIMARY_REFERENCE_NUMBER:
+			billToProfile.setPrimaryReferenceNumber((CustomerProfileDTO) value);
+			break;
+		default:
+			billToProfile.setCustomerDetails((CustomerDTO) value);
+		}
+	}
+
+	private long timeToLive(BillToProfile.Field field) {
+		return field == BillToProfile.Field.CREDIT_STATUS ? profileClientProperties.getCreditStatusTimeToLive()
+				: profileClientProperties.getBillToProfileTimeToLive();
+	}
+
+	private static String cacheKey(String billtocode, BillToProfile.Field field) {
+		return billtocode + ':' + field.name();
+	}
+}
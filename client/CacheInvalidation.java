@@ -0,0 +1,48 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keys of a cache invalidated on one node, broadcast to the other nodes by a
+ * {@link CacheInvalidationTransport}
+ *
+ */
+public final class CacheInvalidation {
+
+	private final String origin;
+
+	private final String cache;
+
+	private final List<String> keys;
+
+	/**
+	 * @param origin
+	 *            ID of the node the keys were invalidated on
+	 * @param cache
+	 * @param keys
+	 *            keys invalidated, empty when the whole cache was
+	 */
+	public CacheInvalidation(String origin, String cache, List<String> keys) {
+		this.origin = origin;
+		this.cache = cache;
+		this.keys = Collections.unmodifiableList(keys);
+	}
+
+	public String getOrigin() {
+		return origin;
+	}
+
+	public String getCache() {
+		return cache;
+	}
+
+	public List<String> getKeys() {
+		return keys;
+	}
+
+	/**
+	 * @return whether the whole cache was invalidated
+	 */
+	public boolean isAll() {
+		return keys.isEmpty();
+	}
+}
@@ -0,0 +1,199 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the near caches of the client nodes consistent: keys invalidated on
+ * one node are invalidated in its own caches and broadcast to the other nodes,
+ * which invalidate them in theirs. A node which fetched a value different from
+ * the one it had cached broadcasts its key as changed, so the other nodes drop
+ * their copy instead of serving it until it expires.
+ *
+ * Caches register an invalidator under their name. Invalidations of a name
+ * with no registered invalidator clear the whole cache of that name of
+ * orderManagementReferenceDataCacheManager, if any, its keys being the method
+ * arguments rather than the strings broadcast. Received invalidations are
+ * applied locally only, never broadcast again.
+ *
+ * The transport is the {@link CacheInvalidationTransport} bean when one is
+ * defined, authenticated UDP datagrams to client.cache-invalidation.peers when
+ * some are configured, and else a {@link LocalCacheInvalidationBroker}.
+ *
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus {
+
+	private final String nodeId;
+
+	private final CacheInvalidationTransport transport;
+
+	private final ObjectProvider<CacheManager> cacheManager;
+
+	private final Map<String, Consumer<String>> invalidators = new ConcurrentHashMap<>();
+
+	private final Counter sent;
+
+	private final Counter received;
+
+	/**
+	 * @param properties
+	 * @param transport
+	 * @param cacheManager
+	 * @param meterRegistry
+	 * @throws IOException
+	 */
+	public CacheInvalidationBus(CacheInvalidationProperties properties,
+			ObjectProvider<CacheInvalidationTransport> transport,
+			@Qualifier("orderManagementReferenceDataCacheManager") ObjectProvider<CacheManager> cacheManager,
+			ObjectProvider<MeterRegistry> meterRegistry) throws IOException {
+		this.nodeId = properties.getNodeId();
+		CacheInvalidationTransport defined = transport.getIfAvailable();
+		this.transport = defined != null ? defined : createTransport(properties);
+		this.cacheManager = cacheManager;
+		MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+		this.sent = Counter.builder("client.cache.invalidations.sent").register(registry);
+		this.received = Counter.builder("client.cache.invalidations.received").register(registry);
+		this.transport.subscribe(this::receive);
+	}
+
+	/**
+	 * @param cache
+	 * @param invalidator
+	 *            invalidates one key of the cache on this node, or the whole
+	 *            cache when given null
+	 */
+	public void register(String cache, Consumer<String> invalidator) {
+		invalidators.put(cache, invalidator);
+	}
+
+	/**
+	 * Invalidate one key of a cache on all the nodes
+	 *
+	 * @param cache
+	 * @param key
+	 */
+	public void invalidate(String cache, String key) {
+		invalidate(cache, Collections.singletonList(key));
+	}
+
+	/**
+	 * Invalidate keys of a cache on all the nodes
+	 *
+	 * @param cache
+	 * @param keys
+	 */
+	public void invalidate(String cache, Collection<String> keys) {
+		if (!keys.isEmpty()) {
+			CacheInvalidation invalidation = new CacheInvalidation(nodeId, cache, new ArrayList<>(keys));
+			apply(invalidation);
+			publish(invalidation);
+		}
+	}
+
+	/**
+	 * Invalidate one key of a cache on the other nodes, this node having just
+	 * cached a new value for it
+	 *
+	 * @param cache
+	 * @param key
+	 */
+	public void changed(String cache, String key) {
+		publish(new CacheInvalidation(nodeId, cache, Collections.singletonList(key)));
+	}
+
+	/**
+	 * Invalidate a whole cache on all the nodes
+	 *
+	 * @param cache
+	 */
+	public void invalidateAll(String cache) {
+		CacheInvalidation invalidation = new CacheInvalidation(nodeId, cache, Collections.emptyList());
+		apply(invalidation);
+		publish(invalidation);
+	}
+
+	@PreDestroy
+	public void close() throws IOException {
+		transport.close();
+	}
+
+	private void publish(CacheInvalidation invalidation) {
+		try {
+			transport.publish(invalidation);
+			sent.increment();
+		} catch (IOException e) {
+			log.warn("Cannot broadcast the invalidation of {}, peers keep it until it expires",
+					invalidation.getCache(), e);
+		}
+	}
+
+	private void receive(CacheInvalidation invalidation) {
+		if (!nodeId.equals(invalidation.getOrigin())) {
+			received.increment();
+			apply(invalidation);
+		}
+	}
+
+	private void apply(CacheInvalidation invalidation) {
+		Consumer<String> invalidator = invalidators.get(invalidation.getCache());
+		if (invalidator == null) {
+			invalidator = springCacheInvalidator(invalidation.getCache());
+		}
+		if (invalidator == null) {
+			log.debug("No cache {} to invalidate", invalidation.getCache());
+		} else if (invalidation.isAll()) {
+			invalidator.accept(null);
+		} else {
+			invalidation.getKeys().forEach(invalidator);
+		}
+	}
+
+	private Consumer<String> springCacheInvalidator(String name) {
+		CacheManager manager = cacheManager.getIfAvailable();
+		Cache cache = manager == null || !manager.getCacheNames().contains(name) ? null : manager.getCache(name);
+		if (cache == null) {
+			return null;
+		}
+		return key -> cache.clear();
+	}
+
+	private static CacheInvalidationTransport createTransport(CacheInvalidationProperties properties)
+			throws IOException {
+		if (properties.getPeers().isEmpty()) {
+			return new LocalCacheInvalidationBroker().connect();
+		}
+		List<InetSocketAddress> peers = new ArrayList<>();
+		for (String peer : properties.getPeers()) {
+			int colon = peer.lastIndexOf(':');
+			peers.add(new InetSocketAddress(peer.substring(0, colon), Integer.parseInt(peer.substring(colon + 1))));
+		}
+		if (properties.getBindAddress() == null || properties.getSecret() == null) {
+			throw new IllegalStateException("client.cache-invalidation.bind-address and secret must be set"
+					+ " to broadcast the invalidations to client.cache-invalidation.peers");
+		}
+		log.info("Cache invalidations of node {} broadcast to {}", properties.getNodeId(), peers);
+		return new UdpCacheInvalidationTransport(new InetSocketAddress(properties.getBindAddress(),
+				properties.getPort()), peers, properties.getSecret().getBytes(StandardCharsets.UTF_8));
+	}
+}
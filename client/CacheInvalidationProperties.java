@@ -0,0 +1,47 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Properties of the {@link CacheInvalidationBus}
+ *
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "client.cache-invalidation")
+public class CacheInvalidationProperties {
+
+	/**
+	 * ID of this node, telling its own invalidations apart
+	 */
+	private String nodeId = UUID.randomUUID().toString();
+
+	/**
+	 * Local address the invalidations of the peers are received on, required
+	 * with peers
+	 */
+	private String bindAddress;
+
+	/**
+	 * Local UDP port the invalidations of the peers are received on
+	 */
+	private int port = 7845;
+
+	/**
+	 * Secret shared by the nodes, authenticating their datagrams, required
+	 * with peers
+	 */
+	private String secret;
+
+	/**
+	 * host:port of the other nodes; when empty, and no
+	 * {@link CacheInvalidationTransport} bean is defined, invalidations stay
+	 * local to this node
+	 */
+	private List<String> peers = new ArrayList<>();
+}
@@ -0,0 +1,27 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Channel carrying the {@link CacheInvalidation}s of a node to its peers.
+ *
+ * Delivery is best effort: an invalidation lost on the way leaves the value
+ * cached on the peer until its time to live expires.
+ *
+ */
+public interface CacheInvalidationTransport extends Closeable {
+
+	/**
+	 * Send an invalidation to the peers
+	 *
+	 * @param invalidation
+	 * @throws IOException
+	 */
+	void publish(CacheInvalidation invalidation) throws IOException;
+
+	/**
+	 * @param listener
+	 *            called with the invalidations received from the peers
+	 */
+	void subscribe(Consumer<CacheInvalidation> listener);
+}
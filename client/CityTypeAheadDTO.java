@@ -0,0 +1,44 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Data;
+
+/**
+ * Origin/destination city returned by the city type ahead searches.
+ *
+ * Members not mapped to a field are kept in {@link #getOtherMembers()}, so
+ * none is lost when the page is turned back into a Map.
+ *
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CityTypeAheadDTO {
+
+	private Integer cityID;
+
+	private String city;
+
+	private String state;
+
+	private String zipcode;
+
+	private String country;
+
+	private Map<String, Object> otherMembers = new LinkedHashMap<>();
+
+	@JsonAnyGetter
+	public Map<String, Object> getOtherMembers() {
+		return otherMembers;
+	}
+
+	@JsonAnySetter
+	public void setOtherMember(String name, Object value) {
+		otherMembers.put(name, value);
+	}
+}
@@ -0,0 +1,167 @@
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Context of the client calls made by the current thread: their
+ * {@link Priority}, {@link Priority#INTERACTIVE} unless a bulk job says
+ * otherwise, and the deadline of the flow they are part of, if any:
+ *
+ * <pre>
+ * try (ClientCallContext.Scope scope = ClientCallContext.withDeadline(2000)) {
+ * 	orderClient.saveEquipment(...);
+ * 	profileClient.findTimeZoneByLocationCode(...);
+ * }
+ * </pre>
+ *
+ * Every call through {@link ClientExchange} caps its timeouts to the time left
+ * before the deadline, is aborted if still running when it passes, and fails
+ * with a {@link DeadlineExceededException} without being sent once it has
+ * passed. Only the calls of the pooled transport can be aborted; the others
+ * end at their capped timeouts, which bound each wait but not their sum.
+ *
+ * Tasks handed to another thread keep the context of the thread submitting
+ * them when wrapped by {@link #wrap(Runnable)}, which is the task decorator of
+ * the profile client executor.
+ *
+ */
+public final class ClientCallContext {
+
+	private static final ThreadLocal<State> STATE = new ThreadLocal<>();
+
+	private static final State DEFAULT = new State(Priority.INTERACTIVE, false, 0);
+
+	private ClientCallContext() {
+	}
+
+	/**
+	 * @return the priority of the calls of this thread
+	 */
+	public static Priority priority() {
+		return state().priority;
+	}
+
+	/**
+	 * @return whether the calls of this thread have a deadline
+	 */
+	public static boolean hasDeadline() {
+		return state().hasDeadline;
+	}
+
+	/**
+	 * @return the time left before the deadline of this thread, negative once
+	 *         passed, Long.MAX_VALUE without deadline
+	 */
+	public static long remainingNanos() {
+		State state = state();
+		return state.hasDeadline ? state.deadline - System.nanoTime() : Long.MAX_VALUE;
+	}
+
+	/**
+	 * @return whether the deadline of this thread has passed
+	 */
+	public static boolean isExpired() {
+		return remainingNanos() <= 0;
+	}
+
+	/**
+	 * Make the calls of this thread with a priority until the scope is closed
+	 *
+	 * @param priority
+	 * @return the scope restoring the previous context when closed
+	 */
+	public static Scope withPriority(Priority priority) {
+		State state = state();
+		return enter(new State(priority, state.hasDeadline, state.deadline));
+	}
+
+	/**
+	 * Give the calls of this thread a deadline until the scope is closed; an
+	 * earlier deadline already set is kept
+	 *
+	 * @param timeoutMillis
+	 *            time left to the flow from now
+	 * @return the scope restoring the previous context when closed
+	 */
+	public static Scope withDeadline(long timeoutMillis) {
+		State state = state();
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		if (state.hasDeadline && state.deadline - deadline < 0) {
+			deadline = state.deadline;
+		}
+		return enter(new State(state.priority, true, deadline));
+	}
+
+	/**
+	 * @param task
+	 * @return the task running with the context of this thread
+	 */
+	public static Runnable wrap(Runnable task) {
+		State state = state();
+		return () -> {
+			try (Scope scope = enter(state)) {
+				task.run();
+			}
+		};
+	}
+
+	/**
+	 * @param task
+	 * @return the task running with the context of this thread
+	 */
+	public static <T> Supplier<T> wrap(Supplier<T> task) {
+		State state = state();
+		return () -> {
+			try (Scope scope = enter(state)) {
+				return task.get();
+			}
+		};
+	}
+
+	private static State state() {
+		State state = STATE.get();
+		return state == null ? DEFAULT : state;
+	}
+
+	private static Scope enter(State state) {
+		State previous = STATE.get();
+		STATE.set(state);
+		return new Scope(previous);
+	}
+
+	/**
+	 * Context set on a thread, restoring the previous one when closed
+	 *
+	 */
+	public static final class Scope implements AutoCloseable {
+
+		private final State previous;
+
+		private Scope(State previous) {
+			this.previous = previous;
+		}
+
+		@Override
+		public void close() {
+			if (previous == null) {
+				STATE.remove();
+			} else {
+				STATE.set(previous);
+			}
+		}
+	}
+
+	private static final class State {
+
+		private final Priority priority;
+
+		private final boolean hasDeadline;
+
+		private final long deadline;
+
+		private State(Priority priority, boolean hasDeadline, long deadline) {
+			this.priority = priority;
+			this.hasDeadline = hasDeadline;
+			this.deadline = deadline;
+		}
+	}
+}
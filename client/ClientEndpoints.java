@@ -0,0 +1,318 @@
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Registry of the precompiled endpoints called by {@link OrderClient},
+ * {@link OrderReferenceDataClient} and {@link ProfileClient}
+ *
+ */
+public final class ClientEndpoints {
+
+	private static final List<Endpoint> ALL = new ArrayList<>();
+
+	// order
+
+	public static final Endpoint CHARGES_BY_ORDER_ID = register(
+			Endpoint.get(Downstream.ORDER, "/orders/{orderId}/charges"));
+
+	public static final Endpoint COMMENTS_BY_ORDER_ID = register(
+			Endpoint.get(Downstream.ORDER, "/orders/{orderId}/comments"));
+
+	public static final Endpoint REFERENCE_NUMBERS_BY_ORDER_ID = register(
+			Endpoint.get(Downstream.ORDER, "/orders/{orderId}/referencenumbers"));
+
+	public static final Endpoint VALIDATE_COMPANY_TRAILER = register(
+			Endpoint.get(Downstream.ORDER, "/equipments/validatecompanytrailer/{trailerprefix}/{trailernumber}"));
+
+	public static final Endpoint ITEMS_BY_ORDER_ID_AND_STOP_ID = register(
+			Endpoint.get(Downstream.ORDER, "/orders/{orderId}/stops/{stopId}/items"));
+
+	public static final Endpoint TRAILER_AVAILABILITY_STATUS = register(
+			Endpoint.get(Downstream.ORDER, "/equipments/traileravailabilitystatus/{trailerPrefix}/{trailerNumber}"));
+
+	public static final Endpoint ORDER_CREATION = register(Endpoint.post(Downstream.ORDER, "/orders/ordercreation"));
+
+	public static final Endpoint ORDERS = register(Endpoint.post(Downstream.ORDER, "/orders"));
+
+	public static final Endpoint ORDER_ASSOCIATED_PARTIES = register(
+			Endpoint.post(Downstream.ORDER, "/orderAssociatedParties"));
+
+	public static final Endpoint ORDER_EQUIPMENT_REQUIREMENT_FEATURE_ASSOCIATIONS = register(
+			Endpoint.post(Downstream.ORDER, "/orderEquipmentRequirementFeatureAssociations"));
+
+	public static final Endpoint ORDER_EQUIPMENT_REQUIREMENT_SPECIFICATION_ASSOCIATIONS = register(
+			Endpoint.post(Downstream.ORDER, "/orderEquipmentRequirementSpecificationAssociations"));
+
+	public static final Endpoint ORDER_EQUIPMENT_REQUIREMENT_SPECIFICATION_DETAILS = register(
+			Endpoint.post(Downstream.ORDER, "/orderEquipmentRequirementSpecificationDetails"));
+
+	public static final Endpoint ORDER_CROSS_BORDER_DETAILS = register(
+			Endpoint.post(Downstream.ORDER, "/orderCrossBorderDetails"));
+
+	public static final Endpoint ORDER_SERVICES = register(Endpoint.post(Downstream.ORDER, "/orderServices"));
+
+	public static final Endpoint ORDER_CHARGES = register(Endpoint.post(Downstream.ORDER, "/orderCharges"));
+
+	public static final Endpoint COPY_ORDER = register(Endpoint.get(Downstream.ORDER, "/orders/{orderId}/copyorder"));
+
+	public static final Endpoint ORDER_EQUIPMENT_REQUIREMENTS = register(
+			Endpoint.post(Downstream.ORDER, "/orderEquipmentRequirements"));
+
+	public static final Endpoint ORDER_COMMENTS = register(Endpoint.post(Downstream.ORDER, "/orderComments"));
+
+	public static final Endpoint ORDER_REFERENCE_NUMBERS = register(
+			Endpoint.post(Downstream.ORDER, "/orderReferenceNumbers"));
+
+	public static final Endpoint STOPS = register(Endpoint.post(Downstream.ORDER, "/stops"));
+
+	public static final Endpoint STOP_CHARGES = register(Endpoint.post(Downstream.ORDER, "/stopCharges"));
+
+	public static final Endpoint STOP_COMMENTS = register(Endpoint.post(Downstream.ORDER, "/stopComments"));
+
+	public static final Endpoint STOP_REFERENCE_NUMBERS = register(
+			Endpoint.post(Downstream.ORDER, "/stopReferenceNumbers"));
+
+	public static final Endpoint ORDER_MATERIAL_HANDLING_REQUIREMENT_ASSOCIATIONS = register(
+			Endpoint.post(Downstream.ORDER, "/orderMaterialHandlingRequirementAssociations"));
+
+	public static final Endpoint STOP_SERVICES = register(Endpoint.post(Downstream.ORDER, "/stopServices"));
+
+	public static final Endpoint REQUESTED_APPOINTMENT_INSTRUCTION_ASSOCIATIONS = register(
+			Endpoint.post(Downstream.ORDER, "/requestedAppointmentInstructionAssociations"));
+
+	public static final Endpoint LATEST_UNIFIED_CUSTOMER_REQUEST = register(Endpoint.get(Downstream.ORDER,
+			"/orderUnifiedCustomerRequestAssociations?order.orderID={orderId}&sort=unifiedCustomerRequestID,desc"));
+
+	// order updates, the variable of each template is the id property of the entity
+
+	public static final Endpoint ORDER_ASSOCIATED_PARTY = register(
+			Endpoint.patch(Downstream.ORDER, "/orderAssociatedParties/{orderAssociatedPartyID}"));
+
+	public static final Endpoint ORDER_EQUIPMENT_REQUIREMENT_FEATURE_ASSOCIATION = register(
+			Endpoint.patch(Downstream.ORDER,
+					"/orderEquipmentRequirementFeatureAssociations/{orderEquipmentRequirementFeatureAssociationID}"));
+
+	public static final Endpoint ORDER_EQUIPMENT_REQUIREMENT_SPECIFICATION_ASSOCIATION = register(
+			Endpoint.patch(Downstream.ORDER,
+					"/orderEquipmentRequirementSpecificationAssociations/{orderEquipmentRequirementSpecificationAssociationID}"));
+
+	public static final Endpoint ORDER_EQUIPMENT_REQUIREMENT_SPECIFICATION_DETAIL = register(
+			Endpoint.patch(Downstream.ORDER,
+					"/orderEquipmentRequirementSpecificationDetails/{orderEquipmentRequirementSpecificationDetailID}"));
+
+	public static final Endpoint ORDER_CROSS_BORDER_DETAIL = register(
+			Endpoint.patch(Downstream.ORDER, "/orderCrossBorderDetails/{orderCrossBorderDetailID}"));
+
+	public static final Endpoint ORDER_SERVICE = register(
+			Endpoint.patch(Downstream.ORDER, "/orderServices/{orderServiceID}"));
+
+	public static final Endpoint ORDER_CHARGE = register(
+			Endpoint.patch(Downstream.ORDER, "/orderCharges/{orderChargeID}"));
+
+	public static final Endpoint ORDER_EQUIPMENT_REQUIREMENT = register(
+			Endpoint.patch(Downstream.ORDER, "/orderEquipmentRequirements/{orderEquipmentRequirementID}"));
+
+	public static final Endpoint ORDER_COMMENT = register(
+			Endpoint.patch(Downstream.ORDER, "/orderComments/{orderCommentID}"));
+
+	public static final Endpoint ORDER_REFERENCE_NUMBER = register(
+			Endpoint.patch(Downstream.ORDER, "/orderReferenceNumbers/{orderReferenceNumberID}"));
+
+	public static final Endpoint STOP = register(Endpoint.patch(Downstream.ORDER, "/stops/{stopID}"));
+
+	public static final Endpoint STOP_CHARGE = register(
+			Endpoint.patch(Downstream.ORDER, "/stopCharges/{stopChargeID}"));
+
+	public static final Endpoint STOP_COMMENT = register(
+			Endpoint.patch(Downstream.ORDER, "/stopComments/{stopCommentID}"));
+
+	public static final Endpoint STOP_REFERENCE_NUMBER = register(
+			Endpoint.patch(Downstream.ORDER, "/stopReferenceNumbers/{stopReferenceNumberID}"));
+
+	public static final Endpoint ORDER_MATERIAL_HANDLING_REQUIREMENT_ASSOCIATION = register(
+			Endpoint.patch(Downstream.ORDER,
+					"/orderMaterialHandlingRequirementAssociations/{orderMaterialHandlingRequirementAssociationID}"));
+
+	public static final Endpoint STOP_SERVICE = register(
+			Endpoint.patch(Downstream.ORDER, "/stopServices/{stopServiceID}"));
+
+	public static final Endpoint REQUESTED_APPOINTMENT_INSTRUCTION_ASSOCIATION = register(
+			Endpoint.patch(Downstream.ORDER,
+					"/requestedAppointmentInstructionAssociations/{requestedAppointmentInstructionAssociationID}"));
+
+	// reference data
+
+	public static final Endpoint COMMENT_TYPES = register(
+			Endpoint.get(Downstream.REFERENCE_DATA, "/commentTypes/search/findByCommentTypeCodeNotIn"));
+
+	public static final Endpoint COMMENT_TEMPLATES_BY_COMMENT_TYPE = register(
+			Endpoint.get(Downstream.REFERENCE_DATA, "/commentTemplates?commentTypeCode={commentTypeCode}"));
+
+	public static final Endpoint SERVICE_TYPES_BY_SERVICE_CATEGORY = register(Endpoint.get(Downstream.REFERENCE_DATA,
+			"/serviceTypes/search/findByServiceCategoryServiceCategoryCode?serviceCategoryCode={serviceCategoryCode}"));
+
+	public static final Endpoint BOND_HOLDERS_BY_CRITERIA = register(Endpoint.get(Downstream.REFERENCE_DATA,
+			"/bondholder/search/findbondholdersbycriteria?businessUnit={businessUnit}&transitMode={transitMode}"));
+
+	public static final Endpoint BOND_HOLDER = register(
+			Endpoint.get(Downstream.REFERENCE_DATA, "/Bondholders/{bondHolderCode}"));
+
+	public static final Endpoint BOND_TYPE = register(
+			Endpoint.get(Downstream.REFERENCE_DATA, "/Bondtypes/{bondTypeCode}"));
+
+	public static final Endpoint COMMENT_TYPE = register(
+			Endpoint.get(Downstream.REFERENCE_DATA, "/commenttypes/{commentTypeCode}"));
+
+	public static final Endpoint STOP_REASON = register(
+			Endpoint.get(Downstream.REFERENCE_DATA, "/commenttypes/{stopReasonCode}"));
+
+	public static final Endpoint ORDER_CHANNEL = register(
+			Endpoint.get(Downstream.REFERENCE_DATA, "/orderchannels/{orderChannelCode}"));
+
+	public static final Endpoint REQUESTED_APPOINTMENT_TYPE = register(Endpoint.get(Downstream.REFERENCE_DATA,
+			"/requestedappointmenttypes/{requestedAppointmentTypeCode}"));
+
+	public static final Endpoint APPOINTMENT_INSTRUCTION = register(Endpoint.get(Downstream.REFERENCE_DATA,
+			"/appointmentinstructiontexts/{appointmentInstructionID}"));
+
+	public static final Endpoint APPOINTMENT_INSTRUCTIONS = register(
+			Endpoint.get(Downstream.REFERENCE_DATA, "/appointmentInstructions"));
+
+	public static final Endpoint REQUESTED_APPOINTMENT_TYPES = register(
+			Endpoint.get(Downstream.REFERENCE_DATA, "/requestedAppointmentTypes"));
+
+	public static final Endpoint STOP_REASONS = register(Endpoint.get(Downstream.REFERENCE_DATA, "/stopReasons"));
+
+	public static final Endpoint BOND_TYPES = register(Endpoint.get(Downstream.REFERENCE_DATA, "/bondTypes"));
+
+	public static final Endpoint ORDER_CHANNELS = register(Endpoint.get(Downstream.REFERENCE_DATA, "/orderChannels"));
+
+	// profile location
+
+	public static final Endpoint TIME_ZONE_BY_LOCATION_CODE = register(
+			Endpoint.get(Downstream.PROFILE_LOCATION, "/timezone/search/findbylocationcode/{locationcode}"));
+
+	public static final Endpoint VALIDATE_MARKETING_AREA = register(
+			Endpoint.get(Downstream.PROFILE_LOCATION, "/locations/validatemarketingarea/{marketingarea}"));
+
+	public static final Endpoint FACILITY_OVERVIEW_REQUIREMENTS = register(
+			Endpoint.get(Downstream.PROFILE_LOCATION, "/facilityoverviewrequirements/{locationcode}"));
+
+	public static final Endpoint CONTACTS = register(Endpoint.post(Downstream.PROFILE_LOCATION, "/contacts"));
+
+	public static final Endpoint GENERAL_INSTRUCTIONS = register(
+			Endpoint.post(Downstream.PROFILE_LOCATION, "/generalinstructions"));
+
+	public static final Endpoint CUSTOMER_DIRECTIONS = register(
+			Endpoint.post(Downstream.PROFILE_LOCATION, "/customerdirections"));
+
+	public static final Endpoint VALIDATE_EQUIPMENT_SPECIFICATION = register(Endpoint.get(Downstream.PROFILE_LOCATION,
+			"/equipments/validateequipmentspecification", "equipmentlength", "equipmenttype", "locations"));
+
+	public static final Endpoint CITY_TYPE_AHEAD_BY_ZIP_CODE = register(Endpoint.get(Downstream.PROFILE_LOCATION,
+			"/cities/search/typeahead/findbyzipcode", "zipcode", "size", "page"));
+
+	public static final Endpoint LOCATION_PROFILE_BY_LOCATION_CODE = register(
+			Endpoint.get(Downstream.PROFILE_LOCATION, "/locations/search/findbylocationcode/{locationcode}"));
+
+	public static final Endpoint LOCATION_PROFILE_BY_LOCATION_CODE_WITH_PROJECTION = register(Endpoint.get(
+			Downstream.PROFILE_LOCATION, "/locations/search/findbylocationcode/{locationcode}?projection={projection}"));
+
+	public static final Endpoint EXIT_PORTS = register(Endpoint.get(Downstream.PROFILE_LOCATION, "/exitports"));
+
+	public static final Endpoint ENTRY_PORTS_BY_EXIT_PORT = register(
+			Endpoint.get(Downstream.PROFILE_LOCATION, "/entryports/search/findbyexitport/{exitportcode}"));
+
+	public static final Endpoint ENTRY_PORTS = register(Endpoint.get(Downstream.PROFILE_LOCATION, "/entryports"));
+
+	public static final Endpoint EXIT_PORTS_BY_ENTRY_PORT = register(
+			Endpoint.get(Downstream.PROFILE_LOCATION, "/exitports/search/findbyentryport/{entryportcode}"));
+
+	public static final Endpoint MARKETING_AREA_BY_LOCATION_CODE = register(
+			Endpoint.get(Downstream.PROFILE_LOCATION, "/marketingareas/search/findbylocationcode/{locationcode}"));
+
+	public static final Endpoint CITY_TYPE_AHEAD_BY_CITY = register(Endpoint.get(Downstream.PROFILE_LOCATION,
+			"/cities/search/typeahead/findbycity", "city", "size", "page"));
+
+	public static final Endpoint PROFILE_DETAILS = register(
+			Endpoint.post(Downstream.PROFILE_LOCATION, "/profiles/search/findPartyDetails"));
+
+	public static final Endpoint PARTY_CODE_DETAILS = register(
+			Endpoint.post(Downstream.PROFILE_LOCATION, "/profiles/search/findPartyCodeDetails"));
+
+	// profile customer
+
+	public static final Endpoint CLEARING_COUNTRIES = register(
+			Endpoint.get(Downstream.PROFILE_CUSTOMER, "/clearingcountries"));
+
+	public static final Endpoint AUTO_RATE_STATUS_BY_BILLING_PARTY = register(
+			Endpoint.get(Downstream.PROFILE_CUSTOMER, "/profiles/autorate/search/findbybillingparty/{billtocode}"));
+
+	public static final Endpoint PRIMARY_REFERENCE_BY_BILLING_PARTY = register(Endpoint.get(
+			Downstream.PROFILE_CUSTOMER, "/profiles/primaryreference/search/findbybillingparty/{billtocode}"));
+
+	public static final Endpoint CONTACT_METHODS = register(
+			Endpoint.get(Downstream.PROFILE_CUSTOMER, "/contactmethods"));
+
+	public static final Endpoint RATING_CYCLE_CODE_BY_BILLING_PARTY = register(Endpoint.get(
+			Downstream.PROFILE_CUSTOMER, "/profiles/ratingcyclecode/search/findbybillingparty/{billtocode}"));
+
+	public static final Endpoint OUTSOURCING_BY_SOLICITOR = register(
+			Endpoint.get(Downstream.PROFILE_CUSTOMER, "/profiles/outsourcing/search/findbysolicitor/{solicitorcode}"));
+
+	public static final Endpoint CUSTOMERS_BY_BILLING_PARTY = register(
+			Endpoint.get(Downstream.PROFILE_CUSTOMER, "/customers/search/findbybillingparty/{billtocode}"));
+
+	public static final Endpoint CONTACT_TITLES = register(Endpoint.get(Downstream.PROFILE_CUSTOMER, "/contacttitles"));
+
+	public static final Endpoint PROFILE_CONTACTS_BY_CRITERIA = register(Endpoint.get(Downstream.PROFILE_CUSTOMER,
+			"/profiles/contacts/search/findbycriteria", "code", ProfileClient.ROLETYPE, ProfileClient.ACTIVE));
+
+	public static final Endpoint APPROVAL_STATUS_BY_BILLING_PARTY = register(
+			Endpoint.get(Downstream.PROFILE_CUSTOMER, "/profiles/approvalstatus/{billtocode}"));
+
+	public static final Endpoint CREDIT_STATUS_BY_BILLING_PARTY = register(
+			Endpoint.get(Downstream.PROFILE_CUSTOMER, "/profiles/creditstatus/nationalaccount/{billtocode}"));
+
+	public static final Endpoint PROFILE_TYPE_AHEAD_BY_CRITERIA = register(Endpoint.get(Downstream.PROFILE_CUSTOMER,
+			"/profiles/search/typeahead/findbycriteria", "value", ProfileClient.ROLETYPE, "page", "size", "approved",
+			"addresstype", ProfileClient.ACTIVE));
+
+	public static final Endpoint PROFILES_BY_CRITERIA = register(Endpoint.get(Downstream.PROFILE_CUSTOMER,
+			"/profiles/search/findbycriteria", "code", "name", "phoneNumber", "city", "state", ProfileClient.ROLETYPE,
+			ProfileClient.ACTIVE, "approved", "addresstype"));
+
+	private ClientEndpoints() {
+	}
+
+	/**
+	 * @return all the registered endpoints
+	 */
+	public static List<Endpoint> all() {
+		return Collections.unmodifiableList(ALL);
+	}
+
+	/**
+	 * @param name
+	 *            name of the endpoint constant
+	 * @return the endpoint
+	 */
+	public static Endpoint named(String name) {
+		try {
+			Field field = ClientEndpoints.class.getField(name);
+			if (field.getType() == Endpoint.class) {
+				return (Endpoint) field.get(null);
+			}
+		} catch (NoSuchFieldException | IllegalAccessException e) {
+			throw new IllegalArgumentException("Unknown endpoint " + name, e);
+		}
+		throw new IllegalArgumentException("Unknown endpoint " + name);
+	}
+
+	private static Endpoint register(Endpoint endpoint) {
+		ALL.add(endpoint);
+		return endpoint;
+	}
+}
@@ -0,0 +1,614 @@
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Executes the client calls of one RestTemplate with readers resolved once per
+ * {@link ResponseType}.
+ *
+ * The RestTemplate looks for a message converter and resolves the Jackson type
+ * again on every call. Here the Jackson converter able to read a response type is
+ * looked up the first time the type is used and its ObjectReader, together with
+ * the Accept header, is kept for the later calls; request bodies are written
+ * with an ObjectWriter kept per body class. The calls still go through the
+ * request factory, interceptors and error handler of the RestTemplate.
+ *
+ * Every response is read with the ObjectReader of the first Jackson converter
+ * supporting its Content-Type, like the RestTemplate would pick the converter,
+ * and with the first Jackson converter reading the type when the Content-Type
+ * is missing or none supports it. The binary endpoints ask for Smile first and
+ * JSON next, so a service answering in JSON is still read; without a Smile
+ * converter Smile is read with the configuration of the first reader, so the
+ * same DTOs, mixins and HAL support apply. Request bodies are always JSON.
+ * Responses with a status code outside of {@link HttpStatus} keep their raw
+ * status code.
+ *
+ * Calls take a slot of the {@link AdaptiveConcurrencyLimiter} of their
+ * downstream service, in the lane of the {@link ClientCallContext#priority()}
+ * of the calling thread, and fail with a
+ * {@link ConcurrencyLimitExceededException} when none is available in time.
+ * Timeouts, connection failures and 429, 503 or 504 responses count as dropped
+ * requests for the limiter, unless the deadline of the call had passed.
+ *
+ * A call whose {@link ClientCallContext} deadline has passed fails with a
+ * {@link DeadlineExceededException} without being sent; the limiter wait and,
+ * with the pooled transport, the timeouts of the other calls are capped to the
+ * time left, and a pooled call still running when the deadline passes is
+ * aborted by a timer and fails with a DeadlineExceededException too.
+ *
+ * Latency, body read time, bytes sent and received and failures of every call
+ * are recorded in the {@link EndpointMetrics} of its endpoint. The body read
+ * time runs from the first byte of the response body to the decoded value, so
+ * it includes the transfer of the rest of the body. Besides the request
+ * callback the RestTemplate needs, a call allocates a counting stream around
+ * each body it sends or reads; the recording itself allocates nothing. The
+ * endpoint of the call in progress is available to the RestTemplate
+ * interceptors through {@link #currentEndpoint()}.
+ *
+ * The interactive calls of the endpoints hedged by the {@link RequestHedger}
+ * may send a second request; each request takes its own limiter slot, a primary request
+ * aborted for its hedge not counting as dropped, and the call is recorded
+ * once, with the latency seen by the caller.
+ *
+ */
+public class ClientExchange {
+
+	private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+	private static final SmileFactory SMILE_FACTORY = new SmileFactory();
+
+	private static final ThreadLocal<Endpoint> CURRENT_ENDPOINT = new ThreadLocal<>();
+
+	private static final ThreadLocal<EndpointMetrics.Stats> CURRENT_STATS = new ThreadLocal<>();
+
+	private static final ScheduledThreadPoolExecutor DEADLINE_TIMER = deadlineTimer();
+
+	private final RestTemplate restTemplate;
+
+	private final Set<Endpoint> binaryEndpoints;
+
+	private final ConcurrencyLimiters concurrencyLimiters;
+
+	private final EndpointMetrics endpointMetrics;
+
+	private final RequestHedger requestHedger;
+
+	private final Map<ResponseType<?>, Reader<?>> readers = new ConcurrentHashMap<>();
+
+	private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+	/**
+	 * @param restTemplate
+	 *            RestTemplate whose Jackson converters give the ObjectMapper of
+	 *            each response type
+	 */
+	public ClientExchange(RestTemplate restTemplate) {
+		this(restTemplate, Collections.emptySet(), null, null, null);
+	}
+
+	/**
+	 * @param restTemplate
+	 *            RestTemplate whose Jackson converters give the ObjectMapper of
+	 *            each response type
+	 * @param binaryEndpoints
+	 *            endpoints asking for Smile responses
+	 * @param concurrencyLimiters
+	 *            limiters of the downstream services, null to not limit the calls
+	 * @param endpointMetrics
+	 *            metrics of the endpoints, null to not record the calls
+	 */
+	public ClientExchange(RestTemplate restTemplate, Set<Endpoint> binaryEndpoints,
+			ConcurrencyLimiters concurrencyLimiters, EndpointMetrics endpointMetrics) {
+		this(restTemplate, binaryEndpoints, concurrencyLimiters, endpointMetrics, null);
+	}
+
+	/**
+	 * @param restTemplate
+	 *            RestTemplate whose Jackson converters give the ObjectMapper of
+	 *            each response type
+	 * @param binaryEndpoints
+	 *            endpoints asking for Smile responses
+	 * @param concurrencyLimiters
+	 *            limiters of the downstream services, null to not limit the calls
+	 * @param endpointMetrics
+	 *            metrics of the endpoints, null to not record the calls
+	 * @param requestHedger
+	 *            hedger of the slow GET requests, null to not hedge the calls
+	 */
+	public ClientExchange(RestTemplate restTemplate, Set<Endpoint> binaryEndpoints,
+			ConcurrencyLimiters concurrencyLimiters, EndpointMetrics endpointMetrics, RequestHedger requestHedger) {
+		this.restTemplate = restTemplate;
+		this.binaryEndpoints = binaryEndpoints;
+		this.concurrencyLimiters = concurrencyLimiters;
+		this.endpointMetrics = endpointMetrics;
+		this.requestHedger = requestHedger;
+	}
+
+	/**
+	 * Call an endpoint
+	 *
+	 * @param endpoint
+	 * @param baseURL
+	 * @param requestEntity
+	 *            body and headers of the request, may be null
+	 * @param responseType
+	 * @param uriValues
+	 *            values of the endpoint variables and query parameters
+	 * @return
+	 */
+	public <T> ResponseEntity<T> exchange(Endpoint endpoint, String baseURL, HttpEntity<?> requestEntity,
+			ResponseType<T> responseType, Object... uriValues) {
+		URI uri = endpoint.expand(baseURL, uriValues);
+		Reader<T> reader = reader(responseType);
+		List<MediaType> accept = binaryEndpoints.contains(endpoint) ? reader.binaryAccept : reader.accept;
+		EndpointMetrics.Stats stats = endpointMetrics == null ? null : endpointMetrics.get(endpoint);
+		RequestCallback requestCallback = requestCallback(requestEntity, accept, stats);
+		long start = System.nanoTime();
+		RuntimeException failure = null;
+		try {
+			if (stats != null && requestHedger != null && requestHedger.isHedged(endpoint)
+					&& ClientCallContext.priority() == Priority.INTERACTIVE) {
+				return requestHedger.execute(endpoint, stats,
+						() -> send(endpoint, uri, requestCallback, reader, stats));
+			}
+			return send(endpoint, uri, requestCallback, reader, stats);
+		} catch (RuntimeException e) {
+			failure = e;
+			throw e;
+		} finally {
+			if (stats != null && !(failure instanceof ConcurrencyLimitExceededException)
+					&& !(failure instanceof DeadlineExceededException)) {
+				stats.recordCall(System.nanoTime() - start, failure);
+			}
+		}
+	}
+
+	private <T> T send(Endpoint endpoint, URI uri, RequestCallback requestCallback,
+			ResponseExtractor<T> responseExtractor, EndpointMetrics.Stats stats) {
+		if (ClientCallContext.isExpired()) {
+			if (stats != null) {
+				stats.recordDeadlineRejected();
+			}
+			throw new DeadlineExceededException(endpoint);
+		}
+		AdaptiveConcurrencyLimiter limiter = concurrencyLimiters == null ? null
+				: concurrencyLimiters.get(endpoint.getDownstream());
+		Priority priority = ClientCallContext.priority();
+		if (limiter != null && !limiter.acquire(priority, ClientCallContext.remainingNanos())) {
+			throw new ConcurrencyLimitExceededException(endpoint.getDownstream(), limiter.getLimit());
+		}
+		long start = System.nanoTime();
+		RuntimeException failure = null;
+		Endpoint outer = CURRENT_ENDPOINT.get();
+		EndpointMetrics.Stats outerStats = CURRENT_STATS.get();
+		CURRENT_ENDPOINT.set(endpoint);
+		CURRENT_STATS.set(stats);
+		InFlightRequest inFlightRequest = null;
+		ScheduledFuture<?> deadline = null;
+		if (ClientCallContext.hasDeadline()) {
+			inFlightRequest = InFlightRequest.open();
+			deadline = DEADLINE_TIMER.schedule(inFlightRequest::abort, ClientCallContext.remainingNanos(),
+					TimeUnit.NANOSECONDS);
+		}
+		try {
+			return restTemplate.execute(uri, endpoint.getMethod(), requestCallback, responseExtractor);
+		} catch (RuntimeException e) {
+			failure = e;
+			if (inFlightRequest != null && inFlightRequest.isAborted()) {
+				throw new DeadlineExceededException(endpoint, e);
+			}
+			throw e;
+		} finally {
+			if (deadline != null) {
+				deadline.cancel(false);
+				inFlightRequest.close();
+			}
+			if (outer == null) {
+				CURRENT_ENDPOINT.remove();
+				CURRENT_STATS.remove();
+			} else {
+				CURRENT_ENDPOINT.set(outer);
+				CURRENT_STATS.set(outerStats);
+			}
+			long elapsed = System.nanoTime() - start;
+			boolean expired = ClientCallContext.isExpired();
+			if (limiter != null) {
+				limiter.release(priority, elapsed,
+						!expired && !InFlightRequest.isCurrentAborted() && isDropped(failure));
+			}
+			if (expired && stats != null) {
+				stats.recordWasted(elapsed);
+			}
+		}
+	}
+
+	private static ScheduledThreadPoolExecutor deadlineTimer() {
+		ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "client-deadline-timer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		timer.setRemoveOnCancelPolicy(true);
+		return timer;
+	}
+
+	/**
+	 * @return the endpoint of the call in progress on this thread, null outside
+	 *         of a call made through a ClientExchange
+	 */
+	public static Endpoint currentEndpoint() {
+		return CURRENT_ENDPOINT.get();
+	}
+
+	/**
+	 * Post the body to an endpoint and return the response body
+	 *
+	 * @param endpoint
+	 * @param baseURL
+	 * @param body
+	 * @param responseType
+	 * @param uriValues
+	 *            values of the endpoint variables and query parameters
+	 * @return
+	 */
+	public <T> T postForObject(Endpoint endpoint, String baseURL, Object body, ResponseType<T> responseType,
+			Object... uriValues) {
+		return exchange(endpoint, baseURL, new HttpEntity<>(body), responseType, uriValues).getBody();
+	}
+
+	/**
+	 * @param responseType
+	 * @return the extractor reading the response entity of the response type
+	 */
+	@SuppressWarnings("unchecked")
+	<T> Reader<T> reader(ResponseType<T> responseType) {
+		return (Reader<T>) readers.computeIfAbsent(responseType, this::createReader);
+	}
+
+	private Reader<?> createReader(ResponseType<?> responseType) {
+		Type type = responseType.getType();
+		List<MediaType> accept = new ArrayList<>();
+		List<MediaType> mediaTypes = new ArrayList<>();
+		List<ObjectReader> mediaTypeReaders = new ArrayList<>();
+		Map<ObjectMapper, ObjectReader> objectReaders = new IdentityHashMap<>();
+		for (HttpMessageConverter<?> converter : restTemplate.getMessageConverters()) {
+			if (canRead(converter, type)) {
+				accept.addAll(converter.getSupportedMediaTypes());
+				if (converter instanceof AbstractJackson2HttpMessageConverter && type != String.class) {
+					ObjectReader objectReader = objectReaders.computeIfAbsent(
+							((AbstractJackson2HttpMessageConverter) converter).getObjectMapper(),
+							objectMapper -> objectMapper.readerFor(objectMapper.getTypeFactory().constructType(type)));
+					for (MediaType mediaType : converter.getSupportedMediaTypes()) {
+						mediaTypes.add(mediaType);
+						mediaTypeReaders.add(objectReader);
+					}
+				}
+			}
+		}
+		MediaType.sortBySpecificity(accept);
+		accept = Collections.unmodifiableList(accept);
+		if (type == String.class) {
+			return new Reader<>(responseType, null, accept, mediaTypes, mediaTypeReaders);
+		}
+		if (mediaTypeReaders.isEmpty()) {
+			throw new IllegalStateException("No Jackson converter of the RestTemplate reads " + responseType);
+		}
+		return new Reader<>(responseType, mediaTypeReaders.get(0), accept, mediaTypes, mediaTypeReaders);
+	}
+
+	private RequestCallback requestCallback(HttpEntity<?> requestEntity, List<MediaType> accept,
+			EndpointMetrics.Stats stats) {
+		return request -> {
+			HttpHeaders headers = request.getHeaders();
+			if (requestEntity != null) {
+				headers.putAll(requestEntity.getHeaders());
+			}
+			if (headers.getAccept().isEmpty() && !accept.isEmpty()) {
+				headers.setAccept(accept);
+			}
+			Object body = requestEntity == null ? null : requestEntity.getBody();
+			if (body != null) {
+				writeBody(request, body, stats);
+			}
+		};
+	}
+
+	private void writeBody(ClientHttpRequest request, Object body, EndpointMetrics.Stats stats) throws IOException {
+		HttpHeaders headers = request.getHeaders();
+		MediaType contentType = headers.getContentType();
+		if (contentType == null) {
+			contentType = body instanceof String ? MediaType.TEXT_PLAIN : MediaType.APPLICATION_JSON;
+			headers.setContentType(contentType);
+		}
+		CountingOutputStream out = new CountingOutputStream(request.getBody());
+		if (body instanceof String) {
+			Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+			StreamUtils.copy((String) body, charset, out);
+		} else {
+			writers.computeIfAbsent(body.getClass(), this::createWriter).writeValue(out, body);
+		}
+		if (stats != null) {
+			stats.recordBytesSent(out.count);
+		}
+	}
+
+	private ObjectWriter createWriter(Class<?> bodyClass) {
+		for (HttpMessageConverter<?> converter : restTemplate.getMessageConverters()) {
+			if (converter instanceof AbstractJackson2HttpMessageConverter
+					&& converter.canWrite(bodyClass, MediaType.APPLICATION_JSON)) {
+				return ((AbstractJackson2HttpMessageConverter) converter).getObjectMapper().writerFor(bodyClass);
+			}
+		}
+		throw new IllegalStateException("No Jackson converter of the RestTemplate writes " + bodyClass.getName());
+	}
+
+	private static boolean isDropped(RuntimeException failure) {
+		if (failure instanceof ResourceAccessException) {
+			return true;
+		}
+		if (failure instanceof HttpStatusCodeException) {
+			int status = ((HttpStatusCodeException) failure).getRawStatusCode();
+			return status == 429 || status == 503 || status == 504;
+		}
+		return false;
+	}
+
+	private static boolean canRead(HttpMessageConverter<?> converter, Type type) {
+		if (converter instanceof GenericHttpMessageConverter) {
+			return ((GenericHttpMessageConverter<?>) converter).canRead(type, null, null);
+		}
+		return type instanceof Class && converter.canRead((Class<?>) type, null);
+	}
+
+	/**
+	 * Reads the response entity of one response type
+	 *
+	 * @param <T>
+	 */
+	static final class Reader<T> implements ResponseExtractor<ResponseEntity<T>> {
+
+		private final ResponseType<T> responseType;
+
+		private final ObjectReader objectReader;
+
+		private final ObjectReader smileReader;
+
+		private final MediaType[] mediaTypes;
+
+		private final ObjectReader[] mediaTypeReaders;
+
+		private final List<MediaType> accept;
+
+		private final List<MediaType> binaryAccept;
+
+		private Reader(ResponseType<T> responseType, ObjectReader objectReader, List<MediaType> accept,
+				List<MediaType> mediaTypes, List<ObjectReader> mediaTypeReaders) {
+			this.responseType = responseType;
+			this.objectReader = objectReader;
+			this.mediaTypes = mediaTypes.toArray(new MediaType[mediaTypes.size()]);
+			this.mediaTypeReaders = mediaTypeReaders.toArray(new ObjectReader[mediaTypeReaders.size()]);
+			this.accept = accept;
+			if (objectReader == null) {
+				this.smileReader = null;
+				this.binaryAccept = accept;
+			} else {
+				this.smileReader = objectReader.with(SMILE_FACTORY);
+				List<MediaType> smileFirst = new ArrayList<>();
+				smileFirst.add(SMILE);
+				smileFirst.addAll(accept);
+				this.binaryAccept = Collections.unmodifiableList(smileFirst);
+			}
+		}
+
+		@Override
+		public ResponseEntity<T> extractData(ClientHttpResponse response) throws IOException {
+			T body = readBody(response, CURRENT_STATS.get());
+			return ResponseEntity.status(response.getRawStatusCode()).headers(response.getHeaders()).body(body);
+		}
+
+		private T readBody(ClientHttpResponse response, EndpointMetrics.Stats stats) throws IOException {
+			if (response.getRawStatusCode() < 200 || response.getRawStatusCode() == 204
+					|| response.getRawStatusCode() == 304 || response.getHeaders().getContentLength() == 0) {
+				return null;
+			}
+			InputStream body = response.getBody();
+			if (body == null) {
+				return null;
+			}
+			CountingInputStream in = new CountingInputStream(body);
+			if (in.peek() == -1) {
+				return null;
+			}
+			long start = System.nanoTime();
+			try {
+				return decode(in, response);
+			} finally {
+				if (stats != null) {
+					stats.recordBodyRead(System.nanoTime() - start);
+					stats.recordBytesReceived(in.count);
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private T decode(InputStream in, ClientHttpResponse response) throws IOException {
+			MediaType contentType = response.getHeaders().getContentType();
+			if (objectReader == null) {
+				Charset charset = StandardCharsets.ISO_8859_1;
+				if (contentType != null && contentType.getCharset() != null) {
+					charset = contentType.getCharset();
+				} else if (contentType != null && contentType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+					charset = StandardCharsets.UTF_8;
+				}
+				return (T) StreamUtils.copyToString(in, charset);
+			}
+			try {
+				return objectReader(contentType).readValue(in);
+			} catch (JsonProcessingException e) {
+				throw new RestClientException("Error while extracting response for type [" + responseType
+						+ "] and content type [" + contentType + "]", e);
+			}
+		}
+
+		private ObjectReader objectReader(MediaType contentType) {
+			if (contentType == null) {
+				return objectReader;
+			}
+			for (int i = 0; i < mediaTypes.length; i++) {
+				if (mediaTypes[i].includes(contentType)) {
+					return mediaTypeReaders[i];
+				}
+			}
+			return SMILE.includes(contentType) ? smileReader : objectReader;
+		}
+	}
+
+	private static final class CountingOutputStream extends FilterOutputStream {
+
+		private long count;
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+
+	/**
+	 * Counts the bytes read and looks one byte ahead, to tell an empty body
+	 * apart without another stream
+	 *
+	 */
+	private static final class CountingInputStream extends FilterInputStream {
+
+		private static final int NONE = -2;
+
+		private long count;
+
+		private int peeked = NONE;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		int peek() throws IOException {
+			if (peeked == NONE) {
+				peeked = in.read();
+				if (peeked != -1) {
+					count++;
+				}
+			}
+			return peeked;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (peeked != NONE) {
+				int b = peeked;
+				peeked = NONE;
+				return b;
+			}
+			int b = in.read();
+			if (b != -1) {
+				count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (peeked != NONE) {
+				int first = peeked;
+				peeked = NONE;
+				if (first == -1) {
+					return -1;
+				}
+				b[off] = (byte) first;
+				return 1;
+			}
+			int read = in.read(b, off, len);
+			if (read > 0) {
+				count += read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			if (n <= 0) {
+				return 0;
+			}
+			if (peeked != NONE) {
+				boolean end = peeked == -1;
+				peeked = NONE;
+				return end ? 0 : 1;
+			}
+			long skipped = in.skip(n);
+			count += skipped;
+			return skipped;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return peeked >= 0 ? 1 : in.available();
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,69 @@
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Configuration of the {@link ClientExchange} used by each client
+ *
+ */
+@Configuration
+public class ClientExchangeConfiguration {
+
+	/**
+	 * @param orderRestTemplate
+	 * @param clientExchangeProperties
+	 * @param concurrencyLimiters
+	 * @param endpointMetrics
+	 * @param requestHedger
+	 * @return
+	 */
+	@Bean
+	public ClientExchange orderClientExchange(@Qualifier("orderRestTemplate") RestTemplate orderRestTemplate,
+			ClientExchangeProperties clientExchangeProperties, ConcurrencyLimiters concurrencyLimiters,
+			EndpointMetrics endpointMetrics, RequestHedger requestHedger) {
+		return new ClientExchange(orderRestTemplate, binaryEndpoints(clientExchangeProperties),
+				concurrencyLimiters, endpointMetrics, requestHedger);
+	}
+
+	/**
+	 * @param referenceDataRestTemplate
+	 * @param clientExchangeProperties
+	 * @param concurrencyLimiters
+	 * @param endpointMetrics
+	 * @param requestHedger
+	 * @return
+	 */
+	@Bean
+	public ClientExchange referenceDataClientExchange(
+			@Qualifier("referenceDataRestTemplate") RestTemplate referenceDataRestTemplate,
+			ClientExchangeProperties clientExchangeProperties, ConcurrencyLimiters concurrencyLimiters,
+			EndpointMetrics endpointMetrics, RequestHedger requestHedger) {
+		return new ClientExchange(referenceDataRestTemplate, binaryEndpoints(clientExchangeProperties),
+				concurrencyLimiters, endpointMetrics, requestHedger);
+	}
+
+	/**
+	 * @param profileRestTemplate
+	 * @param clientExchangeProperties
+	 * @param concurrencyLimiters
+	 * @param endpointMetrics
+	 * @param requestHedger
+	 * @return
+	 */
+	@Bean
+	public ClientExchange profileClientExchange(@Qualifier("profileRestTemplate") RestTemplate profileRestTemplate,
+			ClientExchangeProperties clientExchangeProperties, ConcurrencyLimiters concurrencyLimiters,
+			EndpointMetrics endpointMetrics, RequestHedger requestHedger) {
+		return new ClientExchange(profileRestTemplate, binaryEndpoints(clientExchangeProperties),
+				concurrencyLimiters, endpointMetrics, requestHedger);
+	}
+
+	private static Set<Endpoint> binaryEndpoints(ClientExchangeProperties clientExchangeProperties) {
+		return clientExchangeProperties.getBinaryEndpoints().stream().map(ClientEndpoints::named)
+				.collect(Collectors.toSet());
+	}
+}
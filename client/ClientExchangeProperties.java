@@ -0,0 +1,77 @@
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Tuning properties of the calls made through {@link ClientExchange}
+ *
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "client.exchange")
+public class ClientExchangeProperties {
+
+	/**
+	 * Names of the {@link ClientEndpoints} asking for Smile instead of JSON
+	 * responses
+	 */
+	private Set<String> binaryEndpoints = new LinkedHashSet<>();
+
+	/**
+	 * Hedging of the slow GET requests
+	 */
+	private Hedging hedging = new Hedging();
+
+	/**
+	 * Properties of the {@link RequestHedger}
+	 *
+	 */
+	@Data
+	public static class Hedging {
+
+		/**
+		 * Whether the hedged endpoints send hedge requests
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Names of the {@link ClientEndpoints} hedged, idempotent GETs only
+		 */
+		private Set<String> endpoints = new LinkedHashSet<>(Arrays.asList("CHARGES_BY_ORDER_ID", "COPY_ORDER",
+				"TIME_ZONE_BY_LOCATION_CODE", "CUSTOMERS_BY_BILLING_PARTY"));
+
+		/**
+		 * Percentile of the latency of the endpoint over the last metrics
+		 * interval after which a hedge request is sent, rounded up to one of
+		 * 50, 90, 95, 99 and 99.9
+		 */
+		private double delayPercentile = 95;
+
+		/**
+		 * Lowest delay in milliseconds before a hedge request
+		 */
+		private long minDelay = 5;
+
+		/**
+		 * Hedge requests allowed per call to a downstream service, the extra
+		 * load hedging may add
+		 */
+		private double budget = 0.05;
+
+		/**
+		 * Hedge requests that may be sent in a row once the budget is saved up
+		 */
+		private int burst = 10;
+
+		/**
+		 * Maximum number of threads running the hedge requests, the primary
+		 * requests running on the caller threads
+		 */
+		private int maxThreads = 200;
+	}
+}
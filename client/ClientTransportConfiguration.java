@@ -0,0 +1,280 @@
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.BufferingClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Puts a pooled HttpClient under the RestTemplates of the clients.
+ *
+ * Each of orderRestTemplate, referenceDataRestTemplate and profileRestTemplate
+ * gets its own pool of persistent connections, with the limits and timeouts of
+ * its endpoint group in {@link ClientTransportProperties}, so the connections,
+ * and their TLS sessions, are reused across calls instead of being opened per
+ * request. Idle and expired connections are evicted in the background.
+ *
+ * The {@link Priority#BULK} calls of a group get a smaller pool of their own,
+ * so bulk jobs cannot take the connections of the interactive calls. The
+ * timeouts of a call with a deadline, see {@link ClientCallContext}, are capped
+ * to the time left before it. Each of them bounds one wait, the lease, the
+ * connection or a read, so the requests can also be aborted from another
+ * thread through their {@link InFlightRequest}, which the deadline timer of
+ * {@link ClientExchange} does when the deadline passes.
+ *
+ * The request factory a RestTemplate was built with, one of Spring's
+ * ({@link SimpleClientHttpRequestFactory}, {@link HttpComponentsClientHttpRequestFactory}
+ * or another of its package, as RestTemplateBuilder picks), is replaced, and a
+ * {@link BufferingClientHttpRequestFactory} around it is kept around the new
+ * one. Any other request factory fails the startup, as the clients would lose
+ * the pools, the bulk lanes and the deadline aborts with it.
+ *
+ */
+@Slf4j
+@Configuration
+public class ClientTransportConfiguration {
+
+	/**
+	 * Endpoint group of each client RestTemplate bean
+	 */
+	static final Map<String, String> GROUPS;
+
+	static {
+		Map<String, String> groups = new HashMap<>();
+		groups.put("orderRestTemplate", "order");
+		groups.put("referenceDataRestTemplate", "reference-data");
+		groups.put("profileRestTemplate", "profile");
+		GROUPS = Collections.unmodifiableMap(groups);
+	}
+
+	/**
+	 * Static, so the post processor is registered without creating this
+	 * configuration and the beans it depends on early
+	 *
+	 * @param clientTransportProperties
+	 * @param meterRegistry
+	 * @return
+	 */
+	@Bean
+	public static ClientTransportPostProcessor clientTransportPostProcessor(
+			ObjectProvider<ClientTransportProperties> clientTransportProperties,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		return new ClientTransportPostProcessor(clientTransportProperties, meterRegistry);
+	}
+
+	/**
+	 * Create the pooled HttpClient of an endpoint group
+	 *
+	 * @param group
+	 *            endpoint group tagging the pool metrics
+	 * @param transport
+	 *            limits and timeouts of the group
+	 * @param meterRegistry
+	 * @return
+	 */
+	public static CloseableHttpClient createHttpClient(String group, ClientTransportProperties.Transport transport,
+			MeterRegistry meterRegistry) {
+		return createHttpClient(group, Priority.INTERACTIVE, transport.getMaxTotal(), transport.getMaxPerRoute(),
+				transport, meterRegistry);
+	}
+
+	private static CloseableHttpClient createHttpClient(String group, Priority lane, int maxTotal, int maxPerRoute,
+			ClientTransportProperties.Transport transport, MeterRegistry meterRegistry) {
+		MeteredConnectionManager connectionManager = new MeteredConnectionManager(group, lane,
+				transport.getTimeToLive(), meterRegistry);
+		connectionManager.setMaxTotal(maxTotal);
+		connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+		connectionManager.setValidateAfterInactivity(transport.getValidateAfterInactivity());
+
+		return HttpClients.custom().setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(requestConfig(transport)).evictExpiredConnections()
+				.evictIdleConnections(transport.getIdleTimeout(), TimeUnit.MILLISECONDS).build();
+	}
+
+	private static RequestConfig requestConfig(ClientTransportProperties.Transport transport) {
+		return RequestConfig.custom().setConnectTimeout(transport.getConnectTimeout())
+				.setSocketTimeout(transport.getReadTimeout())
+				.setConnectionRequestTimeout(transport.getConnectionRequestTimeout()).build();
+	}
+
+	/**
+	 * Sets the pooled request factory of the client RestTemplates and closes
+	 * their HttpClients on shutdown
+	 *
+	 */
+	static final class ClientTransportPostProcessor implements BeanPostProcessor, DisposableBean {
+
+		private final ObjectProvider<ClientTransportProperties> clientTransportProperties;
+
+		private final ObjectProvider<MeterRegistry> meterRegistry;
+
+		private final List<CloseableHttpClient> httpClients = new ArrayList<>();
+
+		private ClientTransportPostProcessor(ObjectProvider<ClientTransportProperties> clientTransportProperties,
+				ObjectProvider<MeterRegistry> meterRegistry) {
+			this.clientTransportProperties = clientTransportProperties;
+			this.meterRegistry = meterRegistry;
+		}
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			String group = GROUPS.get(beanName);
+			if (group != null && bean instanceof RestTemplate) {
+				// the request factory as set, under the one adding the interceptors
+				Object requestFactory = new DirectFieldAccessor(bean).getPropertyValue("requestFactory");
+				boolean buffering = requestFactory instanceof BufferingClientHttpRequestFactory;
+				if (buffering) {
+					requestFactory = new DirectFieldAccessor(requestFactory).getPropertyValue("requestFactory");
+				}
+				if (!isSpringRequestFactory(requestFactory)) {
+					throw new BeanInitializationException(beanName + " has the request factory "
+							+ requestFactory.getClass().getName() + ", which the pooled transport of the " + group
+							+ " endpoints cannot replace");
+				}
+				ClientHttpRequestFactory pooled = createRequestFactory(group);
+				((RestTemplate) bean).setRequestFactory(buffering ? new BufferingClientHttpRequestFactory(pooled)
+						: pooled);
+				log.debug("{} request factory {} replaced by the pooled transport", beanName,
+						requestFactory.getClass().getName());
+			}
+			return bean;
+		}
+
+		/**
+		 * The request factories of Spring only hold the settings of their
+		 * connections, which the transport properties of the group replace
+		 *
+		 * @param requestFactory
+		 * @return
+		 */
+		private static boolean isSpringRequestFactory(Object requestFactory) {
+			return requestFactory instanceof ClientHttpRequestFactory && requestFactory.getClass().getName()
+					.startsWith(SimpleClientHttpRequestFactory.class.getPackage().getName() + ".");
+		}
+
+		@Override
+		public synchronized void destroy() throws Exception {
+			for (CloseableHttpClient httpClient : httpClients) {
+				httpClient.close();
+			}
+			httpClients.clear();
+		}
+
+		private synchronized ClientHttpRequestFactory createRequestFactory(String group) {
+			ClientTransportProperties.Transport transport = clientTransportProperties
+					.getIfAvailable(ClientTransportProperties::new).getTransport(group);
+			MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+			CloseableHttpClient httpClient = createHttpClient(group, transport, registry);
+			httpClients.add(httpClient);
+			log.info("Pooled transport of the {} endpoints: {} connections, {} per host", group,
+					transport.getMaxTotal(), transport.getMaxPerRoute());
+			long timeouts = (long) transport.getConnectionRequestTimeout() + transport.getConnectTimeout()
+					+ transport.getReadTimeout();
+			if (timeouts >= Long.parseLong(ClientTransportProperties.COMMAND_TIMEOUT)) {
+				log.warn("Timeouts of the {} endpoints add up to {} ms, not below the {} ms Hystrix timeout of the"
+						+ " client commands", group, timeouts, ClientTransportProperties.COMMAND_TIMEOUT);
+			}
+			RequestConfig requestConfig = requestConfig(transport);
+			ClientHttpRequestFactory interactive = new DeadlineRequestFactory(httpClient, requestConfig);
+			if (transport.getBulkMaxTotal() <= 0) {
+				return interactive;
+			}
+			CloseableHttpClient bulkHttpClient = createHttpClient(group, Priority.BULK, transport.getBulkMaxTotal(),
+					transport.getBulkMaxPerRoute(), transport, registry);
+			httpClients.add(bulkHttpClient);
+			log.info("Pooled transport of the {} bulk calls: {} connections, {} per host", group,
+					transport.getBulkMaxTotal(), transport.getBulkMaxPerRoute());
+			return new LaneRequestFactory(interactive, new DeadlineRequestFactory(bulkHttpClient, requestConfig));
+		}
+	}
+
+	/**
+	 * Request factory capping the timeouts of a call to the time left before
+	 * the deadline of the calling thread, and handing the request to its
+	 * {@link InFlightRequest}
+	 *
+	 */
+	private static final class DeadlineRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+		private final RequestConfig requestConfig;
+
+		private DeadlineRequestFactory(CloseableHttpClient httpClient, RequestConfig requestConfig) {
+			super(httpClient);
+			this.requestConfig = requestConfig;
+		}
+
+		@Override
+		protected void postProcessHttpRequest(HttpUriRequest request) {
+			InFlightRequest.sending(request);
+		}
+
+		@Override
+		protected HttpContext createHttpContext(HttpMethod httpMethod, URI uri) {
+			if (!ClientCallContext.hasDeadline()) {
+				return null;
+			}
+			int remaining = (int) Math.max(1,
+					Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMillis(ClientCallContext.remainingNanos())));
+			HttpClientContext context = HttpClientContext.create();
+			context.setRequestConfig(RequestConfig.copy(requestConfig)
+					.setConnectTimeout(cap(requestConfig.getConnectTimeout(), remaining))
+					.setSocketTimeout(cap(requestConfig.getSocketTimeout(), remaining))
+					.setConnectionRequestTimeout(cap(requestConfig.getConnectionRequestTimeout(), remaining))
+					.build());
+			return context;
+		}
+
+		private static int cap(int timeout, int remaining) {
+			return timeout <= 0 ? remaining : Math.min(timeout, remaining);
+		}
+	}
+
+	/**
+	 * Request factory picking the pool of the priority of the calling thread
+	 *
+	 */
+	private static final class LaneRequestFactory implements ClientHttpRequestFactory {
+
+		private final ClientHttpRequestFactory interactive;
+
+		private final ClientHttpRequestFactory bulk;
+
+		private LaneRequestFactory(ClientHttpRequestFactory interactive, ClientHttpRequestFactory bulk) {
+			this.interactive = interactive;
+			this.bulk = bulk;
+		}
+
+		@Override
+		public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+			ClientHttpRequestFactory factory = ClientCallContext.priority() == Priority.BULK ? bulk : interactive;
+			return factory.createRequest(uri, httpMethod);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Connection pool and timeout properties of the RestTemplates used by the
+ * clients, per endpoint group: order, reference-data and profile
+ *
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "client.transport")
+public class ClientTransportProperties {
+
+	/**
+	 * Hystrix timeout in milliseconds of the client commands, above the
+	 * default connection request, connect and read timeouts together
+	 */
+	public static final String COMMAND_TIMEOUT = "2000";
+
+	/**
+	 * Properties of the groups without their own entry in groups
+	 */
+	private Transport defaults = new Transport();
+
+	/**
+	 * Properties per endpoint group
+	 */
+	private Map<String, Transport> groups = new LinkedHashMap<>();
+
+	/**
+	 * @param group
+	 * @return the properties of the endpoint group
+	 */
+	public Transport getTransport(String group) {
+		return groups.getOrDefault(group, defaults);
+	}
+
+	/**
+	 * Connection pool and timeouts of one endpoint group
+	 *
+	 */
+	@Data
+	public static class Transport {
+
+		/**
+		 * Timeout in milliseconds to open a connection
+		 */
+		private int connectTimeout = 300;
+
+		/**
+		 * Timeout in milliseconds waiting for data on a connection, for each
+		 * read; a response trickling in keeps the call going. The client
+		 * commands run on the calling thread, which Hystrix does not interrupt,
+		 * so only a {@link ClientCallContext} deadline bounds a whole call. The
+		 * connection request, connect and read timeouts together should stay
+		 * below {@link #COMMAND_TIMEOUT}, so a call failing on one of them is
+		 * not counted as a command timeout
+		 */
+		private int readTimeout = 1000;
+
+		/**
+		 * Timeout in milliseconds waiting for a pooled connection
+		 */
+		private int connectionRequestTimeout = 200;
+
+		/**
+		 * Maximum number of pooled connections
+		 */
+		private int maxTotal = 200;
+
+		/**
+		 * Maximum number of pooled connections to one host
+		 */
+		private int maxPerRoute = 50;
+
+		/**
+		 * Time in milliseconds after which an idle connection is closed
+		 */
+		private long idleTimeout = 30000;
+
+		/**
+		 * Time in milliseconds of inactivity after which a pooled connection is
+		 * checked before being reused
+		 */
+		private int validateAfterInactivity = 2000;
+
+		/**
+		 * Maximum lifetime in milliseconds of a connection, -1 for no limit
+		 */
+		private long timeToLive = -1;
+
+		/**
+		 * Maximum number of pooled connections of the {@link Priority#BULK}
+		 * calls, kept apart from the interactive ones; 0 to share the
+		 * connections of the interactive calls
+		 */
+		private int bulkMaxTotal = 40;
+
+		/**
+		 * Maximum number of pooled connections of the bulk calls to one host
+		 */
+		private int bulkMaxPerRoute = 10;
+	}
+}
@@ -1,7 +1,6 @@
 
 
 import java.util.List;
-import java.util.Optional;
 
 import org.springframework.hateoas.Resources;
 import org.springframework.http.ResponseEntity;
@@ -9,6 +8,10 @@ import org.springframework.http.ResponseEntity;
 /**
  * Utility for client
  *
+ * The response bodies are decoded by {@link ClientExchange}, with the reader it
+ * resolved once for the response type; these methods only take the body out of
+ * the response entity, null safe.
+ *
  */
 public class ReferenceDataClientUtility {
 	/**
@@ -18,20 +21,13 @@ public class ReferenceDataClientUtility {
 	 * @return
 	 */
 	public static <E> Resources<E> getResponseBody(ResponseEntity<Resources<E>> response) {
-		Resources<E> responseBody = null;
-		if (Optional.ofNullable(response).isPresent()) {
-			responseBody = response.getBody();
-		}
-		return responseBody;
+		return body(response);
 	}
-	
+
 	public static <E> List<E> getResponseBodyList(ResponseEntity<List<E>> response) {
-		List<E> responseBody = null;
-		if (Optional.ofNullable(response).isPresent()) {
-			responseBody = response.getBody();
-		}
-		return responseBody;
+		return body(response);
 	}
+
 	/**
 	 * Get the responsebody content from Resource
 	 * 
@@ -39,10 +35,10 @@ public class ReferenceDataClientUtility {
 	 * @return
 	 */
 	public static <E> Resources<E> getResponseBodyWithResources(ResponseEntity<Resources<E>> response) {
-		Resources<E> responseBody = null;
-		if (Optional.ofNullable(response).isPresent()) {
-			responseBody = response.getBody();
-		}
-		return responseBody;
+		return body(response);
+	}
+
+	private static <T> T body(ResponseEntity<T> response) {
+		return response == null ? null : response.getBody();
 	}
 }
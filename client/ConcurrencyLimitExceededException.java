@@ -0,0 +1,19 @@
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Thrown when a call is rejected because its downstream service is at its
+ * concurrency limit
+ *
+ */
+public class ConcurrencyLimitExceededException extends RestClientException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * @param downstream
+	 * @param limit
+	 */
+	public ConcurrencyLimitExceededException(Downstream downstream, int limit) {
+		super("Concurrency limit of " + limit + " requests reached for " + downstream);
+	}
+}
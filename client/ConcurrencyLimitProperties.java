@@ -0,0 +1,74 @@
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Properties of the adaptive concurrency limit of each downstream service
+ *
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "client.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+	/**
+	 * Whether the calls are limited
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Limit of the downstream services without their own entry in downstreams
+	 */
+	private Limit defaults = new Limit();
+
+	/**
+	 * Limit per downstream service
+	 */
+	private Map<Downstream, Limit> downstreams = new EnumMap<>(Downstream.class);
+
+	/**
+	 * @param downstream
+	 * @return the limit properties of the downstream service
+	 */
+	public Limit getLimit(Downstream downstream) {
+		return downstreams.getOrDefault(downstream, defaults);
+	}
+
+	/**
+	 * Adaptive limit of one downstream service
+	 *
+	 */
+	@Data
+	public static class Limit {
+
+		/**
+		 * Requests in flight allowed before any latency is observed
+		 */
+		private int initialLimit = 20;
+
+		/**
+		 * Lowest limit of requests in flight
+		 */
+		private int minLimit = 5;
+
+		/**
+		 * Highest limit of requests in flight
+		 */
+		private int maxLimit = 200;
+
+		/**
+		 * Time in milliseconds a request over the limit waits before being
+		 * rejected, 0 to reject at once
+		 */
+		private long maxQueueWait = 20;
+
+		/**
+		 * Share of the limit the {@link Priority#BULK} requests may hold
+		 */
+		private double bulkShare = 0.5;
+	}
+}
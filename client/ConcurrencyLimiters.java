@@ -0,0 +1,73 @@
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * The {@link AdaptiveConcurrencyLimiter} of each downstream service, shared by
+ * the {@link ClientExchange} of all the clients.
+ *
+ * The limit, the requests in flight and the rejections of each downstream are
+ * published as metrics, along with the requests in flight, waiting and
+ * rejected and the utilization of each {@link Priority} lane.
+ *
+ */
+@Component
+public class ConcurrencyLimiters {
+
+	private final Map<Downstream, AdaptiveConcurrencyLimiter> limiters;
+
+	/**
+	 * @param concurrencyLimitProperties
+	 * @param meterRegistry
+	 */
+	public ConcurrencyLimiters(ConcurrencyLimitProperties concurrencyLimitProperties,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		Map<Downstream, AdaptiveConcurrencyLimiter> byDownstream = new EnumMap<>(Downstream.class);
+		if (concurrencyLimitProperties.isEnabled()) {
+			MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+			for (Downstream downstream : Downstream.values()) {
+				ConcurrencyLimitProperties.Limit limit = concurrencyLimitProperties.getLimit(downstream);
+				AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(limit.getInitialLimit(),
+						limit.getMinLimit(), limit.getMaxLimit(), limit.getMaxQueueWait(), limit.getBulkShare());
+				Tags tags = Tags.of("downstream", downstream.name());
+				Gauge.builder("client.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).tags(tags)
+						.register(registry);
+				Gauge.builder("client.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+						.tags(tags).register(registry);
+				FunctionCounter.builder("client.concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::getRejected)
+						.tags(tags).register(registry);
+				for (Priority priority : Priority.values()) {
+					Tags laneTags = tags.and("lane", priority.name());
+					Gauge.builder("client.concurrency.lane.inflight", limiter, lane -> lane.getInFlight(priority))
+							.tags(laneTags).register(registry);
+					Gauge.builder("client.concurrency.lane.waiting", limiter, lane -> lane.getWaiting(priority))
+							.tags(laneTags).register(registry);
+					Gauge.builder("client.concurrency.lane.utilization", limiter,
+							lane -> lane.getUtilization(priority)).tags(laneTags).register(registry);
+					FunctionCounter.builder("client.concurrency.lane.rejected", limiter,
+							lane -> lane.getRejected(priority)).tags(laneTags).register(registry);
+				}
+				byDownstream.put(downstream, limiter);
+			}
+		}
+		this.limiters = Collections.unmodifiableMap(byDownstream);
+	}
+
+	/**
+	 * @param downstream
+	 * @return the limiter of the downstream service, null when limiting is
+	 *         disabled
+	 */
+	public AdaptiveConcurrencyLimiter get(Downstream downstream) {
+		return limiters.get(downstream);
+	}
+}
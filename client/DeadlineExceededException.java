@@ -0,0 +1,27 @@
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Thrown when a call is not sent, or is aborted, because the deadline of its
+ * flow, set with {@link ClientCallContext#withDeadline(long)}, has passed
+ *
+ */
+public class DeadlineExceededException extends RestClientException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * @param endpoint
+	 */
+	public DeadlineExceededException(Endpoint endpoint) {
+		super("Deadline passed before calling " + endpoint);
+	}
+
+	/**
+	 * @param endpoint
+	 * @param cause
+	 *            failure of the call aborted at the deadline
+	 */
+	public DeadlineExceededException(Endpoint endpoint, Throwable cause) {
+		super("Deadline passed while calling " + endpoint, cause);
+	}
+}
@@ -0,0 +1,43 @@
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Properties of the {@link DeltaUpdater}
+ *
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "client.delta-updates")
+public class DeltaUpdateProperties {
+
+	/**
+	 * Whether the edits of known entities are sent as merge patches instead of
+	 * full bodies
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * Time in milliseconds the last saved version of an entity is kept
+	 */
+	private long timeToLive = 1800000;
+
+	/**
+	 * Maximum number of entity versions kept
+	 */
+	private int maximumSize = 10000;
+
+	/**
+	 * Number of patches in a row an endpoint answers with 404 before its edits
+	 * are sent in full, a 404 meaning a missing entity as well as a missing
+	 * endpoint
+	 */
+	private int notFoundLimit = 3;
+
+	/**
+	 * Time in milliseconds the edits of an endpoint which answered
+	 * notFoundLimit patches with 404 are sent in full before it is tried again
+	 */
+	private long notFoundRetryInterval = 300000;
+}
@@ -0,0 +1,209 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Saves entities with a JSON merge patch of what changed since the version
+ * last saved through it, instead of the full body.
+ *
+ * The last saved version of every entity is kept per PATCH endpoint and entity
+ * id, the id being the member named like the variable of the endpoint template.
+ * An edit of a known entity is sent to the PATCH endpoint as a
+ * {@link JsonMergePatch}; a new entity, an entity without known version or a
+ * patch not smaller than the body is posted in full to the collection endpoint,
+ * as are the edits of an endpoint which answered a patch with 405, 415 or 501.
+ * A patch answered with 404 or 409 is sent again in full; an endpoint answering
+ * notFoundLimit patches in a row with 404 may be missing, its edits being sent
+ * in full for notFoundRetryInterval, after which it is tried again and marked
+ * at once if it still answers 404.
+ *
+ * The bytes sent per edit are recorded in client.delta.bytes, tagged with the
+ * collection endpoint and the mode, full or patch, and the bytes saved by the
+ * patches in client.delta.saved.
+ *
+ */
+@Slf4j
+@Component
+public class DeltaUpdater {
+
+	private static final MediaType MERGE_PATCH = new MediaType("application", "merge-patch+json");
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final DeltaUpdateProperties properties;
+
+	private final ExpiringCache<String, ObjectNode> versions;
+
+	private final Set<Endpoint> unsupported = ConcurrentHashMap.newKeySet();
+
+	private final ConcurrentMap<Endpoint, AtomicInteger> notFound = new ConcurrentHashMap<>();
+
+	private final ExpiringCache<Endpoint, Boolean> missing;
+
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * @param properties
+	 * @param meterRegistry
+	 */
+	public DeltaUpdater(DeltaUpdateProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+		this.properties = properties;
+		this.versions = new ExpiringCache<>(properties.getTimeToLive(), properties.getMaximumSize());
+		this.missing = new ExpiringCache<>(properties.getNotFoundRetryInterval(), ClientEndpoints.all().size());
+		this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+	}
+
+	/**
+	 * Save an entity
+	 *
+	 * @param exchange
+	 * @param baseURL
+	 * @param collection
+	 *            POST endpoint of the collection, taking the full body
+	 * @param item
+	 *            PATCH endpoint of an entity of the collection
+	 * @param body
+	 *            JSON of the entity
+	 * @param responseType
+	 * @return
+	 */
+	public <T> ResponseEntity<T> save(ClientExchange exchange, String baseURL, Endpoint collection, Endpoint item,
+			String body, ResponseType<T> responseType) {
+		ObjectNode current = properties.isEnabled() ? parse(body) : null;
+		if (current == null) {
+			return saveFull(exchange, baseURL, collection, body, responseType);
+		}
+		String idProperty = idProperty(item);
+		JsonNode id = current.get(idProperty);
+		ObjectNode previous = id == null || id.isNull() || unsupported.contains(item) || missing.get(item) != null
+				? null : versions.get(key(item, id));
+		if (previous != null) {
+			String patch = JsonMergePatch.diff(previous, current).toString();
+			int fullBytes = body.getBytes(StandardCharsets.UTF_8).length;
+			int patchBytes = patch.getBytes(StandardCharsets.UTF_8).length;
+			if (patchBytes < fullBytes) {
+				try {
+					ResponseEntity<T> response = exchange.exchange(item, baseURL, entity(patch, MERGE_PATCH),
+							responseType, id.asText());
+					record(collection, "patch", patchBytes);
+					meterRegistry.counter("client.delta.saved", "endpoint", collection.getTemplate())
+							.increment(fullBytes - patchBytes);
+					versions.put(key(item, id), current);
+					notFound.remove(item);
+					return response;
+				} catch (HttpStatusCodeException e) {
+					versions.invalidate(key(item, id));
+					if (!fallsBack(item, e)) {
+						throw e;
+					}
+				} catch (RuntimeException e) {
+					versions.invalidate(key(item, id));
+					throw e;
+				}
+			}
+		}
+		ResponseEntity<T> response = saveFull(exchange, baseURL, collection, body, responseType);
+		if (id == null || id.isNull()) {
+			ObjectNode saved = parse(response.getBody());
+			id = saved == null ? null : saved.get(idProperty);
+			if (id == null || id.isNull()) {
+				return response;
+			}
+			current.set(idProperty, id);
+		}
+		versions.put(key(item, id), current);
+		return response;
+	}
+
+	/**
+	 * Forget the saved versions
+	 */
+	public void clear() {
+		versions.invalidateAll();
+	}
+
+	private <T> ResponseEntity<T> saveFull(ClientExchange exchange, String baseURL, Endpoint collection,
+			String body, ResponseType<T> responseType) {
+		ResponseEntity<T> response = exchange.exchange(collection, baseURL,
+				entity(body, MediaType.APPLICATION_JSON), responseType);
+		record(collection, "full", body.getBytes(StandardCharsets.UTF_8).length);
+		return response;
+	}
+
+	private boolean fallsBack(Endpoint item, HttpStatusCodeException failure) {
+		int status = failure.getRawStatusCode();
+		if (status == 405 || status == 415 || status == 501) {
+			if (unsupported.add(item)) {
+				log.info("{} answered {}, its edits are sent in full", item, status);
+			}
+			return true;
+		}
+		if (status == 404) {
+			int inRow = notFound.computeIfAbsent(item, endpoint -> new AtomicInteger()).incrementAndGet();
+			if (inRow >= properties.getNotFoundLimit()) {
+				missing.put(item, Boolean.TRUE);
+				log.info("{} answered {} patches in a row with 404, its edits are sent in full for {} ms", item,
+						inRow, properties.getNotFoundRetryInterval());
+			}
+			return true;
+		}
+		return status == 409;
+	}
+
+	private void record(Endpoint collection, String mode, int bytes) {
+		DistributionSummary.builder("client.delta.bytes").tags("endpoint", collection.getTemplate(), "mode", mode)
+				.baseUnit("bytes").register(meterRegistry).record(bytes);
+	}
+
+	private static HttpEntity<String> entity(String body, MediaType contentType) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(contentType);
+		return new HttpEntity<>(body, headers);
+	}
+
+	/**
+	 * @return the JSON object, null when the value is not one
+	 */
+	private static ObjectNode parse(Object value) {
+		JsonNode node = null;
+		try {
+			if (value instanceof String) {
+				node = MAPPER.readTree((String) value);
+			} else if (value != null) {
+				node = MAPPER.valueToTree(value);
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			log.debug("Not a JSON object, saved in full", e);
+		}
+		return node instanceof ObjectNode ? (ObjectNode) node : null;
+	}
+
+	private static String idProperty(Endpoint item) {
+		String template = item.getTemplate();
+		return template.substring(template.lastIndexOf('{') + 1, template.lastIndexOf('}'));
+	}
+
+	private static String key(Endpoint item, JsonNode id) {
+		return item.getTemplate() + '|' + id.asText();
+	}
+}
@@ -0,0 +1,8 @@
+/**
+ * The services called by the clients
+ *
+ */
+public enum Downstream {
+
+	ORDER, REFERENCE_DATA, PROFILE_LOCATION, PROFILE_CUSTOMER
+}
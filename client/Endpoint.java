@@ -0,0 +1,227 @@
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * Precompiled descriptor of a client endpoint.
+ *
+ * The URI template is parsed once, when the descriptor is created, into its
+ * literal parts and variables. Every call then expands the variables positionally
+ * into a single StringBuilder, without a parameter map and without parsing the
+ * template again. Template variables are encoded like the RestTemplate does for
+ * their URI component, query parameters like
+ * {@code UriComponentsBuilder.queryParam(...).build().encode()}: a null value
+ * gives the bare parameter name and an array or collection repeats the
+ * parameter.
+ *
+ */
+public final class Endpoint {
+
+	private static final boolean[] PATH_ALLOWED = new boolean[128];
+
+	private static final boolean[] QUERY_PARAM_ALLOWED = new boolean[128];
+
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+	static {
+		String unreserved = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789-._~";
+		for (char c : unreserved.toCharArray()) {
+			PATH_ALLOWED[c] = true;
+			QUERY_PARAM_ALLOWED[c] = true;
+		}
+		for (char c : "!$&'()*+,;=:@/".toCharArray()) {
+			PATH_ALLOWED[c] = true;
+		}
+		for (char c : "!$'()*+,;:@/?".toCharArray()) {
+			QUERY_PARAM_ALLOWED[c] = true;
+		}
+	}
+
+	private final Downstream downstream;
+
+	private final HttpMethod method;
+
+	private final String template;
+
+	private final String[] literals;
+
+	private final boolean[] queryVariables;
+
+	private final String[] queryParams;
+
+	private final boolean hasQuery;
+
+	private final int expectedLength;
+
+	private Endpoint(Downstream downstream, HttpMethod method, String uriTemplate, String[] queryParams) {
+		this.downstream = downstream;
+		this.method = method;
+		this.queryParams = queryParams;
+		List<String> literalParts = new ArrayList<>();
+		List<Boolean> variableInQuery = new ArrayList<>();
+		int start = 0;
+		int open;
+		while ((open = uriTemplate.indexOf('{', start)) >= 0) {
+			int close = uriTemplate.indexOf('}', open);
+			if (close < 0) {
+				throw new IllegalArgumentException("Unclosed variable in URI template " + uriTemplate);
+			}
+			literalParts.add(uriTemplate.substring(start, open));
+			variableInQuery.add(uriTemplate.lastIndexOf('?', open) >= 0);
+			start = close + 1;
+		}
+		literalParts.add(uriTemplate.substring(start));
+		this.literals = literalParts.toArray(new String[literalParts.size()]);
+		this.queryVariables = new boolean[variableInQuery.size()];
+		for (int i = 0; i < queryVariables.length; i++) {
+			queryVariables[i] = variableInQuery.get(i);
+		}
+		this.hasQuery = uriTemplate.indexOf('?') >= 0;
+
+		StringBuilder fullTemplate = new StringBuilder(uriTemplate);
+		char separator = hasQuery ? '&' : '?';
+		for (String queryParam : queryParams) {
+			fullTemplate.append(separator).append(queryParam).append("={").append(queryParam).append('}');
+			separator = '&';
+		}
+		this.template = fullTemplate.toString();
+		this.expectedLength = template.length() + 64;
+	}
+
+	/**
+	 * @param downstream
+	 * @param uriTemplate
+	 *            path, and optionally query, template relative to the base URL
+	 * @param queryParams
+	 *            names of the query parameters appended after the template
+	 * @return a GET endpoint
+	 */
+	public static Endpoint get(Downstream downstream, String uriTemplate, String... queryParams) {
+		return new Endpoint(downstream, HttpMethod.GET, uriTemplate, queryParams);
+	}
+
+	/**
+	 * @param downstream
+	 * @param uriTemplate
+	 *            path template relative to the base URL
+	 * @return a POST endpoint
+	 */
+	public static Endpoint post(Downstream downstream, String uriTemplate) {
+		return new Endpoint(downstream, HttpMethod.POST, uriTemplate, new String[0]);
+	}
+
+	/**
+	 * @param downstream
+	 * @param uriTemplate
+	 *            path template of the resource relative to the base URL
+	 * @return a PATCH endpoint
+	 */
+	public static Endpoint patch(Downstream downstream, String uriTemplate) {
+		return new Endpoint(downstream, HttpMethod.PATCH, uriTemplate, new String[0]);
+	}
+
+	/**
+	 * Expand the endpoint
+	 *
+	 * @param baseURL
+	 * @param values
+	 *            values of the template variables in order of appearance,
+	 *            followed by the values of the query parameters
+	 * @return
+	 */
+	public URI expand(String baseURL, Object... values) {
+		int variables = queryVariables.length;
+		if (values.length != variables + queryParams.length) {
+			throw new IllegalArgumentException("Endpoint " + template + " expects " + (variables + queryParams.length)
+					+ " values but got " + values.length);
+		}
+		StringBuilder uri = new StringBuilder(baseURL.length() + expectedLength);
+		uri.append(baseURL).append(literals[0]);
+		for (int i = 0; i < variables; i++) {
+			if (values[i] != null) {
+				encode(uri, values[i].toString(), queryVariables[i] ? QUERY_PARAM_ALLOWED : PATH_ALLOWED);
+			}
+			uri.append(literals[i + 1]);
+		}
+		char separator = hasQuery ? '&' : '?';
+		for (int i = 0; i < queryParams.length; i++) {
+			Object value = values[variables + i];
+			if (value instanceof Object[]) {
+				Object[] repeated = (Object[]) value;
+				if (repeated.length == 0) {
+					appendQueryParam(uri, separator, queryParams[i], null);
+				}
+				for (Object element : repeated) {
+					appendQueryParam(uri, separator, queryParams[i], element);
+					separator = '&';
+				}
+			} else if (value instanceof Collection) {
+				Collection<?> repeated = (Collection<?>) value;
+				if (repeated.isEmpty()) {
+					appendQueryParam(uri, separator, queryParams[i], null);
+				}
+				for (Object element : repeated) {
+					appendQueryParam(uri, separator, queryParams[i], element);
+					separator = '&';
+				}
+			} else {
+				appendQueryParam(uri, separator, queryParams[i], value);
+			}
+			separator = '&';
+		}
+		return URI.create(uri.toString());
+	}
+
+	public Downstream getDownstream() {
+		return downstream;
+	}
+
+	public HttpMethod getMethod() {
+		return method;
+	}
+
+	/**
+	 * @return the URI template, including the query parameters, used to tag the
+	 *         calls of this endpoint
+	 */
+	public String getTemplate() {
+		return template;
+	}
+
+	@Override
+	public String toString() {
+		return method + " " + template;
+	}
+
+	private static void appendQueryParam(StringBuilder uri, char separator, String name, Object value) {
+		uri.append(separator);
+		encode(uri, name, QUERY_PARAM_ALLOWED);
+		if (value != null) {
+			uri.append('=');
+			encode(uri, value.toString(), QUERY_PARAM_ALLOWED);
+		}
+	}
+
+	private static void encode(StringBuilder uri, String value, boolean[] allowed) {
+		int length = value.length();
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c < 128 && allowed[c]) {
+				uri.append(c);
+			} else {
+				for (byte b : value.substring(i).getBytes(StandardCharsets.UTF_8)) {
+					if (b >= 0 && allowed[b]) {
+						uri.append((char) b);
+					} else {
+						uri.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+					}
+				}
+				return;
+			}
+		}
+	}
+}
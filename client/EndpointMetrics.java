@@ -0,0 +1,404 @@
+import java.net.SocketTimeoutException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Latency, body read time, byte counts and failures of every endpoint called
+ * through {@link ClientExchange}, tagged by endpoint template.
+ *
+ * Calls are recorded into HdrHistogram recorders and LongAdder counters
+ * created up front for all the {@link ClientEndpoints}, so recording does not
+ * allocate. Every client.metrics.interval milliseconds the recorders are rolled
+ * into the p50, p99, p999 and max gauges of the interval; the counters are
+ * exported as they are.
+ *
+ * Calls not sent because the deadline of their flow had passed are counted, as
+ * are the calls still in flight when it passed, together with the time they
+ * spent: downstream work wasted on an answer nobody waits for.
+ *
+ * The endpoints hedged by a {@link RequestHedger} also count their hedges and
+ * record the latency of their primary requests alone, the latency the calls
+ * would have had without hedging.
+ *
+ */
+@Component
+public class EndpointMetrics {
+
+	private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+	private final Map<Endpoint, Stats> stats;
+
+	/**
+	 * @param meterRegistry
+	 */
+	public EndpointMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+		MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+		Map<Endpoint, Stats> byEndpoint = new IdentityHashMap<>();
+		for (Endpoint endpoint : ClientEndpoints.all()) {
+			byEndpoint.put(endpoint, new Stats(endpoint, registry));
+		}
+		this.stats = Collections.unmodifiableMap(byEndpoint);
+	}
+
+	/**
+	 * @param endpoint
+	 * @return the statistics of the endpoint, null for an endpoint not in
+	 *         {@link ClientEndpoints}
+	 */
+	public Stats get(Endpoint endpoint) {
+		return stats.get(endpoint);
+	}
+
+	/**
+	 * Roll the recorded calls into the percentile gauges
+	 */
+	@Scheduled(fixedDelayString = "${client.metrics.interval:10000}")
+	public void roll() {
+		stats.values().forEach(Stats::roll);
+	}
+
+	/**
+	 * Recorded calls of one endpoint
+	 *
+	 */
+	public static final class Stats {
+
+		private final Recorder latency = new Recorder(HIGHEST_MICROS, 2);
+
+		private final Recorder bodyRead = new Recorder(HIGHEST_MICROS, 2);
+
+		private final LongAdder calls = new LongAdder();
+
+		private final LongAdder errors = new LongAdder();
+
+		private final LongAdder timeouts = new LongAdder();
+
+		private final LongAdder bytesSent = new LongAdder();
+
+		private final LongAdder bytesReceived = new LongAdder();
+
+		private final LongAdder deadlineRejected = new LongAdder();
+
+		private final LongAdder wasted = new LongAdder();
+
+		private final LongAdder wastedMicros = new LongAdder();
+
+		private final LongAdder hedges = new LongAdder();
+
+		private final LongAdder hedgeWins = new LongAdder();
+
+		private final LongAdder hedgesRejected = new LongAdder();
+
+		private final MeterRegistry registry;
+
+		private final Tags tags;
+
+		private volatile Recorder primaryLatency;
+
+		private Histogram latencyInterval;
+
+		private Histogram bodyReadInterval;
+
+		private volatile Percentiles latencyPercentiles = Percentiles.EMPTY;
+
+		private volatile Percentiles bodyReadPercentiles = Percentiles.EMPTY;
+
+		private Histogram primaryInterval;
+
+		private volatile Percentiles primaryPercentiles = Percentiles.EMPTY;
+
+		private Stats(Endpoint endpoint, MeterRegistry registry) {
+			this.registry = registry;
+			this.tags = Tags.of("endpoint", endpoint.getTemplate(), "method", endpoint.getMethod().name(),
+					"downstream", endpoint.getDownstream().name());
+			percentileGauges(registry, "client.endpoint.latency", tags, () -> latencyPercentiles);
+			percentileGauges(registry, "client.endpoint.body.read", tags, () -> bodyReadPercentiles);
+			FunctionCounter.builder("client.endpoint.calls", calls, LongAdder::sum).tags(tags).register(registry);
+			FunctionCounter.builder("client.endpoint.errors", errors, LongAdder::sum).tags(tags).register(registry);
+			FunctionCounter.builder("client.endpoint.timeouts", timeouts, LongAdder::sum).tags(tags)
+					.register(registry);
+			FunctionCounter.builder("client.endpoint.bytes.sent", bytesSent, LongAdder::sum).tags(tags)
+					.baseUnit("bytes").register(registry);
+			FunctionCounter.builder("client.endpoint.bytes.received", bytesReceived, LongAdder::sum).tags(tags)
+					.baseUnit("bytes").register(registry);
+			FunctionCounter.builder("client.endpoint.deadline.rejected", deadlineRejected, LongAdder::sum).tags(tags)
+					.register(registry);
+			FunctionCounter.builder("client.endpoint.deadline.wasted", wasted, LongAdder::sum).tags(tags)
+					.register(registry);
+			FunctionCounter
+					.builder("client.endpoint.deadline.wasted.time", wastedMicros, micros -> micros.sum() / 1000.0)
+					.tags(tags).baseUnit("milliseconds").register(registry);
+		}
+
+		/**
+		 * Record a completed call
+		 *
+		 * @param latencyNanos
+		 * @param failure
+		 *            failure of the call, null when it succeeded
+		 */
+		public void recordCall(long latencyNanos, Throwable failure) {
+			calls.increment();
+			latency.recordValue(toMicros(latencyNanos));
+			if (failure != null) {
+				if (isTimeout(failure)) {
+					timeouts.increment();
+				} else {
+					errors.increment();
+				}
+			}
+		}
+
+		/**
+		 * @param bodyReadNanos
+		 *            time spent reading and decoding a response body, from its
+		 *            first byte, so including the transfer of the rest of it
+		 */
+		public void recordBodyRead(long bodyReadNanos) {
+			bodyRead.recordValue(toMicros(bodyReadNanos));
+		}
+
+		public void recordBytesSent(long bytes) {
+			bytesSent.add(bytes);
+		}
+
+		public void recordBytesReceived(long bytes) {
+			bytesReceived.add(bytes);
+		}
+
+		/**
+		 * Record a call not sent because its deadline had passed
+		 */
+		public void recordDeadlineRejected() {
+			deadlineRejected.increment();
+		}
+
+		/**
+		 * Record a call still in flight when its deadline passed
+		 *
+		 * @param latencyNanos
+		 *            time the call spent
+		 */
+		public void recordWasted(long latencyNanos) {
+			wasted.increment();
+			wastedMicros.add(toMicros(latencyNanos));
+		}
+
+		/**
+		 * Record the hedge metrics of the endpoint from now on
+		 */
+		public synchronized void enableHedging() {
+			if (primaryLatency != null) {
+				return;
+			}
+			primaryLatency = new Recorder(HIGHEST_MICROS, 2);
+			percentileGauges(registry, "client.endpoint.latency.primary", tags, () -> primaryPercentiles);
+			FunctionCounter.builder("client.endpoint.hedges", hedges, LongAdder::sum).tags(tags).register(registry);
+			FunctionCounter.builder("client.endpoint.hedges.won", hedgeWins, LongAdder::sum).tags(tags)
+					.register(registry);
+			FunctionCounter.builder("client.endpoint.hedges.rejected", hedgesRejected, LongAdder::sum).tags(tags)
+					.register(registry);
+			Gauge.builder("client.endpoint.hedges.ratio", this, Stats::getHedgeRatio).tags(tags).register(registry);
+		}
+
+		/**
+		 * @param latencyNanos
+		 *            latency of a primary request of a hedged call, whether or
+		 *            not it won
+		 */
+		public void recordPrimary(long latencyNanos) {
+			Recorder recorder = primaryLatency;
+			if (recorder != null) {
+				recorder.recordValue(toMicros(latencyNanos));
+			}
+		}
+
+		/**
+		 * Record a hedge request sent
+		 */
+		public void recordHedge() {
+			hedges.increment();
+		}
+
+		/**
+		 * Record a hedge request answering before its primary request
+		 */
+		public void recordHedgeWin() {
+			hedgeWins.increment();
+		}
+
+		/**
+		 * Record a hedge request not sent for lack of hedge budget
+		 */
+		public void recordHedgeRejected() {
+			hedgesRejected.increment();
+		}
+
+		/**
+		 * @return share of the calls that sent a hedge request
+		 */
+		public double getHedgeRatio() {
+			long count = calls.sum();
+			return count == 0 ? 0 : hedges.sum() / (double) count;
+		}
+
+		/**
+		 * @return latency percentiles of the last interval, in milliseconds
+		 */
+		public Percentiles getLatencyPercentiles() {
+			return latencyPercentiles;
+		}
+
+		/**
+		 * @return body read time percentiles of the last interval, in
+		 *         milliseconds
+		 */
+		public Percentiles getBodyReadPercentiles() {
+			return bodyReadPercentiles;
+		}
+
+		/**
+		 * @return latency percentiles of the primary requests of the last
+		 *         interval, in milliseconds, empty when the endpoint is not
+		 *         hedged
+		 */
+		public Percentiles getPrimaryLatencyPercentiles() {
+			return primaryPercentiles;
+		}
+
+		private synchronized void roll() {
+			latencyInterval = latency.getIntervalHistogram(latencyInterval);
+			latencyPercentiles = new Percentiles(latencyInterval);
+			bodyReadInterval = bodyRead.getIntervalHistogram(bodyReadInterval);
+			bodyReadPercentiles = new Percentiles(bodyReadInterval);
+			if (primaryLatency != null) {
+				primaryInterval = primaryLatency.getIntervalHistogram(primaryInterval);
+				primaryPercentiles = new Percentiles(primaryInterval);
+			}
+		}
+
+		private static long toMicros(long nanos) {
+			return Math.max(0, Math.min(HIGHEST_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos)));
+		}
+
+		private static boolean isTimeout(Throwable failure) {
+			for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+				if (cause instanceof SocketTimeoutException || cause instanceof ConnectTimeoutException
+						|| cause instanceof ConnectionPoolTimeoutException) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private static void percentileGauges(MeterRegistry registry, String name, Tags tags,
+				Supplier<Percentiles> percentiles) {
+			Gauge.builder(name + ".p50", percentiles, value -> value.get().getP50()).tags(tags)
+					.baseUnit("milliseconds").register(registry);
+			Gauge.builder(name + ".p99", percentiles, value -> value.get().getP99()).tags(tags)
+					.baseUnit("milliseconds").register(registry);
+			Gauge.builder(name + ".p999", percentiles, value -> value.get().getP999()).tags(tags)
+					.baseUnit("milliseconds").register(registry);
+			Gauge.builder(name + ".max", percentiles, value -> value.get().getMax()).tags(tags)
+					.baseUnit("milliseconds").register(registry);
+		}
+	}
+
+	/**
+	 * Percentiles of one interval, in milliseconds
+	 *
+	 */
+	public static final class Percentiles {
+
+		static final Percentiles EMPTY = new Percentiles(0, 0, 0, 0, 0, 0);
+
+		private final double p50;
+
+		private final double p90;
+
+		private final double p95;
+
+		private final double p99;
+
+		private final double p999;
+
+		private final double max;
+
+		private Percentiles(Histogram histogram) {
+			this(histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+					histogram.getValueAtPercentile(95) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+					histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0);
+		}
+
+		private Percentiles(double p50, double p90, double p95, double p99, double p999, double max) {
+			this.p50 = p50;
+			this.p90 = p90;
+			this.p95 = p95;
+			this.p99 = p99;
+			this.p999 = p999;
+			this.max = max;
+		}
+
+		public double getP50() {
+			return p50;
+		}
+
+		public double getP90() {
+			return p90;
+		}
+
+		public double getP95() {
+			return p95;
+		}
+
+		public double getP99() {
+			return p99;
+		}
+
+		public double getP999() {
+			return p999;
+		}
+
+		public double getMax() {
+			return max;
+		}
+
+		/**
+		 * @param percentile
+		 * @return the value of the lowest of p50, p90, p95, p99 and p999 at or
+		 *         above the percentile, the max above p999
+		 */
+		public double at(double percentile) {
+			if (percentile <= 50) {
+				return p50;
+			} else if (percentile <= 90) {
+				return p90;
+			} else if (percentile <= 95) {
+				return p95;
+			} else if (percentile <= 99) {
+				return p99;
+			} else if (percentile <= 99.9) {
+				return p999;
+			}
+			return max;
+		}
+	}
+}
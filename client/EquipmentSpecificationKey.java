@@ -0,0 +1,79 @@
+import java.util.Arrays;
+
+/**
+ * Cache key of an equipment specification validation.
+ *
+ * The locations are kept as a sorted array of distinct location IDs, so the same
+ * set of locations in any order maps to the same key.
+ *
+ */
+public final class EquipmentSpecificationKey {
+
+	private final int equipmentLength;
+
+	private final String equipmentType;
+
+	private final int[] locations;
+
+	private final int hash;
+
+	private EquipmentSpecificationKey(int equipmentLength, String equipmentType, int[] locations) {
+		this.equipmentLength = equipmentLength;
+		this.equipmentType = equipmentType;
+		this.locations = locations;
+		int result = 31 * equipmentLength + (equipmentType == null ? 0 : equipmentType.hashCode());
+		this.hash = 31 * result + Arrays.hashCode(locations);
+	}
+
+	/**
+	 * @param equipmentlength
+	 * @param equipmenttype
+	 * @param locations
+	 * @return the canonical key, or null when the locations contain a null
+	 */
+	public static EquipmentSpecificationKey of(int equipmentlength, String equipmenttype, Integer[] locations) {
+		int[] sortedLocations = new int[locations == null ? 0 : locations.length];
+		for (int i = 0; i < sortedLocations.length; i++) {
+			if (locations[i] == null) {
+				return null;
+			}
+			sortedLocations[i] = locations[i];
+		}
+		Arrays.sort(sortedLocations);
+		int distinct = 0;
+		for (int i = 0; i < sortedLocations.length; i++) {
+			if (i == 0 || sortedLocations[i] != sortedLocations[distinct - 1]) {
+				sortedLocations[distinct++] = sortedLocations[i];
+			}
+		}
+		return new EquipmentSpecificationKey(equipmentlength, equipmenttype,
+				distinct == sortedLocations.length ? sortedLocations : Arrays.copyOf(sortedLocations, distinct));
+	}
+
+	/**
+	 * @param locationID
+	 * @return whether the location is part of this key
+	 */
+	public boolean containsLocation(int locationID) {
+		return Arrays.binarySearch(locations, locationID) >= 0;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof EquipmentSpecificationKey)) {
+			return false;
+		}
+		EquipmentSpecificationKey that = (EquipmentSpecificationKey) other;
+		return hash == that.hash && equipmentLength == that.equipmentLength
+				&& (equipmentType == null ? that.equipmentType == null : equipmentType.equals(that.equipmentType))
+				&& Arrays.equals(locations, that.locations);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+}
@@ -0,0 +1,88 @@
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Memoizes the equipment specification validations of {@link ProfileClient},
+ * whose validateEquipmentSpecification delegates here, on the equipment length,
+ * the equipment type and the set of locations, so editing the equipment of an
+ * order does not call the location service again for a combination it already
+ * validated.
+ *
+ * A location is invalidated through the {@link CacheInvalidationBus}, so the
+ * validations involving it are dropped on every node.
+ *
+ */
+@Slf4j
+@Component
+public class EquipmentSpecificationValidator {
+
+	private static final String CACHE_NAME = "equipmentValidation";
+
+	@Autowired
+	private ProfileClient profileClient;
+
+	@Autowired
+	private ProfileClientProperties profileClientProperties;
+
+	@Autowired
+	private CacheInvalidationBus cacheInvalidationBus;
+
+	private ExpiringCache<EquipmentSpecificationKey, Map<String, Boolean>> equipmentValidationCache;
+
+	@PostConstruct
+	public void init() {
+		equipmentValidationCache = new ExpiringCache<>(profileClientProperties.getEquipmentValidationTimeToLive(),
+				profileClientProperties.getEquipmentValidationCacheSize());
+		cacheInvalidationBus.register(CACHE_NAME, key -> {
+			if (key == null) {
+				equipmentValidationCache.invalidateAll();
+			} else {
+				int locationID = Integer.parseInt(key);
+				equipmentValidationCache.invalidateIf(cacheKey -> cacheKey.containsLocation(locationID));
+			}
+		});
+	}
+
+	/**
+	 * To validate the equipment specification
+	 *
+	 * @param equipmentlength
+	 * @param equipmenttype
+	 * @param locations
+	 * @return
+	 */
+	public Map<String, Boolean> validateEquipmentSpecification(int equipmentlength, String equipmenttype,
+			Integer[] locations) {
+		EquipmentSpecificationKey key = EquipmentSpecificationKey.of(equipmentlength, equipmenttype, locations);
+		if (key == null) {
+			return profileClient.validateEquipmentSpecificationUncached(equipmentlength, equipmenttype, locations);
+		}
+		Map<String, Boolean> validation = equipmentValidationCache.get(key);
+		if (validation != null) {
+			log.debug("Equipment specification validation served from cache");
+			return new HashMap<>(validation);
+		}
+		validation = profileClient.validateEquipmentSpecificationUncached(equipmentlength, equipmenttype,
+				locations);
+		if (validation != null) {
+			equipmentValidationCache.put(key, new HashMap<>(validation));
+		}
+		return validation;
+	}
+
+	/**
+	 * Invalidate the cached validations involving a location on all the nodes
+	 *
+	 * @param locationID
+	 */
+	public void invalidateLocation(int locationID) {
+		cacheInvalidationBus.invalidate(CACHE_NAME, Integer.toString(locationID));
+	}
+}
@@ -0,0 +1,123 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Cache with a time to live per entry and an upper bound on the number of
+ * entries, used by the client side aggregates.
+ *
+ * The entries are kept in access order: once the cache is full, putting a new
+ * key evicts the least recently used entry in constant time. Expired entries
+ * are removed when looked up or when they are the least recently used.
+ *
+ * Null values are never cached, a null from {@link #get(Object)} always means a
+ * miss. The operations are synchronized.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class ExpiringCache<K, V> {
+
+	private final Map<K, Entry<V>> entries;
+
+	private final long timeToLiveNanos;
+
+	/**
+	 * @param timeToLiveMillis
+	 *            default time to live of the entries
+	 * @param maximumSize
+	 *            maximum number of entries
+	 */
+	public ExpiringCache(long timeToLiveMillis, int maximumSize) {
+		this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+		this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				return size() > maximumSize;
+			}
+		};
+	}
+
+	/**
+	 * @param key
+	 * @return the cached value or null when absent or expired
+	 */
+	public synchronized V get(K key) {
+		Entry<V> entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.isExpired(System.nanoTime())) {
+			entries.remove(key);
+			return null;
+		}
+		return entry.value;
+	}
+
+	/**
+	 * @param key
+	 * @param value
+	 */
+	public void put(K key, V value) {
+		put(key, value, TimeUnit.NANOSECONDS.toMillis(timeToLiveNanos));
+	}
+
+	/**
+	 * @param key
+	 * @param value
+	 * @param timeToLiveMillis
+	 *            time to live of this entry
+	 */
+	public synchronized void put(K key, V value, long timeToLiveMillis) {
+		if (value == null) {
+			return;
+		}
+		entries.put(key, new Entry<>(value, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis)));
+	}
+
+	/**
+	 * @param key
+	 */
+	public synchronized void invalidate(K key) {
+		entries.remove(key);
+	}
+
+	/**
+	 * @param filter
+	 *            keys to remove
+	 */
+	public synchronized void invalidateIf(Predicate<? super K> filter) {
+		entries.keySet().removeIf(filter);
+	}
+
+	public synchronized void invalidateAll() {
+		entries.clear();
+	}
+
+	/**
+	 * @return number of entries, including the expired ones not yet removed
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	private static final class Entry<V> {
+
+		private final V value;
+
+		private final long expiresAt;
+
+		private Entry(V value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+		private boolean isExpired(long now) {
+			return now - expiresAt >= 0;
+		}
+	}
+}
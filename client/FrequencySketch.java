@@ -0,0 +1,108 @@
+/**
+ * Count-min sketch of the recent access frequency of keys, with 4 bit counters
+ * saturating at 15, used by the {@link TinyLfuCache} admission.
+ *
+ * Each key has four counters, in four of the longs of the table of sixteen
+ * counters each, and its frequency is the smallest of them. Once the number of
+ * increments reaches ten times the number of keys sized for, every counter is
+ * halved, so the frequencies follow the recent accesses. Not thread safe.
+ *
+ */
+public final class FrequencySketch {
+
+	private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+			0xcbf29ce484222325L };
+
+	private static final long HALF_MASK = 0x7777777777777777L;
+
+	private final long[] table;
+
+	private final int tableMask;
+
+	private final int sampleSize;
+
+	private int increments;
+
+	private long resets;
+
+	/**
+	 * @param maximumSize
+	 *            number of keys the sketch is sized for, the maximum size of the
+	 *            cache
+	 */
+	public FrequencySketch(int maximumSize) {
+		int size = Integer.highestOneBit(Math.max(16, Math.min(maximumSize, 1 << 30)) - 1) << 1;
+		this.table = new long[size];
+		this.tableMask = size - 1;
+		this.sampleSize = 10 * Math.max(16, maximumSize);
+	}
+
+	/**
+	 * @param key
+	 * @return the estimated number of recent accesses of the key, at most 15
+	 */
+	public int frequency(Object key) {
+		int hash = spread(key.hashCode());
+		int frequency = 15;
+		for (int i = 0; i < SEEDS.length; i++) {
+			long h = locate(hash, i);
+			frequency = Math.min(frequency, (int) (table[index(h)] >>> shift(h)) & 15);
+		}
+		return frequency;
+	}
+
+	/**
+	 * Count an access of the key
+	 *
+	 * @param key
+	 */
+	public void increment(Object key) {
+		int hash = spread(key.hashCode());
+		boolean incremented = false;
+		for (int i = 0; i < SEEDS.length; i++) {
+			long h = locate(hash, i);
+			int index = index(h);
+			int shift = shift(h);
+			if (((table[index] >>> shift) & 15) != 15) {
+				table[index] += 1L << shift;
+				incremented = true;
+			}
+		}
+		if (incremented && ++increments >= sampleSize) {
+			reset();
+		}
+	}
+
+	/**
+	 * @return number of times the counters were halved
+	 */
+	public long getResets() {
+		return resets;
+	}
+
+	private void reset() {
+		for (int i = 0; i < table.length; i++) {
+			table[i] = (table[i] >>> 1) & HALF_MASK;
+		}
+		increments /= 2;
+		resets++;
+	}
+
+	private static long locate(int hash, int i) {
+		long h = (hash + SEEDS[i]) * SEEDS[i];
+		return h + (h >>> 32);
+	}
+
+	private int index(long h) {
+		return (int) h & tableMask;
+	}
+
+	private static int shift(long h) {
+		return (int) ((h >>> 40) & 15) << 2;
+	}
+
+	private static int spread(int hash) {
+		int h = hash * 0x9e3779b9;
+		return h ^ (h >>> 16);
+	}
+}
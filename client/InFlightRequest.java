@@ -0,0 +1,110 @@
+import org.apache.http.client.methods.HttpUriRequest;
+
+/**
+ * The requests a thread sends through the pooled transport of
+ * {@link ClientTransportConfiguration} while the handle is open, which another
+ * thread may abort, a {@link RequestHedger} whose hedge answered first or the
+ * deadline timer of {@link ClientExchange} for instance:
+ *
+ * <pre>
+ * try (InFlightRequest request = InFlightRequest.open()) {
+ * 	// hand request to the thread which may abort it
+ * 	return send();
+ * }
+ * </pre>
+ *
+ * Aborting closes the connection of the request being sent, which then fails
+ * with a ResourceAccessException, and fails the requests sent after it until
+ * the handle is closed. Handles opened within one another all get the requests
+ * sent, so aborting any of them aborts the request. The calls of the
+ * RestTemplates keeping their own request factory cannot be aborted.
+ *
+ */
+public final class InFlightRequest implements AutoCloseable {
+
+	private static final ThreadLocal<InFlightRequest> CURRENT = new ThreadLocal<>();
+
+	private final InFlightRequest previous;
+
+	private HttpUriRequest request;
+
+	private boolean aborted;
+
+	private InFlightRequest(InFlightRequest previous) {
+		this.previous = previous;
+	}
+
+	/**
+	 * @return the handle of the requests this thread sends until it is closed
+	 */
+	public static InFlightRequest open() {
+		InFlightRequest inFlightRequest = new InFlightRequest(CURRENT.get());
+		CURRENT.set(inFlightRequest);
+		return inFlightRequest;
+	}
+
+	/**
+	 * @return whether the requests of this thread were aborted
+	 */
+	public static boolean isCurrentAborted() {
+		for (InFlightRequest inFlightRequest = CURRENT.get(); inFlightRequest != null;
+				inFlightRequest = inFlightRequest.previous) {
+			if (inFlightRequest.isAborted()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Called by the transport with each request it is about to send
+	 *
+	 * @param request
+	 */
+	static void sending(HttpUriRequest request) {
+		for (InFlightRequest inFlightRequest = CURRENT.get(); inFlightRequest != null;
+				inFlightRequest = inFlightRequest.previous) {
+			inFlightRequest.set(request);
+		}
+	}
+
+	/**
+	 * Abort the request being sent and the next ones
+	 */
+	public void abort() {
+		HttpUriRequest sending;
+		synchronized (this) {
+			aborted = true;
+			sending = request;
+		}
+		if (sending != null) {
+			sending.abort();
+		}
+	}
+
+	public synchronized boolean isAborted() {
+		return aborted;
+	}
+
+	@Override
+	public void close() {
+		synchronized (this) {
+			request = null;
+		}
+		if (previous == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(previous);
+		}
+	}
+
+	private void set(HttpUriRequest sending) {
+		synchronized (this) {
+			request = sending;
+			if (!aborted) {
+				return;
+			}
+		}
+		sending.abort();
+	}
+}
@@ -0,0 +1,60 @@
+import java.util.Iterator;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * JSON merge patch, RFC 7386, between two versions of a JSON object.
+ *
+ * Members added or changed in the target are set in the patch, members removed
+ * from the target are set to null; objects present in both versions are
+ * patched member by member, any other value, arrays included, is replaced as a
+ * whole. A member set to null counts as absent, which is all a merge patch can
+ * tell apart.
+ *
+ */
+public final class JsonMergePatch {
+
+	private JsonMergePatch() {
+	}
+
+	/**
+	 * @param source
+	 *            version the patch applies to
+	 * @param target
+	 *            version the patch gives
+	 * @return the patch, an empty object when both versions are the same
+	 */
+	public static ObjectNode diff(ObjectNode source, ObjectNode target) {
+		ObjectNode patch = JsonNodeFactory.instance.objectNode();
+		for (Iterator<String> it = source.fieldNames(); it.hasNext();) {
+			String name = it.next();
+			if (!isAbsent(source.get(name)) && isAbsent(target.get(name))) {
+				patch.putNull(name);
+			}
+		}
+		for (Iterator<Map.Entry<String, JsonNode>> it = target.fields(); it.hasNext();) {
+			Map.Entry<String, JsonNode> member = it.next();
+			JsonNode from = source.get(member.getKey());
+			JsonNode to = member.getValue();
+			if (isAbsent(to) || to.equals(from)) {
+				continue;
+			}
+			if (to.isObject() && from != null && from.isObject()) {
+				ObjectNode nested = diff((ObjectNode) from, (ObjectNode) to);
+				if (nested.size() > 0) {
+					patch.set(member.getKey(), nested);
+				}
+			} else {
+				patch.set(member.getKey(), to);
+			}
+		}
+		return patch;
+	}
+
+	private static boolean isAbsent(JsonNode value) {
+		return value == null || value.isNull();
+	}
+}
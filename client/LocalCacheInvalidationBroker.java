@@ -0,0 +1,49 @@
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process broker connecting {@link CacheInvalidationTransport}s, for a
+ * single node or for several nodes started in one JVM by a test.
+ *
+ * An invalidation published on one connection is delivered synchronously to
+ * the listeners of all the other connections.
+ *
+ */
+public class LocalCacheInvalidationBroker {
+
+	private final List<Connection> connections = new CopyOnWriteArrayList<>();
+
+	/**
+	 * @return a new transport connected to the broker
+	 */
+	public CacheInvalidationTransport connect() {
+		Connection connection = new Connection();
+		connections.add(connection);
+		return connection;
+	}
+
+	private final class Connection implements CacheInvalidationTransport {
+
+		private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void publish(CacheInvalidation invalidation) {
+			for (Connection connection : connections) {
+				if (connection != this) {
+					connection.listeners.forEach(listener -> listener.accept(invalidation));
+				}
+			}
+		}
+
+		@Override
+		public void subscribe(Consumer<CacheInvalidation> listener) {
+			listeners.add(listener);
+		}
+
+		@Override
+		public void close() {
+			connections.remove(this);
+		}
+	}
+}
@@ -0,0 +1,27 @@
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * Everything the order needs to know about a stop location, resolved in one go
+ * by {@link LocationProfileService}
+ *
+ */
+@Data
+public class LocationProfile {
+
+	private Integer locationID;
+
+	private Map<String, String> timeZone;
+
+	private ContactDTO marketingArea;
+
+	private Map<Integer, List<LocationProfileDTO>> locationProfile;
+
+	private String projection;
+
+	private Map<String, String> projectedLocationProfile;
+
+	private List<FacilityOverviewRequirementDTO> facilityOverviewRequirements;
+}
@@ -0,0 +1,194 @@
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resolves the {@link LocationProfile} of all the stop locations of an order.
+ *
+ * The locations are deduplicated, served from the cache, keyed by location ID
+ * and projection, when possible, and the remaining ones are resolved
+ * concurrently, every location making its profile service calls in parallel.
+ * A location already being resolved by another caller is joined instead of
+ * being fetched twice. The cache admits new locations by lookup frequency
+ * ({@link TinyLfuCache}), so one off locations do not evict the busy ones.
+ * Invalidations go through the {@link CacheInvalidationBus}, so they reach
+ * every node; a fetched profile whose JSON form differs from the one it
+ * replaces, see {@link SerializedForms}, is dropped from the other nodes, in
+ * its projection only.
+ *
+ */
+@Slf4j
+@Component
+public class LocationProfileService {
+
+	private static final String CACHE_NAME = "locationProfile";
+
+	@Autowired
+	private ProfileClient profileClient;
+
+	@Autowired
+	private ProfileClientProperties profileClientProperties;
+
+	@Autowired
+	@Qualifier("profileClientExecutor")
+	private Executor profileClientExecutor;
+
+	@Autowired
+	private CacheInvalidationBus cacheInvalidationBus;
+
+	@Autowired
+	private ObjectProvider<MeterRegistry> meterRegistry;
+
+	private TinyLfuCache<String, LocationProfile> locationProfileCache;
+
+	private final Map<String, CompletableFuture<LocationProfile>> inFlight = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	public void init() {
+		locationProfileCache = new TinyLfuCache<>(profileClientProperties.getLocationProfileTimeToLive(),
+				profileClientProperties.getLocationProfileCacheSize(),
+				profileClientProperties.getProfileCacheAdmissionWindow());
+		locationProfileCache.bindTo(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), CACHE_NAME);
+		cacheInvalidationBus.register(CACHE_NAME, key -> {
+			if (key == null) {
+				locationProfileCache.invalidateAll();
+			} else if (key.indexOf(':') >= 0) {
+				locationProfileCache.invalidate(key);
+			} else {
+				String prefix = key + ":";
+				locationProfileCache.invalidateIf(cacheKey -> cacheKey.startsWith(prefix));
+			}
+		});
+	}
+
+	/**
+	 * To find the location profiles of all the stops of an order
+	 *
+	 * @param locationIDs
+	 * @param projection
+	 * @return location profiles by location ID, in the order of the given locations
+	 */
+	public Map<Integer, LocationProfile> findLocationProfiles(Collection<Integer> locationIDs, String projection) {
+		log.debug("Location profile method to find the location profiles of " + locationIDs.size() + " stops");
+		Map<Integer, CompletableFuture<LocationProfile>> resolving = new LinkedHashMap<>();
+		for (Integer locationID : locationIDs) {
+			if (locationID != null && !resolving.containsKey(locationID)) {
+				LocationProfile cached = locationProfileCache.get(cacheKey(locationID, projection));
+				if (cached != null) {
+					resolving.put(locationID, CompletableFuture.completedFuture(cached));
+				} else {
+					resolving.put(locationID, resolve(locationID, projection));
+				}
+			}
+		}
+		Map<Integer, LocationProfile> locationProfiles = new LinkedHashMap<>();
+		resolving.forEach((locationID, future) -> locationProfiles.put(locationID, join(future)));
+		return locationProfiles;
+	}
+
+	/**
+	 * To find the location profile of one location
+	 *
+	 * @param locationID
+	 * @param projection
+	 * @return
+	 */
+	public LocationProfile findLocationProfile(Integer locationID, String projection) {
+		return findLocationProfiles(Collections.singletonList(locationID), projection).get(locationID);
+	}
+
+	/**
+	 * Invalidate the cached profiles of a location, in every projection, on all
+	 * the nodes
+	 *
+	 * @param locationID
+	 */
+	public void invalidate(Integer locationID) {
+		cacheInvalidationBus.invalidate(CACHE_NAME, locationID.toString());
+	}
+
+	private CompletableFuture<LocationProfile> resolve(Integer locationID, String projection) {
+		String key = cacheKey(locationID, projection);
+		CompletableFuture<LocationProfile> future = inFlight.get(key);
+		if (future == null) {
+			CompletableFuture<LocationProfile> loading = new CompletableFuture<>();
+			future = inFlight.putIfAbsent(key, loading);
+			if (future == null) {
+				future = loading;
+				load(locationID, projection).whenComplete((locationProfile, failure) -> {
+					inFlight.remove(key, loading);
+					if (failure != null) {
+						loading.completeExceptionally(failure);
+					} else {
+						LocationProfile replaced = locationProfileCache.put(key, locationProfile);
+						if (replaced != null && !SerializedForms.equal(replaced, locationProfile)) {
+							cacheInvalidationBus.changed(CACHE_NAME, key);
+						}
+						loading.complete(locationProfile);
+					}
+				});
+			}
+		}
+		return future;
+	}
+
+	private static String cacheKey(Integer locationID, String projection) {
+		return locationID + ":" + projection;
+	}
+
+	private CompletableFuture<LocationProfile> load(Integer locationID, String projection) {
+		String locationcode = locationID.toString();
+		CompletableFuture<Map<String, String>> timeZone = CompletableFuture
+				.supplyAsync(() -> profileClient.findTimeZoneByLocationCode(locationcode), profileClientExecutor);
+		CompletableFuture<ContactDTO> marketingArea = CompletableFuture
+				.supplyAsync(() -> profileClient.findMarketingAreaByLocationCode(locationcode), profileClientExecutor);
+		CompletableFuture<Map<Integer, List<LocationProfileDTO>>> locationProfile = CompletableFuture
+				.supplyAsync(() -> profileClient.findLocationProfileByLocationCode(locationID), profileClientExecutor);
+		CompletableFuture<Map<String, String>> projectedLocationProfile = projection == null
+				? CompletableFuture.completedFuture(null)
+				: CompletableFuture.supplyAsync(
+						() -> profileClient.findLocationProfileByLocationCodeWithProjection(locationID, projection),
+						profileClientExecutor);
+		CompletableFuture<List<FacilityOverviewRequirementDTO>> facilityOverviewRequirements = CompletableFuture
+				.supplyAsync(() -> profileClient.findFacilityOverviewRequirementByLocationCode(locationID),
+						profileClientExecutor);
+
+		return CompletableFuture.allOf(timeZone, marketingArea, locationProfile, projectedLocationProfile,
+				facilityOverviewRequirements).thenApply(done -> {
+					LocationProfile profile = new LocationProfile();
+					profile.setLocationID(locationID);
+					profile.setTimeZone(timeZone.join());
+					profile.setMarketingArea(marketingArea.join());
+					profile.setLocationProfile(locationProfile.join());
+					profile.setProjection(projection);
+					profile.setProjectedLocationProfile(projectedLocationProfile.join());
+					profile.setFacilityOverviewRequirements(facilityOverviewRequirements.join());
+					return profile;
+				});
+	}
+
+	private static LocationProfile join(CompletableFuture<LocationProfile> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+		}
+	}
+}
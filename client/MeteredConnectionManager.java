@@ -0,0 +1,102 @@
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Pooling connection manager of one endpoint group and lane publishing its pool
+ * occupancy, the time waited for a connection and the connection reuse ratio.
+ *
+ * A connection is only connected when it is new, so the reuse ratio is the
+ * share of leased connections that did not need a connect, and a TLS handshake.
+ *
+ */
+public class MeteredConnectionManager extends PoolingHttpClientConnectionManager {
+
+	private final Timer leaseWait;
+
+	private final Counter leased;
+
+	private final Counter connected;
+
+	/**
+	 * @param group
+	 *            endpoint group tagging the metrics
+	 * @param lane
+	 *            priority lane of the calls using the pool, tagging the metrics
+	 * @param timeToLive
+	 *            maximum lifetime in milliseconds of a connection, -1 for no
+	 *            limit
+	 * @param meterRegistry
+	 */
+	public MeteredConnectionManager(String group, Priority lane, long timeToLive, MeterRegistry meterRegistry) {
+		super(timeToLive, TimeUnit.MILLISECONDS);
+		Tags tags = Tags.of("group", group, "lane", lane.name());
+		leaseWait = Timer.builder("client.transport.pool.wait").tags(tags)
+				.description("Time waited for a pooled connection").register(meterRegistry);
+		leased = Counter.builder("client.transport.connections.leased").tags(tags).register(meterRegistry);
+		connected = Counter.builder("client.transport.connections.created").tags(tags).register(meterRegistry);
+		Gauge.builder("client.transport.pool.leased", this, manager -> manager.getTotalStats().getLeased())
+				.tags(tags).register(meterRegistry);
+		Gauge.builder("client.transport.pool.available", this, manager -> manager.getTotalStats().getAvailable())
+				.tags(tags).register(meterRegistry);
+		Gauge.builder("client.transport.pool.pending", this, manager -> manager.getTotalStats().getPending())
+				.tags(tags).register(meterRegistry);
+		Gauge.builder("client.transport.pool.max", this, manager -> manager.getTotalStats().getMax()).tags(tags)
+				.register(meterRegistry);
+		Gauge.builder("client.transport.connections.reuse.ratio", this, MeteredConnectionManager::getReuseRatio)
+				.tags(tags).register(meterRegistry);
+	}
+
+	@Override
+	public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+		ConnectionRequest request = super.requestConnection(route, state);
+		return new ConnectionRequest() {
+
+			@Override
+			public HttpClientConnection get(long timeout, TimeUnit tunit)
+					throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+				long start = System.nanoTime();
+				try {
+					HttpClientConnection connection = request.get(timeout, tunit);
+					leased.increment();
+					return connection;
+				} finally {
+					leaseWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				}
+			}
+
+			@Override
+			public boolean cancel() {
+				return request.cancel();
+			}
+		};
+	}
+
+	@Override
+	public void connect(HttpClientConnection managedConn, HttpRoute route, int connectTimeout, HttpContext context)
+			throws IOException {
+		connected.increment();
+		super.connect(managedConn, route, connectTimeout, context);
+	}
+
+	/**
+	 * @return share of the leased connections that were already connected
+	 */
+	public double getReuseRatio() {
+		double leases = leased.count();
+		return leases == 0 ? 0 : Math.max(0, 1 - connected.count() / leases);
+	}
+}
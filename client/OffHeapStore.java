@@ -0,0 +1,200 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Size bounded store of serialized entries in a direct buffer, outside of the
+ * Java heap.
+ *
+ * The buffer is written as a ring: each entry is appended after the previous
+ * one and, once the buffer is full, new entries overwrite the oldest ones,
+ * which are evicted. Only the index of the entries, a key and a position each,
+ * stays on the heap, so the stored bytes neither fill the old generation nor
+ * lengthen the collections.
+ *
+ */
+public class OffHeapStore {
+
+	private final ByteBuffer buffer;
+
+	private final int capacity;
+
+	private final Map<Object, Slot> index = new HashMap<>();
+
+	// slots in write order, including the ones replaced or removed since
+	private final ArrayDeque<Slot> slots = new ArrayDeque<>();
+
+	private long head;
+
+	private long usedBytes;
+
+	private long evictions;
+
+	/**
+	 * @param capacity
+	 *            size in bytes of the direct buffer, bound by
+	 *            -XX:MaxDirectMemorySize
+	 */
+	public OffHeapStore(int capacity) {
+		this.buffer = ByteBuffer.allocateDirect(capacity);
+		this.capacity = capacity;
+	}
+
+	/**
+	 * @param key
+	 * @param value
+	 *            serialized entry
+	 * @param expiresAt
+	 *            {@link System#nanoTime()} after which the entry is expired
+	 * @return false when the entry is larger than the store
+	 */
+	public synchronized boolean put(Object key, byte[] value, long expiresAt) {
+		if (value.length > capacity) {
+			remove(key);
+			return false;
+		}
+		int position = (int) (head % capacity);
+		if (capacity - position < value.length) {
+			// the entry does not fit before the end of the buffer, wrap around
+			head += capacity - position;
+			position = 0;
+		}
+		long end = head + value.length;
+		while (!slots.isEmpty() && slots.peekFirst().start < end - capacity) {
+			Slot overwritten = slots.pollFirst();
+			if (index.get(overwritten.key) == overwritten) {
+				index.remove(overwritten.key);
+				usedBytes -= overwritten.length;
+				evictions++;
+			}
+		}
+		buffer.position(position);
+		buffer.put(value);
+		Slot slot = new Slot(key, head, value.length, expiresAt);
+		Slot replaced = index.put(key, slot);
+		if (replaced != null) {
+			usedBytes -= replaced.length;
+		}
+		slots.addLast(slot);
+		usedBytes += value.length;
+		head = end;
+		return true;
+	}
+
+	/**
+	 * @param key
+	 * @return the entry, null when absent, evicted or expired
+	 */
+	public synchronized Value get(Object key) {
+		Slot slot = index.get(key);
+		if (slot == null) {
+			return null;
+		}
+		if (System.nanoTime() - slot.expiresAt >= 0) {
+			index.remove(key);
+			usedBytes -= slot.length;
+			return null;
+		}
+		byte[] bytes = new byte[slot.length];
+		buffer.position((int) (slot.start % capacity));
+		buffer.get(bytes);
+		return new Value(bytes, slot.expiresAt);
+	}
+
+	/**
+	 * @param key
+	 */
+	public synchronized void remove(Object key) {
+		Slot slot = index.remove(key);
+		if (slot != null) {
+			usedBytes -= slot.length;
+		}
+	}
+
+	/**
+	 * @param filter
+	 *            keys to remove
+	 */
+	public synchronized void removeIf(Predicate<Object> filter) {
+		for (Iterator<Map.Entry<Object, Slot>> it = index.entrySet().iterator(); it.hasNext();) {
+			Map.Entry<Object, Slot> entry = it.next();
+			if (filter.test(entry.getKey())) {
+				usedBytes -= entry.getValue().length;
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * @return number of entries, including the expired ones not yet read
+	 */
+	public synchronized int size() {
+		return index.size();
+	}
+
+	/**
+	 * @return bytes of the buffer held by the entries
+	 */
+	public synchronized long getUsedBytes() {
+		return usedBytes;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return number of entries overwritten by newer ones since the start
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * A stored entry read back
+	 *
+	 */
+	public static final class Value {
+
+		private final byte[] bytes;
+
+		private final long expiresAt;
+
+		private Value(byte[] bytes, long expiresAt) {
+			this.bytes = bytes;
+			this.expiresAt = expiresAt;
+		}
+
+		public byte[] getBytes() {
+			return bytes;
+		}
+
+		/**
+		 * @return {@link System#nanoTime()} after which the entry is expired
+		 */
+		public long getExpiresAt() {
+			return expiresAt;
+		}
+	}
+
+	private static final class Slot {
+
+		private final Object key;
+
+		private final long start;
+
+		private final int length;
+
+		private final long expiresAt;
+
+		private Slot(Object key, long start, int length, long expiresAt) {
+			this.key = key;
+			this.start = start;
+			this.length = length;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
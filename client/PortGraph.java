@@ -0,0 +1,192 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In memory graph of the entry and exit ports.
+ *
+ * All ports and their pairings are loaded from the location service into a
+ * bidirectional adjacency index and refreshed periodically. The port lookups
+ * of {@link ProfileClient} are answered from it; ports which are not in the
+ * graph yet (added after the last refresh) are still looked up in the location
+ * service.
+ *
+ * The location service only pairs the ports one exit port at a time, so a
+ * refresh makes one call per exit port. Those calls are made in the
+ * {@link Priority#BULK} lane, at most profile.client.port-graph-max-concurrency
+ * at a time.
+ *
+ */
+@Slf4j
+@Component
+public class PortGraph {
+
+	@Autowired
+	private ProfileProperties profileProperties;
+
+	@Autowired
+	private ProfileClientProperties profileClientProperties;
+
+	@Autowired
+	@Qualifier("profileClientExchange")
+	private ClientExchange profileClientExchange;
+
+	@Autowired
+	@Qualifier("profileClientExecutor")
+	private Executor profileClientExecutor;
+
+	private volatile Snapshot snapshot;
+
+	/**
+	 * Reload all the ports and their pairings from the location service
+	 */
+	@Scheduled(fixedDelayString = "#{@profileClientProperties.portGraphRefreshInterval}")
+	public void refresh() {
+		log.debug("Port graph method to refresh the entry/exit ports");
+		try (ClientCallContext.Scope scope = ClientCallContext.withPriority(Priority.BULK)) {
+			List<ExitPortDTO> exitPorts = getBody(profileClientExchange.exchange(ClientEndpoints.EXIT_PORTS,
+					profileProperties.getLocationURL(), null, ResponseTypes.EXIT_PORT_LIST));
+			List<EntryPortDTO> entryPorts = getBody(profileClientExchange.exchange(ClientEndpoints.ENTRY_PORTS,
+					profileProperties.getLocationURL(), null, ResponseTypes.ENTRY_PORT_LIST));
+			if (exitPorts == null || entryPorts == null) {
+				log.warn("Port graph refresh skipped, location service returned no ports");
+				return;
+			}
+			Map<String, ExitPortDTO> exitPortsByCode = new LinkedHashMap<>();
+			exitPorts.forEach(exitPort -> exitPortsByCode.put(exitPort.getExitPortCode(), exitPort));
+			Map<String, EntryPortDTO> entryPortsByCode = new LinkedHashMap<>();
+			entryPorts.forEach(entryPort -> entryPortsByCode.put(entryPort.getEntryPortCode(), entryPort));
+
+			Map<String, List<EntryPortDTO>> pairings = findPairings(exitPortsByCode.keySet());
+			Map<String, List<EntryPortDTO>> entryPortsByExitPort = new HashMap<>();
+			Map<String, List<ExitPortDTO>> exitPortsByEntryPort = new HashMap<>();
+			for (ExitPortDTO exitPort : exitPortsByCode.values()) {
+				List<EntryPortDTO> pairedEntryPorts = pairings.get(exitPort.getExitPortCode());
+				List<EntryPortDTO> neighbours = new ArrayList<>();
+				if (pairedEntryPorts != null) {
+					for (EntryPortDTO entryPort : pairedEntryPorts) {
+						neighbours.add(entryPort);
+						entryPortsByCode.putIfAbsent(entryPort.getEntryPortCode(), entryPort);
+						exitPortsByEntryPort.computeIfAbsent(entryPort.getEntryPortCode(), code -> new ArrayList<>())
+								.add(exitPort);
+					}
+				}
+				entryPortsByExitPort.put(exitPort.getExitPortCode(), neighbours);
+			}
+			entryPortsByCode.keySet().forEach(
+					entryPortCode -> exitPortsByEntryPort.computeIfAbsent(entryPortCode, code -> new ArrayList<>()));
+
+			snapshot = new Snapshot(new ArrayList<>(exitPortsByCode.values()),
+					new ArrayList<>(entryPortsByCode.values()), entryPortsByExitPort, exitPortsByEntryPort);
+			log.debug("Port graph refreshed with " + exitPortsByCode.size() + " exit ports and "
+					+ entryPortsByCode.size() + " entry ports");
+		} catch (RuntimeException e) {
+			log.warn("Port graph refresh failed, keeping the previous graph", e);
+		}
+	}
+
+	/**
+	 * @return all the exit ports, null until the graph is loaded
+	 */
+	public List<ExitPortDTO> findAllExitPorts() {
+		Snapshot current = snapshot;
+		return current == null ? null : new ArrayList<>(current.exitPorts);
+	}
+
+	/**
+	 * @return all the entry ports, null until the graph is loaded
+	 */
+	public List<EntryPortDTO> findAllEntryPorts() {
+		Snapshot current = snapshot;
+		return current == null ? null : new ArrayList<>(current.entryPorts);
+	}
+
+	/**
+	 * @param exitportcode
+	 * @return the entry ports paired with the exit port, null when the exit
+	 *         port is not in the graph
+	 */
+	public List<EntryPortDTO> findEntryPortsByExitPort(String exitportcode) {
+		Snapshot current = snapshot;
+		List<EntryPortDTO> entryPorts = current == null ? null : current.entryPortsByExitPort.get(exitportcode);
+		return entryPorts == null ? null : new ArrayList<>(entryPorts);
+	}
+
+	/**
+	 * @param entryportcode
+	 * @return the exit ports paired with the entry port, null when the entry
+	 *         port is not in the graph
+	 */
+	public List<ExitPortDTO> findExitPortsByEntryPort(String entryportcode) {
+		Snapshot current = snapshot;
+		List<ExitPortDTO> exitPorts = current == null ? null : current.exitPortsByEntryPort.get(entryportcode);
+		return exitPorts == null ? null : new ArrayList<>(exitPorts);
+	}
+
+	private Map<String, List<EntryPortDTO>> findPairings(Iterable<String> exitPortCodes) {
+		Semaphore permits = new Semaphore(Math.max(1, profileClientProperties.getPortGraphMaxConcurrency()));
+		Map<String, CompletableFuture<List<EntryPortDTO>>> calls = new LinkedHashMap<>();
+		for (String exitPortCode : exitPortCodes) {
+			permits.acquireUninterruptibly();
+			if (calls.values().stream().anyMatch(CompletableFuture::isCompletedExceptionally)) {
+				permits.release();
+				break;
+			}
+			CompletableFuture<List<EntryPortDTO>> call = CompletableFuture.supplyAsync(
+					() -> getBody(profileClientExchange.exchange(ClientEndpoints.ENTRY_PORTS_BY_EXIT_PORT,
+							profileProperties.getLocationURL(), null, ResponseTypes.ENTRY_PORT_LIST, exitPortCode)),
+					profileClientExecutor);
+			call.whenComplete((entryPorts, failure) -> permits.release());
+			calls.put(exitPortCode, call);
+		}
+		Map<String, List<EntryPortDTO>> pairings = new HashMap<>();
+		try {
+			calls.forEach((exitPortCode, call) -> pairings.put(exitPortCode, call.join()));
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+		}
+		return pairings;
+	}
+
+	private static <T> T getBody(ResponseEntity<T> response) {
+		return response == null ? null : response.getBody();
+	}
+
+	/**
+	 * Immutable view of the port graph, replaced as a whole on every refresh
+	 */
+	private static final class Snapshot {
+
+		private final List<ExitPortDTO> exitPorts;
+
+		private final List<EntryPortDTO> entryPorts;
+
+		private final Map<String, List<EntryPortDTO>> entryPortsByExitPort;
+
+		private final Map<String, List<ExitPortDTO>> exitPortsByEntryPort;
+
+		private Snapshot(List<ExitPortDTO> exitPorts, List<EntryPortDTO> entryPorts,
+				Map<String, List<EntryPortDTO>> entryPortsByExitPort,
+				Map<String, List<ExitPortDTO>> exitPortsByEntryPort) {
+			this.exitPorts = Collections.unmodifiableList(exitPorts);
+			this.entryPorts = Collections.unmodifiableList(entryPorts);
+			this.entryPortsByExitPort = entryPortsByExitPort;
+			this.exitPortsByEntryPort = exitPortsByEntryPort;
+		}
+	}
+}
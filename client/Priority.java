@@ -0,0 +1,30 @@
+/**
+ * Priority class of the client calls, each with its own lane of admission and
+ * connections to the downstream services
+ *
+ */
+public enum Priority {
+
+	/**
+	 * Calls a user waits on, like type-ahead and order views, preferred over
+	 * the bulk calls
+	 */
+	INTERACTIVE,
+
+	/**
+	 * Calls of bulk jobs, like order copies and EDI or trailer imports,
+	 * limited to a share of the capacity and never hedged.
+	 *
+	 * The {@link ProfilePageScanner} scans, the {@link PortGraph} refreshes and
+	 * the {@link ProfileDetailsBatchClient} lookups of more than one chunk are
+	 * made in this lane on their own. The client methods are shared with the
+	 * interactive flows, so a job calling them, like an order copy getting the
+	 * orders with OrderClient.getOrderByOrderID or a trailer import validating
+	 * trailer numbers, must opt in with
+	 * {@link ClientCallContext#withPriority(Priority)}. A job resolving the
+	 * profile details of many parties, like an EDI import, goes through the
+	 * {@link ProfileDetailsBatchClient} for its dedup, chunks and concurrency
+	 * cap, and opts in too so that a single chunk is not interactive.
+	 */
+	BULK
+}
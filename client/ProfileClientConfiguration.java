@@ -0,0 +1,30 @@
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration for the profile client components
+ *
+ */
+@Configuration
+@EnableScheduling
+public class ProfileClientConfiguration {
+
+	/**
+	 * Executor used to call the profile service in parallel, with the
+	 * {@link Priority} of the submitting thread
+	 *
+	 * @param profileClientProperties
+	 * @return
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor profileClientExecutor(ProfileClientProperties profileClientProperties) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(profileClientProperties.getExecutorPoolSize());
+		executor.setMaxPoolSize(profileClientProperties.getExecutorPoolSize());
+		executor.setThreadNamePrefix("profile-client-");
+		executor.setTaskDecorator(ClientCallContext::wrap);
+		return executor;
+	}
+}
@@ -0,0 +1,87 @@
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Tuning properties for the profile client components
+ *
+ */
+@Data
+@Component("profileClientProperties")
+@ConfigurationProperties(prefix = "profile.client")
+public class ProfileClientProperties {
+
+	/**
+	 * Delay in milliseconds between two refreshes of the port graph
+	 */
+	private long portGraphRefreshInterval = 3600000;
+
+	/**
+	 * Maximum number of port pairing requests in flight during a refresh of the
+	 * port graph
+	 */
+	private int portGraphMaxConcurrency = 4;
+
+	/**
+	 * Number of threads used to call the profile service in parallel
+	 */
+	private int executorPoolSize = 20;
+
+	/**
+	 * Time to live in milliseconds of the cached bill to profile fields
+	 */
+	private long billToProfileTimeToLive = 60000;
+
+	/**
+	 * Time to live in milliseconds of the cached credit status
+	 */
+	private long creditStatusTimeToLive = 10000;
+
+	/**
+	 * Maximum number of cached bill to profile fields
+	 */
+	private int billToProfileCacheSize = 30000;
+
+	/**
+	 * Time to live in milliseconds of the cached location profiles
+	 */
+	private long locationProfileTimeToLive = 300000;
+
+	/**
+	 * Maximum number of cached location profiles
+	 */
+	private int locationProfileCacheSize = 20000;
+
+	/**
+	 * Share of the bill to and location profile caches taken by the window
+	 * admitting every new entry; the rest of each cache only admits the entries
+	 * looked up more often than the ones they evict
+	 */
+	private double profileCacheAdmissionWindow = 0.01;
+
+	/**
+	 * Maximum number of parties sent in one profile details request
+	 */
+	private int profileDetailsChunkSize = 200;
+
+	/**
+	 * Maximum number of profile details requests in flight for one lookup
+	 */
+	private int profileDetailsMaxConcurrency = 4;
+
+	/**
+	 * Time to live in milliseconds of the cached equipment specification validations
+	 */
+	private long equipmentValidationTimeToLive = 600000;
+
+	/**
+	 * Maximum number of cached equipment specification validations
+	 */
+	private int equipmentValidationCacheSize = 10000;
+
+	/**
+	 * Number of pages fetched ahead of the page being consumed in the paged scans
+	 */
+	private int pagePrefetchDepth = 2;
+}
@@ -0,0 +1,133 @@
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Profile details lookups of {@link ProfileClient}, which delegates its
+ * findProfileDetails and findPartyCodeDetails here.
+ *
+ * Repeated parties are sent once, the parties are split into chunks of
+ * profile.client.profile-details-chunk-size and the chunks are sent concurrently,
+ * at most profile.client.profile-details-max-concurrency at a time. Every chunk is
+ * its own {@link ProfileClient} call, so it gets its own Hystrix timeout, and the
+ * chunk results are merged by key. A lookup of more than one chunk is made in
+ * the {@link Priority#BULK} lane, a single chunk in the lane of the caller.
+ *
+ */
+@Slf4j
+@Component
+public class ProfileDetailsBatchClient {
+
+	@Autowired
+	private ProfileClient profileClient;
+
+	@Autowired
+	private ProfileClientProperties profileClientProperties;
+
+	@Autowired
+	@Qualifier("profileClientExecutor")
+	private Executor profileClientExecutor;
+
+	/**
+	 * To find List of Profile Details based on party details
+	 *
+	 * @param profileRequestDTO
+	 * @return
+	 * @throws URISyntaxException
+	 */
+	public Map<String, List<ProfileResponseDTO>> findProfileDetails(List<ProfileRequestDTO> profileRequestDTO)
+			throws URISyntaxException {
+		log.debug("profile details batch method to find List of Profile Details for " + profileRequestDTO.size()
+				+ " parties");
+		return findInChunks(profileRequestDTO, profileClient::findProfileDetailsChunk);
+	}
+
+	/**
+	 * To find List of Profile Details based on party codes
+	 *
+	 * @param profileResponseDTO
+	 * @return
+	 * @throws URISyntaxException
+	 */
+	public Map<String, List<ProfileResponseDTO>> findPartyCodeDetails(List<ProfileResponseDTO> profileResponseDTO)
+			throws URISyntaxException {
+		log.debug("profile details batch method to find List of Party Code Details for " + profileResponseDTO.size()
+				+ " parties");
+		return findInChunks(profileResponseDTO, profileClient::findPartyCodeDetailsChunk);
+	}
+
+	private <T> Map<String, List<ProfileResponseDTO>> findInChunks(List<T> parties, ChunkCall<T> chunkCall)
+			throws URISyntaxException {
+		List<T> distinctParties = new ArrayList<>(new LinkedHashSet<>(parties));
+		int chunkSize = Math.max(1, profileClientProperties.getProfileDetailsChunkSize());
+		if (distinctParties.size() <= chunkSize) {
+			return chunkCall.call(distinctParties);
+		}
+		try (ClientCallContext.Scope scope = ClientCallContext.withPriority(Priority.BULK)) {
+			return findInBulkChunks(distinctParties, chunkSize, chunkCall);
+		}
+	}
+
+	private <T> Map<String, List<ProfileResponseDTO>> findInBulkChunks(List<T> distinctParties, int chunkSize,
+			ChunkCall<T> chunkCall) throws URISyntaxException {
+
+		Semaphore permits = new Semaphore(Math.max(1, profileClientProperties.getProfileDetailsMaxConcurrency()));
+		List<CompletableFuture<Map<String, List<ProfileResponseDTO>>>> chunks = new ArrayList<>();
+		for (int from = 0; from < distinctParties.size(); from += chunkSize) {
+			List<T> chunk = distinctParties.subList(from, Math.min(from + chunkSize, distinctParties.size()));
+			permits.acquireUninterruptibly();
+			if (chunks.stream().anyMatch(CompletableFuture::isCompletedExceptionally)) {
+				permits.release();
+				break;
+			}
+			CompletableFuture<Map<String, List<ProfileResponseDTO>>> future = CompletableFuture.supplyAsync(() -> {
+				try {
+					return chunkCall.call(chunk);
+				} catch (URISyntaxException e) {
+					throw new CompletionException(e);
+				}
+			}, profileClientExecutor);
+			future.whenComplete((result, failure) -> permits.release());
+			chunks.add(future);
+		}
+
+		Map<String, List<ProfileResponseDTO>> profileDetails = new LinkedHashMap<>();
+		try {
+			for (CompletableFuture<Map<String, List<ProfileResponseDTO>>> chunk : chunks) {
+				Map<String, List<ProfileResponseDTO>> chunkDetails = chunk.join();
+				if (chunkDetails != null) {
+					chunkDetails.forEach((key, details) -> {
+						if (details != null) {
+							profileDetails.computeIfAbsent(key, k -> new ArrayList<>()).addAll(details);
+						}
+					});
+				}
+			}
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof URISyntaxException) {
+				throw (URISyntaxException) e.getCause();
+			}
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+		}
+		return profileDetails;
+	}
+
+	@FunctionalInterface
+	private interface ChunkCall<T> {
+
+		Map<String, List<ProfileResponseDTO>> call(List<T> chunk) throws URISyntaxException;
+	}
+}
@@ -0,0 +1,75 @@
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.Data;
+
+/**
+ * One page of a paged profile search, decoded directly into typed items
+ * instead of a Map of LinkedHashMaps.
+ *
+ * Members of the page not mapped to a field, like the sort or the links, are
+ * kept in {@link #getOtherMembers()}, so {@link #toMap()} gives back the page
+ * the Map returning searches used to decode.
+ *
+ * @param <T>
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProfilePage<T> {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {
+	};
+
+	private List<T> content;
+
+	private int number;
+
+	private int size;
+
+	private int numberOfElements;
+
+	private long totalElements;
+
+	private int totalPages;
+
+	private boolean first;
+
+	private boolean last;
+
+	private Map<String, Object> otherMembers = new LinkedHashMap<>();
+
+	@JsonAnyGetter
+	public Map<String, Object> getOtherMembers() {
+		return otherMembers;
+	}
+
+	@JsonAnySetter
+	public void setOtherMember(String name, Object value) {
+		otherMembers.put(name, value);
+	}
+
+	/**
+	 * @return the page as nested Maps and Lists, members set to null left out;
+	 *         it goes through JSON again so the numbers get the types the Map
+	 *         decoding gives them
+	 */
+	public Map<String, Object> toMap() {
+		try {
+			return MAPPER.readValue(MAPPER.writeValueAsBytes(this), MAP_TYPE);
+		} catch (IOException e) {
+			throw new IllegalStateException("Profile page could not be turned into a Map", e);
+		}
+	}
+}
@@ -0,0 +1,150 @@
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterates over the items of all the pages of a paged profile search.
+ *
+ * The iteration ends on the first empty or short page, one with fewer items
+ * than the page size the service applied. The total number of pages the
+ * service reports is only used to bound the prefetches, since it may change
+ * while the search is being paged; a last page which happens to be full costs
+ * one more request, answered by an empty page.
+ *
+ * While a page is consumed the next pages, up to the prefetch depth, are already
+ * being fetched. Pages are only requested as the consumer pulls items, so a
+ * consumer that stops early leaves at most the prefetch depth of pages behind,
+ * and {@link #close()} drops those.
+ *
+ * @param <T>
+ */
+public class ProfilePageIterator<T> implements Iterator<T>, AutoCloseable {
+
+	private final PageFetcher<T> pageFetcher;
+
+	private final int pageSize;
+
+	private final int prefetchDepth;
+
+	private final Executor executor;
+
+	private final Deque<CompletableFuture<ProfilePage<T>>> prefetched = new ArrayDeque<>();
+
+	private Iterator<T> current = Collections.emptyIterator();
+
+	private int nextPage;
+
+	private boolean exhausted;
+
+	private boolean closed;
+
+	/**
+	 * @param pageFetcher
+	 *            fetches one page
+	 * @param pageSize
+	 * @param prefetchDepth
+	 *            number of pages fetched ahead of the page being consumed
+	 * @param executor
+	 *            executor running the prefetches
+	 */
+	public ProfilePageIterator(PageFetcher<T> pageFetcher, int pageSize, int prefetchDepth, Executor executor) {
+		this.pageFetcher = pageFetcher;
+		this.pageSize = pageSize;
+		this.prefetchDepth = Math.max(0, prefetchDepth);
+		this.executor = executor;
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (!current.hasNext()) {
+			if (closed) {
+				return false;
+			}
+			ProfilePage<T> page = nextPage();
+			if (page == null || page.getContent() == null) {
+				close();
+				return false;
+			}
+			current = page.getContent().iterator();
+		}
+		return true;
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return current.next();
+	}
+
+	/**
+	 * Drop the pages fetched ahead, the iterator returns no more pages afterwards
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		prefetched.forEach(page -> page.cancel(false));
+		prefetched.clear();
+	}
+
+	/**
+	 * @return a sequential stream over the items, closing the stream closes this
+	 *         iterator
+	 */
+	public Stream<T> stream() {
+		return StreamSupport
+				.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(this::close);
+	}
+
+	private ProfilePage<T> nextPage() {
+		if (exhausted) {
+			return null;
+		}
+		ProfilePage<T> page;
+		CompletableFuture<ProfilePage<T>> future = prefetched.poll();
+		if (future != null) {
+			try {
+				page = future.join();
+			} catch (CompletionException e) {
+				close();
+				throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+			}
+		} else {
+			page = pageFetcher.fetch(nextPage++, pageSize);
+		}
+		if (page == null || page.getContent() == null
+				|| page.getContent().size() < (page.getSize() > 0 ? page.getSize() : pageSize)) {
+			exhausted = true;
+			prefetched.forEach(prefetch -> prefetch.cancel(false));
+			prefetched.clear();
+			return page;
+		}
+		while (prefetched.size() < prefetchDepth && nextPage < page.getTotalPages()) {
+			int pageNumber = nextPage++;
+			prefetched.add(CompletableFuture.supplyAsync(() -> pageFetcher.fetch(pageNumber, pageSize), executor));
+		}
+		return page;
+	}
+
+	/**
+	 * Fetches one page of a paged search
+	 *
+	 * @param <T>
+	 */
+	@FunctionalInterface
+	public interface PageFetcher<T> {
+
+		ProfilePage<T> fetch(int page, int size);
+	}
+}
@@ -0,0 +1,86 @@
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Full scans over the paged profile searches for the batch jobs, whose pages
+ * are fetched in the {@link Priority#BULK} lane.
+ *
+ * Every scan walks all the pages through a {@link ProfilePageIterator}, which
+ * keeps profile.client.page-prefetch-depth pages in flight while the current one
+ * is consumed. The returned streams should be closed, or consumed until the end,
+ * to release the prefetched pages.
+ *
+ */
+@Slf4j
+@Component
+public class ProfilePageScanner {
+
+	@Autowired
+	private ProfileClient profileClient;
+
+	@Autowired
+	private ProfileClientProperties profileClientProperties;
+
+	@Autowired
+	@Qualifier("profileClientExecutor")
+	private Executor profileClientExecutor;
+
+	/**
+	 * To scan all the profiles matching the criteria
+	 *
+	 * @param value
+	 * @param roletype
+	 * @param size
+	 * @param approved
+	 * @param addresstype
+	 * @param active
+	 * @return
+	 */
+	public Stream<ProfileTypeAheadDTO> scanProfilesByCriteria(String value, String roletype, int size, boolean approved,
+			String addresstype, String active) {
+		log.debug("Profile page scanner method to scan the profiles based on the criteria");
+		return scan((page, pageSize) -> profileClient.findProfilePageByCriteria(value, roletype, page, pageSize,
+				approved, addresstype, active), size);
+	}
+
+	/**
+	 * To scan all the origin/destination locations based on zipcode
+	 *
+	 * @param zipcode
+	 * @param size
+	 * @return
+	 */
+	public Stream<CityTypeAheadDTO> scanOriginDestTypeAheadByZipCode(String zipcode, int size) {
+		log.debug("Profile page scanner method to scan the origin/dest cities based on zipcode");
+		return scan((page, pageSize) -> profileClient.findOriginDestTypeAheadPageByZipCode(zipcode, pageSize, page),
+				size);
+	}
+
+	/**
+	 * To scan all the origin/destination cities based on city
+	 *
+	 * @param city
+	 * @param size
+	 * @return
+	 */
+	public Stream<CityTypeAheadDTO> scanOriginDestCityByCity(String city, int size) {
+		log.debug("Profile page scanner method to scan the origin/dest cities based on city");
+		return scan((page, pageSize) -> profileClient.findOriginDestCityPageByCity(city, pageSize, page), size);
+	}
+
+	private <T> Stream<T> scan(ProfilePageIterator.PageFetcher<T> pageFetcher, int size) {
+		ProfilePageIterator.PageFetcher<T> bulkPageFetcher = (page, pageSize) -> {
+			try (ClientCallContext.Scope scope = ClientCallContext.withPriority(Priority.BULK)) {
+				return pageFetcher.fetch(page, pageSize);
+			}
+		};
+		return new ProfilePageIterator<>(bulkPageFetcher, size, profileClientProperties.getPagePrefetchDepth(),
+				profileClientExecutor).stream();
+	}
+}
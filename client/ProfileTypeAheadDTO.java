@@ -0,0 +1,61 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Data;
+
+/**
+ * Bill To/Solicitor/Broker/Shipper/Receiver party returned by the profile type
+ * ahead search.
+ *
+ * Members not mapped to a field are kept in {@link #getOtherMembers()}, so
+ * none is lost when the page is turned back into a Map.
+ *
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProfileTypeAheadDTO {
+
+	private Integer partyID;
+
+	private String code;
+
+	private String name;
+
+	private String roletype;
+
+	private String addressLine1;
+
+	private String addressLine2;
+
+	private String city;
+
+	private String state;
+
+	private String zipcode;
+
+	private String country;
+
+	private String phoneNumber;
+
+	private Boolean active;
+
+	private Boolean approved;
+
+	private Map<String, Object> otherMembers = new LinkedHashMap<>();
+
+	@JsonAnyGetter
+	public Map<String, Object> getOtherMembers() {
+		return otherMembers;
+	}
+
+	@JsonAnySetter
+	public void setOtherMember(String name, Object value) {
+		otherMembers.put(name, value);
+	}
+}
@@ -0,0 +1,101 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Striped, lossy buffer of the reads of a cache, so lookups record their key
+ * without taking the lock of the cache policy, see {@link TinyLfuCache}.
+ *
+ * Each thread offers to the stripe picked by its id, a ring of sixteen slots.
+ * An offer finding its stripe full, or losing the race for a slot to another
+ * thread, drops the read: the policy then misses one access, which only blurs
+ * the frequencies and the recency order a little. The buffer is drained by one
+ * thread at a time, the holder of the policy lock.
+ *
+ * @param <E>
+ */
+public final class ReadBuffer<E> {
+
+	private static final int STRIPE_SIZE = 16;
+
+	private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
+	private static final int MAXIMUM_STRIPES = 64;
+
+	private final Stripe<E>[] stripes;
+
+	private final int stripeMask;
+
+	@SuppressWarnings("unchecked")
+	public ReadBuffer() {
+		int processors = Runtime.getRuntime().availableProcessors();
+		int count = Math.min(MAXIMUM_STRIPES, Integer.highestOneBit(Math.max(1, 4 * processors - 1)) << 1);
+		this.stripes = new Stripe[count];
+		for (int i = 0; i < count; i++) {
+			stripes[i] = new Stripe<>();
+		}
+		this.stripeMask = count - 1;
+	}
+
+	/**
+	 * @param element
+	 * @return whether the stripe of this thread is full and should be drained
+	 */
+	public boolean offer(E element) {
+		long id = Thread.currentThread().getId();
+		int h = (int) (id ^ (id >>> 32)) * 0x9e3779b9;
+		return stripes[(h ^ (h >>> 16)) & stripeMask].offer(element);
+	}
+
+	/**
+	 * Hand the buffered elements to the consumer, by one thread at a time
+	 *
+	 * @param consumer
+	 */
+	public void drainTo(Consumer<? super E> consumer) {
+		for (Stripe<E> stripe : stripes) {
+			stripe.drainTo(consumer);
+		}
+	}
+
+	private static final class Stripe<E> {
+
+		private final AtomicReferenceArray<E> slots = new AtomicReferenceArray<>(STRIPE_SIZE);
+
+		private final AtomicLong writes = new AtomicLong();
+
+		/**
+		 * Advanced by the draining thread only
+		 */
+		private volatile long reads;
+
+		private boolean offer(E element) {
+			long write = writes.get();
+			long size = write - reads;
+			if (size >= STRIPE_SIZE) {
+				return true;
+			}
+			if (!writes.compareAndSet(write, write + 1)) {
+				return false;
+			}
+			slots.lazySet((int) write & STRIPE_MASK, element);
+			return size + 1 >= STRIPE_SIZE;
+		}
+
+		private void drainTo(Consumer<? super E> consumer) {
+			long read = reads;
+			long write = writes.get();
+			for (; read < write; read++) {
+				int index = (int) read & STRIPE_MASK;
+				E element = slots.get(index);
+				if (element == null) {
+					// claimed by a thread which did not store it yet, left to the next drain
+					break;
+				}
+				slots.lazySet(index, null);
+				consumer.accept(element);
+			}
+			reads = read;
+		}
+	}
+}
@@ -0,0 +1,272 @@
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Hedges the interactive calls of the idempotent GET endpoints listed in
+ * client.exchange.hedging.endpoints; {@link Priority#BULK} calls are not
+ * hedged.
+ *
+ * The primary request of a hedged call is sent by the caller thread. When it
+ * has not answered after the configured percentile of the latency of the
+ * primary requests of the endpoint over the last metrics interval, or of all
+ * its calls until there are some, a timer sends a second, hedge, request from
+ * a pool thread. The first of the two to succeed answers the call: a hedge
+ * answering first aborts the primary request through its
+ * {@link InFlightRequest}, a primary answering first leaves the hedge to
+ * complete in the background. A call fails only when both requests fail.
+ *
+ * Hedge requests are paid from a budget per downstream service, refilled by a
+ * fraction of a request on every call, so hedging never adds more than that
+ * fraction of extra load. Without latency data for the last interval a call is
+ * not hedged.
+ *
+ */
+@Component
+public class RequestHedger {
+
+	private final ClientExchangeProperties.Hedging properties;
+
+	private final Set<Endpoint> endpoints;
+
+	private final Map<Downstream, Budget> budgets = new EnumMap<>(Downstream.class);
+
+	private final ThreadPoolExecutor executor;
+
+	private final ScheduledThreadPoolExecutor timer;
+
+	/**
+	 * @param clientExchangeProperties
+	 * @param endpointMetrics
+	 */
+	public RequestHedger(ClientExchangeProperties clientExchangeProperties, EndpointMetrics endpointMetrics) {
+		this.properties = clientExchangeProperties.getHedging();
+		if (!properties.isEnabled()) {
+			this.endpoints = Collections.emptySet();
+			this.executor = null;
+			this.timer = null;
+			return;
+		}
+		this.endpoints = Collections.unmodifiableSet(properties.getEndpoints().stream().map(ClientEndpoints::named)
+				.filter(endpoint -> endpoint.getMethod() == HttpMethod.GET).collect(Collectors.toSet()));
+		for (Endpoint endpoint : endpoints) {
+			endpointMetrics.get(endpoint).enableHedging();
+		}
+		for (Downstream downstream : Downstream.values()) {
+			budgets.put(downstream, new Budget(properties.getBudget(), properties.getBurst()));
+		}
+		AtomicInteger threads = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(0, properties.getMaxThreads(), 60, TimeUnit.SECONDS,
+				new SynchronousQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, "client-hedge-" + threads.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "client-hedge-timer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.timer.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * @param endpoint
+	 * @return whether the calls of the endpoint are hedged
+	 */
+	public boolean isHedged(Endpoint endpoint) {
+		return endpoints.contains(endpoint);
+	}
+
+	/**
+	 * Make a hedged call
+	 *
+	 * @param endpoint
+	 * @param stats
+	 *            statistics of the endpoint
+	 * @param request
+	 *            sends one request of the call
+	 * @return the response of the first request to succeed
+	 */
+	public <T> T execute(Endpoint endpoint, EndpointMetrics.Stats stats, Supplier<T> request) {
+		Budget budget = budgets.get(endpoint.getDownstream());
+		budget.deposit();
+		long delay = delayNanos(stats);
+		CompletableFuture<T> first = new CompletableFuture<>();
+		AtomicInteger pending = new AtomicInteger(1);
+		try (InFlightRequest primary = InFlightRequest.open()) {
+			Runnable hedge = ClientCallContext.wrap(() -> hedge(request, stats, budget, first, pending, primary));
+			ScheduledFuture<?> scheduled = delay < 0 ? null : timer.schedule(hedge, delay, TimeUnit.NANOSECONDS);
+			long start = System.nanoTime();
+			T response = null;
+			Throwable failure = null;
+			try {
+				response = request.get();
+			} catch (RuntimeException | Error e) {
+				failure = e;
+			}
+			if (scheduled != null) {
+				scheduled.cancel(false);
+			}
+			if (!primary.isAborted()) {
+				stats.recordPrimary(System.nanoTime() - start);
+			}
+			settle(first, pending, response, failure);
+		}
+		return join(endpoint, first);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (executor != null) {
+			timer.shutdownNow();
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * @return the delay before the hedge request, negative when the call is not
+	 *         hedged
+	 */
+	private long delayNanos(EndpointMetrics.Stats stats) {
+		EndpointMetrics.Percentiles percentiles = stats.getPrimaryLatencyPercentiles();
+		if (percentiles.getMax() == 0) {
+			percentiles = stats.getLatencyPercentiles();
+		}
+		if (percentiles.getMax() == 0) {
+			return -1;
+		}
+		return Math.max(TimeUnit.MILLISECONDS.toNanos(properties.getMinDelay()),
+				(long) (percentiles.at(properties.getDelayPercentile()) * 1_000_000));
+	}
+
+	/**
+	 * Send the hedge request of a call whose primary request is still running
+	 */
+	private <T> void hedge(Supplier<T> request, EndpointMetrics.Stats stats, Budget budget,
+			CompletableFuture<T> first, AtomicInteger pending, InFlightRequest primary) {
+		if (first.isDone()) {
+			return;
+		}
+		if (!budget.withdraw()) {
+			stats.recordHedgeRejected();
+			return;
+		}
+		pending.incrementAndGet();
+		CompletableFuture<T> sent;
+		try {
+			sent = CompletableFuture.supplyAsync(ClientCallContext.wrap(request), executor);
+		} catch (RejectedExecutionException e) {
+			pending.decrementAndGet();
+			budget.refund();
+			stats.recordHedgeRejected();
+			return;
+		}
+		stats.recordHedge();
+		sent.whenComplete((response, failure) -> {
+			if (settle(first, pending, response, failure)) {
+				stats.recordHedgeWin();
+				primary.abort();
+			}
+		});
+	}
+
+	/**
+	 * @return whether the request answered the call
+	 */
+	private static <T> boolean settle(CompletableFuture<T> first, AtomicInteger pending, T response,
+			Throwable failure) {
+		if (failure == null) {
+			return first.complete(response);
+		}
+		if (pending.decrementAndGet() == 0) {
+			first.completeExceptionally(failure);
+		}
+		return false;
+	}
+
+	private static <T> T join(Endpoint endpoint, CompletableFuture<T> future) {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			throw rethrow(e.getCause());
+		} catch (InterruptedException e) {
+			throw interrupted(endpoint);
+		}
+	}
+
+	private static RuntimeException rethrow(Throwable failure) {
+		Throwable cause = failure;
+		while (cause instanceof CompletionException && cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		return cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+	}
+
+	private static ResourceAccessException interrupted(Endpoint endpoint) {
+		Thread.currentThread().interrupt();
+		return new ResourceAccessException("Interrupted while waiting for " + endpoint,
+				new InterruptedIOException());
+	}
+
+	/**
+	 * Hedge requests a downstream service may still receive, in thousandths
+	 *
+	 */
+	private static final class Budget {
+
+		private final long perCall;
+
+		private final long max;
+
+		private final AtomicLong available = new AtomicLong();
+
+		private Budget(double perCall, int burst) {
+			this.perCall = Math.round(perCall * 1000);
+			this.max = burst * 1000L;
+		}
+
+		private void deposit() {
+			available.updateAndGet(value -> Math.min(max, value + perCall));
+		}
+
+		private boolean withdraw() {
+			long value;
+			do {
+				value = available.get();
+				if (value < 1000) {
+					return false;
+				}
+			} while (!available.compareAndSet(value, value - 1000));
+			return true;
+		}
+
+		private void refund() {
+			available.addAndGet(1000);
+		}
+	}
+}
@@ -0,0 +1,47 @@
+import java.lang.reflect.Type;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+/**
+ * Response type of a client call.
+ *
+ * The instances are created once, as constants in {@link ResponseTypes}, so the
+ * generic type is captured once instead of by an anonymous
+ * ParameterizedTypeReference on every call, and {@link ClientExchange} can keep
+ * the reader it resolved for it.
+ *
+ * @param <T>
+ */
+public final class ResponseType<T> {
+
+	private final Type type;
+
+	private ResponseType(Type type) {
+		this.type = type;
+	}
+
+	/**
+	 * @param type
+	 * @return the response type of a non generic type
+	 */
+	public static <T> ResponseType<T> of(Class<T> type) {
+		return new ResponseType<>(type);
+	}
+
+	/**
+	 * @param typeReference
+	 * @return the response type of a generic type
+	 */
+	public static <T> ResponseType<T> of(TypeReference<T> typeReference) {
+		return new ResponseType<>(typeReference.getType());
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	@Override
+	public String toString() {
+		return type.getTypeName();
+	}
+}
@@ -0,0 +1,164 @@
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.hateoas.Resources;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+/**
+ * Response types of the calls made by {@link OrderClient},
+ * {@link OrderReferenceDataClient} and {@link ProfileClient}
+ *
+ */
+public final class ResponseTypes {
+
+	public static final ResponseType<String> STRING = ResponseType.of(String.class);
+
+	public static final ResponseType<Map<String, String>> STRING_MAP = ResponseType
+			.of(new TypeReference<Map<String, String>>() {
+			});
+
+	public static final ResponseType<Map<String, Boolean>> BOOLEAN_MAP = ResponseType
+			.of(new TypeReference<Map<String, Boolean>>() {
+			});
+
+	public static final ResponseType<Map<String, Object>> OBJECT_MAP = ResponseType
+			.of(new TypeReference<Map<String, Object>>() {
+			});
+
+	// order
+
+	public static final ResponseType<List<ChargeDTO>> CHARGE_LIST = ResponseType
+			.of(new TypeReference<List<ChargeDTO>>() {
+			});
+
+	public static final ResponseType<List<CommentDTO>> COMMENT_LIST = ResponseType
+			.of(new TypeReference<List<CommentDTO>>() {
+			});
+
+	public static final ResponseType<List<ReferenceNumberDTO>> REFERENCE_NUMBER_LIST = ResponseType
+			.of(new TypeReference<List<ReferenceNumberDTO>>() {
+			});
+
+	public static final ResponseType<List<StopItem>> STOP_ITEM_LIST = ResponseType
+			.of(new TypeReference<List<StopItem>>() {
+			});
+
+	public static final ResponseType<EquipmentType> EQUIPMENT_TYPE = ResponseType.of(EquipmentType.class);
+
+	public static final ResponseType<OrderResponseDTO> ORDER_RESPONSE = ResponseType.of(OrderResponseDTO.class);
+
+	public static final ResponseType<Order> ORDER = ResponseType.of(Order.class);
+
+	public static final ResponseType<OrderDTO> ORDER_DTO = ResponseType.of(OrderDTO.class);
+
+	public static final ResponseType<OrderAssociatedParty> ORDER_ASSOCIATED_PARTY = ResponseType
+			.of(OrderAssociatedParty.class);
+
+	public static final ResponseType<Resources<OrderUnifiedCustomerRequestAssociation>> UNIFIED_CUSTOMER_REQUEST_RESOURCES = ResponseType
+			.of(new TypeReference<Resources<OrderUnifiedCustomerRequestAssociation>>() {
+			});
+
+	// reference data
+
+	public static final ResponseType<Resources<CommentType>> COMMENT_TYPE_RESOURCES = ResponseType
+			.of(new TypeReference<Resources<CommentType>>() {
+			});
+
+	public static final ResponseType<Resources<CommentTemplate>> COMMENT_TEMPLATE_RESOURCES = ResponseType
+			.of(new TypeReference<Resources<CommentTemplate>>() {
+			});
+
+	public static final ResponseType<Resources<ServiceType>> SERVICE_TYPE_RESOURCES = ResponseType
+			.of(new TypeReference<Resources<ServiceType>>() {
+			});
+
+	public static final ResponseType<List<BondHolder>> BOND_HOLDER_LIST = ResponseType
+			.of(new TypeReference<List<BondHolder>>() {
+			});
+
+	public static final ResponseType<Resources<BondHolder>> BOND_HOLDER_RESOURCES = ResponseType
+			.of(new TypeReference<Resources<BondHolder>>() {
+			});
+
+	public static final ResponseType<Resources<BondType>> BOND_TYPE_RESOURCES = ResponseType
+			.of(new TypeReference<Resources<BondType>>() {
+			});
+
+	public static final ResponseType<Resources<StopReason>> STOP_REASON_RESOURCES = ResponseType
+			.of(new TypeReference<Resources<StopReason>>() {
+			});
+
+	public static final ResponseType<Resources<OrderChannel>> ORDER_CHANNEL_RESOURCES = ResponseType
+			.of(new TypeReference<Resources<OrderChannel>>() {
+			});
+
+	public static final ResponseType<Resources<RequestedAppointmentType>> REQUESTED_APPOINTMENT_TYPE_RESOURCES = ResponseType
+			.of(new TypeReference<Resources<RequestedAppointmentType>>() {
+			});
+
+	public static final ResponseType<Resources<AppointmentInstruction>> APPOINTMENT_INSTRUCTION_RESOURCES = ResponseType
+			.of(new TypeReference<Resources<AppointmentInstruction>>() {
+			});
+
+	// profile
+
+	public static final ResponseType<Map<String, List<CountryDTO>>> COUNTRY_LIST_MAP = ResponseType
+			.of(new TypeReference<Map<String, List<CountryDTO>>>() {
+			});
+
+	public static final ResponseType<CustomerProfileDTO> CUSTOMER_PROFILE = ResponseType.of(CustomerProfileDTO.class);
+
+	public static final ResponseType<List<FacilityOverviewRequirementDTO>> FACILITY_OVERVIEW_REQUIREMENT_LIST = ResponseType
+			.of(new TypeReference<List<FacilityOverviewRequirementDTO>>() {
+			});
+
+	public static final ResponseType<List<ContactMethodDTO>> CONTACT_METHOD_LIST = ResponseType
+			.of(new TypeReference<List<ContactMethodDTO>>() {
+			});
+
+	public static final ResponseType<RatingCycleDTO> RATING_CYCLE = ResponseType.of(RatingCycleDTO.class);
+
+	public static final ResponseType<CustomerDTO> CUSTOMER = ResponseType.of(CustomerDTO.class);
+
+	public static final ResponseType<List<TitleDTO>> TITLE_LIST = ResponseType
+			.of(new TypeReference<List<TitleDTO>>() {
+			});
+
+	public static final ResponseType<ContactDTO> CONTACT = ResponseType.of(ContactDTO.class);
+
+	public static final ResponseType<List<ContactDTO>> CONTACT_LIST = ResponseType
+			.of(new TypeReference<List<ContactDTO>>() {
+			});
+
+	public static final ResponseType<Map<Integer, List<LocationProfileDTO>>> LOCATION_PROFILE_LIST_MAP = ResponseType
+			.of(new TypeReference<Map<Integer, List<LocationProfileDTO>>>() {
+			});
+
+	public static final ResponseType<List<ExitPortDTO>> EXIT_PORT_LIST = ResponseType
+			.of(new TypeReference<List<ExitPortDTO>>() {
+			});
+
+	public static final ResponseType<List<EntryPortDTO>> ENTRY_PORT_LIST = ResponseType
+			.of(new TypeReference<List<EntryPortDTO>>() {
+			});
+
+	public static final ResponseType<ProfilePage<CityTypeAheadDTO>> CITY_TYPE_AHEAD_PAGE = ResponseType
+			.of(new TypeReference<ProfilePage<CityTypeAheadDTO>>() {
+			});
+
+	public static final ResponseType<ProfilePage<ProfileTypeAheadDTO>> PROFILE_TYPE_AHEAD_PAGE = ResponseType
+			.of(new TypeReference<ProfilePage<ProfileTypeAheadDTO>>() {
+			});
+
+	public static final ResponseType<Map<String, ProfileDTO>> PROFILE_MAP = ResponseType
+			.of(new TypeReference<Map<String, ProfileDTO>>() {
+			});
+
+	public static final ResponseType<Map<String, List<ProfileResponseDTO>>> PROFILE_RESPONSE_LIST_MAP = ResponseType
+			.of(new TypeReference<Map<String, List<ProfileResponseDTO>>>() {
+			});
+
+	private ResponseTypes() {
+	}
+}
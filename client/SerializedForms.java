@@ -0,0 +1,48 @@
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compares values by their JSON form, properties and map entries sorted, for
+ * the caches telling whether a fetched value changed: the DTOs the values are
+ * made of are not all defined here and may lack value equality.
+ *
+ */
+@Slf4j
+public final class SerializedForms {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper()
+			.enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+			.enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+			.disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+
+	private SerializedForms() {
+	}
+
+	/**
+	 * @param value
+	 * @param other
+	 * @return whether both values have the same JSON form, true as well when
+	 *         either cannot be written, so such a value is never taken as
+	 *         changed
+	 */
+	public static boolean equal(Object value, Object other) {
+		if (value == other) {
+			return true;
+		}
+		if (value == null || other == null) {
+			return false;
+		}
+		try {
+			return Arrays.equals(MAPPER.writeValueAsBytes(value), MAPPER.writeValueAsBytes(other));
+		} catch (JsonProcessingException e) {
+			log.debug("Values of {} not compared", value.getClass().getName(), e);
+			return true;
+		}
+	}
+}
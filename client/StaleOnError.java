@@ -0,0 +1,17 @@
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a client read method answered from the {@link StaleValueStore} when its
+ * downstream service is degraded: the last value it returned for the same
+ * arguments is served, within the maximum staleness, instead of the failure.
+ *
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StaleOnError {
+}
@@ -0,0 +1,85 @@
+import java.lang.reflect.Method;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import com.netflix.hystrix.exception.HystrixBadRequestException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Answers the {@link StaleOnError} methods from the {@link StaleValueStore}
+ * when their downstream service is degraded.
+ *
+ * The aspect wraps the Hystrix command, so timeouts, open circuits and
+ * rejected executions are served stale as well as the failed calls. Client
+ * errors, 4xx responses and bad requests, are thrown as they are: the request
+ * itself is wrong, not the service.
+ *
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class StaleOnErrorAspect {
+
+	private final StaleValueProperties properties;
+
+	private final StaleValueStore staleValueStore;
+
+	/**
+	 * @param properties
+	 * @param staleValueStore
+	 */
+	public StaleOnErrorAspect(StaleValueProperties properties, StaleValueStore staleValueStore) {
+		this.properties = properties;
+		this.staleValueStore = staleValueStore;
+	}
+
+	/**
+	 * @param joinPoint
+	 * @return the value of the method, or its last value when the downstream
+	 *         service is degraded
+	 * @throws Throwable
+	 */
+	@Around("@annotation(StaleOnError)")
+	public Object serveStaleOnError(ProceedingJoinPoint joinPoint) throws Throwable {
+		if (!properties.isEnabled()) {
+			return joinPoint.proceed();
+		}
+		Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+		Object[] args = joinPoint.getArgs();
+		staleValueStore.clear();
+		Object value;
+		try {
+			value = joinPoint.proceed();
+		} catch (RuntimeException e) {
+			if (isClientError(e)) {
+				throw e;
+			}
+			Object stale = staleValueStore.get(method, args);
+			if (stale == null) {
+				throw e;
+			}
+			log.warn("{} answered with a stale value: {}", method.getName(), e.toString());
+			return stale;
+		}
+		staleValueStore.put(method, args, value);
+		return value;
+	}
+
+	private static boolean isClientError(Throwable failure) {
+		for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+			if (cause instanceof HttpClientErrorException || cause instanceof HystrixBadRequestException) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,53 @@
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Properties of the {@link StaleValueStore}
+ *
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "client.stale-values")
+public class StaleValueProperties {
+
+	/**
+	 * Whether the {@link StaleOnError} methods are answered with stale values
+	 * when their downstream service is degraded
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Age in milliseconds beyond which a value is not served any more
+	 */
+	private long maxStaleness = 600000;
+
+	/**
+	 * Maximum staleness in milliseconds per method name, for the methods not
+	 * using maxStaleness
+	 */
+	private Map<String, Long> maxStalenesses = new HashMap<>();
+
+	/**
+	 * Maximum number of values kept
+	 */
+	private int maximumSize = 20000;
+
+	/**
+	 * Time in milliseconds a kept value is not replaced by the newer values of
+	 * the same method and arguments, which are not serialized meanwhile
+	 */
+	private long snapshotInterval = 1000;
+
+	/**
+	 * @param method
+	 * @return the maximum staleness in milliseconds of the values of the method
+	 */
+	public long maxStalenessOf(String method) {
+		return maxStalenesses.getOrDefault(method, maxStaleness);
+	}
+}
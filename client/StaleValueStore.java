@@ -0,0 +1,221 @@
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Last values returned by the {@link StaleOnError} methods, per method and
+ * arguments, kept up to their maximum staleness.
+ *
+ * The arguments are keyed by their serialized form too, so a caller changing
+ * an argument array or DTO after the call does not change the key kept; a call
+ * with arguments which cannot be serialized is neither kept nor answered.
+ *
+ * Values are kept as serialized snapshots, see {@link TwoTierCacheCodec}, so a
+ * caller changing the value it was returned cannot change the one served stale
+ * later, and every stale answer is a copy of its own. A value is snapshot again
+ * only once the one kept is older than client.stale-values.snapshot-interval,
+ * which bounds the serialization cost of the hot read methods. The values are
+ * spread over several least recently used caches by key, so the successful
+ * calls do not all wait on one lock to store theirs.
+ *
+ * Whether the last {@link StaleOnError} call of a thread was answered with a
+ * stale value is available through {@link #isStale()}.
+ *
+ */
+@Slf4j
+@Component
+public class StaleValueStore {
+
+	private static final ThreadLocal<Boolean> STALE = new ThreadLocal<>();
+
+	private static final int SEGMENTS = 16;
+
+	private final StaleValueProperties properties;
+
+	private final List<ExpiringCache<Key, Stored>> segments = new ArrayList<>(SEGMENTS);
+
+	private final TwoTierCacheCodec codec = new TwoTierCacheCodec();
+
+	private final long snapshotIntervalNanos;
+
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * @param properties
+	 * @param meterRegistry
+	 */
+	public StaleValueStore(StaleValueProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+		this.properties = properties;
+		int segmentSize = Math.max(1, properties.getMaximumSize() / SEGMENTS);
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments.add(new ExpiringCache<>(properties.getMaxStaleness(), segmentSize));
+		}
+		this.snapshotIntervalNanos = TimeUnit.MILLISECONDS.toNanos(properties.getSnapshotInterval());
+		this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+		Gauge.builder("client.stale.values", segments,
+				caches -> caches.stream().mapToInt(ExpiringCache::size).sum()).register(this.meterRegistry);
+	}
+
+	/**
+	 * @return whether the last {@link StaleOnError} call of this thread was
+	 *         answered with a stale value
+	 */
+	public static boolean isStale() {
+		return STALE.get() != null;
+	}
+
+	/**
+	 * Keep a value returned by a method, unless the one kept is more recent than
+	 * the snapshot interval
+	 *
+	 * @param method
+	 * @param args
+	 * @param value
+	 */
+	public void put(Method method, Object[] args, Object value) {
+		STALE.remove();
+		if (value == null) {
+			return;
+		}
+		Key key = key(method, args);
+		if (key == null) {
+			return;
+		}
+		ExpiringCache<Key, Stored> segment = segment(key);
+		Stored kept = segment.get(key);
+		if (kept != null && System.nanoTime() - kept.storedAt < snapshotIntervalNanos) {
+			return;
+		}
+		byte[] snapshot;
+		try {
+			snapshot = codec.encode(value);
+		} catch (IOException e) {
+			log.debug("Value of {} not kept", method.getName(), e);
+			meterRegistry.counter("client.stale.unserializable", "method", method.getName()).increment();
+			return;
+		}
+		segment.put(key, new Stored(snapshot), properties.maxStalenessOf(method.getName()));
+	}
+
+	/**
+	 * Take a copy of the value last returned by a method for the same
+	 * arguments, and mark the call of this thread as stale
+	 *
+	 * @param method
+	 * @param args
+	 * @return the value, null when none was returned within the maximum
+	 *         staleness
+	 */
+	public Object get(Method method, Object[] args) {
+		Key key = key(method, args);
+		Stored stored = key == null ? null : segment(key).get(key);
+		Object value = stored == null ? null : decode(method, stored);
+		if (value == null) {
+			STALE.remove();
+			meterRegistry.counter("client.stale.misses", "method", method.getName()).increment();
+			return null;
+		}
+		STALE.set(Boolean.TRUE);
+		meterRegistry.counter("client.stale.served", "method", method.getName()).increment();
+		meterRegistry.timer("client.stale.age", "method", method.getName())
+				.record(System.nanoTime() - stored.storedAt, TimeUnit.NANOSECONDS);
+		return value;
+	}
+
+	/**
+	 * Clear the stale mark of this thread
+	 */
+	public void clear() {
+		STALE.remove();
+	}
+
+	/**
+	 * @return the key of the arguments, null when they cannot be serialized
+	 */
+	private Key key(Method method, Object[] args) {
+		try {
+			return new Key(method, codec.encode(args));
+		} catch (IOException e) {
+			log.debug("Arguments of {} not serialized", method.getName(), e);
+			meterRegistry.counter("client.stale.unserializable", "method", method.getName()).increment();
+			return null;
+		}
+	}
+
+	private ExpiringCache<Key, Stored> segment(Key key) {
+		return segments.get((key.hash ^ key.hash >>> 16) & (SEGMENTS - 1));
+	}
+
+	/**
+	 * @return the value, null when it cannot be read back as a value of the
+	 *         method
+	 */
+	private Object decode(Method method, Stored stored) {
+		try {
+			Object value = codec.decode(stored.snapshot);
+			if (value != null && ClassUtils.resolvePrimitiveIfNecessary(method.getReturnType()).isInstance(value)) {
+				return value;
+			}
+			log.debug("Kept value of {} read back as {}", method.getName(), value);
+		} catch (IOException e) {
+			log.debug("Kept value of {} not read back", method.getName(), e);
+		}
+		meterRegistry.counter("client.stale.unserializable", "method", method.getName()).increment();
+		return null;
+	}
+
+	private static final class Stored {
+
+		private final byte[] snapshot;
+
+		private final long storedAt = System.nanoTime();
+
+		private Stored(byte[] snapshot) {
+			this.snapshot = snapshot;
+		}
+	}
+
+	private static final class Key {
+
+		private final Method method;
+
+		private final byte[] args;
+
+		private final int hash;
+
+		private Key(Method method, byte[] args) {
+			this.method = method;
+			this.args = args;
+			this.hash = 31 * method.hashCode() + Arrays.hashCode(args);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) other;
+			return method.equals(key.method) && Arrays.equals(args, key.args);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
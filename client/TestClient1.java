@@ -5,25 +5,20 @@ import static com.test.boot.utility.ClientUtility.getResponseBodyAsList;
 import static com.test.boot.utility.ClientUtility.getResponseBodyAsString;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.hateoas.Resource;
 import org.springframework.hateoas.Resources;
 import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
+import com.netflix.hystrix.contrib.javanica.annotation.DefaultProperties;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
+import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -54,18 +49,24 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 @Component
+@DefaultProperties(commandProperties = {
+		@HystrixProperty(name = "execution.isolation.strategy", value = "SEMAPHORE"),
+		@HystrixProperty(name = "execution.isolation.semaphore.maxConcurrentRequests", value = "100"),
+		@HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds",
+				value = ClientTransportProperties.COMMAND_TIMEOUT) })
 public class OrderClient {
 
 	private static final String PROFILE_CLIENT_METHOD_TO_ADD_CONTACTS = "Profile Client method to add contacts";
 
-	private static final String ORDER_ID = "orderId";
-
 	@Autowired
 	private OrderProperties orderProperties;
 
 	@Autowired
-	@Qualifier("orderRestTemplate")
-	private RestTemplate orderRestTemplate;
+	@Qualifier("orderClientExchange")
+	private ClientExchange orderClientExchange;
+
+	@Autowired
+	private DeltaUpdater deltaUpdater;
 
 	/**
 	 * @param orderId
@@ -74,13 +75,9 @@ public class OrderClient {
 	@HystrixCommand
 	public List<ChargeDTO> findChargesByOrderId(int orderId) {
 		log.debug("order client method to find all charges");
-		Map<String, Integer> parameter = new HashMap<>();
-		parameter.put(ORDER_ID, orderId);
-		ParameterizedTypeReference<List<ChargeDTO>> responseType = new ParameterizedTypeReference<List<ChargeDTO>>() {
-		};
-		ResponseEntity<List<ChargeDTO>> response = orderRestTemplate.exchange(
-				orderProperties.getBaseURL() + "/orders/{orderId}/charges", HttpMethod.GET, null, responseType,
-				parameter);
+		ResponseEntity<List<ChargeDTO>> response = orderClientExchange.exchange(
+				ClientEndpoints.CHARGES_BY_ORDER_ID, orderProperties.getBaseURL(), null, ResponseTypes.CHARGE_LIST,
+				orderId);
 
 		return getResponseBodyAsList(response);
 	}
@@ -93,13 +90,9 @@ public class OrderClient {
 	@HystrixCommand
 	public List<CommentDTO> findCommentsByOrderId(int orderId) {
 		log.debug("order client method to find all Comments");
-		Map<String, Integer> parameter = new HashMap<>();
-		parameter.put(ORDER_ID, orderId);
-		ParameterizedTypeReference<List<CommentDTO>> responseType = new ParameterizedTypeReference<List<CommentDTO>>() {
-		};
-		ResponseEntity<List<CommentDTO>> response = orderRestTemplate.exchange(
-				orderProperties.getBaseURL() + "/orders/{orderId}/comments", HttpMethod.GET, null, responseType,
-				parameter);
+		ResponseEntity<List<CommentDTO>> response = orderClientExchange.exchange(
+				ClientEndpoints.COMMENTS_BY_ORDER_ID, orderProperties.getBaseURL(), null, ResponseTypes.COMMENT_LIST,
+				orderId);
 
 		return getResponseBodyAsList(response);
 	}
@@ -112,13 +105,9 @@ public class OrderClient {
 	@HystrixCommand
 	public List<ReferenceNumberDTO> findReferenceNumbersByOrderId(int orderId) {
 		log.debug("order client method to find all reference numbers");
-		Map<String, Integer> parameter = new HashMap<>();
-		parameter.put(ORDER_ID, orderId);
-		ParameterizedTypeReference<List<ReferenceNumberDTO>> responseType = new ParameterizedTypeReference<List<ReferenceNumberDTO>>() {
-		};
-		ResponseEntity<List<ReferenceNumberDTO>> response = orderRestTemplate.exchange(
-				orderProperties.getBaseURL() + "/orders/{orderId}/referencenumbers", HttpMethod.GET, null, responseType,
-				parameter);
+		ResponseEntity<List<ReferenceNumberDTO>> response = orderClientExchange.exchange(
+				ClientEndpoints.REFERENCE_NUMBERS_BY_ORDER_ID, orderProperties.getBaseURL(), null,
+				ResponseTypes.REFERENCE_NUMBER_LIST, orderId);
 
 		return getResponseBodyAsList(response);
 	}
@@ -131,13 +120,9 @@ public class OrderClient {
 	@HystrixCommand
 	public EquipmentType validateTrailerNumber(String trailerPrefix, String trailerNumber) {
 		log.debug("Order Client method to validate Trailer Number");
-		Map<String, String> parameter = new HashMap<>();
-		parameter.put("trailerprefix", trailerPrefix);
-		parameter.put("trailernumber", trailerNumber);
-		ResponseEntity<EquipmentType> response = orderRestTemplate.exchange(
-				orderProperties.getBaseURL() + "/equipments/validatecompanytrailer/{trailerprefix}/{trailernumber}",
-				HttpMethod.GET, null, new ParameterizedTypeReference<EquipmentType>() {
-				}, parameter);
+		ResponseEntity<EquipmentType> response = orderClientExchange.exchange(
+				ClientEndpoints.VALIDATE_COMPANY_TRAILER, orderProperties.getBaseURL(), null,
+				ResponseTypes.EQUIPMENT_TYPE, trailerPrefix, trailerNumber);
 		return getResponseBody(response);
 	}
 
@@ -152,14 +137,9 @@ public class OrderClient {
 
 	public List<StopItem> findItemsByOrderIdAndStopId(Integer orderId, Integer stopId) {
 		log.debug("Order Client method to find all Stop items by stop Id " + stopId + " & order Id" + orderId);
-		Map<String, Integer> parameter = new HashMap<>();
-		parameter.put(ORDER_ID, orderId);
-		parameter.put("stopId", stopId);
-		ParameterizedTypeReference<List<StopItem>> responseType = new ParameterizedTypeReference<List<StopItem>>() {
-		};
-		ResponseEntity<List<StopItem>> response = orderRestTemplate.exchange(
-				orderProperties.getBaseURL() + "/orders/{orderId}/stops/{stopId}/items", HttpMethod.GET, null,
-				responseType, parameter);
+		ResponseEntity<List<StopItem>> response = orderClientExchange.exchange(
+				ClientEndpoints.ITEMS_BY_ORDER_ID_AND_STOP_ID, orderProperties.getBaseURL(), null,
+				ResponseTypes.STOP_ITEM_LIST, orderId, stopId);
 
 		return getResponseBodyAsList(response);
 	}
@@ -172,13 +152,9 @@ public class OrderClient {
 	@HystrixCommand
 	public String getTrailerAvailabiltyStatus(String trailerPrefix, String trailerNumber) {
 		log.debug("Order client method to validate trailer Availablity");
-		Map<String, String> parameter = new HashMap<>();
-		parameter.put("trailerPrefix", trailerPrefix);
-		parameter.put("trailerNumber", trailerNumber);
-		ResponseEntity<String> response = orderRestTemplate.exchange(
-				orderProperties.getBaseURL() + "/equipments/traileravailabilitystatus/{trailerPrefix}/{trailerNumber}",
-				HttpMethod.GET, null, new ParameterizedTypeReference<String>() {
-				}, parameter);
+		ResponseEntity<String> response = orderClientExchange.exchange(
+				ClientEndpoints.TRAILER_AVAILABILITY_STATUS, orderProperties.getBaseURL(), null, ResponseTypes.STRING,
+				trailerPrefix, trailerNumber);
 		return getResponseBodyAsString(response);
 	}
 
@@ -191,10 +167,8 @@ public class OrderClient {
 		log.debug("order client to create order");
 		HttpEntity<Order> httpEntity = new HttpEntity<>(order);
 
-		ResponseEntity<OrderResponseDTO> response = orderRestTemplate.exchange(
-				orderProperties.getBaseURL() + "/orders/ordercreation", HttpMethod.POST, httpEntity,
-				new ParameterizedTypeReference<OrderResponseDTO>() {
-				});
+		ResponseEntity<OrderResponseDTO> response = orderClientExchange.exchange(
+				ClientEndpoints.ORDER_CREATION, orderProperties.getBaseURL(), httpEntity, ResponseTypes.ORDER_RESPONSE);
 		return getResponseBody(response);
 	}
 
@@ -206,9 +180,8 @@ public class OrderClient {
 	public Order createOrder(Order order) {
 		log.debug("order client to insert orders");
 		HttpEntity<Order> httpEntity = new HttpEntity<>(order);
-		ResponseEntity<Order> response = orderRestTemplate.exchange(orderProperties.getBaseURL() + "/orders",
-				HttpMethod.POST, httpEntity, new ParameterizedTypeReference<Order>() {
-				});
+		ResponseEntity<Order> response = orderClientExchange.exchange(
+				ClientEndpoints.ORDERS, orderProperties.getBaseURL(), httpEntity, ResponseTypes.ORDER);
 		return getResponseBody(response);
 	}
 
@@ -223,10 +196,9 @@ public class OrderClient {
 		orderAssociatedParty2.setPartyCode("PC012");
 		orderAssociatedParty2.setPartyRoleCode("RC01");
 		HttpEntity<OrderAssociatedParty> httpEntity = new HttpEntity<>(orderAssociatedParty2);
-		ResponseEntity<OrderAssociatedParty> response = orderRestTemplate.exchange(
-				orderProperties.getBaseURL() + "/orderAssociatedParties", HttpMethod.POST, httpEntity,
-				new ParameterizedTypeReference<OrderAssociatedParty>() {
-				});
+		ResponseEntity<OrderAssociatedParty> response = orderClientExchange.exchange(
+				ClientEndpoints.ORDER_ASSOCIATED_PARTIES, orderProperties.getBaseURL(), httpEntity,
+				ResponseTypes.ORDER_ASSOCIATED_PARTY);
 		return getResponseBody(response);
 	}
 
@@ -237,12 +209,9 @@ public class OrderClient {
 	@HystrixCommand
 	public OrderAssociatedParty saveOrderAssociatedParty(String orderAssociatedParty) {
 		log.debug("Profile Client method to add Order Associated Party");
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.APPLICATION_JSON);
-		HttpEntity<String> entity = new HttpEntity<String>(orderAssociatedParty, headers);
-		ResponseEntity<OrderAssociatedParty> response = orderRestTemplate.exchange(
-				orderProperties.getBaseURL() + "/orderAssociatedParties", HttpMethod.POST, entity,
-				OrderAssociatedParty.class, headers);
+		ResponseEntity<OrderAssociatedParty> response = deltaUpdater.save(orderClientExchange,
+				orderProperties.getBaseURL(), ClientEndpoints.ORDER_ASSOCIATED_PARTIES,
+				ClientEndpoints.ORDER_ASSOCIATED_PARTY, orderAssociatedParty, ResponseTypes.ORDER_ASSOCIATED_PARTY);
 		return getResponseBody(response);
 	}
 
@@ -253,12 +222,10 @@ public class OrderClient {
 	@HystrixCommand
 	public String saveOrderEquipmentRequirementFeatureAssociation(String orderEquipmentRequirementFeatureAssociation) {
 		log.debug(PROFILE_CLIENT_METHOD_TO_ADD_CONTACTS);
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.APPLICATION_JSON);
-		HttpEntity<String> entity = new HttpEntity<String>(orderEquipmentRequirementFeatureAssociation, headers);
-		ResponseEntity<String> response = (ResponseEntity<String>) orderRestTemplate.exchange(
-				orderProperties.getBaseURL() + "/orderEquipmentRequirementFeatureAssociations", HttpMethod.POST, entity,
-				String.class);
+		ResponseEntity<String> response = deltaUpdater.save(orderClientExchange, orderProperties.getBaseURL(),
+				ClientEndpoints.ORDER_EQUIPMENT_REQUIREMENT_FEATURE_ASSOCIATIONS,
+				ClientEndpoints.ORDER_EQUIPMENT_REQUIREMENT_FEATURE_ASSOCIATION,
+				orderEquipmentRequirementFeatureAssociation, ResponseTypes.STRING);
 		return getResponseBody(response);
 	}
 
@@ -270,12 +237,10 @@ public class OrderClient {
 	public String saveOrderEquipmentRequirementSpecificationAssociation(
 			String orderEquipmentRequirementSpecificationAssociation) {
 		log.debug(PROFILE_CLIENT_METHOD_TO_ADD_CONTACTS);
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.APPLICATION_JSON);
-		HttpEntity<String> entity = new HttpEntity<String>(orderEquipmentRequirementSpecificationAssociation, headers);
-		ResponseEntity<String> response = (ResponseEntity<String>) orderRestTemplate.exchange(
-				orderProperties.getBaseURL() + "/orderEquipmentRequirementSpecificationAssociations", HttpMethod.POST,
-				entity, String.class);
+		ResponseEntity<String> response = deltaUpdater.save(orderClientExchange, orderProperties.getBaseURL(),
+				ClientEndpoints.ORDER_EQUIPMENT_REQUIREMENT_SPECIFICATION_ASSOCIATIONS,
+				ClientEndpoints.ORDER_EQUIPMENT_REQUIREMENT_SPECIFICATION_ASSOCIATION,
+				orderEquipmentRequirementSpecificationAssociation, ResponseTypes.STRING);
 		return getResponseBody(response);
 	}
 
@@ -287,12 +252,10 @@ public class OrderClient {
 	public String saveOrderEquipmentRequirementSpecificationDetail(
 			String orderEquipmentRequirementSpecificationDetail) {
 		log.debug(PROFILE_CLIENT_METHOD_TO_ADD_CONTACTS);
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.APPLICATION_JSON);
-		HttpEntity<String> entity = new HttpEntity<String>(orderEquipmentRequirementSpecificationDetail, headers);
-		ResponseEntity<String> response = (ResponseEntity<String>) orderRestTemplate.exchange(
-				orderProperties.getBaseURL() + "/orderEquipmentRequirementSpecificationDetails", HttpMethod.POST,
-				entity, String.class);
+		ResponseEntity<String> response = deltaUpdater.save(orderClientExchange, orderProperties.getBaseURL(),
+				ClientEndpoints.ORDER_EQUIPMENT_REQUIREMENT_SPECIFICATION_DETAILS,
+				ClientEndpoints.ORDER_EQUIPMENT_REQUIREMENT_SPECIFICATION_DETAIL,
+				orderEquipmentRequirementSpecificationDetail, ResponseTypes.STRING);
 		return getResponseBody(response);
 	}
 
@@ -303,11 +266,9 @@ public class OrderClient {
 	@HystrixCommand
 	public String saveOrderCrossBorderDetail(String orderCrossBorderDetail) {
 		log.debug(PROFILE_CLIENT_METHOD_TO_ADD_CONTACTS);
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.APPLICATION_JSON);
-		HttpEntity<String> entity = new HttpEntity<String>(orderCrossBorderDetail, headers);
-		ResponseEntity<String> response = (ResponseEntity<String>) orderRestTemplate.exchange(
-				orderProperties.getBaseURL() + "/orderCrossBorderDetails", HttpMethod.POST, entity, String.class);
+		ResponseEntity<String> response = deltaUpdater.save(orderClientExchange, orderProperties.getBaseURL(),
+				ClientEndpoints.ORDER_CROSS_BORDER_DETAILS, ClientEndpoints.ORDER_CROSS_BORDER_DETAIL,
+				orderCrossBorderDetail, ResponseTypes.STRING);
 		return getResponseBody(response);
 	}
 
@@ -318,11 +279,8 @@ public class OrderClient {
 	@HystrixCommand
 	public String saveOrderService(String orderService) {
 		log.debug(PROFILE_CLIENT_METHOD_TO_ADD_CONTACTS);
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.APPLICATION_JSON);
-		HttpEntity<String> entity = new HttpEntity<String>(orderService, headers);
-		ResponseEntity<String> response = (ResponseEntity<String>) orderRestTemplate
-				.exchange(orderProperties.getBaseURL() + "/orderServices", HttpMethod.POST, entity, String.class);
+		ResponseEntity<String> response = deltaUpdater.save(orderClientExchange, orderProperties.getBaseURL(),
+				ClientEndpoints.ORDER_SERVICES, ClientEndpoints.ORDER_SERVICE, orderService, ResponseTypes.STRING);
 		return getResponseBody(response);
 	}
 
@@ -333,11 +291,8 @@ public class OrderClient {
 	@HystrixCommand
 	public String saveOrderCharge(String orderCharge) {
 		log.debug(PROFILE_CLIENT_METHOD_TO_ADD_CONTACTS);
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.APPLICATION_JSON);
-		HttpEntity<String> entity = new HttpEntity<String>(orderCharge, headers);
-		ResponseEntity<String> response = (ResponseEntity<String>) orderRestTemplate
-				.exchange(orderProperties.getBaseURL() + "/orderCharges", HttpMethod.POST, entity, String.class);
+		ResponseEntity<String> response = deltaUpdater.save(orderClientExchange, orderProperties.getBaseURL(),
+				ClientEndpoints.ORDER_CHARGES, ClientEndpoints.ORDER_CHARGE, orderCharge, ResponseTypes.STRING);
 		return getResponseBody(response);
 	}
 
@@ -348,12 +303,8 @@ public class OrderClient {
 	@HystrixCommand
 	public OrderDTO getOrderByOrderID(Integer orderId) {
 		log.debug("Order client method to get orderdto based on order id");
-		Map<String, Integer> parameter = new HashMap<>();
-		parameter.put(ORDER_ID, orderId);
-		ResponseEntity<OrderDTO> response = orderRestTemplate.exchange(
-				orderProperties.getBaseURL() + "/orders/{orderId}/copyorder", HttpMethod.GET, null,
-				new ParameterizedTypeReference<OrderDTO>() {
-				}, parameter);
+		ResponseEntity<OrderDTO> response = orderClientExchange.exchange(
+				ClientEndpoints.COPY_ORDER, orderProperties.getBaseURL(), null, ResponseTypes.ORDER_DTO, orderId);
 		return getResponseBody(response);
 	}
 
@@ -364,11 +315,9 @@ public class OrderClient {
 	@HystrixCommand
 	public String saveEquipment(String orderEquipmentRequirement) {
 		log.debug("Order Client:Client for order Equipment save");
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.APPLICATION_JSON);
-		HttpEntity<String> entity = new HttpEntity<String>(orderEquipmentRequirement, headers);
-		ResponseEntity<String> response = (ResponseEntity<String>) orderRestTemplate.exchange(
-				orderProperties.getBaseURL() + "/orderEquipmentRequirements", HttpMethod.POST, entity, String.class);
+		ResponseEntity<String> response = deltaUpdater.save(orderClientExchange, orderProperties.getBaseURL(),
+				ClientEndpoints.ORDER_EQUIPMENT_REQUIREMENTS, ClientEndpoints.ORDER_EQUIPMENT_REQUIREMENT,
+				orderEquipmentRequirement, ResponseTypes.STRING);
 		return getResponseBody(response);
 	}
 
@@ -379,11 +328,8 @@ public class OrderClient {
 	@HystrixCommand
 	public String saveOrderComment(String comment) {
 		log.debug("Order Client:Client for order comment save");
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.APPLICATION_JSON);
-		HttpEntity<String> entity = new HttpEntity<String>(comment, headers);
-		ResponseEntity<String> response = (ResponseEntity<String>) orderRestTemplate
-				.exchange(orderProperties.getBaseURL() + "/orderComments", HttpMethod.POST, entity, String.class);
+		ResponseEntity<String> response = deltaUpdater.save(orderClientExchange, orderProperties.getBaseURL(),
+				ClientEndpoints.ORDER_COMMENTS, ClientEndpoints.ORDER_COMMENT, comment, ResponseTypes.STRING);
 		return getResponseBody(response);
 	}
 
@@ -394,11 +340,9 @@ public class OrderClient {
 	@HystrixCommand
 	public String saveOrderReference(String orderReferenceNumber) {
 		log.debug("Order Client:Client for order reference save");
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.APPLICATION_JSON);
-		HttpEntity<String> entity = new HttpEntity<String>(orderReferenceNumber, headers);
-		ResponseEntity<String> response = (ResponseEntity<String>) orderRestTemplate.exchange(
-				orderProperties.getBaseURL() + "/orderReferenceNumbers", HttpMethod.POST, entity, String.class);
+		ResponseEntity<String> response = deltaUpdater.save(orderClientExchange, orderProperties.getBaseURL(),
+				ClientEndpoints.ORDER_REFERENCE_NUMBERS, ClientEndpoints.ORDER_REFERENCE_NUMBER, orderReferenceNumber,
+				ResponseTypes.STRING);
 		return getResponseBody(response);
 	}
 
@@ -409,11 +353,8 @@ public class OrderClient {
 	@HystrixCommand
 	public String saveStop(String stop) {
 		log.debug("Order Client:Client for Stop save");
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.APPLICATION_JSON);
-		HttpEntity<String> entity = new HttpEntity<String>(stop, headers);
-		ResponseEntity<String> response = (ResponseEntity<String>) orderRestTemplate
-				.exchange(orderProperties.getBaseURL() + "/stops", HttpMethod.POST, entity, String.class);
+		ResponseEntity<String> response = deltaUpdater.save(orderClientExchange, orderProperties.getBaseURL(),
+				ClientEndpoints.STOPS, ClientEndpoints.STOP, stop, ResponseTypes.STRING);
 		return getResponseBody(response);
 	}
 
@@ -424,11 +365,8 @@ public class OrderClient {
 	@HystrixCommand
 	public String saveStopCharges(String charge) {
 		log.debug("Order Client:Client for stop charge save");
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.APPLICATION_JSON);
-		HttpEntity<String> entity = new HttpEntity<String>(charge, headers);
-		ResponseEntity<String> response = (ResponseEntity<String>) orderRestTemplate
-				.exchange(orderProperties.getBaseURL() + "/stopCharges", HttpMethod.POST, entity, String.class);
+		ResponseEntity<String> response = deltaUpdater.save(orderClientExchange, orderProperties.getBaseURL(),
+				ClientEndpoints.STOP_CHARGES, ClientEndpoints.STOP_CHARGE, charge, ResponseTypes.STRING);
 		return getResponseBody(response);
 	}
 
@@ -439,11 +377,8 @@ public class OrderClient {
 	@HystrixCommand
 	public String saveStopComment(String stopComment) {
 		log.debug("Order Client:Client for stop comment save");
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.APPLICATION_JSON);
-		HttpEntity<String> entity = new HttpEntity<String>(stopComment, headers);
-		ResponseEntity<String> response = (ResponseEntity<String>) orderRestTemplate
-				.exchange(orderProperties.getBaseURL() + "/stopComments", HttpMethod.POST, entity, String.class);
+		ResponseEntity<String> response = deltaUpdater.save(orderClientExchange, orderProperties.getBaseURL(),
+				ClientEndpoints.STOP_COMMENTS, ClientEndpoints.STOP_COMMENT, stopComment, ResponseTypes.STRING);
 		return getResponseBody(response);
 	}
 
@@ -454,11 +389,9 @@ public class OrderClient {
 	@HystrixCommand
 	public String saveStopReference(String stopReference) {
 		log.debug("Order Client:Client for stop reference save");
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.APPLICATION_JSON);
-		HttpEntity<String> entity = new HttpEntity<String>(stopReference, headers);
-		ResponseEntity<String> response = (ResponseEntity<String>) orderRestTemplate.exchange(
-				orderProperties.getBaseURL() + "/stopReferenceNumbers", HttpMethod.POST, entity, String.class);
+		ResponseEntity<String> response = deltaUpdater.save(orderClientExchange, orderProperties.getBaseURL(),
+				ClientEndpoints.STOP_REFERENCE_NUMBERS, ClientEndpoints.STOP_REFERENCE_NUMBER, stopReference,
+				ResponseTypes.STRING);
 		return getResponseBody(response);
 	}
 	
@@ -471,11 +404,10 @@ public class OrderClient {
 	@HystrixCommand
 	public String saveOrderMaterialHandling(String orderMaterialHandlingRequirementAssociation) {
 		log.debug("Order Client:Client for order material handling save");
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.APPLICATION_JSON);
-		HttpEntity<String> entity = new HttpEntity<String>(orderMaterialHandlingRequirementAssociation, headers);
-		ResponseEntity<String> response = (ResponseEntity<String>) orderRestTemplate.exchange(
-				orderProperties.getBaseURL() + "/orderMaterialHandlingRequirementAssociations", HttpMethod.POST, entity, String.class);
+		ResponseEntity<String> response = deltaUpdater.save(orderClientExchange, orderProperties.getBaseURL(),
+				ClientEndpoints.ORDER_MATERIAL_HANDLING_REQUIREMENT_ASSOCIATIONS,
+				ClientEndpoints.ORDER_MATERIAL_HANDLING_REQUIREMENT_ASSOCIATION,
+				orderMaterialHandlingRequirementAssociation, ResponseTypes.STRING);
 		return getResponseBody(response);
 	}
 	
@@ -487,11 +419,8 @@ public class OrderClient {
 	@HystrixCommand
 	public String saveStopService(String stopService) {
 		log.debug("Order Client:Client for stop service save");
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.APPLICATION_JSON);
-		HttpEntity<String> entity = new HttpEntity<String>(stopService, headers);
-		ResponseEntity<String> response = (ResponseEntity<String>) orderRestTemplate
-				.exchange(orderProperties.getBaseURL() + "/stopServices", HttpMethod.POST, entity, String.class);
+		ResponseEntity<String> response = deltaUpdater.save(orderClientExchange, orderProperties.getBaseURL(),
+				ClientEndpoints.STOP_SERVICES, ClientEndpoints.STOP_SERVICE, stopService, ResponseTypes.STRING);
 		return getResponseBody(response);
 	}
 	
@@ -502,11 +431,10 @@ public class OrderClient {
 	@HystrixCommand
 	public String saveRequestedAppointmentInstructionAssociation(String requestedAppointmentInstructionAssociation) {
 		log.debug("Order Client:Client for requested Appointment Instruction Association save");
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.APPLICATION_JSON);
-		HttpEntity<String> entity = new HttpEntity<String>(requestedAppointmentInstructionAssociation, headers);
-		ResponseEntity<String> response = (ResponseEntity<String>) orderRestTemplate
-				.exchange(orderProperties.getBaseURL() + "/requestedAppointmentInstructionAssociations", HttpMethod.POST, entity, String.class);
+		ResponseEntity<String> response = deltaUpdater.save(orderClientExchange, orderProperties.getBaseURL(),
+				ClientEndpoints.REQUESTED_APPOINTMENT_INSTRUCTION_ASSOCIATIONS,
+				ClientEndpoints.REQUESTED_APPOINTMENT_INSTRUCTION_ASSOCIATION,
+				requestedAppointmentInstructionAssociation, ResponseTypes.STRING);
 		return getResponseBody(response);
 	}
 	
@@ -519,13 +447,9 @@ public class OrderClient {
 	public OrderUnifiedCustomerRequestAssociation findLatestUnifiedCustomerRequest(Integer orderId) {
 		log.debug("Order Client method to findLatestUnifiedCustomerRequest by orderid");
 		OrderUnifiedCustomerRequestAssociation orderUnifiedCustomerRequestAssociation = null;
-		Map<String, Integer> parameter = new HashMap<>();
-		parameter.put("orderId", orderId);
-		ResponseEntity<Resources<OrderUnifiedCustomerRequestAssociation>> response = orderRestTemplate.exchange(
-				orderProperties.getBaseURL()
-						+ "/orderUnifiedCustomerRequestAssociations?order.orderID={orderId}&sort=unifiedCustomerRequestID,desc",
-				HttpMethod.GET, null, new ParameterizedTypeReference<Resources<OrderUnifiedCustomerRequestAssociation>>() {
-				}, parameter);
+		ResponseEntity<Resources<OrderUnifiedCustomerRequestAssociation>> response = orderClientExchange.exchange(
+				ClientEndpoints.LATEST_UNIFIED_CUSTOMER_REQUEST, orderProperties.getBaseURL(), null,
+				ResponseTypes.UNIFIED_CUSTOMER_REQUEST_RESOURCES, orderId);
 		Collection<OrderUnifiedCustomerRequestAssociation> orderUnifiedCustomerRequestAssociations = response.getBody().getContent();
 		if (Optional.ofNullable(orderUnifiedCustomerRequestAssociations).isPresent()) {
 			orderUnifiedCustomerRequestAssociation = orderUnifiedCustomerRequestAssociations.stream().findFirst().get();
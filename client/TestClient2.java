@@ -2,7 +2,6 @@
 import static com.test.boot.refdata.utility.ClientUtility.getResponseBody;
 import static com.test.boot.refdata.utility.ClientUtility.getResponseBodyList;
 import static com.test.boot.refdata.utility.ClientUtility.getResponseBodyWithResources;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,7 +18,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 
+import com.netflix.hystrix.contrib.javanica.annotation.DefaultProperties;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
+import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
 
 import lombok.extern.slf4j.Slf4j;;
 
@@ -29,6 +30,11 @@ import lombok.extern.slf4j.Slf4j;;
  */
 @Slf4j
 @Component
+@DefaultProperties(commandProperties = {
+		@HystrixProperty(name = "execution.isolation.strategy", value = "SEMAPHORE"),
+		@HystrixProperty(name = "execution.isolation.semaphore.maxConcurrentRequests", value = "100"),
+		@HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds",
+				value = ClientTransportProperties.COMMAND_TIMEOUT) })
 public class OrderReferenceDataClient {
 
 	@Autowired
@@ -38,6 +44,10 @@ public class OrderReferenceDataClient {
 	@Qualifier("referenceDataRestTemplate")
 	private RestTemplate referenceDataRestTemplate;
 
+	@Autowired
+	@Qualifier("referenceDataClientExchange")
+	private ClientExchange referenceDataClientExchange;
+
 	/**
 	 * Find all the comment types
 	 * 
@@ -45,12 +55,12 @@ public class OrderReferenceDataClient {
 	 */
 	@HystrixCommand
 	@Cacheable(value="commenttypeslowfrequency", cacheManager="orderManagementReferenceDataCacheManager")
+	@StaleOnError
 	public Resources<CommentType> findAllCommentTypes() {
 		log.debug("Reference data client method to find all comment types");
-		ResponseEntity<Resources<CommentType>> response = referenceDataRestTemplate.exchange(
-				referenceDataProperties.getBaseURL() + "/commentTypes/search/findByCommentTypeCodeNotIn",
-				HttpMethod.GET, null, new ParameterizedTypeReference<Resources<CommentType>>() {
-				}, Collections.emptyMap());
+		ResponseEntity<Resources<CommentType>> response = referenceDataClientExchange.exchange(
+				ClientEndpoints.COMMENT_TYPES, referenceDataProperties.getBaseURL(), null,
+				ResponseTypes.COMMENT_TYPE_RESOURCES);
 
 		return getResponseBody(response);
 	}
@@ -61,14 +71,12 @@ public class OrderReferenceDataClient {
 	 * @return List of comment templates
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public Resources<CommentTemplate> findAllCommentTemplates(String commentTypeCode) {
 		log.debug("Reference data client method to find all comment templates by comment type code");
-		Map<String, String> parameter = new HashMap<>();
-		parameter.put("commentTypeCode", commentTypeCode);
-		ResponseEntity<Resources<CommentTemplate>> response = referenceDataRestTemplate.exchange(
-				referenceDataProperties.getBaseURL() + "/commentTemplates?commentTypeCode={commentTypeCode}",
-				HttpMethod.GET, null, new ParameterizedTypeReference<Resources<CommentTemplate>>() {
-				}, parameter);
+		ResponseEntity<Resources<CommentTemplate>> response = referenceDataClientExchange.exchange(
+				ClientEndpoints.COMMENT_TEMPLATES_BY_COMMENT_TYPE, referenceDataProperties.getBaseURL(), null,
+				ResponseTypes.COMMENT_TEMPLATE_RESOURCES, commentTypeCode);
 		return getResponseBody(response);
 	}
 
@@ -79,16 +87,13 @@ public class OrderReferenceDataClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public Resources<ServiceType> findAllServiceTypes(String serviceCategoryCode) {
 		log.debug("Reference data client method to find the Service Types by Service Category");
 
-		Map<String, Object> parameter = new HashMap<>();
-		parameter.put("serviceCategoryCode", serviceCategoryCode);
-		ResponseEntity<Resources<ServiceType>> response = referenceDataRestTemplate.exchange(
-				referenceDataProperties.getBaseURL()
-						+ "/serviceTypes/search/findByServiceCategoryServiceCategoryCode?serviceCategoryCode={serviceCategoryCode}",
-				HttpMethod.GET, null, new ParameterizedTypeReference<Resources<ServiceType>>() {
-				}, parameter);
+		ResponseEntity<Resources<ServiceType>> response = referenceDataClientExchange.exchange(
+				ClientEndpoints.SERVICE_TYPES_BY_SERVICE_CATEGORY, referenceDataProperties.getBaseURL(), null,
+				ResponseTypes.SERVICE_TYPE_RESOURCES, serviceCategoryCode);
 		return getResponseBody(response);
 	}
 
@@ -100,16 +105,12 @@ public class OrderReferenceDataClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public List<BondHolder> findBondHoldersByCriteria(String businessUnit, String transitMode) {
 		log.debug("Reference data client method to find all bond holders based on the business unit and transit mode");
-		Map<String, String> parameter = new HashMap<>();
-		parameter.put("businessUnit", businessUnit);
-		parameter.put("transitMode", transitMode);
-		ResponseEntity<List<BondHolder>> response = referenceDataRestTemplate.exchange(
-				referenceDataProperties.getBaseURL()
-						+ "/bondholder/search/findbondholdersbycriteria?businessUnit={businessUnit}&transitMode={transitMode}",
-				HttpMethod.GET, null, new ParameterizedTypeReference<List<BondHolder>>() {
-				}, parameter);
+		ResponseEntity<List<BondHolder>> response = referenceDataClientExchange.exchange(
+				ClientEndpoints.BOND_HOLDERS_BY_CRITERIA, referenceDataProperties.getBaseURL(), null,
+				ResponseTypes.BOND_HOLDER_LIST, businessUnit, transitMode);
 
 		return getResponseBodyList(response);
 	}
@@ -119,15 +120,13 @@ public class OrderReferenceDataClient {
 	 * @param serviceTypeCode
 	 * @return
 	 */
+	@StaleOnError
 	public Resources<BondHolder> findByBondHolderCode(String serviceTypeCode) {
 		log.debug(
 				"Entered Reference data client method to find whether the bond holder code passed is available / not in the Database");
-		Map<String, Object> parameter = new HashMap<>();
-		parameter.put("bondHolderCode", serviceTypeCode);
-		ResponseEntity<Resources<BondHolder>> response = referenceDataRestTemplate.exchange(
-				referenceDataProperties.getBaseURL() + "/Bondholders/{bondHolderCode}", HttpMethod.GET, null,
-				new ParameterizedTypeReference<Resources<BondHolder>>() {
-				}, parameter);
+		ResponseEntity<Resources<BondHolder>> response = referenceDataClientExchange.exchange(
+				ClientEndpoints.BOND_HOLDER, referenceDataProperties.getBaseURL(), null,
+				ResponseTypes.BOND_HOLDER_RESOURCES, serviceTypeCode);
 		return getResponseBody(response);
 	}
 
@@ -135,15 +134,13 @@ public class OrderReferenceDataClient {
 	 * @param bondTypeCode
 	 * @return
 	 */
+	@StaleOnError
 	public Resources<BondType> findByBondTypeCode(String bondTypeCode) {
 		log.debug(
 				"Entered Reference data client method to find whether the bond type code is available / not in the Database");
-		Map<String, Object> parameter = new HashMap<>();
-		parameter.put("bondTypeCode", bondTypeCode);
-		ResponseEntity<Resources<BondType>> response = referenceDataRestTemplate.exchange(
-				referenceDataProperties.getBaseURL() + "/Bondtypes/{bondTypeCode}", HttpMethod.GET, null,
-				new ParameterizedTypeReference<Resources<BondType>>() {
-				}, parameter);
+		ResponseEntity<Resources<BondType>> response = referenceDataClientExchange.exchange(
+				ClientEndpoints.BOND_TYPE, referenceDataProperties.getBaseURL(), null,
+				ResponseTypes.BOND_TYPE_RESOURCES, bondTypeCode);
 		return getResponseBody(response);
 	}
 	
@@ -151,30 +148,26 @@ public class OrderReferenceDataClient {
 	 * @param commentTypeCode
 	 * @return
 	 */
+	@StaleOnError
 	public Resources<CommentType> findByCommentTypeCode(String commentTypeCode) {
 		log.debug(
 				"Entered Reference data client method to find whether the bond type code is available / not in the Database");
-		Map<String, Object> parameter = new HashMap<>();
-		parameter.put("commentTypeCode", commentTypeCode);
-		ResponseEntity<Resources<CommentType>> response = referenceDataRestTemplate.exchange(
-				referenceDataProperties.getBaseURL() + "/commenttypes/{commentTypeCode}", HttpMethod.GET, null,
-				new ParameterizedTypeReference<Resources<CommentType>>() {
-				}, parameter);
+		ResponseEntity<Resources<CommentType>> response = referenceDataClientExchange.exchange(
+				ClientEndpoints.COMMENT_TYPE, referenceDataProperties.getBaseURL(), null,
+				ResponseTypes.COMMENT_TYPE_RESOURCES, commentTypeCode);
 		return getResponseBody(response);
 	}
 	/**
 	 * @param stopReasonCode
 	 * @return
 	 */
+	@StaleOnError
 	public Resources<StopReason> findByStopReasonCode(String stopReasonCode) {
 		log.debug(
 				"Entered Reference data client method to find whether the stop reason code is available / not in the Database");
-		Map<String, Object> parameter = new HashMap<>();
-		parameter.put("stopReasonCode", stopReasonCode);
-		ResponseEntity<Resources<StopReason>> response = referenceDataRestTemplate.exchange(
-				referenceDataProperties.getBaseURL() + "/commenttypes/{stopReasonCode}", HttpMethod.GET, null,
-				new ParameterizedTypeReference<Resources<StopReason>>() {
-				}, parameter);
+		ResponseEntity<Resources<StopReason>> response = referenceDataClientExchange.exchange(
+				ClientEndpoints.STOP_REASON, referenceDataProperties.getBaseURL(), null,
+				ResponseTypes.STOP_REASON_RESOURCES, stopReasonCode);
 		return getResponseBody(response);
 	}
 	
@@ -182,15 +175,13 @@ public class OrderReferenceDataClient {
 	 * @param orderChannelCode
 	 * @return
 	 */
+	@StaleOnError
 	public Resources<OrderChannel> findByOrderChannelCode(String orderChannelCode) {
 		log.debug(
 				"Entered Reference data client method to find whether the Order channel code is available / not in the Database");
-		Map<String, Object> parameter = new HashMap<>();
-		parameter.put("orderChannelCode", orderChannelCode);
-		ResponseEntity<Resources<OrderChannel>> response = referenceDataRestTemplate.exchange(
-				referenceDataProperties.getBaseURL() + "/orderchannels/{orderChannelCode}", HttpMethod.GET, null,
-				new ParameterizedTypeReference<Resources<OrderChannel>>() {
-				}, parameter);
+		ResponseEntity<Resources<OrderChannel>> response = referenceDataClientExchange.exchange(
+				ClientEndpoints.ORDER_CHANNEL, referenceDataProperties.getBaseURL(), null,
+				ResponseTypes.ORDER_CHANNEL_RESOURCES, orderChannelCode);
 		return getResponseBody(response);
 	}
 	
@@ -198,15 +189,13 @@ public class OrderReferenceDataClient {
 	 * @param requestedAppointmentTypeCode
 	 * @return
 	 */
+	@StaleOnError
 	public Resources<RequestedAppointmentType> findByRequestedAppointmentTypeCode(String requestedAppointmentTypeCode) {
 		log.debug(
 				"Entered Reference data client method to find whether the Requested Appointment Type code is available / not in the Database");
-		Map<String, Object> parameter = new HashMap<>();
-		parameter.put("requestedAppointmentTypeCode", requestedAppointmentTypeCode);
-		ResponseEntity<Resources<RequestedAppointmentType>> response = referenceDataRestTemplate.exchange(
-				referenceDataProperties.getBaseURL() + "/requestedappointmenttypes/{requestedAppointmentTypeCode}", HttpMethod.GET, null,
-				new ParameterizedTypeReference<Resources<RequestedAppointmentType>>() {
-				}, parameter);
+		ResponseEntity<Resources<RequestedAppointmentType>> response = referenceDataClientExchange.exchange(
+				ClientEndpoints.REQUESTED_APPOINTMENT_TYPE, referenceDataProperties.getBaseURL(), null,
+				ResponseTypes.REQUESTED_APPOINTMENT_TYPE_RESOURCES, requestedAppointmentTypeCode);
 		return getResponseBody(response);
 	}
 	
@@ -214,6 +203,7 @@ public class OrderReferenceDataClient {
 	 * @param serviceTypeCode
 	 * @return
 	 */
+	@StaleOnError
 	public Resources<Service> findByServiceTypeCode(String serviceTypeCode) {
 		log.debug(
 				"Entered Reference data client method to find whether the Service type code is available / not in the Database");
@@ -230,15 +220,13 @@ public class OrderReferenceDataClient {
 	 * @param appointmentInstructionID
 	 * @return
 	 */
+	@StaleOnError
 	public Resources<AppointmentInstruction> findByAppointmentInstructionID(Integer appointmentInstructionID) {
 		log.debug(
 				"Entered Reference data client method to find whether the appointment Instruction ID is available / not in the Database");
-		Map<String, Object> parameter = new HashMap<>();
-		parameter.put("appointmentInstructionID", appointmentInstructionID);
-		ResponseEntity<Resources<AppointmentInstruction>> response = referenceDataRestTemplate.exchange(
-				referenceDataProperties.getBaseURL() + "/appointmentinstructiontexts/{appointmentInstructionID}", HttpMethod.GET, null,
-				new ParameterizedTypeReference<Resources<AppointmentInstruction>>() {
-				}, parameter);
+		ResponseEntity<Resources<AppointmentInstruction>> response = referenceDataClientExchange.exchange(
+				ClientEndpoints.APPOINTMENT_INSTRUCTION, referenceDataProperties.getBaseURL(), null,
+				ResponseTypes.APPOINTMENT_INSTRUCTION_RESOURCES, appointmentInstructionID);
 		return getResponseBody(response);
 	}
 	
@@ -246,26 +234,26 @@ public class OrderReferenceDataClient {
 	 * @param appointmentInstructionID
 	 * @return
 	 */
+	@StaleOnError
 	public Resources<AppointmentInstruction> findAppointmentInstructions() {
 		log.debug(
 				"Load Appointment Instructions in dropdown");
-		ResponseEntity<Resources<AppointmentInstruction>> response = referenceDataRestTemplate.exchange(
-				referenceDataProperties.getBaseURL() + "/appointmentInstructions", HttpMethod.GET, null,
-				new ParameterizedTypeReference<Resources<AppointmentInstruction>>() {
-				});
+		ResponseEntity<Resources<AppointmentInstruction>> response = referenceDataClientExchange.exchange(
+				ClientEndpoints.APPOINTMENT_INSTRUCTIONS, referenceDataProperties.getBaseURL(), null,
+				ResponseTypes.APPOINTMENT_INSTRUCTION_RESOURCES);
 		return getResponseBody(response);
 	}
 	
 	/**
 	 * @return Requested Appointment Type
 	 */
+	@StaleOnError
 	public Resources<RequestedAppointmentType> findAllRequestedAppointmentType()
 	{
 		log.debug("Entered Reference data client method to fetch All Requested Appointment Types");
-		ResponseEntity<Resources<RequestedAppointmentType>> response = referenceDataRestTemplate.exchange(
-				referenceDataProperties.getBaseURL() + "/requestedAppointmentTypes", HttpMethod.GET, null,
-				new ParameterizedTypeReference<Resources<RequestedAppointmentType>>() {
-				});
+		ResponseEntity<Resources<RequestedAppointmentType>> response = referenceDataClientExchange.exchange(
+				ClientEndpoints.REQUESTED_APPOINTMENT_TYPES, referenceDataProperties.getBaseURL(), null,
+				ResponseTypes.REQUESTED_APPOINTMENT_TYPE_RESOURCES);
 		return getResponseBody(response);
 	}	
 	/**
@@ -274,12 +262,12 @@ public class OrderReferenceDataClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public Resources<StopReason> findAllStopReasons() {
 		log.debug("Order Client method to find All Stops");
-		ResponseEntity<Resources<StopReason>> response = referenceDataRestTemplate.exchange(
-				referenceDataProperties.getBaseURL() + "/stopReasons", HttpMethod.GET, null,
-				new ParameterizedTypeReference<Resources<StopReason>>() {
-				});
+		ResponseEntity<Resources<StopReason>> response = referenceDataClientExchange.exchange(
+				ClientEndpoints.STOP_REASONS, referenceDataProperties.getBaseURL(), null,
+				ResponseTypes.STOP_REASON_RESOURCES);
 		return getResponseBodyWithResources(response);
 
 	}
@@ -290,12 +278,12 @@ public class OrderReferenceDataClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public Resources<BondType> getBondTypes() {
 		log.debug("Order Client method to find all Bond Types");
-		ResponseEntity<Resources<BondType>> response = referenceDataRestTemplate.exchange(
-				referenceDataProperties.getBaseURL() + "/bondTypes", HttpMethod.GET, null,
-				new ParameterizedTypeReference<Resources<BondType>>() {
-				});
+		ResponseEntity<Resources<BondType>> response = referenceDataClientExchange.exchange(
+				ClientEndpoints.BOND_TYPES, referenceDataProperties.getBaseURL(), null,
+				ResponseTypes.BOND_TYPE_RESOURCES);
 		return getResponseBodyWithResources(response);
 
 	}
@@ -306,14 +294,14 @@ public class OrderReferenceDataClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public Resources<OrderChannel> findOrderChannel() {
 		log.debug("Order Client method to find all Order Channel");
-		ResponseEntity<Resources<OrderChannel>> response = referenceDataRestTemplate.exchange(
-				referenceDataProperties.getBaseURL() + "/orderChannels", HttpMethod.GET, null,
-				new ParameterizedTypeReference<Resources<OrderChannel>>() {
-				});
+		ResponseEntity<Resources<OrderChannel>> response = referenceDataClientExchange.exchange(
+				ClientEndpoints.ORDER_CHANNELS, referenceDataProperties.getBaseURL(), null,
+				ResponseTypes.ORDER_CHANNEL_RESOURCES);
 		return getResponseBodyWithResources(response);
 
 	}
 	
-}
\ No newline at end of file
+}
\ No newline at end of file
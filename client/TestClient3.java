@@ -1,25 +1,20 @@
 
 
-import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.MediaType;
-import org.springframework.http.RequestEntity;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
 
+import com.netflix.hystrix.contrib.javanica.annotation.DefaultProperties;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
+import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -29,6 +24,11 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 @Component
+@DefaultProperties(commandProperties = {
+		@HystrixProperty(name = "execution.isolation.strategy", value = "SEMAPHORE"),
+		@HystrixProperty(name = "execution.isolation.semaphore.maxConcurrentRequests", value = "100"),
+		@HystrixProperty(name = "execution.isolation.thread.timeoutInMilliseconds",
+				value = ClientTransportProperties.COMMAND_TIMEOUT) })
 public class ProfileClient {
 	public static final String BILLTOCODE = "billtocode";
 	public static final String LOCATIONCODE = "locationcode";
@@ -39,8 +39,19 @@ public class ProfileClient {
 	private ProfileProperties profileProperties;
 
 	@Autowired
-	@Qualifier("profileRestTemplate")
-	private RestTemplate profileRestTemplate;
+	@Qualifier("profileClientExchange")
+	private ClientExchange profileClientExchange;
+
+	@Autowired
+	private PortGraph portGraph;
+
+	@Autowired
+	@Lazy
+	private ProfileDetailsBatchClient profileDetailsBatchClient;
+
+	@Autowired
+	@Lazy
+	private EquipmentSpecificationValidator equipmentSpecificationValidator;
 
 	/**
 	 * To find Time zone by location code
@@ -49,14 +60,12 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public Map<String, String> findTimeZoneByLocationCode(String locationcode) {
 		log.debug("profile client method to find time zone by location code");
-		Map<String, String> parameter = new HashMap<>();
-		parameter.put(LOCATIONCODE, locationcode);
-		ResponseEntity<Map<String, String>> response = profileRestTemplate.exchange(
-				profileProperties.getLocationURL() + "/timezone/search/findbylocationcode/{locationcode}", HttpMethod.GET,
-				null, new ParameterizedTypeReference<Map<String, String>>() {
-				}, parameter);
+		ResponseEntity<Map<String, String>> response = profileClientExchange.exchange(
+				ClientEndpoints.TIME_ZONE_BY_LOCATION_CODE, profileProperties.getLocationURL(), null,
+				ResponseTypes.STRING_MAP, locationcode);
 		return getResponseBody(response);
 	}
 
@@ -67,14 +76,12 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public Map<String, Boolean> validateMarketingArea(String marketingarea) {
 		log.debug("profile client method to validate Marketing areas");
-		Map<String, String> parameter = new HashMap<>();
-		parameter.put("marketingarea", marketingarea);
-		ResponseEntity<Map<String, Boolean>> response = profileRestTemplate.exchange(
-				profileProperties.getLocationURL() + "/locations/validatemarketingarea/{marketingarea}", HttpMethod.GET,
-				null, new ParameterizedTypeReference<Map<String, Boolean>>() {
-				}, parameter);
+		ResponseEntity<Map<String, Boolean>> response = profileClientExchange.exchange(
+				ClientEndpoints.VALIDATE_MARKETING_AREA, profileProperties.getLocationURL(), null,
+				ResponseTypes.BOOLEAN_MAP, marketingarea);
 
 		return getResponseBody(response);
 	}
@@ -85,12 +92,12 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public Map<String, List<CountryDTO>> findAllClearingCountries() {
 		log.debug("profile client method for finding clearing countries");
-		ResponseEntity<Map<String, List<CountryDTO>>> response = profileRestTemplate.exchange(
-				profileProperties.getCustomerURL() + "/clearingcountries", HttpMethod.GET, null,
-				new ParameterizedTypeReference<Map<String, List<CountryDTO>>>() {
-				}, Collections.emptyMap());
+		ResponseEntity<Map<String, List<CountryDTO>>> response = profileClientExchange.exchange(
+				ClientEndpoints.CLEARING_COUNTRIES, profileProperties.getCustomerURL(), null,
+				ResponseTypes.COUNTRY_LIST_MAP);
 		return getResponseBody(response);
 	}
 
@@ -100,15 +107,13 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public Map<String, Boolean> findAutoRateStatusByBillToCode(String billtocode) {
 
 		log.debug("Profile client method for Finding Auto Rate Status By Billtocode");
-		Map<String, String> parameter = new HashMap<>();
-		parameter.put(BILLTOCODE, billtocode);
-		ResponseEntity<Map<String, Boolean>> response = profileRestTemplate.exchange(
-				profileProperties.getCustomerURL() + "/profiles/autorate/search/findbybillingparty/{billtocode}",
-				HttpMethod.GET, null, new ParameterizedTypeReference<Map<String, Boolean>>() {
-				}, parameter);
+		ResponseEntity<Map<String, Boolean>> response = profileClientExchange.exchange(
+				ClientEndpoints.AUTO_RATE_STATUS_BY_BILLING_PARTY, profileProperties.getCustomerURL(), null,
+				ResponseTypes.BOOLEAN_MAP, billtocode);
 		return getResponseBody(response);
 	}
 
@@ -118,14 +123,12 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public CustomerProfileDTO findPrimaryReferenceNumberByBillToCode(Integer billtoID) {
 		log.debug("Profile client method for Finding Primary Reference Number By Bill To code");
-		Map<String, String> parameter = new HashMap<>();
-		parameter.put(BILLTOCODE, billtoID.toString());
-		ResponseEntity<CustomerProfileDTO> response = profileRestTemplate.exchange(
-				profileProperties.getCustomerURL() + "/profiles/primaryreference/search/findbybillingparty/{billtocode}",
-				HttpMethod.GET, null, new ParameterizedTypeReference<CustomerProfileDTO>() {
-				}, parameter);
+		ResponseEntity<CustomerProfileDTO> response = profileClientExchange.exchange(
+				ClientEndpoints.PRIMARY_REFERENCE_BY_BILLING_PARTY, profileProperties.getCustomerURL(), null,
+				ResponseTypes.CUSTOMER_PROFILE, billtoID.toString());
 		return getResponseBody(response);
 	}
 
@@ -135,14 +138,12 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public List<FacilityOverviewRequirementDTO> findFacilityOverviewRequirementByLocationCode(Integer locationID) {
 		log.debug("Profile client method for finding facility overview requirement by location code");
-		Map<String, String> parameter = new HashMap<>();
-		parameter.put(LOCATIONCODE, locationID.toString());
-		ResponseEntity<List<FacilityOverviewRequirementDTO>> response = profileRestTemplate.exchange(
-				profileProperties.getLocationURL() + "/facilityoverviewrequirements/{locationcode}", HttpMethod.GET, null,
-				new ParameterizedTypeReference<List<FacilityOverviewRequirementDTO>>() {
-				}, parameter);
+		ResponseEntity<List<FacilityOverviewRequirementDTO>> response = profileClientExchange.exchange(
+				ClientEndpoints.FACILITY_OVERVIEW_REQUIREMENTS, profileProperties.getLocationURL(), null,
+				ResponseTypes.FACILITY_OVERVIEW_REQUIREMENT_LIST, locationID.toString());
 
 		return getResponseBody(response);
 	}
@@ -152,12 +153,12 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public List<ContactMethodDTO> findAllContactMethods() {
 		log.debug("Fetching the contact method of the user");
-		ResponseEntity<List<ContactMethodDTO>> response = profileRestTemplate.exchange(
-				profileProperties.getCustomerURL() + "/contactmethods", HttpMethod.GET, null,
-				new ParameterizedTypeReference<List<ContactMethodDTO>>() {
-				}, Collections.emptyMap());
+		ResponseEntity<List<ContactMethodDTO>> response = profileClientExchange.exchange(
+				ClientEndpoints.CONTACT_METHODS, profileProperties.getCustomerURL(), null,
+				ResponseTypes.CONTACT_METHOD_LIST);
 		return getResponseBody(response);
 	}
 
@@ -167,14 +168,12 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public RatingCycleDTO findRatingCycleCodeByBillCode(String billtocode) {
 		log.debug("Fetching the rating cycle code by bill to code");
-		Map<String, String> parameter = new HashMap<>();
-		parameter.put(BILLTOCODE, billtocode);
-		ResponseEntity<RatingCycleDTO> response = profileRestTemplate.exchange(
-				profileProperties.getCustomerURL() + "/profiles/ratingcyclecode/search/findbybillingparty/{billtocode}",
-				HttpMethod.GET, null, new ParameterizedTypeReference<RatingCycleDTO>() {
-				}, parameter);
+		ResponseEntity<RatingCycleDTO> response = profileClientExchange.exchange(
+				ClientEndpoints.RATING_CYCLE_CODE_BY_BILLING_PARTY, profileProperties.getCustomerURL(), null,
+				ResponseTypes.RATING_CYCLE, billtocode);
 		return getResponseBody(response);
 	}
 
@@ -184,14 +183,12 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public Map<String, Boolean> findOutSourcingFlagBySolicitorCode(String solicitorcode) {
 		log.debug("Profile client method for Finding outsourcing flag By solicitorcode");
-		Map<String, String> parameter = new HashMap<>();
-		parameter.put("solicitorcode", solicitorcode);
-		ResponseEntity<Map<String, Boolean>> response = profileRestTemplate.exchange(
-				profileProperties.getCustomerURL() + "/profiles/outsourcing/search/findbysolicitor/{solicitorcode}",
-				HttpMethod.GET, null, new ParameterizedTypeReference<Map<String, Boolean>>() {
-				}, parameter);
+		ResponseEntity<Map<String, Boolean>> response = profileClientExchange.exchange(
+				ClientEndpoints.OUTSOURCING_BY_SOLICITOR, profileProperties.getCustomerURL(), null,
+				ResponseTypes.BOOLEAN_MAP, solicitorcode);
 		return getResponseBody(response);
 	}
 
@@ -204,14 +201,12 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public CustomerDTO findAllCustomerDetailsByBillToCode(String billtocode) {
 		log.debug("Profile Client method to get customer details associated to bill to customer");
-		Map<String, String> parameter = new HashMap<>();
-		parameter.put(BILLTOCODE, billtocode);
-		ResponseEntity<CustomerDTO> response = profileRestTemplate.exchange(
-				profileProperties.getCustomerURL() + "/customers/search/findbybillingparty/{billtocode}", HttpMethod.GET,
-				null, new ParameterizedTypeReference<CustomerDTO>() {
-				}, parameter);
+		ResponseEntity<CustomerDTO> response = profileClientExchange.exchange(
+				ClientEndpoints.CUSTOMERS_BY_BILLING_PARTY, profileProperties.getCustomerURL(), null,
+				ResponseTypes.CUSTOMER, billtocode);
 		return getResponseBody(response);
 	}
 
@@ -220,12 +215,11 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public List<TitleDTO> findAllContactTitles() {
 		log.debug("Profile Client method to find all contact titles");
-		ResponseEntity<List<TitleDTO>> response = profileRestTemplate.exchange(
-				profileProperties.getCustomerURL() + "/contacttitles", HttpMethod.GET, null,
-				new ParameterizedTypeReference<List<TitleDTO>>() {
-				}, Collections.emptyMap());
+		ResponseEntity<List<TitleDTO>> response = profileClientExchange.exchange(
+				ClientEndpoints.CONTACT_TITLES, profileProperties.getCustomerURL(), null, ResponseTypes.TITLE_LIST);
 		return getResponseBody(response);
 
 	}
@@ -238,10 +232,8 @@ public class ProfileClient {
 	@HystrixCommand
 	public String saveContact(ProfileContactDTO profileContactDTO) {
 		log.debug("Profile Client method to add contacts");
-		Map<String, ProfileContactDTO> parameter = new HashMap<>();
-		parameter.put("ProfileContactDTO", profileContactDTO);
-		String response=profileRestTemplate.postForObject(profileProperties.getLocationURL() + "/contacts", profileContactDTO,
-				String.class);
+		String response = profileClientExchange.postForObject(
+				ClientEndpoints.CONTACTS, profileProperties.getLocationURL(), profileContactDTO, ResponseTypes.STRING);
 		return getResponseBody(response);
 	}
 
@@ -254,11 +246,9 @@ public class ProfileClient {
 	public String saveGeneralInstruction(LocationProfileDTO locationProfileDTO) {
 		log.debug("Profile client method to add general instructions");
 
-		Map<String, LocationProfileDTO> parameter = new HashMap<>();
-		parameter.put("LocationProfileDTO", locationProfileDTO);
-		String response=profileRestTemplate.postForObject(
-				profileProperties.getLocationURL() + "/generalinstructions",
-				locationProfileDTO, String.class);
+		String response = profileClientExchange.postForObject(
+				ClientEndpoints.GENERAL_INSTRUCTIONS, profileProperties.getLocationURL(), locationProfileDTO,
+				ResponseTypes.STRING);
 		return getResponseBody(response);
 	}
 
@@ -271,10 +261,9 @@ public class ProfileClient {
 	public String saveCustomerDirection(LocationProfileDTO locationProfileDTO) {
 		log.debug("Profile client method to add customer directions");
 
-		Map<String, LocationProfileDTO> parameter = new HashMap<>();
-		parameter.put("LocationProfileDTO", locationProfileDTO);
-		String response=profileRestTemplate.postForObject(profileProperties.getLocationURL() + "/customerdirections",
-				locationProfileDTO, String.class);
+		String response = profileClientExchange.postForObject(
+				ClientEndpoints.CUSTOMER_DIRECTIONS, profileProperties.getLocationURL(), locationProfileDTO,
+				ResponseTypes.STRING);
 
 		return getResponseBody(response);
 	}
@@ -287,22 +276,20 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public List<ContactDTO> findAllProfileContacts(ProfileDTO profileDTO) {
 		log.debug("Profile client method to find all profile contacts");
 
-		UriComponentsBuilder uriComponentsBuilder = UriComponentsBuilder
-				.fromHttpUrl(profileProperties.getCustomerURL() + "/profiles/contacts/search/findbycriteria")
-				.queryParam("code", profileDTO.getCode()).queryParam(ROLETYPE, profileDTO.getRoleTye()).queryParam(ACTIVE, profileDTO.getPartyStatus());
-		ResponseEntity<List<ContactDTO>> response = profileRestTemplate.exchange(
-				uriComponentsBuilder.build().encode().toUri(), HttpMethod.GET, null,
-				new ParameterizedTypeReference<List<ContactDTO>>() {
-				});
+		ResponseEntity<List<ContactDTO>> response = profileClientExchange.exchange(
+				ClientEndpoints.PROFILE_CONTACTS_BY_CRITERIA, profileProperties.getCustomerURL(), null,
+				ResponseTypes.CONTACT_LIST, profileDTO.getCode(), profileDTO.getRoleTye(), profileDTO.getPartyStatus());
 		return getResponseBody(response);
 
 	}
 
 	/**
-	 * To validate the equipment specification
+	 * To validate the equipment specification, memoized by the
+	 * {@link EquipmentSpecificationValidator}
 	 * 
 	 * @param equipmentlength
 	 * @param equipmenttype
@@ -310,24 +297,35 @@ public class ProfileClient {
 	 * @return
 	 * Changed from String[] to Integer[] in arguments- temporary fix - check this again
 	 */
+	public Map<String, Boolean> validateEquipmentSpecification(int equipmentlength, String equipmenttype,
+			Integer[] locations) {
+		return equipmentSpecificationValidator.validateEquipmentSpecification(equipmentlength, equipmenttype,
+				locations);
+	}
+
+	/**
+	 * To validate the equipment specification with the location service
+	 * 
+	 * @param equipmentlength
+	 * @param equipmenttype
+	 * @param locations
+	 * @return
+	 */
     @HystrixCommand
-    public Map<String, Boolean> validateEquipmentSpecification(int equipmentlength, String equipmenttype,
+    @StaleOnError
+    public Map<String, Boolean> validateEquipmentSpecificationUncached(int equipmentlength, String equipmenttype,
                 Integer[] locations) {
           log.debug("profile client method for validating location specification");
-          UriComponentsBuilder uriComponentsBuilder = UriComponentsBuilder
-                      .fromHttpUrl(profileProperties.getLocationURL() + "/equipments/validateequipmentspecification")
-                      .queryParam("equipmentlength", equipmentlength).queryParam("equipmenttype", equipmenttype)
-                      .queryParam("locations", (Object[]) locations);
-          ResponseEntity<Map<String, Boolean>> response = profileRestTemplate.exchange(
-                      uriComponentsBuilder.build().encode().toUri(), HttpMethod.GET, null,
-                      new ParameterizedTypeReference<Map<String, Boolean>>() {
-                      });
+          ResponseEntity<Map<String, Boolean>> response = profileClientExchange.exchange(
+                      ClientEndpoints.VALIDATE_EQUIPMENT_SPECIFICATION, profileProperties.getLocationURL(), null,
+                      ResponseTypes.BOOLEAN_MAP, equipmentlength, equipmenttype, locations);
           return getResponseBody(response);
     }
 
 
 	/**
-	 * To find the origin/destination location based on zipcode
+	 * To find the origin/destination location based on zipcode, the typed page
+	 * turned into a Map
 	 * 
 	 * @param zipcode
 	 * @param size
@@ -335,16 +333,28 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public Map<String, Object> findOriginDestTypeAheadByZipCode(String zipcode, int size, int page) {
 		log.debug("profile client to get origin/dest TypeAhead Based On ZipCode");
-		UriComponentsBuilder uriComponentsBuilder = UriComponentsBuilder
-				.fromHttpUrl(profileProperties.getLocationURL() + "/cities/search/typeahead/findbyzipcode")
-				.queryParam("zipcode", zipcode).queryParam("size", size).queryParam("page", page);
-		ResponseEntity<Map<String, Object>> response = profileRestTemplate.exchange(
-				uriComponentsBuilder.build().encode().toUri(), HttpMethod.GET, null,
-				new ParameterizedTypeReference<Map<String, Object>>() {
-				});
-		return getResponseBody(response);
+		return toMap(findPage(ClientEndpoints.CITY_TYPE_AHEAD_BY_ZIP_CODE, profileProperties.getLocationURL(),
+				ResponseTypes.CITY_TYPE_AHEAD_PAGE, zipcode, size, page));
+	}
+
+	/**
+	 * To find the origin/destination location based on zipcode, decoded into a
+	 * typed page
+	 * 
+	 * @param zipcode
+	 * @param size
+	 * @param page
+	 * @return
+	 */
+	@HystrixCommand
+	@StaleOnError
+	public ProfilePage<CityTypeAheadDTO> findOriginDestTypeAheadPageByZipCode(String zipcode, int size, int page) {
+		log.debug("profile client to get origin/dest TypeAhead page Based On ZipCode");
+		return findPage(ClientEndpoints.CITY_TYPE_AHEAD_BY_ZIP_CODE, profileProperties.getLocationURL(),
+				ResponseTypes.CITY_TYPE_AHEAD_PAGE, zipcode, size, page);
 	}
 
 	/**
@@ -354,14 +364,12 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public Map<String, Boolean> findApprovedSiteStatusByBillingParty(Integer billtoID) {
 		log.debug("Profile client method to find the profile approval status based on billing party");
-		Map<String, String> parameters = new HashMap<>();
-		parameters.put(BILLTOCODE, billtoID.toString());
-		ResponseEntity<Map<String, Boolean>> response = profileRestTemplate.exchange(
-				profileProperties.getCustomerURL() + "/profiles/approvalstatus/{billtocode}",
-				HttpMethod.GET, null, new ParameterizedTypeReference<Map<String, Boolean>>() {
-				}, parameters);
+		ResponseEntity<Map<String, Boolean>> response = profileClientExchange.exchange(
+				ClientEndpoints.APPROVAL_STATUS_BY_BILLING_PARTY, profileProperties.getCustomerURL(), null,
+				ResponseTypes.BOOLEAN_MAP, billtoID.toString());
 		return getResponseBody(response);
 	}
 
@@ -372,14 +380,12 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public Map<String, Boolean> findCreditStatusByBillToCode(Integer billtoID) {
 		log.debug("Profile client method to find  the credit status based on billto code ");
-		Map<String, String> parameters = new HashMap<>();
-		parameters.put(BILLTOCODE, billtoID.toString() );
-		ResponseEntity<Map<String, Boolean>> response = profileRestTemplate.exchange(
-				profileProperties.getCustomerURL() + "/profiles/creditstatus/nationalaccount/{billtocode}",
-				HttpMethod.GET, null, new ParameterizedTypeReference<Map<String, Boolean>>() {
-				}, parameters);
+		ResponseEntity<Map<String, Boolean>> response = profileClientExchange.exchange(
+				ClientEndpoints.CREDIT_STATUS_BY_BILLING_PARTY, profileProperties.getCustomerURL(), null,
+				ResponseTypes.BOOLEAN_MAP, billtoID.toString());
 		return getResponseBody(response);
 	}
 
@@ -392,14 +398,12 @@ public class ProfileClient {
 	 * Modified Return type of MAp from string to integer
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public Map<Integer, List<LocationProfileDTO>> findLocationProfileByLocationCode(Integer locationID) {
 		log.debug("Profile client method to find location profile based on location code ");
-		Map<String, String> parameters = new HashMap<>();
-		parameters.put(LOCATIONCODE, locationID.toString());
-		ResponseEntity<Map<Integer, List<LocationProfileDTO>>> response = profileRestTemplate.exchange(
-				profileProperties.getLocationURL() + "/locations/search/findbylocationcode/{locationcode}", HttpMethod.GET,
-				null, new ParameterizedTypeReference<Map<Integer, List<LocationProfileDTO>>>() {
-				}, parameters);
+		ResponseEntity<Map<Integer, List<LocationProfileDTO>>> response = profileClientExchange.exchange(
+				ClientEndpoints.LOCATION_PROFILE_BY_LOCATION_CODE, profileProperties.getLocationURL(), null,
+				ResponseTypes.LOCATION_PROFILE_LIST_MAP, locationID.toString());
 		return getResponseBody(response);
 
 	}
@@ -412,83 +416,91 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public Map<String,String> findLocationProfileByLocationCodeWithProjection(Integer locationID, String projection) {
 		log.debug("Profile client method to find location profile based on location code with projection ");
-		Map<String, String> parameters = new HashMap<>();
-		parameters.put(LOCATIONCODE, locationID.toString());
-		parameters.put("projection", projection);
-		ResponseEntity<Map<String,String>> response = profileRestTemplate.exchange(
-				profileProperties.getLocationURL()
-						+ "/locations/search/findbylocationcode/{locationcode}?projection={projection}",
-				HttpMethod.GET, null,new ParameterizedTypeReference<Map<String,String>>() {
-				}, parameters);
+		ResponseEntity<Map<String,String>> response = profileClientExchange.exchange(
+				ClientEndpoints.LOCATION_PROFILE_BY_LOCATION_CODE_WITH_PROJECTION, profileProperties.getLocationURL(),
+				null, ResponseTypes.STRING_MAP, locationID.toString(), projection);
 		log.debug("******projection" + projection);
 		return getResponseBody(response);
 	}
 
 	/**
-	 * To find all the exit ports
+	 * To find all the exit ports, from the {@link PortGraph} once loaded
 	 * 
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public List<ExitPortDTO> findAllExitPorts() {
 		log.debug("Profile client method to find all exit ports");
-		ResponseEntity<List<ExitPortDTO>> response = profileRestTemplate.exchange(
-				profileProperties.getLocationURL() + "/exitports", HttpMethod.GET, null,
-				new ParameterizedTypeReference<List<ExitPortDTO>>() {
-				}, Collections.emptyMap());
+		List<ExitPortDTO> exitPorts = portGraph.findAllExitPorts();
+		if (exitPorts != null) {
+			return exitPorts;
+		}
+		ResponseEntity<List<ExitPortDTO>> response = profileClientExchange.exchange(
+				ClientEndpoints.EXIT_PORTS, profileProperties.getLocationURL(), null, ResponseTypes.EXIT_PORT_LIST);
 		return getResponseBody(response);
 	}
 
 	/**
-	 * To find Entry ports based on exit ports
+	 * To find Entry ports based on exit ports, from the {@link PortGraph} when
+	 * the exit port is in it
 	 * 
 	 * @param exitportcode
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public List<EntryPortDTO> findEntryPortsByExitPort(String exitportcode) {
 		log.debug("Profile client method to find Entry ports based on exit ports");
-		Map<String, String> parameters = new HashMap<>();
-		parameters.put("exitportcode", exitportcode);
-		ResponseEntity<List<EntryPortDTO>> response = profileRestTemplate.exchange(
-				profileProperties.getLocationURL() + "/entryports/search/findbyexitport/{exitportcode}", HttpMethod.GET,
-				null, new ParameterizedTypeReference<List<EntryPortDTO>>() {
-				}, parameters);
+		List<EntryPortDTO> entryPorts = portGraph.findEntryPortsByExitPort(exitportcode);
+		if (entryPorts != null) {
+			return entryPorts;
+		}
+		ResponseEntity<List<EntryPortDTO>> response = profileClientExchange.exchange(
+				ClientEndpoints.ENTRY_PORTS_BY_EXIT_PORT, profileProperties.getLocationURL(), null,
+				ResponseTypes.ENTRY_PORT_LIST, exitportcode);
 		return getResponseBody(response);
 	}
 
 	/**
-	 * To find all the Entry ports
+	 * To find all the Entry ports, from the {@link PortGraph} once loaded
 	 * 
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public List<EntryPortDTO> findAllEntryPorts() {
 		log.debug("Profile client method to find  all the Entry ports");
-		ResponseEntity<List<EntryPortDTO>> response = profileRestTemplate.exchange(
-				profileProperties.getLocationURL() + "/entryports", HttpMethod.GET, null,
-				new ParameterizedTypeReference<List<EntryPortDTO>>() {
-				}, Collections.emptyMap());
+		List<EntryPortDTO> entryPorts = portGraph.findAllEntryPorts();
+		if (entryPorts != null) {
+			return entryPorts;
+		}
+		ResponseEntity<List<EntryPortDTO>> response = profileClientExchange.exchange(
+				ClientEndpoints.ENTRY_PORTS, profileProperties.getLocationURL(), null, ResponseTypes.ENTRY_PORT_LIST);
 		return getResponseBody(response);
 	}
 
 	/**
-	 * To find exit ports based on entry ports
+	 * To find exit ports based on entry ports, from the {@link PortGraph} when
+	 * the entry port is in it
 	 * 
 	 * @param entryportcode
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public List<ExitPortDTO> findExitPortsByEntryPort(String entryportcode) {
 		log.debug("Profile client method to find exit ports based on entry ports");
-		Map<String, String> parameters = new HashMap<>();
-		parameters.put("entryportcode", entryportcode);
-		ResponseEntity<List<ExitPortDTO>> response = profileRestTemplate.exchange(
-				profileProperties.getLocationURL() + "/exitports/search/findbyentryport/{entryportcode}", HttpMethod.GET,
-				null, new ParameterizedTypeReference<List<ExitPortDTO>>() {
-				}, parameters);
+		List<ExitPortDTO> exitPorts = portGraph.findExitPortsByEntryPort(entryportcode);
+		if (exitPorts != null) {
+			return exitPorts;
+		}
+		ResponseEntity<List<ExitPortDTO>> response = profileClientExchange.exchange(
+				ClientEndpoints.EXIT_PORTS_BY_ENTRY_PORT, profileProperties.getLocationURL(), null,
+				ResponseTypes.EXIT_PORT_LIST, entryportcode);
 		return getResponseBody(response);
 	}
 
@@ -499,20 +511,19 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public ContactDTO findMarketingAreaByLocationCode(String locationcode) {
 		log.debug("Profile client method to find marketing area based on location code ");
-		Map<String, String> parameters = new HashMap<>();
-		parameters.put(LOCATIONCODE, locationcode);
-		ResponseEntity<ContactDTO> response = profileRestTemplate.exchange(
-				profileProperties.getLocationURL() + "/marketingareas/search/findbylocationcode/{locationcode}",
-				HttpMethod.GET, null, new ParameterizedTypeReference<ContactDTO>() {
-				}, parameters);
+		ResponseEntity<ContactDTO> response = profileClientExchange.exchange(
+				ClientEndpoints.MARKETING_AREA_BY_LOCATION_CODE, profileProperties.getLocationURL(), null,
+				ResponseTypes.CONTACT, locationcode);
 		return getResponseBody(response);
 	}
 
 	/**
 	 * To find the profile based on the criteria mentioned Bill
-	 * To/Solicitor/Broker/Shipper/Receiver/Broker Party Type Ahead
+	 * To/Solicitor/Broker/Shipper/Receiver/Broker Party Type Ahead, the typed
+	 * page turned into a Map
 	 * 
 	 * @param value
 	 * @param roletype
@@ -524,23 +535,39 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public Map<String, Object> findProfileByCriteria(String value, String roletype, int page, int size,
 			boolean approved, String addresstype, String active) {
 		log.debug("Profile client method to find profile based on the criteria ");
-		UriComponentsBuilder uriComponentsBuilder = UriComponentsBuilder
-				.fromHttpUrl(profileProperties.getCustomerURL() + "/profiles/search/typeahead/findbycriteria")
-				.queryParam("value", value).queryParam(ROLETYPE, roletype).queryParam("page", page)
-				.queryParam("size", size).queryParam("approved", approved).queryParam("addresstype", addresstype)
-				.queryParam(ACTIVE, active);
-		ResponseEntity<Map<String, Object>> response = profileRestTemplate.exchange(
-				uriComponentsBuilder.build().encode().toUri(), HttpMethod.GET, null,
-				new ParameterizedTypeReference<Map<String, Object>>() {
-				});
-		return getResponseBody(response);
+		return toMap(findPage(ClientEndpoints.PROFILE_TYPE_AHEAD_BY_CRITERIA, profileProperties.getCustomerURL(),
+				ResponseTypes.PROFILE_TYPE_AHEAD_PAGE, value, roletype, page, size, approved, addresstype, active));
 	}
 
 	/**
-	 * To find origin destination city based on city
+	 * To find the profile based on the criteria mentioned, decoded into a typed
+	 * page
+	 * 
+	 * @param value
+	 * @param roletype
+	 * @param page
+	 * @param size
+	 * @param approved
+	 * @param addresstype
+	 * @param active
+	 * @return
+	 */
+	@HystrixCommand
+	@StaleOnError
+	public ProfilePage<ProfileTypeAheadDTO> findProfilePageByCriteria(String value, String roletype, int page,
+			int size, boolean approved, String addresstype, String active) {
+		log.debug("Profile client method to find profile page based on the criteria ");
+		return findPage(ClientEndpoints.PROFILE_TYPE_AHEAD_BY_CRITERIA, profileProperties.getCustomerURL(),
+				ResponseTypes.PROFILE_TYPE_AHEAD_PAGE, value, roletype, page, size, approved, addresstype, active);
+	}
+
+	/**
+	 * To find origin destination city based on city, the typed page turned
+	 * into a Map
 	 * 
 	 * @param city
 	 * @param size
@@ -548,16 +575,27 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public Map<String, Object> findOriginDestCityByCity(String city, int size, int page) {
 		log.debug("Profile client method to find origin/destination city based on city");
-		UriComponentsBuilder uriComponentsBuilder = UriComponentsBuilder
-				.fromHttpUrl(profileProperties.getLocationURL() + "/cities/search/typeahead/findbycity")
-				.queryParam("city", city).queryParam("size", size).queryParam("page", page);
-		ResponseEntity<Map<String, Object>> response = profileRestTemplate.exchange(
-				uriComponentsBuilder.build().encode().toUri(), HttpMethod.GET, null,
-				new ParameterizedTypeReference<Map<String, Object>>() {
-				});
-		return getResponseBody(response);
+		return toMap(findPage(ClientEndpoints.CITY_TYPE_AHEAD_BY_CITY, profileProperties.getLocationURL(),
+				ResponseTypes.CITY_TYPE_AHEAD_PAGE, city, size, page));
+	}
+
+	/**
+	 * To find origin destination city based on city, decoded into a typed page
+	 * 
+	 * @param city
+	 * @param size
+	 * @param page
+	 * @return
+	 */
+	@HystrixCommand
+	@StaleOnError
+	public ProfilePage<CityTypeAheadDTO> findOriginDestCityPageByCity(String city, int size, int page) {
+		log.debug("Profile client method to find origin/destination city page based on city");
+		return findPage(ClientEndpoints.CITY_TYPE_AHEAD_BY_CITY, profileProperties.getLocationURL(),
+				ResponseTypes.CITY_TYPE_AHEAD_PAGE, city, size, page);
 	}
 
 	/**
@@ -575,51 +613,85 @@ public class ProfileClient {
 	 * @return
 	 */
 	@HystrixCommand
+	@StaleOnError
 	public Map<String, ProfileDTO> findCustomerDetails(String code, String name, String phoneNumber, String city,
 			String state, String roletype, Boolean active, Boolean approved, String addresstype) {
 		log.debug("Profile client  method for searching profile");
-		UriComponentsBuilder uriComponentsBuilder = UriComponentsBuilder
-				.fromHttpUrl(profileProperties.getCustomerURL() + "/profiles/search/findbycriteria")
-				.queryParam("code", code).queryParam("name", name).queryParam("phoneNumber", phoneNumber)
-				.queryParam("city", city).queryParam("state", state).queryParam(ROLETYPE, roletype)
-				.queryParam(ACTIVE, active).queryParam("approved", approved).queryParam("addresstype", addresstype);
-		ResponseEntity<Map<String, ProfileDTO>> response = profileRestTemplate.exchange(
-				uriComponentsBuilder.build().encode().toUri(), HttpMethod.GET, null,
-				new ParameterizedTypeReference<Map<String, ProfileDTO>>() {
-				});
+		ResponseEntity<Map<String, ProfileDTO>> response = profileClientExchange.exchange(
+				ClientEndpoints.PROFILES_BY_CRITERIA, profileProperties.getCustomerURL(), null,
+				ResponseTypes.PROFILE_MAP, code, name, phoneNumber, city, state, roletype, active, approved,
+				addresstype);
 		return getResponseBody(response);
 	}
 
 	/**
-	 * To find List of Profile Details based on party details
+	 * To find List of Profile Details based on party details, deduplicated and
+	 * sent in chunks by the {@link ProfileDetailsBatchClient}
 	 * 
 	 * @param profileRequestDTO
 	 * @return
 	 * @throws URISyntaxException
 	 */
-	@HystrixCommand
 	public Map<String, List<ProfileResponseDTO>> findProfileDetails(List<ProfileRequestDTO> profileRequestDTO)
 			throws URISyntaxException {
+		return profileDetailsBatchClient.findProfileDetails(profileRequestDTO);
+	}
+
+	/**
+	 * To find List of Profile Details based on party codes, deduplicated and
+	 * sent in chunks by the {@link ProfileDetailsBatchClient}
+	 * 
+	 * @param profileResponseDTO
+	 * @return
+	 * @throws URISyntaxException
+	 */
+	public Map<String, List<ProfileResponseDTO>> findPartyCodeDetails(List<ProfileResponseDTO> profileResponseDTO)
+			throws URISyntaxException {
+		return profileDetailsBatchClient.findPartyCodeDetails(profileResponseDTO);
+	}
+
+	/**
+	 * One chunk of {@link #findProfileDetails(List)}, in one request
+	 * 
+	 * @param profileRequestDTO
+	 * @return
+	 * @throws URISyntaxException
+	 */
+	@HystrixCommand
+	public Map<String, List<ProfileResponseDTO>> findProfileDetailsChunk(List<ProfileRequestDTO> profileRequestDTO)
+			throws URISyntaxException {
 		log.debug("profile client method to find List of Profile Details");
-		RequestEntity<List<ProfileRequestDTO>> request = RequestEntity
-				.post(new URI(profileProperties.getLocationURL() + "/profiles/search/findPartyDetails"))
-				.accept(MediaType.APPLICATION_JSON).body(profileRequestDTO);
-	ResponseEntity<Map<String,List<ProfileResponseDTO>>> response=profileRestTemplate.exchange(
-			request, new ParameterizedTypeReference<Map<String, List<ProfileResponseDTO>>>() {
-				});
+		ResponseEntity<Map<String,List<ProfileResponseDTO>>> response=profileClientExchange.exchange(
+				ClientEndpoints.PROFILE_DETAILS, profileProperties.getLocationURL(),
+				new HttpEntity<>(profileRequestDTO), ResponseTypes.PROFILE_RESPONSE_LIST_MAP);
 		return getResponseBody(response);
 	}
 	
+	/**
+	 * One chunk of {@link #findPartyCodeDetails(List)}, in one request
+	 * 
+	 * @param profileResponseDTO
+	 * @return
+	 * @throws URISyntaxException
+	 */
 	@HystrixCommand
-	public Map<String, List<ProfileResponseDTO>> findPartyCodeDetails(List<ProfileResponseDTO> profileResponseDTO)
-			throws URISyntaxException {
+	public Map<String, List<ProfileResponseDTO>> findPartyCodeDetailsChunk(
+			List<ProfileResponseDTO> profileResponseDTO) throws URISyntaxException {
 		log.debug("profile client method to find List of Profile Details");
-		RequestEntity<List<ProfileResponseDTO>> request = RequestEntity
-				.post(new URI(profileProperties.getLocationURL() + "/profiles/search/findPartyCodeDetails"))
-				.accept(MediaType.APPLICATION_JSON).body(profileResponseDTO);
-		ResponseEntity<Map<String, List<ProfileResponseDTO>>> response = profileRestTemplate.exchange(request,
-				new ParameterizedTypeReference<Map<String, List<ProfileResponseDTO>>>() {
-				});
+		ResponseEntity<Map<String, List<ProfileResponseDTO>>> response = profileClientExchange.exchange(
+				ClientEndpoints.PARTY_CODE_DETAILS, profileProperties.getLocationURL(),
+				new HttpEntity<>(profileResponseDTO), ResponseTypes.PROFILE_RESPONSE_LIST_MAP);
 		return getResponseBody(response);
 	}
-}
\ No newline at end of file
+
+	private <T> ProfilePage<T> findPage(Endpoint endpoint, String baseURL, ResponseType<ProfilePage<T>> pageType,
+			Object... values) {
+		ResponseEntity<ProfilePage<T>> response = profileClientExchange.exchange(endpoint, baseURL, null, pageType,
+				values);
+		return getResponseBody(response);
+	}
+
+	private static Map<String, Object> toMap(ProfilePage<?> page) {
+		return page == null ? null : page.toMap();
+	}
+}
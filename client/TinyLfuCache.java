@@ -0,0 +1,305 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Cache with a time to live per entry and an upper bound on the number of
+ * entries, which admits new keys by their access frequency (W-TinyLFU), so one
+ * off lookups do not evict the keys looked up all the time.
+ *
+ * New entries go to a small admission window, least recently used first out.
+ * An entry leaving the window replaces the least recently used entry of the
+ * main part of the cache only when the {@link FrequencySketch} of the lookups
+ * saw its key more often than the key it would evict; otherwise it is dropped.
+ * Expired entries are dropped first; until then they are kept, so a put tells
+ * the value it replaces.
+ *
+ * Lookups read a concurrent map without locking and record their key in a
+ * {@link ReadBuffer}. The sketch and the recency order are updated from it
+ * under the policy lock, by the writes and by the lookup which fills a stripe
+ * if the lock is free; a lookup dropped by a contended buffer is not counted.
+ * The writes take the lock.
+ *
+ * Null values are never cached, a null from {@link #get(Object)} always means a
+ * miss.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class TinyLfuCache<K, V> {
+
+	private final long timeToLiveNanos;
+
+	private final int windowSize;
+
+	private final int mainSize;
+
+	private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+	private final ReadBuffer<K> reads = new ReadBuffer<>();
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * Keys of the window in access order, guarded by the lock
+	 */
+	private final Map<K, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Keys of the main part in access order, guarded by the lock
+	 */
+	private final Map<K, Entry<V>> main = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Guarded by the lock
+	 */
+	private final FrequencySketch sketch;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private volatile long admissions;
+
+	private volatile long rejections;
+
+	/**
+	 * @param timeToLiveMillis
+	 *            default time to live of the entries
+	 * @param maximumSize
+	 *            maximum number of entries
+	 * @param windowShare
+	 *            share of the maximum size taken by the admission window
+	 */
+	public TinyLfuCache(long timeToLiveMillis, int maximumSize, double windowShare) {
+		this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+		this.windowSize = Math.max(1, (int) (maximumSize * windowShare));
+		this.mainSize = Math.max(1, maximumSize - windowSize);
+		this.sketch = new FrequencySketch(maximumSize);
+	}
+
+	/**
+	 * @param key
+	 * @return the cached value or null when absent or expired
+	 */
+	public V get(K key) {
+		Entry<V> entry = entries.get(key);
+		if (reads.offer(key) && lock.tryLock()) {
+			try {
+				drainReads();
+			} finally {
+				lock.unlock();
+			}
+		}
+		if (entry == null || entry.isExpired(System.nanoTime())) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return entry.value;
+	}
+
+	/**
+	 * @param key
+	 * @param value
+	 * @return the value replaced, expired or not, null when none
+	 */
+	public V put(K key, V value) {
+		return put(key, value, TimeUnit.NANOSECONDS.toMillis(timeToLiveNanos));
+	}
+
+	/**
+	 * @param key
+	 * @param value
+	 * @param timeToLiveMillis
+	 *            time to live of this entry
+	 * @return the value replaced, expired or not, null when none
+	 */
+	public V put(K key, V value, long timeToLiveMillis) {
+		if (value == null) {
+			return null;
+		}
+		Entry<V> entry = new Entry<>(value, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis));
+		lock.lock();
+		try {
+			drainReads();
+			Entry<V> replaced = entries.put(key, entry);
+			if (main.containsKey(key)) {
+				main.put(key, entry);
+				return replaced.value;
+			}
+			window.put(key, entry);
+			if (window.size() > windowSize) {
+				Iterator<Map.Entry<K, Entry<V>>> eldest = window.entrySet().iterator();
+				Map.Entry<K, Entry<V>> candidate = eldest.next();
+				eldest.remove();
+				admit(candidate.getKey(), candidate.getValue());
+			}
+			return replaced == null ? null : replaced.value;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @param key
+	 */
+	public void invalidate(K key) {
+		lock.lock();
+		try {
+			if (entries.remove(key) != null && window.remove(key) == null) {
+				main.remove(key);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @param filter
+	 *            keys to remove
+	 */
+	public void invalidateIf(Predicate<? super K> filter) {
+		lock.lock();
+		try {
+			entries.keySet().removeIf(filter);
+			window.keySet().removeIf(filter);
+			main.keySet().removeIf(filter);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void invalidateAll() {
+		lock.lock();
+		try {
+			entries.clear();
+			window.clear();
+			main.clear();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return number of entries, including the expired ones not yet removed
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return number of entries which left the window for the main part
+	 */
+	public long getAdmissions() {
+		return admissions;
+	}
+
+	/**
+	 * @return number of entries which left the window and were dropped,
+	 *         being less frequent than the entry they would have evicted
+	 */
+	public long getRejections() {
+		return rejections;
+	}
+
+	public double getHitRatio() {
+		long hitCount = hits.sum();
+		long lookups = hitCount + misses.sum();
+		return lookups == 0 ? 0 : hitCount / (double) lookups;
+	}
+
+	/**
+	 * Register the metrics of the cache
+	 *
+	 * @param registry
+	 * @param name
+	 *            name of the cache, tag of its metrics
+	 */
+	public void bindTo(MeterRegistry registry, String name) {
+		Tags tags = Tags.of("cache", name);
+		FunctionCounter.builder("client.cache.tinylfu.hits", this, TinyLfuCache::getHits).tags(tags)
+				.register(registry);
+		FunctionCounter.builder("client.cache.tinylfu.misses", this, TinyLfuCache::getMisses).tags(tags)
+				.register(registry);
+		FunctionCounter.builder("client.cache.tinylfu.admissions", this, TinyLfuCache::getAdmissions).tags(tags)
+				.register(registry);
+		FunctionCounter.builder("client.cache.tinylfu.rejections", this, TinyLfuCache::getRejections).tags(tags)
+				.register(registry);
+		Gauge.builder("client.cache.tinylfu.hit.ratio", this, TinyLfuCache::getHitRatio).tags(tags)
+				.register(registry);
+		Gauge.builder("client.cache.tinylfu.size", this, TinyLfuCache::size).tags(tags).register(registry);
+	}
+
+	/**
+	 * Count the buffered lookups and move their keys to the end of the access
+	 * order, under the lock
+	 */
+	private void drainReads() {
+		reads.drainTo(key -> {
+			sketch.increment(key);
+			if (window.get(key) == null) {
+				main.get(key);
+			}
+		});
+	}
+
+	/**
+	 * Under the lock
+	 */
+	private void admit(K key, Entry<V> candidate) {
+		long now = System.nanoTime();
+		if (candidate.isExpired(now)) {
+			entries.remove(key);
+			return;
+		}
+		if (main.size() >= mainSize) {
+			Iterator<Map.Entry<K, Entry<V>>> eldest = main.entrySet().iterator();
+			Map.Entry<K, Entry<V>> victim = eldest.next();
+			if (!victim.getValue().isExpired(now) && sketch.frequency(key) <= sketch.frequency(victim.getKey())) {
+				entries.remove(key);
+				rejections++;
+				return;
+			}
+			eldest.remove();
+			entries.remove(victim.getKey());
+		}
+		main.put(key, candidate);
+		admissions++;
+	}
+
+	private static final class Entry<V> {
+
+		private final V value;
+
+		private final long expiresAt;
+
+		private Entry(V value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+		private boolean isExpired(long now) {
+			return now - expiresAt >= 0;
+		}
+	}
+}
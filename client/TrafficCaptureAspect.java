@@ -0,0 +1,83 @@
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Captures the invocations of the client methods, the public methods of
+ * {@link OrderClient}, {@link OrderReferenceDataClient}, {@link ProfileClient}
+ * and {@link ProfileDetailsBatchClient} whether Hystrix commands or not, into
+ * the {@link TrafficLog} of the {@link TrafficRecorder}, with their arguments
+ * as JSON, so the replay goes through the client beans, their caches and
+ * fallbacks included.
+ *
+ * The aspect wraps the other client aspects. Only the outermost client method
+ * of a thread is captured, the calls it makes being replayed with it. The chunk
+ * methods of ProfileClient, which the batch client may call on other threads,
+ * are not captured, being replayed with the lookup they belong to. An
+ * invocation whose arguments cannot be written as JSON is not captured.
+ *
+ */
+@Slf4j
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TrafficCaptureAspect {
+
+	private static final ThreadLocal<Boolean> CAPTURING = new ThreadLocal<>();
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final Supplier<TrafficRecorder> trafficRecorder;
+
+	/**
+	 * @param trafficRecorder
+	 *            the recorder, null when the traffic is not captured
+	 */
+	public TrafficCaptureAspect(Supplier<TrafficRecorder> trafficRecorder) {
+		this.trafficRecorder = trafficRecorder;
+	}
+
+	/**
+	 * @param joinPoint
+	 * @return the value of the method
+	 * @throws Throwable
+	 */
+	@Around("(execution(public * OrderClient.*(..)) || execution(public * OrderReferenceDataClient.*(..))"
+			+ " || execution(public * ProfileClient.*(..)) || execution(public * ProfileDetailsBatchClient.*(..)))"
+			+ " && !execution(* ProfileClient.*Chunk(..))")
+	public Object capture(ProceedingJoinPoint joinPoint) throws Throwable {
+		TrafficRecorder recorder = trafficRecorder.get();
+		if (recorder == null || CAPTURING.get() != null) {
+			return joinPoint.proceed();
+		}
+		Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+		byte[] arguments;
+		try {
+			arguments = objectMapper.writeValueAsBytes(joinPoint.getArgs());
+		} catch (JsonProcessingException e) {
+			log.debug("Invocation of {} not captured", method.getName(), e);
+			return joinPoint.proceed();
+		}
+		long start = System.nanoTime();
+		boolean failed = true;
+		CAPTURING.set(Boolean.TRUE);
+		try {
+			Object value = joinPoint.proceed();
+			failed = false;
+			return value;
+		} finally {
+			CAPTURING.remove();
+			recorder.capture(TrafficInvocation.key(method), arguments, start, failed);
+		}
+	}
+}
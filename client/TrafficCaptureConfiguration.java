@@ -0,0 +1,110 @@
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Adds the {@link TrafficRecorder} to the client RestTemplates when
+ * client.traffic-capture.enabled is set, so the calls of orderRestTemplate,
+ * referenceDataRestTemplate and profileRestTemplate are captured into one
+ * {@link TrafficLog} to be replayed later, along with the client method
+ * invocations making them, see {@link TrafficCaptureAspect}.
+ *
+ */
+@Slf4j
+@Configuration
+public class TrafficCaptureConfiguration {
+
+	/**
+	 * Static, so the post processor is registered without creating this
+	 * configuration and the beans it depends on early
+	 *
+	 * @param trafficCaptureProperties
+	 * @return
+	 */
+	@Bean
+	public static TrafficCapturePostProcessor trafficCapturePostProcessor(
+			ObjectProvider<TrafficCaptureProperties> trafficCaptureProperties) {
+		return new TrafficCapturePostProcessor(trafficCaptureProperties);
+	}
+
+	/**
+	 * @param trafficCapturePostProcessor
+	 * @return
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "client.traffic-capture", name = "enabled", havingValue = "true")
+	public TrafficCaptureAspect trafficCaptureAspect(TrafficCapturePostProcessor trafficCapturePostProcessor) {
+		return new TrafficCaptureAspect(trafficCapturePostProcessor::getTrafficRecorder);
+	}
+
+	/**
+	 * Adds the recorder to the client RestTemplates and closes it on shutdown
+	 *
+	 */
+	static final class TrafficCapturePostProcessor implements BeanPostProcessor, DisposableBean {
+
+		private final ObjectProvider<TrafficCaptureProperties> trafficCaptureProperties;
+
+		private volatile TrafficRecorder trafficRecorder;
+
+		private TrafficCapturePostProcessor(ObjectProvider<TrafficCaptureProperties> trafficCaptureProperties) {
+			this.trafficCaptureProperties = trafficCaptureProperties;
+		}
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			if (ClientTransportConfiguration.GROUPS.containsKey(beanName) && bean instanceof RestTemplate) {
+				TrafficRecorder recorder = trafficRecorder(beanName);
+				if (recorder != null) {
+					((RestTemplate) bean).getInterceptors().add(recorder);
+				}
+			}
+			return bean;
+		}
+
+		@Override
+		public synchronized void destroy() throws Exception {
+			if (trafficRecorder != null) {
+				trafficRecorder.close();
+				trafficRecorder = null;
+			}
+		}
+
+		/**
+		 * @return the recorder, null when the traffic is not captured or no
+		 *         client RestTemplate was created yet
+		 */
+		TrafficRecorder getTrafficRecorder() {
+			return trafficRecorder;
+		}
+
+		private synchronized TrafficRecorder trafficRecorder(String beanName) {
+			TrafficCaptureProperties properties = trafficCaptureProperties
+					.getIfAvailable(TrafficCaptureProperties::new);
+			if (!properties.isEnabled()) {
+				return null;
+			}
+			if (trafficRecorder == null) {
+				try {
+					trafficRecorder = new TrafficRecorder(new FileOutputStream(properties.getFile()),
+							properties.getQueueSize(), properties.getMaxBodySize());
+				} catch (IOException e) {
+					throw new BeanCreationException(beanName,
+							"Cannot capture the client traffic to " + properties.getFile(), e);
+				}
+				log.warn("Capturing the client traffic to {}", properties.getFile());
+			}
+			return trafficRecorder;
+		}
+	}
+}
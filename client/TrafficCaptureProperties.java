@@ -0,0 +1,37 @@
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Properties of the capture of the client traffic into a {@link TrafficLog}
+ *
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "client.traffic-capture")
+public class TrafficCaptureProperties {
+
+	/**
+	 * Whether the calls of the client RestTemplates, and the invocations of the
+	 * client methods making them, are captured
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * File the calls are written to, replaced at startup
+	 */
+	private String file = "client-traffic.log";
+
+	/**
+	 * Calls waiting to be written; calls captured while the queue is full are
+	 * dropped, so a slow disk does not slow down the clients
+	 */
+	private int queueSize = 10000;
+
+	/**
+	 * Largest request or response body captured, in bytes; larger bodies are
+	 * left out of the log
+	 */
+	private int maxBodySize = 1024 * 1024;
+}
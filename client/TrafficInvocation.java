@@ -0,0 +1,74 @@
+import java.lang.reflect.Method;
+
+/**
+ * One invocation of a client method in a {@link TrafficLog}, with its
+ * arguments, to be replayed on the client beans
+ *
+ */
+public final class TrafficInvocation {
+
+	private final long startMicros;
+
+	private final String method;
+
+	private final byte[] arguments;
+
+	private final long latencyMicros;
+
+	private final boolean failed;
+
+	/**
+	 * @param startMicros
+	 *            start of the invocation, in microseconds since the start of
+	 *            the log
+	 * @param method
+	 *            the client method, see {@link #key(Method)}
+	 * @param arguments
+	 *            arguments of the invocation, as a JSON array
+	 * @param latencyMicros
+	 * @param failed
+	 *            whether the invocation threw
+	 */
+	public TrafficInvocation(long startMicros, String method, byte[] arguments, long latencyMicros, boolean failed) {
+		this.startMicros = startMicros;
+		this.method = method;
+		this.arguments = arguments;
+		this.latencyMicros = latencyMicros;
+		this.failed = failed;
+	}
+
+	/**
+	 * @param method
+	 * @return the name of a client method in the log: class, name and parameter
+	 *         types, OrderClient.findChargesByOrderId(int) for instance
+	 */
+	public static String key(Method method) {
+		StringBuilder key = new StringBuilder(method.getDeclaringClass().getSimpleName()).append('.')
+				.append(method.getName()).append('(');
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		for (int i = 0; i < parameterTypes.length; i++) {
+			key.append(i == 0 ? "" : ",").append(parameterTypes[i].getSimpleName());
+		}
+		return key.append(')').toString();
+	}
+
+	public long getStartMicros() {
+		return startMicros;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public byte[] getArguments() {
+		return arguments;
+	}
+
+	public long getLatencyMicros() {
+		return latencyMicros;
+	}
+
+	public boolean isFailed() {
+		return failed;
+	}
+}
@@ -0,0 +1,304 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * Compact binary log of client calls, written by the {@link TrafficRecorder}
+ * and read back to replay the traffic.
+ *
+ * The log is a gzip stream starting with a magic number and the wall clock
+ * time of its start, followed by entries of four kinds: the definition of an
+ * endpoint template with its number, written the first time the template is
+ * used, a call referring to its template by number, and likewise the
+ * definition of a client method and an invocation of it. Numbers and lengths
+ * are variable length encoded and starts are deltas from the previous call, or
+ * invocation, so a call costs little more than its URI and bodies. Calls and
+ * invocations are written as they complete, so their starts are not always in
+ * order.
+ *
+ */
+public final class TrafficLog {
+
+	private static final int MAGIC = 0x43544c31;
+
+	private static final int TEMPLATE = 1;
+
+	private static final int CALL = 2;
+
+	private static final int METHOD = 3;
+
+	private static final int INVOCATION = 4;
+
+	private static final HttpMethod[] METHODS = HttpMethod.values();
+
+	private TrafficLog() {
+	}
+
+	/**
+	 * Writes the calls of a log, by a single thread
+	 *
+	 */
+	public static final class Writer implements Closeable {
+
+		private final DataOutputStream out;
+
+		private final Map<String, Integer> templates = new HashMap<>();
+
+		private final Map<String, Integer> methods = new HashMap<>();
+
+		private long lastStartMicros;
+
+		private long lastInvocationStartMicros;
+
+		/**
+		 * @param out
+		 * @param startMillis
+		 *            wall clock time of the start of the log
+		 * @throws IOException
+		 */
+		public Writer(OutputStream out, long startMillis) throws IOException {
+			this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(out, 8192, true)));
+			this.out.writeInt(MAGIC);
+			this.out.writeLong(startMillis);
+		}
+
+		/**
+		 * @param record
+		 * @throws IOException
+		 */
+		public void write(TrafficRecord record) throws IOException {
+			String template = record.getTemplate() == null ? "" : record.getTemplate();
+			Integer id = templates.get(template);
+			if (id == null) {
+				id = templates.size();
+				templates.put(template, id);
+				out.writeByte(TEMPLATE);
+				writeVarLong(id);
+				out.writeUTF(template);
+			}
+			out.writeByte(CALL);
+			long delta = record.getStartMicros() - lastStartMicros;
+			writeVarLong((delta << 1) ^ (delta >> 63));
+			lastStartMicros = record.getStartMicros();
+			writeVarLong(id);
+			out.writeByte(record.getMethod().ordinal());
+			out.writeUTF(record.getUri());
+			writeBytes(record.getRequestBody());
+			writeVarLong(record.getStatus());
+			writeVarLong(record.getLatencyMicros());
+			writeBytes(record.getResponseBody());
+		}
+
+		/**
+		 * @param invocation
+		 * @throws IOException
+		 */
+		public void write(TrafficInvocation invocation) throws IOException {
+			Integer id = methods.get(invocation.getMethod());
+			if (id == null) {
+				id = methods.size();
+				methods.put(invocation.getMethod(), id);
+				out.writeByte(METHOD);
+				writeVarLong(id);
+				out.writeUTF(invocation.getMethod());
+			}
+			out.writeByte(INVOCATION);
+			long delta = invocation.getStartMicros() - lastInvocationStartMicros;
+			writeVarLong((delta << 1) ^ (delta >> 63));
+			lastInvocationStartMicros = invocation.getStartMicros();
+			writeVarLong(id);
+			writeBytes(invocation.getArguments());
+			writeVarLong(invocation.getLatencyMicros());
+			out.writeBoolean(invocation.isFailed());
+		}
+
+		/**
+		 * Push the written calls to the file
+		 *
+		 * @throws IOException
+		 */
+		public void flush() throws IOException {
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.close();
+		}
+
+		private void writeBytes(byte[] bytes) throws IOException {
+			if (bytes == null) {
+				writeVarLong(0);
+			} else {
+				writeVarLong(bytes.length + 1L);
+				out.write(bytes);
+			}
+		}
+
+		private void writeVarLong(long value) throws IOException {
+			while ((value & ~0x7FL) != 0) {
+				out.writeByte((int) ((value & 0x7F) | 0x80));
+				value >>>= 7;
+			}
+			out.writeByte((int) value);
+		}
+	}
+
+	/**
+	 * Reads the calls, or the invocations, of a log in the order they were
+	 * written
+	 *
+	 */
+	public static final class Reader implements Closeable {
+
+		private final DataInputStream in;
+
+		private final long startMillis;
+
+		private final List<String> templates = new ArrayList<>();
+
+		private final List<String> methods = new ArrayList<>();
+
+		private long lastStartMicros;
+
+		private long lastInvocationStartMicros;
+
+		/**
+		 * @param in
+		 * @throws IOException
+		 *             when the stream is not a traffic log
+		 */
+		public Reader(InputStream in) throws IOException {
+			this.in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)));
+			if (this.in.readInt() != MAGIC) {
+				throw new IOException("Not a client traffic log");
+			}
+			startMillis = this.in.readLong();
+		}
+
+		/**
+		 * @return wall clock time of the start of the log
+		 */
+		public long getStartMillis() {
+			return startMillis;
+		}
+
+		/**
+		 * @return the next call, null at the end of the log, or at the last
+		 *         complete call of a log whose writer did not close it
+		 * @throws IOException
+		 */
+		public TrafficRecord next() throws IOException {
+			return (TrafficRecord) next(CALL);
+		}
+
+		/**
+		 * @return the next invocation, null at the end of the log, or at the
+		 *         last complete invocation of a log whose writer did not close it
+		 * @throws IOException
+		 */
+		public TrafficInvocation nextInvocation() throws IOException {
+			return (TrafficInvocation) next(INVOCATION);
+		}
+
+		private Object next(int wanted) throws IOException {
+			try {
+				while (true) {
+					int type = in.readByte();
+					Object entry;
+					if (type == TEMPLATE) {
+						entry = readName(templates, "Template");
+					} else if (type == CALL) {
+						entry = readCall();
+					} else if (type == METHOD) {
+						entry = readName(methods, "Method");
+					} else if (type == INVOCATION) {
+						entry = readInvocation();
+					} else {
+						throw new IOException("Unknown entry " + type);
+					}
+					if (type == wanted) {
+						return entry;
+					}
+				}
+			} catch (EOFException e) {
+				return null;
+			}
+		}
+
+		private String readName(List<String> names, String kind) throws IOException {
+			int id = (int) readVarLong();
+			String name = in.readUTF();
+			if (id != names.size()) {
+				throw new IOException(kind + " " + id + " out of sequence");
+			}
+			names.add(name);
+			return name;
+		}
+
+		private TrafficRecord readCall() throws IOException {
+			long delta = readVarLong();
+			lastStartMicros += (delta >>> 1) ^ -(delta & 1);
+			String template = templates.get((int) readVarLong());
+			HttpMethod method = METHODS[in.readUnsignedByte()];
+			String uri = in.readUTF();
+			byte[] requestBody = readBytes();
+			int status = (int) readVarLong();
+			long latencyMicros = readVarLong();
+			byte[] responseBody = readBytes();
+			return new TrafficRecord(lastStartMicros, template.isEmpty() ? null : template, method, uri, requestBody,
+					status, latencyMicros, responseBody);
+		}
+
+		private TrafficInvocation readInvocation() throws IOException {
+			long delta = readVarLong();
+			lastInvocationStartMicros += (delta >>> 1) ^ -(delta & 1);
+			String method = methods.get((int) readVarLong());
+			byte[] arguments = readBytes();
+			long latencyMicros = readVarLong();
+			boolean failed = in.readBoolean();
+			return new TrafficInvocation(lastInvocationStartMicros, method, arguments, latencyMicros, failed);
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+
+		private byte[] readBytes() throws IOException {
+			long length = readVarLong();
+			if (length == 0) {
+				return null;
+			}
+			byte[] bytes = new byte[(int) (length - 1)];
+			in.readFully(bytes);
+			return bytes;
+		}
+
+		private long readVarLong() throws IOException {
+			long value = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				int b = in.readUnsignedByte();
+				value |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new IOException("Malformed variable length number");
+		}
+	}
+}
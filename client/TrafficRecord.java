@@ -0,0 +1,85 @@
+import org.springframework.http.HttpMethod;
+
+/**
+ * One client call of a {@link TrafficLog}
+ *
+ */
+public final class TrafficRecord {
+
+	private final long startMicros;
+
+	private final String template;
+
+	private final HttpMethod method;
+
+	private final String uri;
+
+	private final byte[] requestBody;
+
+	private final int status;
+
+	private final long latencyMicros;
+
+	private final byte[] responseBody;
+
+	/**
+	 * @param startMicros
+	 *            start of the call, in microseconds since the start of the log
+	 * @param template
+	 *            template of the endpoint called, null for a call made outside
+	 *            of a {@link ClientExchange}
+	 * @param method
+	 * @param uri
+	 *            path and query of the call
+	 * @param requestBody
+	 *            null when there was none or it was not captured
+	 * @param status
+	 *            status of the response, 0 when the call failed without one
+	 * @param latencyMicros
+	 * @param responseBody
+	 *            null when there was none or it was not captured
+	 */
+	public TrafficRecord(long startMicros, String template, HttpMethod method, String uri, byte[] requestBody,
+			int status, long latencyMicros, byte[] responseBody) {
+		this.startMicros = startMicros;
+		this.template = template;
+		this.method = method;
+		this.uri = uri;
+		this.requestBody = requestBody;
+		this.status = status;
+		this.latencyMicros = latencyMicros;
+		this.responseBody = responseBody;
+	}
+
+	public long getStartMicros() {
+		return startMicros;
+	}
+
+	public String getTemplate() {
+		return template;
+	}
+
+	public HttpMethod getMethod() {
+		return method;
+	}
+
+	public String getUri() {
+		return uri;
+	}
+
+	public byte[] getRequestBody() {
+		return requestBody;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	public long getLatencyMicros() {
+		return latencyMicros;
+	}
+
+	public byte[] getResponseBody() {
+		return responseBody;
+	}
+}
@@ -0,0 +1,248 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * RestTemplate interceptor capturing the calls into a {@link TrafficLog}: the
+ * start time, endpoint template, URI, request body, status, latency and
+ * response body of each call. The {@link TrafficCaptureAspect} adds the
+ * invocations of the client methods making the calls.
+ *
+ * A response body of up to the largest body captured is read into memory to be
+ * captured and handed on from there; a larger one, of a known length or found
+ * larger while reading it, is not captured and is streamed on to the client.
+ * The calls are queued and written by a background thread; when the queue is
+ * full a call is dropped from the log rather than delaying the client.
+ *
+ */
+@Slf4j
+public class TrafficRecorder implements ClientHttpRequestInterceptor, Closeable {
+
+	private final TrafficLog.Writer writer;
+
+	private final BlockingQueue<Object> queue;
+
+	private final int maxBodySize;
+
+	private final long startNanos = System.nanoTime();
+
+	private final LongAdder captured = new LongAdder();
+
+	private final LongAdder dropped = new LongAdder();
+
+	private final Thread writerThread;
+
+	private volatile boolean closed;
+
+	/**
+	 * @param out
+	 *            stream of the log, closed with the recorder
+	 * @param queueSize
+	 *            calls waiting to be written
+	 * @param maxBodySize
+	 *            largest body captured, in bytes
+	 * @throws IOException
+	 */
+	public TrafficRecorder(OutputStream out, int queueSize, int maxBodySize) throws IOException {
+		this.writer = new TrafficLog.Writer(out, System.currentTimeMillis());
+		this.queue = new ArrayBlockingQueue<>(queueSize);
+		this.maxBodySize = maxBodySize;
+		this.writerThread = new Thread(this::writeRecords, "traffic-recorder");
+		this.writerThread.setDaemon(true);
+		this.writerThread.start();
+	}
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+		long start = System.nanoTime();
+		Endpoint endpoint = ClientExchange.currentEndpoint();
+		ClientHttpResponse response;
+		try {
+			response = execution.execute(request, body);
+		} catch (IOException e) {
+			capture(request, endpoint, body, start, 0, null);
+			throw e;
+		}
+		ClientHttpResponse captureResponse = response;
+		byte[] responseBody = null;
+		if (response.getHeaders().getContentLength() <= maxBodySize) {
+			InputStream in = response.getBody();
+			byte[] head = in == null ? new byte[0] : readAtMost(in, maxBodySize + 1);
+			if (head.length <= maxBodySize) {
+				responseBody = head;
+				captureResponse = new BufferedResponse(response, new ByteArrayInputStream(head));
+			} else {
+				captureResponse = new BufferedResponse(response,
+						new SequenceInputStream(new ByteArrayInputStream(head), in));
+			}
+		}
+		capture(request, endpoint, body, start, response.getRawStatusCode(), responseBody);
+		return captureResponse;
+	}
+
+	/**
+	 * Capture the invocation of a client method
+	 *
+	 * @param method
+	 *            see {@link TrafficInvocation#key(java.lang.reflect.Method)}
+	 * @param arguments
+	 *            arguments of the invocation, as a JSON array
+	 * @param start
+	 *            {@link System#nanoTime()} at the start of the invocation
+	 * @param failed
+	 *            whether the invocation threw
+	 */
+	public void capture(String method, byte[] arguments, long start, boolean failed) {
+		long end = System.nanoTime();
+		offer(new TrafficInvocation(TimeUnit.NANOSECONDS.toMicros(start - startNanos), method, arguments,
+				TimeUnit.NANOSECONDS.toMicros(end - start), failed));
+	}
+
+	/**
+	 * @return number of calls and invocations captured
+	 */
+	public long getCaptured() {
+		return captured.sum();
+	}
+
+	/**
+	 * @return number of calls and invocations left out of the log because the
+	 *         queue was full
+	 */
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	/**
+	 * Write the queued calls and close the log
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		try {
+			writerThread.join(TimeUnit.SECONDS.toMillis(10));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		writer.close();
+		log.info("Captured {} client calls and invocations, {} dropped", getCaptured(), getDropped());
+	}
+
+	private void capture(HttpRequest request, Endpoint endpoint, byte[] body, long start, int status,
+			byte[] responseBody) {
+		long end = System.nanoTime();
+		String uri = request.getURI().getRawPath();
+		if (request.getURI().getRawQuery() != null) {
+			uri += "?" + request.getURI().getRawQuery();
+		}
+		TrafficRecord record = new TrafficRecord(TimeUnit.NANOSECONDS.toMicros(start - startNanos),
+				endpoint == null ? null : endpoint.getTemplate(), request.getMethod(), uri,
+				body == null || body.length == 0 || body.length > maxBodySize ? null : body, status,
+				TimeUnit.NANOSECONDS.toMicros(end - start), responseBody);
+		offer(record);
+	}
+
+	private void offer(Object entry) {
+		if (!closed && queue.offer(entry)) {
+			captured.increment();
+		} else {
+			dropped.increment();
+		}
+	}
+
+	private static byte[] readAtMost(InputStream in, int limit) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(limit, 8192));
+		byte[] buffer = new byte[8192];
+		int read;
+		while (out.size() < limit && (read = in.read(buffer, 0, Math.min(buffer.length, limit - out.size()))) >= 0) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	private void writeRecords() {
+		while (!closed || !queue.isEmpty()) {
+			try {
+				Object entry = queue.poll(200, TimeUnit.MILLISECONDS);
+				if (entry instanceof TrafficRecord) {
+					writer.write((TrafficRecord) entry);
+				} else if (entry instanceof TrafficInvocation) {
+					writer.write((TrafficInvocation) entry);
+				} else {
+					writer.flush();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (IOException e) {
+				log.error("Client traffic capture stopped", e);
+				closed = true;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Response whose body, or its beginning, was read into memory
+	 *
+	 */
+	private static final class BufferedResponse implements ClientHttpResponse {
+
+		private final ClientHttpResponse response;
+
+		private final InputStream body;
+
+		private BufferedResponse(ClientHttpResponse response, InputStream body) {
+			this.response = response;
+			this.body = body;
+		}
+
+		@Override
+		public InputStream getBody() {
+			return body;
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return response.getHeaders();
+		}
+
+		@Override
+		public HttpStatus getStatusCode() throws IOException {
+			return response.getStatusCode();
+		}
+
+		@Override
+		public int getRawStatusCode() throws IOException {
+			return response.getRawStatusCode();
+		}
+
+		@Override
+		public String getStatusText() throws IOException {
+			return response.getStatusText();
+		}
+
+		@Override
+		public void close() {
+			response.close();
+		}
+	}
+}
@@ -0,0 +1,359 @@
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.NullValue;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache with a small on-heap first level of deserialized values in front of a
+ * second level of serialized values in an {@link OffHeapStore} shared by the
+ * caches of a {@link TwoTierCacheManager}.
+ *
+ * Values are written to both levels. The first level keeps the most recently
+ * used values up to its maximum size and drops the least recently used one
+ * beyond, which stays in the second level; a second level hit is decoded and
+ * promoted back to the first level. Cached nulls stay in the first level only,
+ * as the values not read back as their own class by the codec, checked once on
+ * each write; these and the second level entries that cannot be read are
+ * counted as decode failures.
+ *
+ */
+@Slf4j
+public class TwoTierCache extends AbstractValueAdaptingCache {
+
+	private final String name;
+
+	private final OffHeapStore store;
+
+	private final TwoTierCacheCodec codec;
+
+	private final long timeToLiveNanos;
+
+	private final Map<Object, Entry> firstLevel;
+
+	private final ConcurrentMap<Object, FutureTask<Object>> loading = new ConcurrentHashMap<>();
+
+	private final LongAdder firstLevelHits = new LongAdder();
+
+	private final LongAdder secondLevelHits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder promotions = new LongAdder();
+
+	private final LongAdder firstLevelEvictions = new LongAdder();
+
+	private final LongAdder decodeFailures = new LongAdder();
+
+	private long firstLevelBytes;
+
+	/**
+	 * @param name
+	 * @param store
+	 *            second level shared by the caches
+	 * @param codec
+	 *            serializes the values to the second level
+	 * @param timeToLiveMillis
+	 * @param firstLevelSize
+	 *            maximum number of values in the first level
+	 */
+	public TwoTierCache(String name, OffHeapStore store, TwoTierCacheCodec codec, long timeToLiveMillis,
+			int firstLevelSize) {
+		super(true);
+		this.name = name;
+		this.store = store;
+		this.codec = codec;
+		this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+		this.firstLevel = new LinkedHashMap<Object, Entry>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+				if (size() <= firstLevelSize) {
+					return false;
+				}
+				firstLevelBytes -= eldest.getValue().size;
+				firstLevelEvictions.increment();
+				return true;
+			}
+		};
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return this;
+	}
+
+	@Override
+	protected Object lookup(Object key) {
+		long now = System.nanoTime();
+		synchronized (firstLevel) {
+			Entry entry = firstLevel.get(key);
+			if (entry != null) {
+				if (now - entry.expiresAt < 0) {
+					firstLevelHits.increment();
+					return entry.value;
+				}
+				firstLevel.remove(key);
+				firstLevelBytes -= entry.size;
+			}
+		}
+		StoreKey storeKey = new StoreKey(name, key);
+		OffHeapStore.Value stored = store.get(storeKey);
+		if (stored != null) {
+			try {
+				Object value = codec.decode(stored.getBytes());
+				secondLevelHits.increment();
+				promotions.increment();
+				putFirstLevel(key, new Entry(value, stored.getExpiresAt(), stored.getBytes().length));
+				return value;
+			} catch (IOException e) {
+				decodeFailures.increment();
+				log.warn("Cannot decode the entry {} of cache {}, dropped", key, name, e);
+				store.remove(storeKey);
+			}
+		}
+		misses.increment();
+		return null;
+	}
+
+	@Override
+	public void put(Object key, Object value) {
+		Object storeValue = toStoreValue(value);
+		long expiresAt = System.nanoTime() + timeToLiveNanos;
+		byte[] bytes = encode(key, storeValue);
+		putFirstLevel(key, new Entry(storeValue, expiresAt, bytes == null ? 0 : bytes.length));
+		StoreKey storeKey = new StoreKey(name, key);
+		if (bytes == null || !store.put(storeKey, bytes, expiresAt)) {
+			store.remove(storeKey);
+		}
+	}
+
+	@Override
+	public ValueWrapper putIfAbsent(Object key, Object value) {
+		synchronized (loading) {
+			ValueWrapper existing = get(key);
+			if (existing == null) {
+				put(key, value);
+			}
+			return existing;
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		ValueWrapper cached = get(key);
+		if (cached != null) {
+			return (T) cached.get();
+		}
+		FutureTask<Object> load = new FutureTask<>(() -> {
+			T value = valueLoader.call();
+			put(key, value);
+			return value;
+		});
+		FutureTask<Object> running = loading.putIfAbsent(key, load);
+		if (running == null) {
+			running = load;
+			load.run();
+		}
+		try {
+			return (T) running.get();
+		} catch (ExecutionException e) {
+			throw new ValueRetrievalException(key, valueLoader, e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ValueRetrievalException(key, valueLoader, e);
+		} finally {
+			loading.remove(key, load);
+		}
+	}
+
+	@Override
+	public void evict(Object key) {
+		synchronized (firstLevel) {
+			Entry entry = firstLevel.remove(key);
+			if (entry != null) {
+				firstLevelBytes -= entry.size;
+			}
+		}
+		store.remove(new StoreKey(name, key));
+	}
+
+	@Override
+	public void clear() {
+		synchronized (firstLevel) {
+			firstLevel.clear();
+			firstLevelBytes = 0;
+		}
+		store.removeIf(key -> key instanceof StoreKey && ((StoreKey) key).cache.equals(name));
+	}
+
+	public long getFirstLevelHits() {
+		return firstLevelHits.sum();
+	}
+
+	public long getSecondLevelHits() {
+		return secondLevelHits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return number of second level hits moved back to the first level
+	 */
+	public long getPromotions() {
+		return promotions.sum();
+	}
+
+	/**
+	 * @return number of values dropped from the first level to make room
+	 */
+	public long getFirstLevelEvictions() {
+		return firstLevelEvictions.sum();
+	}
+
+	/**
+	 * @return number of values not read back from the second level, on write or
+	 *         on lookup
+	 */
+	public long getDecodeFailures() {
+		return decodeFailures.sum();
+	}
+
+	/**
+	 * @return share of the lookups answered by the first level
+	 */
+	public double getFirstLevelHitRatio() {
+		long hits = getFirstLevelHits();
+		long lookups = hits + getSecondLevelHits() + getMisses();
+		return lookups == 0 ? 0 : hits / (double) lookups;
+	}
+
+	/**
+	 * @return share of the first level misses answered by the second level
+	 */
+	public double getSecondLevelHitRatio() {
+		long hits = getSecondLevelHits();
+		long lookups = hits + getMisses();
+		return lookups == 0 ? 0 : hits / (double) lookups;
+	}
+
+	public int getFirstLevelSize() {
+		synchronized (firstLevel) {
+			return firstLevel.size();
+		}
+	}
+
+	/**
+	 * @return serialized size of the values of the first level, an estimate of
+	 *         the heap they use
+	 */
+	public long getFirstLevelBytes() {
+		synchronized (firstLevel) {
+			return firstLevelBytes;
+		}
+	}
+
+	private void putFirstLevel(Object key, Entry entry) {
+		synchronized (firstLevel) {
+			Entry replaced = firstLevel.put(key, entry);
+			if (replaced != null) {
+				firstLevelBytes -= replaced.size;
+			}
+			firstLevelBytes += entry.size;
+		}
+	}
+
+	private byte[] encode(Object key, Object storeValue) {
+		if (storeValue == NullValue.INSTANCE) {
+			return null;
+		}
+		byte[] bytes;
+		try {
+			bytes = codec.encode(storeValue);
+		} catch (IOException e) {
+			log.warn("Cannot encode the entry {} of cache {}, kept in the first level only", key, name, e);
+			return null;
+		}
+		try {
+			Object decoded = codec.decode(bytes);
+			if (decoded != null && decoded.getClass() == storeValue.getClass()) {
+				return bytes;
+			}
+			log.warn("Entry {} of cache {} is read back as {}, kept in the first level only", key, name,
+					decoded == null ? null : decoded.getClass().getName());
+		} catch (IOException e) {
+			log.warn("Cannot decode the entry {} of cache {}, kept in the first level only", key, name, e);
+		}
+		decodeFailures.increment();
+		return null;
+	}
+
+	private static final class Entry {
+
+		private final Object value;
+
+		private final long expiresAt;
+
+		private final int size;
+
+		private Entry(Object value, long expiresAt, int size) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+			this.size = size;
+		}
+	}
+
+	/**
+	 * Key of an entry in the shared second level
+	 *
+	 */
+	private static final class StoreKey {
+
+		private final String cache;
+
+		private final Object key;
+
+		private StoreKey(String cache, Object key) {
+			this.cache = cache;
+			this.key = key;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof StoreKey)) {
+				return false;
+			}
+			StoreKey storeKey = (StoreKey) other;
+			return cache.equals(storeKey.cache) && Objects.equals(key, storeKey.key);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * cache.hashCode() + Objects.hashCode(key);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.databind.jsontype.TypeIdResolver;
+import com.fasterxml.jackson.databind.jsontype.impl.ClassNameIdResolver;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Serializes the values of the {@link TwoTierCache}s to Smile with their type,
+ * to be read back as the same classes from the second level.
+ *
+ * The class of the cached value is always written, final or not, and the class
+ * of each non-final value it holds. The JDK collection wrappers, as the
+ * unmodifiable content and links of a Resources, are written as the list, set
+ * or map they wrap, having no constructor to be read with.
+ *
+ */
+public class TwoTierCacheCodec {
+
+	private final ObjectMapper mapper = new ObjectMapper(new SmileFactory())
+			.setDefaultTyping(new ValueTypeResolverBuilder())
+			.disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+			.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+	/**
+	 * @param value
+	 * @return the value serialized
+	 * @throws IOException
+	 */
+	public byte[] encode(Object value) throws IOException {
+		return mapper.writeValueAsBytes(new Envelope(value));
+	}
+
+	/**
+	 * @param bytes
+	 * @return the value read back
+	 * @throws IOException
+	 */
+	public Object decode(byte[] bytes) throws IOException {
+		return mapper.readValue(bytes, Envelope.class).value;
+	}
+
+	/**
+	 * Holds the cached value, so its class is written even when final
+	 *
+	 */
+	private static final class Envelope {
+
+		@JsonTypeInfo(use = JsonTypeInfo.Id.CLASS)
+		public Object value;
+
+		private Envelope() {
+		}
+
+		private Envelope(Object value) {
+			this.value = value;
+		}
+	}
+
+	/**
+	 * Default typing of the non-final values, by class name
+	 *
+	 */
+	private static final class ValueTypeResolverBuilder extends ObjectMapper.DefaultTypeResolverBuilder {
+
+		private static final long serialVersionUID = 1L;
+
+		private ValueTypeResolverBuilder() {
+			super(ObjectMapper.DefaultTyping.NON_FINAL);
+			init(JsonTypeInfo.Id.CLASS, null);
+			inclusion(JsonTypeInfo.As.WRAPPER_ARRAY);
+		}
+
+		@Override
+		protected TypeIdResolver idResolver(MapperConfig<?> config, JavaType baseType,
+				Collection<NamedType> subtypes, boolean forSer, boolean forDeser) {
+			return new ClassNameIdResolver(baseType, config.getTypeFactory()) {
+
+				@Override
+				protected String _idFrom(Object value, Class<?> cls, TypeFactory typeFactory) {
+					if (cls.getName().startsWith("java.util.Collections$")) {
+						if (value instanceof Map) {
+							return LinkedHashMap.class.getName();
+						}
+						if (value instanceof Set) {
+							return LinkedHashSet.class.getName();
+						}
+						if (value instanceof Collection) {
+							return ArrayList.class.getName();
+						}
+					}
+					return super._idFrom(value, cls, typeFactory);
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,30 @@
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Backs the reference data and profile caches with a
+ * {@link TwoTierCacheManager} when client.cache.enabled is set, in place of the
+ * orderManagementReferenceDataCacheManager of the application, which must then
+ * not define its own
+ *
+ */
+@Configuration
+public class TwoTierCacheConfiguration {
+
+	/**
+	 * @param properties
+	 * @param meterRegistry
+	 * @return the cache manager of the @Cacheable reference data lookups
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "client.cache", name = "enabled", havingValue = "true")
+	public TwoTierCacheManager orderManagementReferenceDataCacheManager(TwoTierCacheProperties properties,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		return new TwoTierCacheManager(properties, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+	}
+}
@@ -0,0 +1,87 @@
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Cache manager of {@link TwoTierCache}s created on first use, all sharing one
+ * {@link OffHeapStore} as second level.
+ *
+ * Values are serialized by a {@link TwoTierCacheCodec} to go off-heap. The hits
+ * of each level, the misses, promotions, evictions and decode failures are
+ * published per cache, tagged by cache name, along with the occupancy of the
+ * shared second level.
+ *
+ */
+public class TwoTierCacheManager implements CacheManager {
+
+	private final TwoTierCacheProperties properties;
+
+	private final MeterRegistry meterRegistry;
+
+	private final OffHeapStore store;
+
+	private final TwoTierCacheCodec codec = new TwoTierCacheCodec();
+
+	private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+	/**
+	 * @param properties
+	 * @param meterRegistry
+	 */
+	public TwoTierCacheManager(TwoTierCacheProperties properties, MeterRegistry meterRegistry) {
+		this.properties = properties;
+		this.meterRegistry = meterRegistry;
+		this.store = new OffHeapStore(properties.getSecondLevelBytes());
+		Gauge.builder("client.cache.l2.used.bytes", store, OffHeapStore::getUsedBytes).register(meterRegistry);
+		Gauge.builder("client.cache.l2.max.bytes", store, OffHeapStore::getCapacity).register(meterRegistry);
+		Gauge.builder("client.cache.l2.entries", store, OffHeapStore::size).register(meterRegistry);
+		FunctionCounter.builder("client.cache.l2.evictions", store, OffHeapStore::getEvictions)
+				.register(meterRegistry);
+	}
+
+	@Override
+	public Cache getCache(String name) {
+		return caches.computeIfAbsent(name, this::createCache);
+	}
+
+	@Override
+	public Collection<String> getCacheNames() {
+		return Collections.unmodifiableSet(caches.keySet());
+	}
+
+	private TwoTierCache createCache(String name) {
+		TwoTierCache cache = new TwoTierCache(name, store, codec, properties.timeToLiveOf(name),
+				properties.getFirstLevelSize());
+		Tags tags = Tags.of("cache", name);
+		FunctionCounter.builder("client.cache.l1.hits", cache, TwoTierCache::getFirstLevelHits).tags(tags)
+				.register(meterRegistry);
+		FunctionCounter.builder("client.cache.l2.hits", cache, TwoTierCache::getSecondLevelHits).tags(tags)
+				.register(meterRegistry);
+		FunctionCounter.builder("client.cache.misses", cache, TwoTierCache::getMisses).tags(tags)
+				.register(meterRegistry);
+		FunctionCounter.builder("client.cache.promotions", cache, TwoTierCache::getPromotions).tags(tags)
+				.register(meterRegistry);
+		FunctionCounter.builder("client.cache.l1.evictions", cache, TwoTierCache::getFirstLevelEvictions)
+				.tags(tags).register(meterRegistry);
+		FunctionCounter.builder("client.cache.l2.decode.failures", cache, TwoTierCache::getDecodeFailures)
+				.tags(tags).register(meterRegistry);
+		Gauge.builder("client.cache.l1.hit.ratio", cache, TwoTierCache::getFirstLevelHitRatio).tags(tags)
+				.register(meterRegistry);
+		Gauge.builder("client.cache.l2.hit.ratio", cache, TwoTierCache::getSecondLevelHitRatio).tags(tags)
+				.register(meterRegistry);
+		Gauge.builder("client.cache.l1.size", cache, TwoTierCache::getFirstLevelSize).tags(tags)
+				.register(meterRegistry);
+		Gauge.builder("client.cache.l1.bytes", cache, TwoTierCache::getFirstLevelBytes).tags(tags)
+				.register(meterRegistry);
+		return cache;
+	}
+}
@@ -0,0 +1,54 @@
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Properties of the {@link TwoTierCacheManager} of the reference data and
+ * profile caches
+ *
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "client.cache")
+public class TwoTierCacheProperties {
+
+	/**
+	 * Whether the {@link TwoTierCacheManager} is the
+	 * orderManagementReferenceDataCacheManager
+	 */
+	private boolean enabled;
+
+	/**
+	 * Values of each cache kept deserialized on the heap
+	 */
+	private int firstLevelSize = 500;
+
+	/**
+	 * Size in bytes of the off-heap second level shared by the caches, to fit
+	 * under -XX:MaxDirectMemorySize; the oldest entries are evicted beyond
+	 */
+	private int secondLevelBytes = 256 * 1024 * 1024;
+
+	/**
+	 * Time in milliseconds a value stays cached
+	 */
+	private long timeToLive = 3600000;
+
+	/**
+	 * Time to live in milliseconds per cache name, for the caches not using
+	 * timeToLive
+	 */
+	private Map<String, Long> timeToLives = new HashMap<>();
+
+	/**
+	 * @param cacheName
+	 * @return the time to live in milliseconds of the values of the cache
+	 */
+	public long timeToLiveOf(String cacheName) {
+		return timeToLives.getOrDefault(cacheName, timeToLive);
+	}
+}
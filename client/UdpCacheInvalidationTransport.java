@@ -0,0 +1,200 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends the {@link CacheInvalidation}s as UDP datagrams to a fixed list of
+ * peers and receives theirs on a local address.
+ *
+ * Every datagram ends with an HMAC-SHA256 of its content keyed by the secret
+ * shared by the nodes; datagrams without a valid one are dropped, so only the
+ * nodes knowing the secret can invalidate the caches.
+ *
+ * An invalidation with more keys than fit in one datagram is split into
+ * several. Datagrams may be lost, so the time to live of the caches stays the
+ * bound of the staleness.
+ *
+ */
+@Slf4j
+public class UdpCacheInvalidationTransport implements CacheInvalidationTransport {
+
+	private static final int MAGIC = 0x43494e56;
+
+	private static final String MAC_ALGORITHM = "HmacSHA256";
+
+	private static final int MAC_SIZE = 32;
+
+	// payload and MAC fitting in one Ethernet frame
+	private static final int MAX_DATAGRAM_SIZE = 1400 - MAC_SIZE;
+
+	private final DatagramSocket socket;
+
+	private final List<InetSocketAddress> peers;
+
+	private final SecretKeySpec secret;
+
+	private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+	private final Thread receiver;
+
+	/**
+	 * @param address
+	 *            local address the invalidations of the peers are received on
+	 * @param peers
+	 *            addresses of the other nodes
+	 * @param secret
+	 *            key shared by the nodes
+	 * @throws SocketException
+	 */
+	public UdpCacheInvalidationTransport(InetSocketAddress address, List<InetSocketAddress> peers, byte[] secret)
+			throws SocketException {
+		if (secret.length == 0) {
+			throw new IllegalArgumentException("Empty cache invalidation secret");
+		}
+		this.secret = new SecretKeySpec(secret, MAC_ALGORITHM);
+		this.socket = new DatagramSocket(address);
+		this.peers = new ArrayList<>(peers);
+		this.receiver = new Thread(this::receive, "cache-invalidation-receiver");
+		this.receiver.setDaemon(true);
+		this.receiver.start();
+	}
+
+	@Override
+	public void publish(CacheInvalidation invalidation) throws IOException {
+		for (byte[] datagram : encode(invalidation, mac())) {
+			for (InetSocketAddress peer : peers) {
+				socket.send(new DatagramPacket(datagram, datagram.length, peer));
+			}
+		}
+	}
+
+	@Override
+	public void subscribe(Consumer<CacheInvalidation> listener) {
+		listeners.add(listener);
+	}
+
+	@Override
+	public void close() {
+		socket.close();
+	}
+
+	private void receive() {
+		byte[] buffer = new byte[MAX_DATAGRAM_SIZE * 4];
+		while (!socket.isClosed()) {
+			DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+			try {
+				socket.receive(packet);
+			} catch (IOException e) {
+				if (!socket.isClosed()) {
+					log.warn("Cannot receive cache invalidations", e);
+				}
+				continue;
+			}
+			CacheInvalidation invalidation;
+			try {
+				invalidation = decode(packet.getData(), packet.getLength(), mac());
+			} catch (IOException e) {
+				log.warn("Invalid cache invalidation from {} dropped", packet.getSocketAddress());
+				continue;
+			}
+			for (Consumer<CacheInvalidation> listener : listeners) {
+				try {
+					listener.accept(invalidation);
+				} catch (RuntimeException e) {
+					log.warn("Cache invalidation of {} failed", invalidation.getCache(), e);
+				}
+			}
+		}
+	}
+
+	private Mac mac() throws IOException {
+		try {
+			Mac mac = Mac.getInstance(MAC_ALGORITHM);
+			mac.init(secret);
+			return mac;
+		} catch (GeneralSecurityException e) {
+			throw new IOException("Cannot authenticate the cache invalidations", e);
+		}
+	}
+
+	private static List<byte[]> encode(CacheInvalidation invalidation, Mac mac) throws IOException {
+		int headerSize = 4 + utfLength(invalidation.getOrigin()) + utfLength(invalidation.getCache()) + 2;
+		List<byte[]> datagrams = new ArrayList<>();
+		List<String> keys = new ArrayList<>();
+		int size = headerSize;
+		for (String key : invalidation.getKeys()) {
+			int keySize = utfLength(key);
+			if (!keys.isEmpty() && size + keySize > MAX_DATAGRAM_SIZE) {
+				datagrams.add(encode(invalidation, keys, mac));
+				keys.clear();
+				size = headerSize;
+			}
+			keys.add(key);
+			size += keySize;
+		}
+		if (!keys.isEmpty() || datagrams.isEmpty()) {
+			datagrams.add(encode(invalidation, keys, mac));
+		}
+		return datagrams;
+	}
+
+	private static byte[] encode(CacheInvalidation invalidation, List<String> keys, Mac mac) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(MAX_DATAGRAM_SIZE + MAC_SIZE);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		out.writeUTF(invalidation.getOrigin());
+		out.writeUTF(invalidation.getCache());
+		out.writeShort(keys.size());
+		for (String key : keys) {
+			out.writeUTF(key);
+		}
+		out.write(mac.doFinal(bytes.toByteArray()));
+		return bytes.toByteArray();
+	}
+
+	private static CacheInvalidation decode(byte[] datagram, int length, Mac mac) throws IOException {
+		if (length < MAC_SIZE) {
+			throw new IOException("Not a cache invalidation");
+		}
+		int contentLength = length - MAC_SIZE;
+		mac.update(datagram, 0, contentLength);
+		if (!MessageDigest.isEqual(mac.doFinal(), Arrays.copyOfRange(datagram, contentLength, length))) {
+			throw new IOException("Cache invalidation not authenticated");
+		}
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(datagram, 0, contentLength));
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a cache invalidation");
+		}
+		String origin = in.readUTF();
+		String cache = in.readUTF();
+		int count = in.readUnsignedShort();
+		List<String> keys = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			keys.add(in.readUTF());
+		}
+		return new CacheInvalidation(origin, cache, keys);
+	}
+
+	private static int utfLength(String value) {
+		// upper bound of the length written by writeUTF, 3 bytes at most per char
+		return 2 + 3 * value.length();
+	}
+}
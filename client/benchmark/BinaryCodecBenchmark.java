@@ -0,0 +1,99 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Decoding of a profile type ahead page from JSON against Smile, with the same
+ * reader configuration {@link ClientExchange} uses for the binary endpoints. The
+ * payload sizes of both codecs are printed by the setup.
+ *
+ * Run with -prof gc to compare the allocated bytes per call.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryCodecBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	private int pageSize;
+
+	private byte[] json;
+
+	private byte[] smile;
+
+	private ObjectReader jsonReader;
+
+	private ObjectReader smileReader;
+
+	@Setup
+	public void setUp() throws IOException {
+		ObjectMapper objectMapper = new ObjectMapper();
+		jsonReader = objectMapper.readerFor(objectMapper.getTypeFactory()
+				.constructType(ResponseTypes.PROFILE_TYPE_AHEAD_PAGE.getType()));
+		smileReader = jsonReader.with(new SmileFactory());
+
+		List<Map<String, Object>> content = new ArrayList<>();
+		for (int i = 0; i < pageSize; i++) {
+			Map<String, Object> profile = new LinkedHashMap<>();
+			profile.put("partyID", 500000 + i);
+			profile.put("code", "CODE" + i);
+			profile.put("name", "CUSTOMER NAME " + i);
+			profile.put("roletype", "Bill To");
+			profile.put("addressLine1", i + " MAIN STREET");
+			profile.put("city", "LOWELL");
+			profile.put("state", "AR");
+			profile.put("zipcode", "72745");
+			profile.put("country", "USA");
+			profile.put("phoneNumber", "479-820-" + (1000 + i));
+			profile.put("active", true);
+			profile.put("approved", true);
+			content.add(profile);
+		}
+		Map<String, Object> page = new LinkedHashMap<>();
+		page.put("content", content);
+		page.put("number", 0);
+		page.put("size", pageSize);
+		page.put("numberOfElements", pageSize);
+		page.put("totalElements", pageSize * 10L);
+		page.put("totalPages", 10);
+		page.put("first", true);
+		page.put("last", false);
+		json = objectMapper.writeValueAsBytes(page);
+		smile = new ObjectMapper(new SmileFactory()).writeValueAsBytes(page);
+		System.out.println("Page of " + pageSize + " profiles: " + json.length + " bytes in JSON, " + smile.length
+				+ " bytes in Smile");
+	}
+
+	@Benchmark
+	public Object decodeJson() throws IOException {
+		return jsonReader.readValue(json);
+	}
+
+	@Benchmark
+	public Object decodeSmile() throws IOException {
+		return smileReader.readValue(smile);
+	}
+}
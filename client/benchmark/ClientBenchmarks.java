@@ -0,0 +1,39 @@
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the client benchmarks with allocation profiling and writes the results
+ * as JSON, so two runs can be compared.
+ *
+ * The forked JVMs get a fixed, pre-touched heap and the parallel collector, so
+ * the scores do not depend on heap sizing or on the machine default collector.
+ * For stable numbers on Linux run on an otherwise idle box with the CPU
+ * frequency governor set to performance.
+ *
+ * Usage: ClientBenchmarks [benchmark regex] [result file]
+ *
+ */
+public class ClientBenchmarks {
+
+	private ClientBenchmarks() {
+	}
+
+	/**
+	 * @param args
+	 *            regex of the benchmarks to run, all by default, and file of the
+	 *            JSON results, jmh-result.json by default
+	 * @throws RunnerException
+	 */
+	public static void main(String[] args) throws RunnerException {
+		String include = args.length > 0 ? args[0] : "Benchmark\\.";
+		String result = args.length > 1 ? args[1] : "jmh-result.json";
+		Options options = new OptionsBuilder().include(include).addProfiler(GCProfiler.class)
+				.jvmArgs("-Xms1g", "-Xmx1g", "-XX:+AlwaysPreTouch", "-XX:+UseParallelGC")
+				.shouldFailOnError(true).resultFormat(ResultFormatType.JSON).result(result).build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,141 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.Resources;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * One call through each of the order, reference data and profile RestTemplates
+ * against an in-process {@link ClientStubServer}, with the pooled transport of
+ * {@link ClientTransportConfiguration} and the readers of {@link ClientExchange}.
+ *
+ * The stub answers from memory on the loopback interface, so the score is the
+ * client side cost of a call: URI expansion, request writing, the HTTP exchange
+ * over a reused connection and the response decoding.
+ *
+ * Run with -prof gc to see the allocated bytes per call.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientRoundTripBenchmark {
+
+	private final List<CloseableHttpClient> httpClients = new ArrayList<>();
+
+	private ClientStubServer stubServer;
+
+	private ClientExchange orderClientExchange;
+
+	private ClientExchange referenceDataClientExchange;
+
+	private ClientExchange profileClientExchange;
+
+	private HttpEntity<String> orderCharge;
+
+	@Setup
+	public void setUp() throws IOException {
+		stubServer = new ClientStubServer(0, 4);
+		String baseURL = stubServer.getBaseURL();
+		orderClientExchange = new ClientExchange(pooled(new RestTemplate(), "order"));
+		referenceDataClientExchange = new ClientExchange(
+				pooled(ResourcesDecodeBenchmark.halRestTemplate(), "reference-data"));
+		profileClientExchange = new ClientExchange(pooled(new RestTemplate(), "profile"));
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		orderCharge = new HttpEntity<>("{\"orderID\":1001,\"chargeCode\":\"FUEL\",\"amount\":125.40}", headers);
+		stubServer.respond(ClientEndpoints.ORDER_CHARGES.expand(baseURL).getPath(),
+				Collections.singletonMap("orderChargeID", 5001));
+
+		List<Map<String, Object>> commentTypes = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			Map<String, Object> commentType = new LinkedHashMap<>();
+			commentType.put("commentTypeCode", "CT" + i);
+			commentType.put("commentTypeDescription", "COMMENT TYPE " + i);
+			commentTypes.add(commentType);
+		}
+		Map<String, Object> commentTypeResources = new LinkedHashMap<>();
+		commentTypeResources.put("_embedded", Collections.singletonMap("commentTypes", commentTypes));
+		stubServer.respond(ClientEndpoints.COMMENT_TYPES.expand(baseURL).getPath(), commentTypeResources);
+
+		List<Map<String, Object>> cities = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			Map<String, Object> city = new LinkedHashMap<>();
+			city.put("cityID", 100000 + i);
+			city.put("city", "LOWELL" + i);
+			city.put("state", "AR");
+			city.put("zipcode", String.valueOf(72700 + i));
+			city.put("country", "USA");
+			cities.add(city);
+		}
+		Map<String, Object> page = new LinkedHashMap<>();
+		page.put("content", cities);
+		page.put("number", 0);
+		page.put("size", cities.size());
+		page.put("numberOfElements", cities.size());
+		page.put("totalElements", 200);
+		page.put("totalPages", 10);
+		stubServer.respond(ClientEndpoints.CITY_TYPE_AHEAD_BY_CITY.expand(baseURL, "LOW", 20, 0).getPath(), page);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		for (CloseableHttpClient httpClient : httpClients) {
+			httpClient.close();
+		}
+		stubServer.close();
+	}
+
+	@Benchmark
+	public String orderCharges() {
+		return orderClientExchange.exchange(ClientEndpoints.ORDER_CHARGES, stubServer.getBaseURL(), orderCharge,
+				ResponseTypes.STRING).getBody();
+	}
+
+	@Benchmark
+	public Resources<CommentType> referenceDataCommentTypes() {
+		return referenceDataClientExchange.exchange(ClientEndpoints.COMMENT_TYPES, stubServer.getBaseURL(), null,
+				ResponseTypes.COMMENT_TYPE_RESOURCES).getBody();
+	}
+
+	@Benchmark
+	public ProfilePage<CityTypeAheadDTO> profileCityTypeAhead() {
+		return profileClientExchange.exchange(ClientEndpoints.CITY_TYPE_AHEAD_BY_CITY, stubServer.getBaseURL(), null,
+				ResponseTypes.CITY_TYPE_AHEAD_PAGE, "LOW", 20, 0).getBody();
+	}
+
+	private RestTemplate pooled(RestTemplate restTemplate, String group) {
+		CloseableHttpClient httpClient = ClientTransportConfiguration.createHttpClient(group,
+				new ClientTransportProperties.Transport(), new SimpleMeterRegistry());
+		httpClients.add(httpClient);
+		restTemplate.setRequestFactory(new HttpComponentsClientHttpRequestFactory(httpClient));
+		return restTemplate;
+	}
+}
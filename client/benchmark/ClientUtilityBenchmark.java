@@ -0,0 +1,73 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.Resources;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Response body extraction of {@link ReferenceDataClientUtility} on a present
+ * and on a missing response. The expansion of the endpoint URIs is measured by
+ * {@link EndpointExpansionBenchmark}.
+ *
+ * These paths run on every client call, so the benchmark guards against
+ * allocation creeping into them. Run with -prof gc to see the allocated bytes
+ * per call.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientUtilityBenchmark {
+
+	private ResponseEntity<Resources<CityTypeAheadDTO>> resourcesResponse;
+
+	private ResponseEntity<List<CityTypeAheadDTO>> listResponse;
+
+	@Setup
+	public void setUp() {
+		List<CityTypeAheadDTO> cities = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			CityTypeAheadDTO city = new CityTypeAheadDTO();
+			city.setCityID(100000 + i);
+			city.setCity("CITY" + i);
+			cities.add(city);
+		}
+		resourcesResponse = new ResponseEntity<>(new Resources<>(cities), HttpStatus.OK);
+		listResponse = new ResponseEntity<>(cities, HttpStatus.OK);
+	}
+
+	@Benchmark
+	public Resources<CityTypeAheadDTO> getResponseBody() {
+		return ReferenceDataClientUtility.getResponseBody(resourcesResponse);
+	}
+
+	@Benchmark
+	public Resources<CityTypeAheadDTO> getResponseBodyOfMissingResponse() {
+		return ReferenceDataClientUtility.getResponseBody(null);
+	}
+
+	@Benchmark
+	public List<CityTypeAheadDTO> getResponseBodyList() {
+		return ReferenceDataClientUtility.getResponseBodyList(listResponse);
+	}
+
+	@Benchmark
+	public Resources<CityTypeAheadDTO> getResponseBodyWithResources() {
+		return ReferenceDataClientUtility.getResponseBodyWithResources(resourcesResponse);
+	}
+}
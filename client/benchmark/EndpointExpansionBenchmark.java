@@ -0,0 +1,64 @@
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * URI building of a path variable endpoint and of a query parameter endpoint the
+ * way the clients did it, with a parameter map expanded by the RestTemplate
+ * {@link DefaultUriBuilderFactory} and with {@link UriComponentsBuilder}, against
+ * the precompiled {@link Endpoint} descriptors.
+ *
+ * Run with -prof gc to compare the allocated bytes per call.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EndpointExpansionBenchmark {
+
+	private static final String LOCATION_URL = "http://profile-location.test.com/profilelocation";
+
+	private final DefaultUriBuilderFactory uriBuilderFactory = new DefaultUriBuilderFactory();
+
+	private final Integer[] locations = { 1001, 1002, 1003 };
+
+	@Benchmark
+	public URI pathVariableWithParameterMap() {
+		Map<String, String> parameter = new HashMap<>();
+		parameter.put("locationcode", "1001");
+		return uriBuilderFactory.expand(LOCATION_URL + "/timezone/search/findbylocationcode/{locationcode}", parameter);
+	}
+
+	@Benchmark
+	public URI pathVariableWithEndpoint() {
+		return ClientEndpoints.TIME_ZONE_BY_LOCATION_CODE.expand(LOCATION_URL, "1001");
+	}
+
+	@Benchmark
+	public URI queryParamsWithUriComponentsBuilder() {
+		return UriComponentsBuilder.fromHttpUrl(LOCATION_URL + "/equipments/validateequipmentspecification")
+				.queryParam("equipmentlength", 53).queryParam("equipmenttype", "Van")
+				.queryParam("locations", (Object[]) locations).build().encode().toUri();
+	}
+
+	@Benchmark
+	public URI queryParamsWithEndpoint() {
+		return ClientEndpoints.VALIDATE_EQUIPMENT_SPECIFICATION.expand(LOCATION_URL, 53, "Van", locations);
+	}
+}
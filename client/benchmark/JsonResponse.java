@@ -0,0 +1,53 @@
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * JSON response read from a byte array, to decode payloads without a server
+ *
+ */
+final class JsonResponse implements ClientHttpResponse {
+
+	private final byte[] body;
+
+	private final HttpHeaders headers = new HttpHeaders();
+
+	JsonResponse(byte[] body) {
+		this.body = body;
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		headers.setContentLength(body.length);
+	}
+
+	@Override
+	public InputStream getBody() {
+		return new ByteArrayInputStream(body);
+	}
+
+	@Override
+	public HttpHeaders getHeaders() {
+		return headers;
+	}
+
+	@Override
+	public HttpStatus getStatusCode() {
+		return HttpStatus.OK;
+	}
+
+	@Override
+	public int getRawStatusCode() {
+		return HttpStatus.OK.value();
+	}
+
+	@Override
+	public String getStatusText() {
+		return HttpStatus.OK.getReasonPhrase();
+	}
+
+	@Override
+	public void close() {
+	}
+}
@@ -0,0 +1,98 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Decoding of a city type ahead page into the generic Map tree used by
+ * {@link ProfileClient#findOriginDestCityByCity(String, int, int)} against the
+ * typed {@link ProfilePage} used by
+ * {@link ProfileClient#findOriginDestCityPageByCity(String, int, int)}, including
+ * the walk a caller does to read the cities out of the result.
+ *
+ * Run with -prof gc to compare the allocated bytes per call.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProfilePageDecodeBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	private int pageSize;
+
+	private byte[] payload;
+
+	private ObjectReader mapReader;
+
+	private ObjectReader pageReader;
+
+	@Setup
+	public void setUp() throws IOException {
+		ObjectMapper objectMapper = new ObjectMapper();
+		mapReader = objectMapper.readerFor(new TypeReference<Map<String, Object>>() {
+		});
+		pageReader = objectMapper.readerFor(new TypeReference<ProfilePage<CityTypeAheadDTO>>() {
+		});
+
+		List<Map<String, Object>> content = new ArrayList<>();
+		for (int i = 0; i < pageSize; i++) {
+			Map<String, Object> city = new LinkedHashMap<>();
+			city.put("cityID", 100000 + i);
+			city.put("city", "CITY" + i);
+			city.put("state", "AR");
+			city.put("zipcode", String.valueOf(72700 + i));
+			city.put("country", "USA");
+			content.add(city);
+		}
+		Map<String, Object> page = new LinkedHashMap<>();
+		page.put("content", content);
+		page.put("number", 0);
+		page.put("size", pageSize);
+		page.put("numberOfElements", pageSize);
+		page.put("totalElements", pageSize * 10L);
+		page.put("totalPages", 10);
+		page.put("first", true);
+		page.put("last", false);
+		payload = objectMapper.writeValueAsBytes(page);
+	}
+
+	@Benchmark
+	@SuppressWarnings("unchecked")
+	public void decodeIntoMap(Blackhole blackhole) throws IOException {
+		Map<String, Object> page = mapReader.readValue(payload);
+		for (Object city : (List<Object>) page.get("content")) {
+			blackhole.consume(((Map<String, Object>) city).get("city"));
+		}
+	}
+
+	@Benchmark
+	public void decodeIntoProfilePage(Blackhole blackhole) throws IOException {
+		ProfilePage<CityTypeAheadDTO> page = pageReader.readValue(payload);
+		for (CityTypeAheadDTO city : page.getContent()) {
+			blackhole.consume(city.getCity());
+		}
+	}
+}
@@ -0,0 +1,113 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.Resources;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Decoding of a plain JSON list of DTOs against the same DTOs embedded in a HAL
+ * {@link Resources} document, the shape the reference data service answers
+ * with, through the readers of {@link ClientExchange} and an ObjectMapper set up
+ * like the application one (HAL module, unknown properties ignored).
+ *
+ * Run with -prof gc to compare the allocated bytes per call.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourcesDecodeBenchmark {
+
+	private static final ResponseType<List<CityTypeAheadDTO>> CITY_LIST = ResponseType
+			.of(new TypeReference<List<CityTypeAheadDTO>>() {
+			});
+
+	private static final ResponseType<Resources<CityTypeAheadDTO>> CITY_RESOURCES = ResponseType
+			.of(new TypeReference<Resources<CityTypeAheadDTO>>() {
+			});
+
+	@Param({ "10", "100", "1000" })
+	private int size;
+
+	private byte[] list;
+
+	private byte[] resources;
+
+	private ClientExchange clientExchange;
+
+	@Setup
+	public void setUp() throws IOException {
+		clientExchange = new ClientExchange(halRestTemplate());
+
+		List<Map<String, Object>> cities = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			Map<String, Object> city = new LinkedHashMap<>();
+			city.put("cityID", 100000 + i);
+			city.put("city", "CITY" + i);
+			city.put("state", "AR");
+			city.put("zipcode", String.valueOf(72700 + i));
+			city.put("country", "USA");
+			city.put("_links", Collections.singletonMap("self",
+					Collections.singletonMap("href", "http://reference-data.test.com/cities/" + (100000 + i))));
+			cities.add(city);
+		}
+		Map<String, Object> document = new LinkedHashMap<>();
+		document.put("_embedded", Collections.singletonMap("cities", cities));
+		document.put("_links", Collections.singletonMap("self",
+				Collections.singletonMap("href", "http://reference-data.test.com/cities")));
+		ObjectMapper objectMapper = new ObjectMapper();
+		list = objectMapper.writeValueAsBytes(cities);
+		resources = objectMapper.writeValueAsBytes(document);
+	}
+
+	@Benchmark
+	public List<CityTypeAheadDTO> decodeList() throws IOException {
+		return clientExchange.reader(CITY_LIST).extractData(new JsonResponse(list)).getBody();
+	}
+
+	@Benchmark
+	public Resources<CityTypeAheadDTO> decodeResources() throws IOException {
+		return clientExchange.reader(CITY_RESOURCES).extractData(new JsonResponse(resources)).getBody();
+	}
+
+	/**
+	 * @return a RestTemplate reading HAL like the one of the application
+	 */
+	static RestTemplate halRestTemplate() {
+		ObjectMapper halMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new Jackson2HalModule()).build();
+		MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter(halMapper);
+		converter.setSupportedMediaTypes(Arrays.asList(MediaTypes.HAL_JSON, MediaType.APPLICATION_JSON));
+		List<HttpMessageConverter<?>> converters = new ArrayList<>();
+		converters.add(converter);
+		return new RestTemplate(converters);
+	}
+}
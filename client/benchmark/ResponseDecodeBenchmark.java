@@ -0,0 +1,81 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpMessageConverterExtractor;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Decoding of a list of entry ports the way the RestTemplate does it for
+ * exchange(..., ParameterizedTypeReference), with a new type reference and a
+ * converter lookup per call, against the reader {@link ClientExchange} keeps for
+ * {@link ResponseTypes#ENTRY_PORT_LIST}.
+ *
+ * Run with -prof gc to compare the allocated bytes per call.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseDecodeBenchmark {
+
+	@Param({ "1", "50", "500" })
+	private int ports;
+
+	private byte[] payload;
+
+	private RestTemplate restTemplate;
+
+	private ClientExchange clientExchange;
+
+	@Setup
+	public void setUp() throws IOException {
+		restTemplate = new RestTemplate();
+		clientExchange = new ClientExchange(restTemplate);
+
+		List<Map<String, Object>> entryPorts = new ArrayList<>();
+		for (int i = 0; i < ports; i++) {
+			Map<String, Object> entryPort = new LinkedHashMap<>();
+			entryPort.put("entryPortCode", "EP" + i);
+			entryPorts.add(entryPort);
+		}
+		payload = new ObjectMapper().writeValueAsBytes(entryPorts);
+	}
+
+	@Benchmark
+	public List<EntryPortDTO> decodeWithConverterLookup() throws IOException {
+		ParameterizedTypeReference<List<EntryPortDTO>> responseType = new ParameterizedTypeReference<List<EntryPortDTO>>() {
+		};
+		HttpMessageConverterExtractor<List<EntryPortDTO>> extractor = new HttpMessageConverterExtractor<>(
+				responseType.getType(), restTemplate.getMessageConverters());
+		return extractor.extractData(new JsonResponse(payload));
+	}
+
+	@Benchmark
+	public List<EntryPortDTO> decodeWithCachedReader() throws IOException {
+		ResponseEntity<List<EntryPortDTO>> response = clientExchange.reader(ResponseTypes.ENTRY_PORT_LIST)
+				.extractData(new JsonResponse(payload));
+		return response.getBody();
+	}
+}
@@ -0,0 +1,128 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays an access trace, one cache key per line, against the
+ * {@link ExpiringCache} and the {@link TinyLfuCache} of the same size and
+ * compares their hit ratios. A lookup missing the cache puts the key, like the
+ * profile services do after fetching it.
+ *
+ * The generate command writes a synthetic trace of the profile lookups:
+ * interactive lookups of bill to codes following a Zipf distribution, the
+ * national accounts first, interleaved with bulk imports, bursts of lookups of
+ * codes seen once.
+ *
+ * Usage: CacheTraceReplayer trace-file [cache size] [window share]
+ * <br>
+ * CacheTraceReplayer generate trace-file [lookups]
+ *
+ * For instance, generate trace.txt then trace.txt replays the 500000 default
+ * lookups and their imports, 625152 keys, against caches of 2000 entries, the
+ * TinyLfuCache with the 1% window of the profile caches.
+ *
+ */
+public class CacheTraceReplayer {
+
+	private static final long TIME_TO_LIVE = TimeUnit.DAYS.toMillis(1);
+
+	private static final int INTERACTIVE_KEYS = 20000;
+
+	private static final double ZIPF_EXPONENT = 0.9;
+
+	private static final int IMPORT_EVERY = 50000;
+
+	private static final int IMPORT_SIZE = 10000;
+
+	private CacheTraceReplayer() {
+	}
+
+	/**
+	 * @param args
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0 || ("generate".equals(args[0]) && args.length == 1)) {
+			System.err.println("Usage: CacheTraceReplayer trace-file [cache size] [window share]");
+			System.err.println("       CacheTraceReplayer generate trace-file [lookups]");
+			return;
+		}
+		if ("generate".equals(args[0])) {
+			int lookups = args.length > 2 ? Integer.parseInt(args[2]) : 500000;
+			generate(args[1], lookups, new Random(42));
+			System.out.printf("Wrote %d interactive lookups and their bulk imports to %s%n", lookups, args[1]);
+			return;
+		}
+		int cacheSize = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		double windowShare = args.length > 2 ? Double.parseDouble(args[2]) : 0.01;
+		replay(args[0], cacheSize, windowShare);
+	}
+
+	private static void replay(String file, int cacheSize, double windowShare) throws IOException {
+		ExpiringCache<String, Boolean> baseline = new ExpiringCache<>(TIME_TO_LIVE, cacheSize);
+		TinyLfuCache<String, Boolean> tinyLfu = new TinyLfuCache<>(TIME_TO_LIVE, cacheSize, windowShare);
+		long lookups = 0;
+		long baselineHits = 0;
+		try (BufferedReader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+			for (String key = reader.readLine(); key != null; key = reader.readLine()) {
+				if (key.isEmpty()) {
+					continue;
+				}
+				lookups++;
+				if (baseline.get(key) != null) {
+					baselineHits++;
+				} else {
+					baseline.put(key, Boolean.TRUE);
+				}
+				if (tinyLfu.get(key) == null) {
+					tinyLfu.put(key, Boolean.TRUE);
+				}
+			}
+		}
+		double baselineRatio = lookups == 0 ? 0 : baselineHits / (double) lookups;
+		double tinyLfuRatio = tinyLfu.getHitRatio();
+		System.out.printf("Replayed %d lookups of %s, cache size %d, window share %.3f%n", lookups, file, cacheSize,
+				windowShare);
+		System.out.printf("%-14s %10s %9s | %10s %10s%n", "cache", "hits", "hit ratio", "admissions", "rejections");
+		System.out.printf("%-14s %10d %9.4f | %10s %10s%n", "ExpiringCache", baselineHits, baselineRatio, "-", "-");
+		System.out.printf("%-14s %10d %9.4f | %10d %10d%n", "TinyLfuCache", tinyLfu.getHits(), tinyLfuRatio,
+				tinyLfu.getAdmissions(), tinyLfu.getRejections());
+		System.out.printf("Hit ratio %+.2f points, misses %+.1f%%%n", (tinyLfuRatio - baselineRatio) * 100,
+				baselineRatio == 1 ? 0 : ((1 - tinyLfuRatio) / (1 - baselineRatio) - 1) * 100);
+	}
+
+	private static void generate(String file, int lookups, Random random) throws IOException {
+		double[] cumulative = new double[INTERACTIVE_KEYS];
+		double total = 0;
+		for (int rank = 0; rank < INTERACTIVE_KEYS; rank++) {
+			total += 1 / Math.pow(rank + 1, ZIPF_EXPONENT);
+			cumulative[rank] = total;
+		}
+		int imported = 0;
+		try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8)) {
+			for (int i = 0; i < lookups; i++) {
+				int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+				writer.write("BT" + (rank < 0 ? -rank - 1 : rank));
+				writer.newLine();
+				if (i % IMPORT_EVERY == IMPORT_EVERY - 1) {
+					// a bulk import, interleaved with the interactive lookups going on
+					for (int j = 0; j < IMPORT_SIZE; j++) {
+						writer.write("IMP" + imported++);
+						writer.newLine();
+						if (random.nextInt(4) == 0) {
+							int interactive = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+							writer.write("BT" + (interactive < 0 ? -interactive - 1 : interactive));
+							writer.newLine();
+						}
+					}
+				}
+			}
+		}
+	}
+}
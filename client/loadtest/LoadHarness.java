@@ -0,0 +1,353 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drives a weighted mix of {@link LoadScenario} at a target rate and reports
+ * throughput, latency percentiles and the client side CPU and allocation.
+ *
+ * The load is open loop: interactions are started on a fixed schedule whatever
+ * the response times, and the response time of an interaction is measured from
+ * the time it was scheduled to start, not from the time a worker picked it up.
+ * A stall of the client or of the services therefore shows in the percentiles
+ * of every interaction delayed by it, instead of being hidden by a load
+ * generator that waits for the slow calls (coordinated omission). The service
+ * time, measured from the actual start, is reported next to it.
+ *
+ * CPU time and allocated bytes are those of the worker threads, which run the
+ * clients; the stub services running in the same process are not counted.
+ *
+ */
+@Slf4j
+public class LoadHarness {
+
+	private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+	private final List<LoadScenario> scenarios;
+
+	private final int[] cumulativeWeights;
+
+	private final double ratePerSecond;
+
+	private final int workers;
+
+	/**
+	 * @param scenarios
+	 *            the traffic mix
+	 * @param ratePerSecond
+	 *            target rate of interactions per second
+	 * @param workers
+	 *            threads running the interactions, enough to cover the rate
+	 *            times the response time
+	 */
+	public LoadHarness(List<LoadScenario> scenarios, double ratePerSecond, int workers) {
+		this.scenarios = new ArrayList<>(scenarios);
+		this.cumulativeWeights = new int[scenarios.size()];
+		int total = 0;
+		for (int i = 0; i < scenarios.size(); i++) {
+			total += scenarios.get(i).getWeight();
+			cumulativeWeights[i] = total;
+		}
+		if (total == 0) {
+			throw new IllegalArgumentException("No scenario with a weight");
+		}
+		this.ratePerSecond = ratePerSecond;
+		this.workers = workers;
+	}
+
+	/**
+	 * Run the mix for the warm up then for the measurement
+	 *
+	 * @param warmupSeconds
+	 *            duration of the load not measured
+	 * @param measurementSeconds
+	 * @return the measured results
+	 * @throws InterruptedException
+	 */
+	public Result run(long warmupSeconds, long measurementSeconds) throws InterruptedException {
+		Map<LoadScenario, ScenarioStats> stats = new LinkedHashMap<>();
+		scenarios.forEach(scenario -> stats.put(scenario, new ScenarioStats()));
+		List<Thread> workerThreads = Collections.synchronizedList(new ArrayList<>());
+		AtomicInteger threadNumber = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, "load-worker-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					workerThreads.add(thread);
+					return thread;
+				});
+		executor.prestartAllCoreThreads();
+
+		long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+		long start = System.nanoTime();
+		long measurementStart = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+		long end = measurementStart + TimeUnit.SECONDS.toNanos(measurementSeconds);
+		log.info("Load of {} interactions per second, {}s warm up, {}s measured", ratePerSecond, warmupSeconds,
+				measurementSeconds);
+
+		ThreadUsage usageAtStart = null;
+		int maxBacklog = 0;
+		long submitted = 0;
+		for (;; submitted++) {
+			long intended = start + submitted * intervalNanos;
+			if (intended >= end) {
+				break;
+			}
+			long wait;
+			while ((wait = intended - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			boolean measured = intended >= measurementStart;
+			if (measured && usageAtStart == null) {
+				usageAtStart = ThreadUsage.of(workerThreads);
+			}
+			LoadScenario scenario = pick();
+			ScenarioStats scenarioStats = stats.get(scenario);
+			executor.execute(() -> scenarioStats.run(scenario, intended, measured));
+			if (measured) {
+				maxBacklog = Math.max(maxBacklog, executor.getQueue().size());
+			}
+		}
+		// the usage of the workers is read before they end, the JVM does not report it afterwards
+		long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+		while (executor.getCompletedTaskCount() < submitted && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		long elapsed = System.nanoTime() - measurementStart;
+		ThreadUsage usage = ThreadUsage.of(workerThreads).minus(usageAtStart);
+		executor.shutdown();
+		if (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+			log.warn("Interactions still running after the end of the load");
+			executor.shutdownNow();
+		}
+
+		List<ScenarioResult> results = new ArrayList<>();
+		stats.forEach((scenario, scenarioStats) -> results.add(scenarioStats.result(scenario.getName())));
+		return new Result(results, ratePerSecond, elapsed, usage, maxBacklog);
+	}
+
+	private LoadScenario pick() {
+		int value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+		for (int i = 0; i < cumulativeWeights.length; i++) {
+			if (value < cumulativeWeights[i]) {
+				return scenarios.get(i);
+			}
+		}
+		return scenarios.get(scenarios.size() - 1);
+	}
+
+	private static long toMicros(long nanos) {
+		return Math.max(0, Math.min(HIGHEST_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos)));
+	}
+
+	private static final class ScenarioStats {
+
+		private final Recorder responseTime = new Recorder(HIGHEST_MICROS, 3);
+
+		private final Recorder serviceTime = new Recorder(HIGHEST_MICROS, 3);
+
+		private final LongAdder errors = new LongAdder();
+
+		private void run(LoadScenario scenario, long intended, boolean measured) {
+			long start = System.nanoTime();
+			boolean failed = false;
+			try {
+				scenario.run();
+			} catch (Exception e) {
+				failed = true;
+				log.debug("Scenario {} failed", scenario.getName(), e);
+			}
+			long now = System.nanoTime();
+			if (measured) {
+				responseTime.recordValue(toMicros(now - intended));
+				serviceTime.recordValue(toMicros(now - start));
+				if (failed) {
+					errors.increment();
+				}
+			}
+		}
+
+		private ScenarioResult result(String name) {
+			return new ScenarioResult(name, responseTime.getIntervalHistogram(), serviceTime.getIntervalHistogram(),
+					errors.sum());
+		}
+	}
+
+	/**
+	 * CPU time and allocated bytes of a set of threads
+	 *
+	 */
+	static final class ThreadUsage {
+
+		private final long cpuNanos;
+
+		private final long allocatedBytes;
+
+		private ThreadUsage(long cpuNanos, long allocatedBytes) {
+			this.cpuNanos = cpuNanos;
+			this.allocatedBytes = allocatedBytes;
+		}
+
+		static ThreadUsage of(List<Thread> threads) {
+			com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory
+					.getThreadMXBean();
+			long[] ids;
+			synchronized (threads) {
+				ids = threads.stream().mapToLong(Thread::getId).toArray();
+			}
+			long cpuNanos = 0;
+			for (long cpu : threadMXBean.getThreadCpuTime(ids)) {
+				cpuNanos += Math.max(0, cpu);
+			}
+			long allocatedBytes = 0;
+			for (long allocated : threadMXBean.getThreadAllocatedBytes(ids)) {
+				allocatedBytes += Math.max(0, allocated);
+			}
+			return new ThreadUsage(cpuNanos, allocatedBytes);
+		}
+
+		ThreadUsage minus(ThreadUsage other) {
+			return other == null ? this
+					: new ThreadUsage(cpuNanos - other.cpuNanos, allocatedBytes - other.allocatedBytes);
+		}
+	}
+
+	/**
+	 * Measured results of one scenario
+	 *
+	 */
+	public static final class ScenarioResult {
+
+		private final String name;
+
+		private final Histogram responseTime;
+
+		private final Histogram serviceTime;
+
+		private final long errors;
+
+		private ScenarioResult(String name, Histogram responseTime, Histogram serviceTime, long errors) {
+			this.name = name;
+			this.responseTime = responseTime;
+			this.serviceTime = serviceTime;
+			this.errors = errors;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return response times in microseconds, from the scheduled start
+		 */
+		public Histogram getResponseTime() {
+			return responseTime;
+		}
+
+		/**
+		 * @return service times in microseconds, from the actual start
+		 */
+		public Histogram getServiceTime() {
+			return serviceTime;
+		}
+
+		public long getErrors() {
+			return errors;
+		}
+	}
+
+	/**
+	 * Measured results of a run
+	 *
+	 */
+	public static final class Result {
+
+		private final List<ScenarioResult> scenarios;
+
+		private final double targetRate;
+
+		private final long elapsedNanos;
+
+		private final ThreadUsage usage;
+
+		private final int maxBacklog;
+
+		private Result(List<ScenarioResult> scenarios, double targetRate, long elapsedNanos, ThreadUsage usage,
+				int maxBacklog) {
+			this.scenarios = scenarios;
+			this.targetRate = targetRate;
+			this.elapsedNanos = elapsedNanos;
+			this.usage = usage;
+			this.maxBacklog = maxBacklog;
+		}
+
+		public List<ScenarioResult> getScenarios() {
+			return scenarios;
+		}
+
+		/**
+		 * @return number of measured interactions
+		 */
+		public long getCount() {
+			return scenarios.stream().mapToLong(scenario -> scenario.responseTime.getTotalCount()).sum();
+		}
+
+		/**
+		 * @return measured interactions per second
+		 */
+		public double getThroughput() {
+			return getCount() / (elapsedNanos / 1e9);
+		}
+
+		/**
+		 * @return CPU cores used by the clients on average
+		 */
+		public double getCpuCores() {
+			return usage.cpuNanos / (double) elapsedNanos;
+		}
+
+		/**
+		 * Print the report
+		 *
+		 * @param out
+		 */
+		public void print(PrintStream out) {
+			long count = getCount();
+			out.printf("Target %.1f/s, achieved %.1f/s over %d interactions, worker backlog up to %d%n", targetRate,
+					getThroughput(), count, maxBacklog);
+			out.printf("Client CPU %.2f cores, %.1f us per interaction, %d bytes allocated per interaction%n",
+					getCpuCores(), count == 0 ? 0 : usage.cpuNanos / 1e3 / count,
+					count == 0 ? 0 : usage.allocatedBytes / count);
+			out.printf("%-14s %8s %7s | %9s %9s %9s %9s %9s | %9s %9s%n", "scenario", "count", "errors", "p50 ms",
+					"p90 ms", "p99 ms", "p99.9 ms", "max ms", "svc p50", "svc p99");
+			for (ScenarioResult scenario : scenarios) {
+				Histogram response = scenario.responseTime;
+				Histogram service = scenario.serviceTime;
+				out.printf("%-14s %8d %7d | %9.2f %9.2f %9.2f %9.2f %9.2f | %9.2f %9.2f%n", scenario.name,
+						response.getTotalCount(), scenario.errors, millis(response, 50), millis(response, 90),
+						millis(response, 99), millis(response, 99.9), response.getMaxValue() / 1e3,
+						millis(service, 50), millis(service, 99));
+			}
+		}
+
+		private static double millis(Histogram histogram, double percentile) {
+			return histogram.getValueAtPercentile(percentile) / 1e3;
+		}
+	}
+}
@@ -0,0 +1,56 @@
+/**
+ * One kind of user interaction in the traffic mix of a {@link LoadHarness}: the
+ * client calls it makes and its share of the traffic
+ *
+ */
+public final class LoadScenario {
+
+	private final String name;
+
+	private final int weight;
+
+	private final Interaction interaction;
+
+	/**
+	 * @param name
+	 * @param weight
+	 *            share of the traffic relative to the other scenarios
+	 * @param interaction
+	 *            the client calls of one interaction
+	 */
+	public LoadScenario(String name, int weight, Interaction interaction) {
+		if (weight < 0) {
+			throw new IllegalArgumentException("Negative weight of scenario " + name);
+		}
+		this.name = name;
+		this.weight = weight;
+		this.interaction = interaction;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getWeight() {
+		return weight;
+	}
+
+	/**
+	 * Run one interaction
+	 *
+	 * @throws Exception
+	 */
+	public void run() throws Exception {
+		interaction.run();
+	}
+
+	/**
+	 * The client calls of one interaction
+	 *
+	 */
+	@FunctionalInterface
+	public interface Interaction {
+
+		void run() throws Exception;
+	}
+}
@@ -0,0 +1,357 @@
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Load test of the order, reference data and profile clients against in-process
+ * stubs of their services.
+ *
+ * Every endpoint of {@link ClientEndpoints} is stubbed, with the latency of its
+ * downstream service and payloads of the configured sizes, and a
+ * {@link LoadHarness} drives the production traffic mix through the
+ * {@link OrderClient}, {@link OrderReferenceDataClient} and
+ * {@link ProfileClient} beans of the {@link LoadTestConfiguration}: their Hystrix
+ * commands, caches and stale value fallbacks, over the same exchanges, pooled
+ * transport, concurrency limiters and endpoint metrics as the application. The
+ * report ends with the pool waits of each transport group, to size the pools.
+ *
+ * Configured with system properties:
+ * <ul>
+ * <li>load.rate: interactions per second, 200</li>
+ * <li>load.warmup, load.duration: seconds of warm up and of measurement, 10 and
+ * 60</li>
+ * <li>load.workers: threads running the interactions, 200</li>
+ * <li>load.mix: weight of each scenario,
+ * order-entry=20,order-view=40,typeahead=35,bulk-import=5</li>
+ * <li>load.latency.order, load.latency.reference-data,
+ * load.latency.profile-location, load.latency.profile-customer: latency of
+ * each service as median:p99 in milliseconds</li>
+ * <li>load.list-size: elements of the order view lists and typeahead pages,
+ * 20</li>
+ * <li>load.bulk-size: parties per bulk import, a fifth of them repeated, 1000,
+ * sent in chunks of profile.client.profile-details-chunk-size</li>
+ * <li>load.max-total, load.max-per-route: connections of each transport
+ * group, 200 and 50</li>
+ * <li>load.concurrency-limit: whether the adaptive concurrency limits apply,
+ * true</li>
+ * <li>load.isolation: Hystrix isolation of the client commands, SEMAPHORE as
+ * the clients set it or THREAD, whose pools are sized by
+ * hystrix.threadpool.default.coreSize</li>
+ * </ul>
+ * Any other client property, client.transport.groups.order.read-timeout for
+ * instance, can be given as a system property too.
+ *
+ */
+@Slf4j
+public class LoadTest {
+
+	private static final String DEFAULT_MIX = "order-entry=20,order-view=40,typeahead=35,bulk-import=5";
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+			.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+	private final int listSize = Integer.getInteger("load.list-size", 20);
+
+	private final int bulkSize = Integer.getInteger("load.bulk-size", 1000);
+
+	private ClientStubServer stubServer;
+
+	private ConfigurableApplicationContext context;
+
+	private OrderClient orderClient;
+
+	private OrderReferenceDataClient referenceDataClient;
+
+	private ProfileClient profileClient;
+
+	private ProfileDetailsBatchClient profileDetailsBatchClient;
+
+	private List<ProfileRequestDTO> bulkRequests;
+
+	/**
+	 * @param args
+	 * @throws Exception
+	 */
+	public static void main(String[] args) throws Exception {
+		LoadTest loadTest = new LoadTest();
+		try {
+			loadTest.start();
+			List<LoadScenario> scenarios = loadTest.scenarios(System.getProperty("load.mix", DEFAULT_MIX));
+			double rate = Double.parseDouble(System.getProperty("load.rate", "200"));
+			LoadHarness harness = new LoadHarness(scenarios, rate, Integer.getInteger("load.workers", 200));
+			LoadHarness.Result result = harness.run(Long.getLong("load.warmup", 10),
+					Long.getLong("load.duration", 60));
+			result.print(System.out);
+			loadTest.printPoolWaits();
+		} finally {
+			loadTest.stop();
+		}
+	}
+
+	private void start() throws IOException {
+		stubServer = new ClientStubServer(0, Runtime.getRuntime().availableProcessors() * 2);
+		stubEndpoints();
+
+		String isolation = System.getProperty("load.isolation");
+		if (isolation != null) {
+			isolate(isolation);
+		}
+		ClientTransportProperties.Transport transport = new ClientTransportProperties.Transport();
+		Map<Downstream, String> urls = new EnumMap<>(Downstream.class);
+		for (Downstream downstream : Downstream.values()) {
+			urls.put(downstream, stubServer.getBaseURL());
+		}
+		context = LoadTestConfiguration.run(urls,
+				"client.transport.defaults.max-total=" + Integer.getInteger("load.max-total", transport.getMaxTotal()),
+				"client.transport.defaults.max-per-route="
+						+ Integer.getInteger("load.max-per-route", transport.getMaxPerRoute()),
+				"client.concurrency-limit.enabled=" + System.getProperty("load.concurrency-limit", "true"));
+		orderClient = context.getBean(OrderClient.class);
+		referenceDataClient = context.getBean(OrderReferenceDataClient.class);
+		profileClient = context.getBean(ProfileClient.class);
+		profileDetailsBatchClient = context.getBean(ProfileDetailsBatchClient.class);
+	}
+
+	/**
+	 * Set the isolation of every client command, as a property of its command
+	 * key, which takes precedence over the @DefaultProperties of the clients
+	 *
+	 * @param strategy
+	 */
+	private static void isolate(String strategy) {
+		for (Class<?> client : Arrays.asList(OrderClient.class, OrderReferenceDataClient.class, ProfileClient.class)) {
+			for (Method method : client.getDeclaredMethods()) {
+				if (method.isAnnotationPresent(HystrixCommand.class)) {
+					System.setProperty("hystrix.command." + method.getName() + ".execution.isolation.strategy",
+							strategy);
+				}
+			}
+		}
+		log.info("Client commands isolated by {}", strategy);
+	}
+
+	private void stop() throws IOException {
+		if (context != null) {
+			context.close();
+		}
+		if (stubServer != null) {
+			stubServer.close();
+		}
+	}
+
+	private void stubEndpoints() throws IOException {
+		Map<String, Object> acknowledgement = Collections.singletonMap("status", "SUCCESS");
+		for (Endpoint endpoint : ClientEndpoints.all()) {
+			stubServer.respond(endpoint, acknowledgement, latency(endpoint.getDownstream()));
+		}
+		respond(ClientEndpoints.ORDER_CREATION, order());
+		respond(ClientEndpoints.CHARGES_BY_ORDER_ID, list(listSize, LoadTest::charge));
+		respond(ClientEndpoints.COMMENTS_BY_ORDER_ID, list(listSize, LoadTest::comment));
+		respond(ClientEndpoints.REFERENCE_NUMBERS_BY_ORDER_ID, list(listSize, LoadTest::referenceNumber));
+		respond(ClientEndpoints.COMMENT_TYPES, Collections.singletonMap("_embedded",
+				Collections.singletonMap("commentTypes", list(listSize, LoadTest::commentType))));
+		respond(ClientEndpoints.CITY_TYPE_AHEAD_BY_CITY, page(list(listSize, LoadTest::city)));
+		respond(ClientEndpoints.PROFILE_TYPE_AHEAD_BY_CRITERIA, page(list(listSize, LoadTest::profile)));
+		respond(ClientEndpoints.EXIT_PORTS, Collections.emptyList());
+		respond(ClientEndpoints.ENTRY_PORTS, Collections.emptyList());
+		respond(ClientEndpoints.ENTRY_PORTS_BY_EXIT_PORT, Collections.emptyList());
+
+		List<Map<String, Object>> requests = new ArrayList<>();
+		Map<String, Object> profileDetails = new LinkedHashMap<>();
+		int distinctParties = Math.max(1, bulkSize - bulkSize / 5);
+		for (int i = 0; i < bulkSize; i++) {
+			String code = "CODE" + i % distinctParties;
+			requests.add(Collections.singletonMap("code", code));
+			profileDetails.putIfAbsent(code, Collections.singletonList(profile(i % distinctParties)));
+		}
+		bulkRequests = OBJECT_MAPPER.convertValue(requests, new TypeReference<List<ProfileRequestDTO>>() {
+		});
+		respond(ClientEndpoints.PROFILE_DETAILS, profileDetails);
+	}
+
+	private void respond(Endpoint endpoint, Object body) throws IOException {
+		stubServer.respond(endpoint, body, latency(endpoint.getDownstream()));
+	}
+
+	private static LatencyDistribution latency(Downstream downstream) {
+		String name = downstream.name().toLowerCase(Locale.ROOT).replace('_', '-');
+		String defaults = downstream == Downstream.REFERENCE_DATA ? "5:20" : "15:80";
+		return LatencyDistribution.parse(System.getProperty("load.latency." + name, defaults));
+	}
+
+	private List<LoadScenario> scenarios(String mix) {
+		Map<String, Integer> weights = new HashMap<>();
+		for (String entry : mix.split(",")) {
+			String[] nameAndWeight = entry.trim().split("=");
+			weights.put(nameAndWeight[0], Integer.valueOf(nameAndWeight[1]));
+		}
+		List<LoadScenario> scenarios = Arrays.asList(
+				new LoadScenario("order-entry", weights.getOrDefault("order-entry", 0), this::orderEntry),
+				new LoadScenario("order-view", weights.getOrDefault("order-view", 0), this::orderView),
+				new LoadScenario("typeahead", weights.getOrDefault("typeahead", 0), this::typeahead),
+				new LoadScenario("bulk-import", weights.getOrDefault("bulk-import", 0), this::bulkImport));
+		log.info("Traffic mix {}", weights);
+		return scenarios;
+	}
+
+	/**
+	 * Create an order, then add its charges, comments and stops, with a comment
+	 * type lookup for the comment
+	 */
+	private void orderEntry() {
+		orderClient.orderCreation(OBJECT_MAPPER.convertValue(order(), Order.class));
+		orderClient.saveOrderCharge("{\"orderID\":1001,\"chargeCode\":\"FUEL\",\"amount\":125.40}");
+		referenceDataClient.findAllCommentTypes();
+		orderClient.saveOrderComment("{\"orderID\":1001,\"commentTypeCode\":\"CT1\",\"comment\":\"LOAD TEST\"}");
+		orderClient.saveStop("{\"orderID\":1001,\"stopSequenceNumber\":1,\"locationCode\":\"LOWAR\"}");
+	}
+
+	/**
+	 * Read the charges, comments and reference numbers of an order
+	 */
+	private void orderView() {
+		int orderId = ThreadLocalRandom.current().nextInt(1, 1000000);
+		orderClient.findChargesByOrderId(orderId);
+		orderClient.findCommentsByOrderId(orderId);
+		orderClient.findReferenceNumbersByOrderId(orderId);
+	}
+
+	/**
+	 * Look up a city then a customer as typed
+	 */
+	private void typeahead() {
+		profileClient.findOriginDestCityPageByCity("LOW", listSize, 0);
+		profileClient.findProfilePageByCriteria("WAL", "Bill To", 0, listSize, true, "Billing", "true");
+	}
+
+	/**
+	 * Resolve the profile details of a batch of imported orders through the
+	 * batch client, in the bulk lane as an EDI import does
+	 *
+	 * @throws URISyntaxException
+	 */
+	private void bulkImport() throws URISyntaxException {
+		try (ClientCallContext.Scope scope = ClientCallContext.withPriority(Priority.BULK)) {
+			profileDetailsBatchClient.findProfileDetails(bulkRequests);
+		}
+	}
+
+	private void printPoolWaits() {
+		MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+		for (Timer timer : meterRegistry.find("client.transport.pool.wait").timers()) {
+			System.out.printf("Pool %-14s %-11s wait mean %.3f ms, max %.3f ms over %d leases%n",
+					timer.getId().getTag("group"), timer.getId().getTag("lane"), timer.mean(TimeUnit.MILLISECONDS),
+					timer.max(TimeUnit.MILLISECONDS), timer.count());
+		}
+	}
+
+	private static List<Map<String, Object>> list(int size, IntFunction<Map<String, Object>> element) {
+		List<Map<String, Object>> list = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			list.add(element.apply(i));
+		}
+		return list;
+	}
+
+	private static Map<String, Object> page(List<Map<String, Object>> content) {
+		Map<String, Object> page = new LinkedHashMap<>();
+		page.put("content", content);
+		page.put("number", 0);
+		page.put("size", content.size());
+		page.put("numberOfElements", content.size());
+		page.put("totalElements", content.size() * 10L);
+		page.put("totalPages", 10);
+		page.put("first", true);
+		page.put("last", false);
+		return page;
+	}
+
+	private static Map<String, Object> order() {
+		Map<String, Object> order = new LinkedHashMap<>();
+		order.put("orderID", 1001);
+		order.put("orderStatus", "Pending");
+		order.put("billToCode", "CODE1");
+		order.put("serviceOfferingCode", "JBI");
+		order.put("transitModeCode", "Rail");
+		return order;
+	}
+
+	private static Map<String, Object> charge(int i) {
+		Map<String, Object> charge = new LinkedHashMap<>();
+		charge.put("chargeID", 7000 + i);
+		charge.put("chargeCode", "FUEL");
+		charge.put("amount", 100 + i);
+		charge.put("currencyCode", "USD");
+		return charge;
+	}
+
+	private static Map<String, Object> comment(int i) {
+		Map<String, Object> comment = new LinkedHashMap<>();
+		comment.put("commentID", 8000 + i);
+		comment.put("commentTypeCode", "CT" + i);
+		comment.put("commentText", "COMMENT " + i + " OF THE ORDER");
+		return comment;
+	}
+
+	private static Map<String, Object> referenceNumber(int i) {
+		Map<String, Object> referenceNumber = new LinkedHashMap<>();
+		referenceNumber.put("referenceNumberID", 9000 + i);
+		referenceNumber.put("referenceNumberTypeCode", "PO");
+		referenceNumber.put("referenceNumberValue", "PO" + (100000 + i));
+		return referenceNumber;
+	}
+
+	private static Map<String, Object> commentType(int i) {
+		Map<String, Object> commentType = new LinkedHashMap<>();
+		commentType.put("commentTypeCode", "CT" + i);
+		commentType.put("commentTypeDescription", "COMMENT TYPE " + i);
+		return commentType;
+	}
+
+	private static Map<String, Object> city(int i) {
+		Map<String, Object> city = new LinkedHashMap<>();
+		city.put("cityID", 100000 + i);
+		city.put("city", "LOWELL" + i);
+		city.put("state", "AR");
+		city.put("zipcode", String.valueOf(72700 + i));
+		city.put("country", "USA");
+		return city;
+	}
+
+	private static Map<String, Object> profile(int i) {
+		Map<String, Object> profile = new LinkedHashMap<>();
+		profile.put("partyID", 500000 + i);
+		profile.put("code", "CODE" + i);
+		profile.put("name", "CUSTOMER NAME " + i);
+		profile.put("roletype", "Bill To");
+		profile.put("addressLine1", i + " MAIN STREET");
+		profile.put("city", "LOWELL");
+		profile.put("state", "AR");
+		profile.put("zipcode", "72745");
+		profile.put("country", "USA");
+		return profile;
+	}
+}
@@ -0,0 +1,128 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+import com.netflix.hystrix.contrib.javanica.aop.aspectj.HystrixCommandAspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Minimal application context of the {@link OrderClient},
+ * {@link OrderReferenceDataClient} and {@link ProfileClient} beans, run by the
+ * {@link LoadTest} and the {@link TrafficReplayer}: the clients with the
+ * configurations and components they use, the Hystrix aspect and caching, the
+ * RestTemplates the application defines and the URL of each service, given by
+ * the load.url.order, load.url.reference-data, load.url.profile-customer and
+ * load.url.profile-location properties. The caches are the two-tier ones; the
+ * traffic is captured when client.traffic-capture.enabled is set.
+ *
+ */
+@Configuration
+@EnableAspectJAutoProxy
+@EnableCaching
+@EnableConfigurationProperties
+@Import({ OrderClient.class, OrderReferenceDataClient.class, ProfileClient.class, PortGraph.class,
+		ProfileDetailsBatchClient.class, EquipmentSpecificationValidator.class, CacheInvalidationBus.class,
+		CacheInvalidationProperties.class, DeltaUpdater.class, DeltaUpdateProperties.class,
+		ClientExchangeConfiguration.class, ClientExchangeProperties.class, ClientTransportConfiguration.class,
+		ClientTransportProperties.class, ConcurrencyLimiters.class, ConcurrencyLimitProperties.class,
+		EndpointMetrics.class, RequestHedger.class, ProfileClientConfiguration.class, ProfileClientProperties.class,
+		TwoTierCacheConfiguration.class, TwoTierCacheProperties.class, StaleOnErrorAspect.class,
+		StaleValueStore.class, StaleValueProperties.class, TrafficCaptureConfiguration.class,
+		TrafficCaptureProperties.class })
+public class LoadTestConfiguration {
+
+	/**
+	 * Start the context
+	 *
+	 * @param urls
+	 *            URL of each service
+	 * @param properties
+	 *            other properties, as name=value
+	 * @return
+	 */
+	public static ConfigurableApplicationContext run(Map<Downstream, String> urls, String... properties) {
+		List<String> allProperties = new ArrayList<>();
+		allProperties.add("client.cache.enabled=true");
+		allProperties.addAll(Arrays.asList(properties));
+		urls.forEach((downstream, url) -> allProperties
+				.add("load.url." + downstream.name().toLowerCase(Locale.ROOT).replace('_', '-') + "=" + url));
+		return new SpringApplicationBuilder(LoadTestConfiguration.class).web(WebApplicationType.NONE)
+				.bannerMode(Banner.Mode.OFF).properties(allProperties.toArray(new String[allProperties.size()]))
+				.run();
+	}
+
+	@Bean
+	public MeterRegistry meterRegistry() {
+		return new SimpleMeterRegistry();
+	}
+
+	@Bean
+	public HystrixCommandAspect hystrixCommandAspect() {
+		return new HystrixCommandAspect();
+	}
+
+	@Bean
+	public OrderProperties orderProperties(@Value("${load.url.order}") String baseURL) {
+		OrderProperties orderProperties = new OrderProperties();
+		orderProperties.setBaseURL(baseURL);
+		return orderProperties;
+	}
+
+	@Bean
+	public OrderReferenceDataProperties referenceDataProperties(
+			@Value("${load.url.reference-data}") String baseURL) {
+		OrderReferenceDataProperties referenceDataProperties = new OrderReferenceDataProperties();
+		referenceDataProperties.setBaseURL(baseURL);
+		return referenceDataProperties;
+	}
+
+	@Bean
+	public ProfileProperties profileProperties(@Value("${load.url.profile-customer}") String customerURL,
+			@Value("${load.url.profile-location}") String locationURL) {
+		ProfileProperties profileProperties = new ProfileProperties();
+		profileProperties.setCustomerURL(customerURL);
+		profileProperties.setLocationURL(locationURL);
+		return profileProperties;
+	}
+
+	@Bean
+	public RestTemplate orderRestTemplate() {
+		return new RestTemplate();
+	}
+
+	@Bean
+	public RestTemplate referenceDataRestTemplate() {
+		MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter(
+				Jackson2ObjectMapperBuilder.json().modulesToInstall(new Jackson2HalModule()).build());
+		converter.setSupportedMediaTypes(Arrays.asList(MediaTypes.HAL_JSON, MediaType.APPLICATION_JSON));
+		return new RestTemplate(Collections.singletonList(converter));
+	}
+
+	@Bean
+	public RestTemplate profileRestTemplate() {
+		return new RestTemplate();
+	}
+}
@@ -0,0 +1,324 @@
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Replays a {@link TrafficLog} captured by the {@link TrafficRecorder} on the
+ * client beans of the {@link LoadTestConfiguration}, against a
+ * {@link ClientStubServer}, at the captured pace or faster.
+ *
+ * A first pass over the calls of the log gives the stub the last response body
+ * of each path, captured in JSON or Smile, and a latency distribution fitted on
+ * the captured latencies of the path, and finds the base URL each service was
+ * called at. The second pass
+ * invokes every captured client method with its captured arguments, at its
+ * captured start time divided by the speed, whatever the response times (open
+ * loop), so the replay goes through the Hystrix commands, caches and fallbacks
+ * of the clients as well as their transport. The report compares the captured
+ * and replayed latencies of each client method and ends with the cache hits and
+ * misses of the replay.
+ *
+ * Calls made outside of the client methods, the scheduled refreshes for
+ * instance, are not replayed as such; the components making them run in the
+ * replay context too.
+ *
+ * Usage: TrafficReplayer log-file [speed]
+ *
+ */
+@Slf4j
+public class TrafficReplayer {
+
+	// invocations are logged as they complete, so starts are reordered over this window
+	private static final long REORDER_WINDOW_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+	private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+	private static final Class<?>[] CLIENTS = { OrderClient.class, OrderReferenceDataClient.class,
+			ProfileClient.class, ProfileDetailsBatchClient.class };
+
+	private final ObjectMapper objectMapper = new ObjectMapper()
+			.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+	private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+	private final String file;
+
+	private final double speed;
+
+	private final Map<String, MethodStats> stats = new TreeMap<>();
+
+	/**
+	 * @param file
+	 *            the traffic log
+	 * @param speed
+	 *            1 to replay at the captured pace, 2 twice as fast...
+	 */
+	public TrafficReplayer(String file, double speed) {
+		this.file = file;
+		this.speed = speed;
+	}
+
+	/**
+	 * @param args
+	 * @throws Exception
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length == 0) {
+			System.err.println("Usage: TrafficReplayer log-file [speed]");
+			return;
+		}
+		new TrafficReplayer(args[0], args.length > 1 ? Double.parseDouble(args[1]) : 1).run();
+	}
+
+	/**
+	 * Replay the log and print the report
+	 *
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public void run() throws IOException, InterruptedException {
+		try (ClientStubServer stubServer = new ClientStubServer(0, Runtime.getRuntime().availableProcessors() * 2)) {
+			Map<Downstream, String> urls = stubResponses(stubServer);
+			try (ConfigurableApplicationContext context = LoadTestConfiguration.run(urls)) {
+				long elapsed = replay(context);
+				print(elapsed, context.getBean(MeterRegistry.class));
+			}
+		}
+	}
+
+	private Map<Downstream, String> stubResponses(ClientStubServer stubServer) throws IOException {
+		Map<String, Endpoint> endpoints = new HashMap<>();
+		ClientEndpoints.all().forEach(endpoint -> endpoints.put(endpoint.getTemplate(), endpoint));
+		Map<Downstream, String> urls = new EnumMap<>(Downstream.class);
+		Map<String, JsonNode> bodies = new HashMap<>();
+		Map<String, Histogram> latencies = new HashMap<>();
+		try (TrafficLog.Reader reader = new TrafficLog.Reader(new FileInputStream(file))) {
+			for (TrafficRecord record = reader.next(); record != null; record = reader.next()) {
+				String path = path(record.getUri());
+				latencies.computeIfAbsent(path, key -> new Histogram(HIGHEST_MICROS, 2))
+						.recordValue(Math.min(HIGHEST_MICROS, record.getLatencyMicros()));
+				Endpoint endpoint = record.getTemplate() == null ? null : endpoints.get(record.getTemplate());
+				if (endpoint != null && !urls.containsKey(endpoint.getDownstream())) {
+					String prefix = prefix(path, endpoint.getTemplate());
+					if (prefix != null) {
+						urls.put(endpoint.getDownstream(), stubServer.getBaseURL() + prefix);
+					}
+				}
+				if (record.getResponseBody() != null && record.getResponseBody().length > 0) {
+					try {
+						bodies.put(path, readTree(record.getResponseBody()));
+					} catch (IOException e) {
+						log.debug("Response of {} is neither JSON nor Smile, served as a string", path);
+						String text = new String(record.getResponseBody(), StandardCharsets.UTF_8);
+						bodies.put(path, objectMapper.getNodeFactory().textNode(text));
+					}
+				}
+			}
+		}
+		for (Map.Entry<String, Histogram> entry : latencies.entrySet()) {
+			Histogram latency = entry.getValue();
+			stubServer.respond(entry.getKey(), bodies.getOrDefault(entry.getKey(), objectMapper.createObjectNode()),
+					LatencyDistribution.logNormal(latency.getValueAtPercentile(50) / 1e3,
+							latency.getValueAtPercentile(99) / 1e3));
+		}
+		for (Downstream downstream : Downstream.values()) {
+			urls.putIfAbsent(downstream, stubServer.getBaseURL());
+		}
+		log.info("Stubbed {} paths of {} under {}", latencies.size(), file, urls);
+		return urls;
+	}
+
+	private long replay(ConfigurableApplicationContext context) throws IOException, InterruptedException {
+		Map<String, Invoker> invokers = new HashMap<>();
+		for (Class<?> client : CLIENTS) {
+			Object bean = context.getBean(client);
+			for (Method method : client.getDeclaredMethods()) {
+				if (Modifier.isPublic(method.getModifiers()) && !Modifier.isStatic(method.getModifiers())) {
+					invokers.put(TrafficInvocation.key(method), new Invoker(bean, method));
+				}
+			}
+		}
+		Set<String> unknown = new HashSet<>();
+		ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "replay");
+			thread.setDaemon(true);
+			return thread;
+		});
+		PriorityQueue<TrafficInvocation> window = new PriorityQueue<>(
+				Comparator.comparingLong(TrafficInvocation::getStartMicros));
+		long start = System.nanoTime();
+		try (TrafficLog.Reader reader = new TrafficLog.Reader(new FileInputStream(file))) {
+			TrafficInvocation next = reader.nextInvocation();
+			while (next != null || !window.isEmpty()) {
+				while (next != null && (window.isEmpty()
+						|| next.getStartMicros() < window.peek().getStartMicros() + REORDER_WINDOW_MICROS)) {
+					window.add(next);
+					next = reader.nextInvocation();
+				}
+				TrafficInvocation invocation = window.poll();
+				MethodStats methodStats = stats.computeIfAbsent(invocation.getMethod(), key -> new MethodStats());
+				methodStats.captured.recordValue(Math.min(HIGHEST_MICROS, invocation.getLatencyMicros()));
+				if (invocation.isFailed()) {
+					methodStats.capturedFailures++;
+				}
+				Invoker invoker = invokers.get(invocation.getMethod());
+				if (invoker == null) {
+					if (unknown.add(invocation.getMethod())) {
+						log.warn("{} is not a client method of this version, not replayed", invocation.getMethod());
+					}
+					methodStats.errors.increment();
+					continue;
+				}
+				long intended = start + (long) (TimeUnit.MICROSECONDS.toNanos(invocation.getStartMicros()) / speed);
+				long wait;
+				while ((wait = intended - System.nanoTime()) > 0) {
+					LockSupport.parkNanos(wait);
+				}
+				executor.execute(() -> methodStats.invoke(invoker, invocation, intended));
+			}
+		}
+		executor.shutdown();
+		if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+			log.warn("Replayed invocations still running after the end of the log");
+			executor.shutdownNow();
+		}
+		return System.nanoTime() - start;
+	}
+
+	private void print(long elapsedNanos, MeterRegistry meterRegistry) {
+		long count = stats.values().stream().mapToLong(methodStats -> methodStats.captured.getTotalCount()).sum();
+		System.out.printf("Replayed %d client invocations in %.1fs at %.1fx speed%n", count, elapsedNanos / 1e9,
+				speed);
+		int width = stats.keySet().stream().mapToInt(String::length).max().orElse(0);
+		System.out.printf("%-" + width + "s %8s %8s %7s | %11s %11s | %11s %11s%n", "client method", "count",
+				"failed", "errors", "captured p50", "captured p99", "replayed p50", "replayed p99");
+		stats.forEach((method, methodStats) -> {
+			Histogram captured = methodStats.captured;
+			Histogram replayed = methodStats.replayed.getIntervalHistogram();
+			System.out.printf("%-" + width + "s %8d %8d %7d | %11.2f %11.2f | %11.2f %11.2f%n", method,
+					captured.getTotalCount(), methodStats.capturedFailures, methodStats.errors.sum(),
+					captured.getValueAtPercentile(50) / 1e3, captured.getValueAtPercentile(99) / 1e3,
+					replayed.getValueAtPercentile(50) / 1e3, replayed.getValueAtPercentile(99) / 1e3);
+		});
+		Map<String, Double> cacheCounts = new TreeMap<>();
+		for (Meter meter : meterRegistry.getMeters()) {
+			if (meter instanceof FunctionCounter && meter.getId().getName().startsWith("client.cache.")) {
+				String cache = meter.getId().getTag("cache");
+				cacheCounts.put(meter.getId().getName() + (cache == null ? "" : " " + cache),
+						((FunctionCounter) meter).count());
+			}
+		}
+		cacheCounts.forEach((name, value) -> System.out.printf("%-" + width + "s %8.0f%n", name, value));
+	}
+
+	private JsonNode readTree(byte[] body) throws IOException {
+		boolean smile = body.length >= 3 && body[0] == ':' && body[1] == ')' && body[2] == '\n';
+		return (smile ? smileMapper : objectMapper).readTree(body);
+	}
+
+	private static String path(String uri) {
+		int query = uri.indexOf('?');
+		return query < 0 ? uri : uri.substring(0, query);
+	}
+
+	/**
+	 * @param path
+	 *            path of a call
+	 * @param template
+	 *            template of its endpoint
+	 * @return the part of the path before the endpoint template, the path of
+	 *         the base URL of the service, null when not found
+	 */
+	private static String prefix(String path, String template) {
+		int end = template.length();
+		for (char c : new char[] { '{', '?' }) {
+			int index = template.indexOf(c);
+			if (index >= 0 && index < end) {
+				end = index;
+			}
+		}
+		int at = path.indexOf(template.substring(0, end));
+		return at < 0 ? null : path.substring(0, at);
+	}
+
+	private final class Invoker {
+
+		private final Object bean;
+
+		private final Method method;
+
+		private final Type[] parameterTypes;
+
+		private Invoker(Object bean, Method method) {
+			this.bean = bean;
+			this.method = method;
+			this.parameterTypes = method.getGenericParameterTypes();
+		}
+
+		private void invoke(byte[] arguments) throws Exception {
+			JsonNode values = objectMapper.readTree(arguments);
+			Object[] args = new Object[parameterTypes.length];
+			for (int i = 0; i < args.length; i++) {
+				args[i] = objectMapper.convertValue(values.get(i), objectMapper.constructType(parameterTypes[i]));
+			}
+			try {
+				method.invoke(bean, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+			}
+		}
+	}
+
+	private static final class MethodStats {
+
+		private final Histogram captured = new Histogram(HIGHEST_MICROS, 2);
+
+		private final Recorder replayed = new Recorder(HIGHEST_MICROS, 2);
+
+		private final LongAdder errors = new LongAdder();
+
+		private long capturedFailures;
+
+		private void invoke(Invoker invoker, TrafficInvocation invocation, long intended) {
+			try {
+				invoker.invoke(invocation.getArguments());
+			} catch (Exception e) {
+				errors.increment();
+				log.debug("Replay of {} failed", invocation.getMethod(), e);
+			}
+			replayed.recordValue(
+					Math.min(HIGHEST_MICROS, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended)));
+		}
+	}
+}
@@ -0,0 +1,251 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local stand-in for the order, reference data and profile services.
+ *
+ * Serves a canned body per path, in Smile when the Accept header lists
+ * application/x-jackson-smile and in JSON otherwise, so a client can be run
+ * against both codecs without the real services. The bytes served per codec are
+ * counted to compare the payload sizes.
+ *
+ * A body can also be served for every path of an {@link Endpoint} template,
+ * after a delay drawn from a {@link LatencyDistribution}. Delayed responses are
+ * written from a scheduler, so a slow stub does not hold the serving threads.
+ *
+ */
+@Slf4j
+public class ClientStubServer implements AutoCloseable {
+
+	private static final String SMILE = "application/x-jackson-smile";
+
+	private static final Pattern TEMPLATE_VARIABLE = Pattern.compile("\\{[^/]+?\\}");
+
+	private static final int BACKLOG = 1024;
+
+	static {
+		// the JDK server leaves Nagle's algorithm on, so a response written in two parts waits for the
+		// delayed ACK of the client, some 40 ms per call; read when the first server is created
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+	}
+
+	private final ObjectMapper jsonMapper = new ObjectMapper();
+
+	private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+	private final Map<String, Payload> payloads = new ConcurrentHashMap<>();
+
+	private final List<TemplatePayload> templatePayloads = new CopyOnWriteArrayList<>();
+
+	private final LongAdder jsonBytes = new LongAdder();
+
+	private final LongAdder smileBytes = new LongAdder();
+
+	private final HttpServer server;
+
+	private final ExecutorService executor;
+
+	private final ScheduledExecutorService delayer = Executors.newScheduledThreadPool(2);
+
+	/**
+	 * @param port
+	 *            port to listen on, 0 for any free port
+	 * @param threads
+	 *            number of threads serving the requests
+	 * @throws IOException
+	 */
+	public ClientStubServer(int port, int threads) throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", port), BACKLOG);
+		executor = Executors.newFixedThreadPool(threads);
+		server.setExecutor(executor);
+		server.createContext("/", this::handle);
+		server.start();
+	}
+
+	/**
+	 * Serve the body for the path, whatever the method and query
+	 *
+	 * @param path
+	 * @param body
+	 * @throws JsonProcessingException
+	 */
+	public void respond(String path, Object body) throws JsonProcessingException {
+		respond(path, body, LatencyDistribution.NONE);
+	}
+
+	/**
+	 * Serve the body for the path, whatever the method and query, after a delay
+	 * drawn from the latency distribution
+	 *
+	 * @param path
+	 * @param body
+	 * @param latency
+	 * @throws JsonProcessingException
+	 */
+	public void respond(String path, Object body, LatencyDistribution latency) throws JsonProcessingException {
+		payloads.put(path, payload(path, body, latency));
+	}
+
+	/**
+	 * Serve the body for every path matching the endpoint template, whatever the
+	 * method and query, after a delay drawn from the latency distribution
+	 *
+	 * @param endpoint
+	 * @param body
+	 * @param latency
+	 * @throws JsonProcessingException
+	 */
+	public void respond(Endpoint endpoint, Object body, LatencyDistribution latency) throws JsonProcessingException {
+		String path = endpoint.getTemplate();
+		int query = path.indexOf('?');
+		if (query >= 0) {
+			path = path.substring(0, query);
+		}
+		StringBuilder regex = new StringBuilder();
+		Matcher matcher = TEMPLATE_VARIABLE.matcher(path);
+		int last = 0;
+		while (matcher.find()) {
+			regex.append(Pattern.quote(path.substring(last, matcher.start()))).append("[^/]+");
+			last = matcher.end();
+		}
+		regex.append(Pattern.quote(path.substring(last)));
+		Pattern pattern = Pattern.compile(regex.toString());
+		templatePayloads.removeIf(templatePayload -> templatePayload.pattern.pattern().equals(pattern.pattern()));
+		templatePayloads.add(new TemplatePayload(pattern, payload(path, body, latency)));
+	}
+
+	/**
+	 * @return base URL of the server
+	 */
+	public String getBaseURL() {
+		return "http://localhost:" + server.getAddress().getPort();
+	}
+
+	public long getJsonBytes() {
+		return jsonBytes.sum();
+	}
+
+	public long getSmileBytes() {
+		return smileBytes.sum();
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		delayer.shutdownNow();
+		executor.shutdownNow();
+	}
+
+	private Payload payload(String path, Object body, LatencyDistribution latency) throws JsonProcessingException {
+		Payload payload = new Payload(jsonMapper.writeValueAsBytes(body), smileMapper.writeValueAsBytes(body),
+				latency);
+		log.debug("Stub payload of {}: {} bytes in JSON, {} bytes in Smile, {} latency", path, payload.json.length,
+				payload.smile.length, latency);
+		return payload;
+	}
+
+	private Payload find(String path) {
+		Payload payload = payloads.get(path);
+		if (payload != null) {
+			return payload;
+		}
+		for (TemplatePayload templatePayload : templatePayloads) {
+			if (templatePayload.pattern.matcher(path).matches()) {
+				return templatePayload.payload;
+			}
+		}
+		return null;
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		Payload payload = find(exchange.getRequestURI().getPath());
+		long delay = payload == null ? 0 : payload.latency.sampleNanos();
+		if (delay <= 0) {
+			send(exchange, payload);
+			return;
+		}
+		delayer.schedule(() -> {
+			try {
+				send(exchange, payload);
+			} catch (IOException e) {
+				log.debug("Stub response of {} failed", exchange.getRequestURI(), e);
+			}
+		}, delay, TimeUnit.NANOSECONDS);
+	}
+
+	private void send(HttpExchange exchange, Payload payload) throws IOException {
+		try {
+			if (payload == null) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			boolean smile = acceptsSmile(exchange.getRequestHeaders());
+			byte[] body = smile ? payload.smile : payload.json;
+			exchange.getResponseHeaders().set("Content-Type", smile ? SMILE : MediaType.APPLICATION_JSON_VALUE);
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+			(smile ? smileBytes : jsonBytes).add(body.length);
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private static boolean acceptsSmile(Headers headers) {
+		List<String> accept = headers.get("Accept");
+		return accept != null && accept.stream().anyMatch(value -> value.contains(SMILE));
+	}
+
+	private static final class Payload {
+
+		private final byte[] json;
+
+		private final byte[] smile;
+
+		private final LatencyDistribution latency;
+
+		private Payload(byte[] json, byte[] smile, LatencyDistribution latency) {
+			this.json = json;
+			this.smile = smile;
+			this.latency = latency;
+		}
+	}
+
+	private static final class TemplatePayload {
+
+		private final Pattern pattern;
+
+		private final Payload payload;
+
+		private TemplatePayload(Pattern pattern, Payload payload) {
+			this.pattern = pattern;
+			this.payload = payload;
+		}
+	}
+}
@@ -0,0 +1,82 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency added by the {@link ClientStubServer} before answering a request.
+ *
+ * Service latencies are long tailed, so the delay is drawn from a log-normal
+ * distribution fitted on a median and a 99th percentile, which gives a
+ * realistic tail with two easy to read numbers.
+ *
+ */
+public final class LatencyDistribution {
+
+	public static final LatencyDistribution NONE = new LatencyDistribution(0, 0);
+
+	// 99th percentile of the standard normal distribution
+	private static final double Z_99 = 2.326;
+
+	private final double medianNanos;
+
+	private final double sigma;
+
+	private LatencyDistribution(double medianNanos, double sigma) {
+		this.medianNanos = medianNanos;
+		this.sigma = sigma;
+	}
+
+	/**
+	 * @param millis
+	 * @return a constant latency
+	 */
+	public static LatencyDistribution fixed(double millis) {
+		return new LatencyDistribution(millis * TimeUnit.MILLISECONDS.toNanos(1), 0);
+	}
+
+	/**
+	 * @param medianMillis
+	 * @param p99Millis
+	 *            99th percentile, not below the median
+	 * @return a log-normal latency with the given median and 99th percentile
+	 */
+	public static LatencyDistribution logNormal(double medianMillis, double p99Millis) {
+		if (medianMillis <= 0) {
+			return NONE;
+		}
+		double sigma = Math.log(Math.max(p99Millis, medianMillis) / medianMillis) / Z_99;
+		return new LatencyDistribution(medianMillis * TimeUnit.MILLISECONDS.toNanos(1), sigma);
+	}
+
+	/**
+	 * @param spec
+	 *            median and 99th percentile in milliseconds as median:p99, or a
+	 *            single constant latency
+	 * @return
+	 */
+	public static LatencyDistribution parse(String spec) {
+		String[] values = spec.trim().split(":");
+		if (values.length == 1) {
+			return fixed(Double.parseDouble(values[0]));
+		}
+		return logNormal(Double.parseDouble(values[0]), Double.parseDouble(values[1]));
+	}
+
+	/**
+	 * @return a latency drawn from the distribution, in nanoseconds
+	 */
+	public long sampleNanos() {
+		if (medianNanos == 0) {
+			return 0;
+		}
+		if (sigma == 0) {
+			return (long) medianNanos;
+		}
+		return (long) (medianNanos * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+	}
+
+	@Override
+	public String toString() {
+		double median = medianNanos / TimeUnit.MILLISECONDS.toNanos(1);
+		return sigma == 0 ? median + "ms" : median + "ms median, " + median * Math.exp(sigma * Z_99) + "ms p99";
+	}
+}